@@ -0,0 +1,65 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class selects the executor of asynchronous validations from the General "Async_executor" configuration:
+ * "virtual" runs each validation on its own virtual thread, which requires Java 21 or later,
+ * "platform" runs validations on the shared blocking pool of platform threads,
+ * and "auto", the default, uses virtual threads when the JVM supports them.
+ * Validations block on disk reads, temporary files and plugin processes, so virtual threads allow many of them
+ * in flight without as many platform threads.
+ */
+final class AsyncExecutors {
+    private static final ExecutorService VIRTUAL_THREADS = newVirtualThreadExecutor();
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * Return the executor of an execution mode
+     * @param mode (String) "auto", "virtual" or "platform"
+     * @return Executor (Executor) the executor running asynchronous validations
+     * @throws IllegalArgumentException if the mode is unknown, or virtual threads are not supported
+     */
+    static Executor forMode(String mode) {
+        switch (mode) {
+            case "auto":
+                return VIRTUAL_THREADS != null ? VIRTUAL_THREADS : ValidationBatch.blockingPool();
+            case "virtual":
+                if (VIRTUAL_THREADS == null) {
+                    throw new IllegalArgumentException("Async_executor virtual requires a JVM supporting virtual threads.");
+                }
+                return VIRTUAL_THREADS;
+            case "platform":
+                return ValidationBatch.blockingPool();
+            default:
+                throw new IllegalArgumentException("Async_executor must be one of: auto, virtual, platform.");
+        }
+    }
+
+    /**
+     * Check whether virtual threads are available
+     * @return boolean (boolean) true if the JVM supports virtual threads
+     */
+    static boolean isVirtualThreadsSupported() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Create a virtual thread per task executor through reflection, as the library still runs on Java 8
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
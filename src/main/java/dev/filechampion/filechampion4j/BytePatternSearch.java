@@ -0,0 +1,229 @@
+package dev.filechampion.filechampion4j;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class searches byte content for one or more patterns, compiled once when the validations are loaded.
+ * A single pattern is searched with Boyer-Moore-Horspool, which skips up to the pattern length per comparison,
+ * so a miss on a large file does not compare every byte.
+ * Several patterns are searched together with an Aho-Corasick automaton, in a single pass over the content
+ * whatever the number of patterns.
+ * Instances are immutable and shared by all validations.
+ */
+final class BytePatternSearch {
+    private static final int ALPHABET_SIZE = 256;
+
+    private final byte[] pattern;
+    private final int[] shifts;
+    private final int[] transitions;
+    private final boolean[] accepting;
+    private final int maxPatternLength;
+
+    /**
+     * Compiles the search of a single pattern
+     */
+    private BytePatternSearch(byte[] pattern) {
+        this.pattern = pattern;
+        this.maxPatternLength = pattern.length;
+        this.shifts = new int[ALPHABET_SIZE];
+        Arrays.fill(shifts, pattern.length);
+        for (int i = 0; i < pattern.length - 1; i++) {
+            shifts[pattern[i] & 0xff] = pattern.length - 1 - i;
+        }
+        this.transitions = null;
+        this.accepting = null;
+    }
+
+    /**
+     * Compiles the search of several patterns into a deterministic automaton
+     */
+    private BytePatternSearch(List<byte[]> patterns) {
+        this.pattern = null;
+        this.shifts = null;
+        int maxLength = 0;
+        int stateCount = 1;
+        for (byte[] item : patterns) {
+            maxLength = Math.max(maxLength, item.length);
+            stateCount += item.length;
+        }
+        this.maxPatternLength = maxLength;
+
+        // Build the trie of the patterns, -1 marking a missing edge
+        int[] table = new int[stateCount * ALPHABET_SIZE];
+        Arrays.fill(table, -1);
+        boolean[] accept = new boolean[stateCount];
+        int states = 1;
+        for (byte[] item : patterns) {
+            int state = 0;
+            for (byte b : item) {
+                int edge = state * ALPHABET_SIZE + (b & 0xff);
+                if (table[edge] == -1) {
+                    table[edge] = states++;
+                }
+                state = table[edge];
+            }
+            accept[state] = true;
+        }
+
+        // Resolve the missing edges through the failure links, breadth first
+        int[] failure = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+            int next = table[c];
+            if (next == -1) {
+                table[c] = 0;
+            } else {
+                failure[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            accept[state] |= accept[failure[state]];
+            for (int c = 0; c < ALPHABET_SIZE; c++) {
+                int edge = state * ALPHABET_SIZE + c;
+                int next = table[edge];
+                if (next == -1) {
+                    table[edge] = table[failure[state] * ALPHABET_SIZE + c];
+                } else {
+                    failure[next] = table[failure[state] * ALPHABET_SIZE + c];
+                    queue[tail++] = next;
+                }
+            }
+        }
+        this.transitions = Arrays.copyOf(table, states * ALPHABET_SIZE);
+        this.accepting = Arrays.copyOf(accept, states);
+    }
+
+    /**
+     * Compiles the search of the given patterns
+     * @param patterns (List) the patterns to search, any of them matching is a match
+     * @return BytePatternSearch (BytePatternSearch) the compiled search, or null if there are no patterns
+     * @throws IllegalArgumentException if one of the patterns is empty
+     */
+    static BytePatternSearch compile(List<byte[]> patterns) {
+        List<byte[]> distinct = new ArrayList<>();
+        for (byte[] item : patterns) {
+            if (item == null || item.length == 0) {
+                throw new IllegalArgumentException("Search patterns cannot be null or empty");
+            }
+            boolean duplicate = false;
+            for (byte[] known : distinct) {
+                duplicate |= Arrays.equals(known, item);
+            }
+            if (!duplicate) {
+                distinct.add(item);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return null;
+        }
+        return distinct.size() == 1 ? new BytePatternSearch(distinct.get(0)) : new BytePatternSearch(distinct);
+    }
+
+    /**
+     * Get the length of the longest pattern, which is the overlap needed to find matches spanning two chunks
+     * @return int (int) the length of the longest pattern
+     */
+    int getMaxPatternLength() {
+        return maxPatternLength;
+    }
+
+    /**
+     * Check whether any of the patterns occurs in a range of an array
+     * @param data (byte[]) the content to search
+     * @param from (int) the index to start searching at
+     * @param to (int) the index to stop searching at, exclusive
+     * @return boolean (boolean) true if a pattern was found entirely within the range
+     */
+    boolean find(byte[] data, int from, int to) {
+        if (pattern != null) {
+            return findSingle(data, from, to);
+        }
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = transitions[state * ALPHABET_SIZE + (data[i] & 0xff)];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether any of the patterns occurs in a range of a buffer, by absolute index
+     * @param buffer (ByteBuffer) the content to search, its position and limit are left unchanged
+     * @param from (int) the index to start searching at
+     * @param to (int) the index to stop searching at, exclusive
+     * @return boolean (boolean) true if a pattern was found entirely within the range
+     */
+    boolean find(ByteBuffer buffer, int from, int to) {
+        if (buffer.hasArray()) {
+            return find(buffer.array(), buffer.arrayOffset() + from, buffer.arrayOffset() + to);
+        }
+        if (pattern != null) {
+            return findSingle(buffer, from, to);
+        }
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            state = transitions[state * ALPHABET_SIZE + (buffer.get(i) & 0xff)];
+            if (accepting[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Boyer-Moore-Horspool search of the single pattern in an array
+     */
+    private boolean findSingle(byte[] data, int from, int to) {
+        int last = pattern.length - 1;
+        byte lastByte = pattern[last];
+        for (int i = from; i <= to - pattern.length; ) {
+            byte b = data[i + last];
+            if (b == lastByte) {
+                int j = last - 1;
+                while (j >= 0 && data[i + j] == pattern[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return true;
+                }
+            }
+            i += shifts[b & 0xff];
+        }
+        return false;
+    }
+
+    /**
+     * Boyer-Moore-Horspool search of the single pattern in a buffer
+     */
+    private boolean findSingle(ByteBuffer buffer, int from, int to) {
+        int last = pattern.length - 1;
+        byte lastByte = pattern[last];
+        for (int i = from; i <= to - pattern.length; ) {
+            byte b = buffer.get(i + last);
+            if (b == lastByte) {
+                int j = last - 1;
+                while (j >= 0 && buffer.get(i + j) == pattern[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return true;
+                }
+            }
+            i += shifts[b & 0xff];
+        }
+        return false;
+    }
+}
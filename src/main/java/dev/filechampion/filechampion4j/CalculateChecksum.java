@@ -1,28 +1,42 @@
 package dev.filechampion.filechampion4j;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class is used to calculate the checksums of a file.
- * It is optimized for large files and uses multiple threads to
- * calculate the checksum in parallel.
+ * The static getChecksums methods calculate several algorithms in a single pass over the data,
+ * fanning each buffer out to one worker per algorithm, so that the total time is close to the slowest digest.
+ * Channels are read with double buffering, the next buffer being read while the current one is digested.
+ * Tree hash algorithms ("SHA-256-TREE", see TreeMessageDigest) have their leaves digested in parallel across cores.
+ * The fast non-cryptographic checksums "CRC32C" and "XXHASH64" (see ChecksumMessageDigest) are calculated in the same pass.
+ * All work runs on a single bounded pool of daemon threads shared by every calculation.
  */
 public class CalculateChecksum {
-    private static final int MIN_CHUNK_SIZE = 1024 * 1024; // 0.5 MB
-    private static final int MAX_CHUNK_SIZE = 3 * 1024 * 1024; // 3 MB
-    private MessageDigest md;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024; // 64 KB
+    private static final int DEFAULT_FAN_OUT_MIN_SIZE = 1024 * 1024; // 1 MB
+    private static volatile int fanOutMinSize = DEFAULT_FAN_OUT_MIN_SIZE;
+    private static final int FAN_OUT_BUFFER_SIZE = 1024 * 1024; // 1 MB
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
     private final byte[] inputData;
-    private int byteSize;
 
     /**
      * Creates a new instance of the this class.
@@ -34,63 +48,394 @@ public class CalculateChecksum {
             throw new IllegalArgumentException("Input data must contain at least one byte.");
         }
         this.inputData = inputData;
-        this.byteSize = inputData.length;
     }
 
     /**
     * Calculates the checksum for the input data.
-    * @param hashAlgorithm (String) The hash algorithm to use. Must be one of: MD5, SHA-1, SHA-256, SHA-512.
+    * @param hashAlgorithm (String) The hash algorithm to use, e.g. MD5, SHA-1, SHA-256, SHA-512 or SHA-256-TREE.
     * @return (byte[]) The calculated checksum.
     * @throws NoSuchAlgorithmException Thrown if the algorithm is not available.
     * @throws InterruptedException Thrown if the thread is interrupted.
-    * @throws ExecutionException Thrown if the execution fails.
-    * @throws IOException Thrown if an I/O error occurs.
+    * @throws ExecutionException Never thrown, kept for compatibility.
+    * @throws IOException Never thrown, kept for compatibility.
     */
     public byte[] getChecksum(String hashAlgorithm) throws NoSuchAlgorithmException, InterruptedException, ExecutionException, IOException {
-        md = MessageDigest.getInstance(hashAlgorithm);
-        if (byteSize < MIN_CHUNK_SIZE * 2) {
-            return calculateSmallChecksum();
+        return getChecksums(inputData, Collections.singletonList(hashAlgorithm)).get(hashAlgorithm);
+    }
+
+    /**
+     * Calculates the checksums for all requested algorithms in a single pass over the input data.
+     * For large data, every algorithm but the first runs on a shared worker thread while the caller runs the first.
+     * @param inputData (byte[]) The input data to calculate the checksums for.
+     * @param hashAlgorithms (List) The hash algorithms to use, e.g. MD5, SHA-1, SHA-256, SHA-512.
+     * @return (Map) The calculated checksums by algorithm, in the order of hashAlgorithms.
+     * @throws NoSuchAlgorithmException Thrown if one of the algorithms is not available.
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting for the workers.
+     */
+    public static Map<String, byte[]> getChecksums(byte[] inputData, List<String> hashAlgorithms) throws NoSuchAlgorithmException, InterruptedException {
+        Map<String, byte[]> treeChecksums = new HashMap<>();
+        List<String> streamAlgorithms = new ArrayList<>();
+        for (String algorithm : hashAlgorithms) {
+            if (TreeMessageDigest.isTreeAlgorithm(algorithm) && inputData.length > TreeMessageDigest.LEAF_SIZE && PARALLELISM > 1) {
+                treeChecksums.put(algorithm, getTreeChecksum(inputData, algorithm));
+            } else {
+                streamAlgorithms.add(algorithm);
+            }
+        }
+        MessageDigest[] digests = newDigests(streamAlgorithms);
+        if (isFanOut(digests, inputData.length)) {
+            awaitAll(fanOut(digests, inputData, 0, inputData.length));
+        } else {
+            for (MessageDigest digest : digests) {
+                digest.update(inputData);
+            }
         }
-        return calculateChecksum() ;
+        return toChecksums(hashAlgorithms, streamAlgorithms, digests, treeChecksums);
     }
 
     /**
-     * Calculates the checksum for small input data.
-     * @return (byte[]) The calculated checksum.
+     * Calculates the checksums for all requested algorithms in a single pass over a channel,
+     * without loading the channel content into memory.
+     * Reads are double-buffered: the next buffer is read while the workers digest the current one, one worker per algorithm.
+     * For a FileChannel, tree hash algorithms are calculated separately, reading their leaves in parallel.
+     * @param channel (ReadableByteChannel) The channel to read the data from. The channel is read to its end but not closed.
+     * @param hashAlgorithms (List) The hash algorithms to use, e.g. MD5, SHA-1, SHA-256, SHA-512.
+     * @return (Map) The calculated checksums by algorithm, in the order of hashAlgorithms.
+     * @throws NoSuchAlgorithmException Thrown if one of the algorithms is not available.
+     * @throws IOException Thrown if an I/O error occurs, or InterruptedIOException if interrupted while waiting for the workers.
      */
-    private byte[] calculateSmallChecksum() {
-        return md.digest(inputData);
+    public static Map<String, byte[]> getChecksums(ReadableByteChannel channel, List<String> hashAlgorithms) throws NoSuchAlgorithmException, IOException {
+        Map<String, byte[]> treeChecksums = new HashMap<>();
+        List<String> streamAlgorithms = new ArrayList<>();
+        try {
+            for (String algorithm : hashAlgorithms) {
+                if (TreeMessageDigest.isTreeAlgorithm(algorithm) && channel instanceof FileChannel
+                        && ((FileChannel) channel).size() > TreeMessageDigest.LEAF_SIZE && PARALLELISM > 1) {
+                    treeChecksums.put(algorithm, getTreeChecksum((FileChannel) channel, algorithm));
+                } else {
+                    streamAlgorithms.add(algorithm);
+                }
+            }
+            MessageDigest[] digests = newDigests(streamAlgorithms);
+            if (digests.length > 0) {
+                digestChannel(channel, digests);
+            }
+            return toChecksums(hashAlgorithms, streamAlgorithms, digests, treeChecksums);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while calculating checksums");
+        }
+    }
+
+    /**
+     * Calculates a tree hash of the input data, digesting its leaves in parallel.
+     * @param inputData (byte[]) The input data to calculate the checksum for.
+     * @param hashAlgorithm (String) The tree hash algorithm, e.g. SHA-256-TREE.
+     * @return (byte[]) The calculated checksum, equal to the one of TreeMessageDigest.
+     * @throws NoSuchAlgorithmException Thrown if the algorithm is not available.
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting for the workers.
+     */
+    static byte[] getTreeChecksum(final byte[] inputData, String hashAlgorithm) throws NoSuchAlgorithmException, InterruptedException {
+        final String baseAlgorithm = TreeMessageDigest.getBaseAlgorithm(hashAlgorithm);
+        final byte[][] leaves = new byte[(int) TreeMessageDigest.getLeafCount(inputData.length)][];
+        // Fail on an unknown algorithm before submitting any work
+        MessageDigest.getInstance(baseAlgorithm);
+        List<Future<?>> futures = new ArrayList<>();
+        for (final int[] range : splitLeaves(leaves.length)) {
+            futures.add(Workers.POOL.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws NoSuchAlgorithmException {
+                    MessageDigest digest = MessageDigest.getInstance(baseAlgorithm);
+                    for (int leaf = range[0]; leaf < range[1]; leaf++) {
+                        int offset = leaf * TreeMessageDigest.LEAF_SIZE;
+                        leaves[leaf] = TreeMessageDigest.digestLeaf(digest, inputData, offset,
+                            Math.min(TreeMessageDigest.LEAF_SIZE, inputData.length - offset));
+                    }
+                    return null;
+                }
+            }));
+        }
+        awaitAll(futures);
+        return TreeMessageDigest.digestRoot(MessageDigest.getInstance(baseAlgorithm), leaves);
     }
 
     /**
-     * Calculates the checksum for large input data.
-     * @return (byte[]) The calculated checksum.
-     * @throws InterruptedException Thrown if the thread is interrupted.
-     * @throws ExecutionException Thrown if the execution fails.
+     * Calculates a tree hash of a file, reading and digesting its leaves in parallel with positional reads.
+     * The position of the channel is left unchanged.
+     * @param channel (FileChannel) The file to calculate the checksum for.
+     * @param hashAlgorithm (String) The tree hash algorithm, e.g. SHA-256-TREE.
+     * @return (byte[]) The calculated checksum, equal to the one of TreeMessageDigest.
+     * @throws NoSuchAlgorithmException Thrown if the algorithm is not available.
      * @throws IOException Thrown if an I/O error occurs.
+     * @throws InterruptedException Thrown if the thread is interrupted while waiting for the workers.
+     */
+    static byte[] getTreeChecksum(final FileChannel channel, String hashAlgorithm) throws NoSuchAlgorithmException, IOException, InterruptedException {
+        final String baseAlgorithm = TreeMessageDigest.getBaseAlgorithm(hashAlgorithm);
+        final long size = channel.size();
+        final byte[][] leaves = new byte[(int) TreeMessageDigest.getLeafCount(size)][];
+        // Fail on an unknown algorithm before submitting any work
+        MessageDigest.getInstance(baseAlgorithm);
+        List<Future<?>> futures = new ArrayList<>();
+        for (final int[] range : splitLeaves(leaves.length)) {
+            futures.add(Workers.POOL.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws NoSuchAlgorithmException, IOException {
+                    MessageDigest digest = MessageDigest.getInstance(baseAlgorithm);
+                    byte[] buffer = new byte[TreeMessageDigest.LEAF_SIZE];
+                    for (int leaf = range[0]; leaf < range[1]; leaf++) {
+                        long position = (long) leaf * TreeMessageDigest.LEAF_SIZE;
+                        int length = (int) Math.min(TreeMessageDigest.LEAF_SIZE, size - position);
+                        int total = 0;
+                        while (total < length) {
+                            int bytesRead = channel.read(ByteBuffer.wrap(buffer, total, length - total), position + total);
+                            if (bytesRead == -1) {
+                                throw new IOException("File shrank while calculating its checksum");
+                            }
+                            total += bytesRead;
+                        }
+                        leaves[leaf] = TreeMessageDigest.digestLeaf(digest, buffer, 0, length);
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            awaitAll(futures);
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+        return TreeMessageDigest.digestRoot(MessageDigest.getInstance(baseAlgorithm), leaves);
+    }
+
+    /**
+     * Creates the digest of an algorithm, standard, tree hash or non-cryptographic checksum
+     * @param hashAlgorithm (String) The hash algorithm
+     * @return (MessageDigest) A new digest of the algorithm
+     * @throws NoSuchAlgorithmException Thrown if the algorithm is not available.
+     */
+    static MessageDigest newDigest(String hashAlgorithm) throws NoSuchAlgorithmException {
+        if (TreeMessageDigest.isTreeAlgorithm(hashAlgorithm)) {
+            return new TreeMessageDigest(hashAlgorithm);
+        }
+        if (ChecksumMessageDigest.isChecksumAlgorithm(hashAlgorithm)) {
+            return new ChecksumMessageDigest(hashAlgorithm);
+        }
+        return MessageDigest.getInstance(hashAlgorithm);
+    }
+
+    /**
+     * Returns the smallest content whose checksums are calculated on the shared workers, one algorithm per worker
+     * @return (int) the size in bytes
+     */
+    static int getFanOutMinSize() {
+        return fanOutMinSize;
+    }
+
+    /**
+     * Changes the smallest content whose checksums are calculated on the shared workers, for every validator of the JVM
+     * @param size (int) the size in bytes, Integer.MAX_VALUE to never calculate the algorithms of a content in parallel
+     * @throws IllegalArgumentException Thrown if the size is not positive.
+     */
+    static void setFanOutMinSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Fan out minimum size must be a positive number.");
+        }
+        fanOutMinSize = size;
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Digest a channel to its end with every digest, overlapping reads with digesting
+     */
+    private static void digestChannel(ReadableByteChannel channel, MessageDigest[] digests) throws IOException, InterruptedException {
+        byte[][] buffers = new byte[][] {new byte[FAN_OUT_BUFFER_SIZE], null};
+        int bytesRead = readFully(channel, buffers[0]);
+        if (bytesRead < FAN_OUT_BUFFER_SIZE || PARALLELISM == 1) {
+            // Small content is not worth handing to the workers
+            for (MessageDigest digest : digests) {
+                digest.update(buffers[0], 0, bytesRead);
+            }
+            if (bytesRead == FAN_OUT_BUFFER_SIZE) {
+                byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                while ((bytesRead = channel.read(ByteBuffer.wrap(buffer))) != -1) {
+                    for (MessageDigest digest : digests) {
+                        digest.update(buffer, 0, bytesRead);
+                    }
+                }
+            }
+            return;
+        }
+        buffers[1] = new byte[FAN_OUT_BUFFER_SIZE];
+        List<Future<?>> pending = null;
+        int current = 0;
+        long digested = 0;
+        try {
+            while (bytesRead > 0) {
+                // Digests must see the buffers in order, so the previous buffer is completed before the next is handed out
+                if (pending != null) {
+                    awaitAll(pending);
+                }
+                // The content size is unknown, so its digests share a single worker until it reaches the fan out minimum size
+                pending = isFanOut(digests, digested + bytesRead)
+                    ? fanOutAsync(digests, buffers[current], bytesRead)
+                    : digestAsync(digests, buffers[current], bytesRead);
+                digested += bytesRead;
+                current = 1 - current;
+                bytesRead = readFully(channel, buffers[current]);
+            }
+            awaitAll(pending);
+        } finally {
+            if (pending != null) {
+                for (Future<?> future : pending) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Split a number of leaves into contiguous ranges, one per worker
+     * @return List (List) the ranges as {first leaf, last leaf exclusive}
+     */
+    private static List<int[]> splitLeaves(int leafCount) {
+        int rangeCount = Math.min(leafCount, PARALLELISM);
+        List<int[]> ranges = new ArrayList<>(rangeCount);
+        for (int i = 0; i < rangeCount; i++) {
+            ranges.add(new int[] {(int) ((long) leafCount * i / rangeCount), (int) ((long) leafCount * (i + 1) / rangeCount)});
+        }
+        return ranges;
+    }
+
+    /**
+     * Creates the digests of the requested algorithms
      */
-    private byte[] calculateChecksum() throws InterruptedException, ExecutionException, IOException  {
-        ByteArrayInputStream bais = new ByteArrayInputStream(inputData);
-        int numProcessors = Runtime.getRuntime().availableProcessors();
-        ThreadPoolExecutor executor = new ThreadPoolExecutor(numProcessors, numProcessors,
-                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
-        long fileSize = inputData.length;
-        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(fileSize / numProcessors, MAX_CHUNK_SIZE));
-        int numChunks = (int) Math.ceil((double) fileSize / chunkSize);
-        byte[] buffer = new byte[(int) chunkSize];
-        List<Future<?>> futures = new ArrayList<>(numChunks);
-        for (int i = 0; i < numChunks; i++) {
-            int bytesRead = bais.read(buffer, 0, (int) Math.min(chunkSize, fileSize - i * chunkSize));
-            Future<?> future = executor.submit(new ChecksumTask(md, buffer, bytesRead));
-            futures.add(future);
-        }
-        // wait for all futures to complete
+    private static MessageDigest[] newDigests(List<String> hashAlgorithms) throws NoSuchAlgorithmException {
+        MessageDigest[] digests = new MessageDigest[hashAlgorithms.size()];
+        for (int i = 0; i < digests.length; i++) {
+            digests[i] = newDigest(hashAlgorithms.get(i));
+        }
+        return digests;
+    }
+
+    /**
+     * Check whether digesting the given size is worth fanning out to the workers
+     */
+    private static boolean isFanOut(MessageDigest[] digests, long size) {
+        return digests.length > 1 && PARALLELISM > 1 && size >= fanOutMinSize;
+    }
+
+    /**
+     * Digest a range with every algorithm, the first one on the calling thread and the others on the workers
+     * @return List (List) the futures of the worker digests
+     */
+    private static List<Future<?>> fanOut(MessageDigest[] digests, byte[] data, int offset, int length) {
+        List<Future<?>> futures = new ArrayList<>(digests.length - 1);
+        for (int i = 1; i < digests.length; i++) {
+            futures.add(Workers.POOL.submit(new ChecksumTask(digests[i], data, offset, length)));
+        }
+        digests[0].update(data, offset, length);
+        return futures;
+    }
+
+    /**
+     * Digest a buffer with every algorithm on the workers, leaving the calling thread free to read the next buffer
+     * @return List (List) the futures of the digests
+     */
+    private static List<Future<?>> fanOutAsync(MessageDigest[] digests, byte[] data, int length) {
+        List<Future<?>> futures = new ArrayList<>(digests.length);
+        for (MessageDigest digest : digests) {
+            futures.add(Workers.POOL.submit(new ChecksumTask(digest, data, 0, length)));
+        }
+        return futures;
+    }
+
+    /**
+     * Digest a buffer with every algorithm in turn on a single worker, leaving the calling thread free to read the next buffer
+     * @return List (List) the future of the digests
+     */
+    private static List<Future<?>> digestAsync(final MessageDigest[] digests, final byte[] data, final int length) {
+        List<Future<?>> futures = new ArrayList<>(1);
+        futures.add(Workers.POOL.submit(new Runnable() {
+            @Override
+            public void run() {
+                for (MessageDigest digest : digests) {
+                    digest.update(data, 0, length);
+                }
+            }
+        }));
+        return futures;
+    }
+
+    /**
+     * Wait for the worker digests to complete
+     */
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
         for (Future<?> future : futures) {
-            future.get();
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("Checksum calculation failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        futures.clear();
+    }
+
+    /**
+     * Fill a buffer from a channel, unless it reaches its end
+     * @return int (int) the number of bytes read, 0 at the end of the channel
+     */
+    private static int readFully(ReadableByteChannel channel, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int bytesRead = channel.read(ByteBuffer.wrap(buffer, total, buffer.length - total));
+            if (bytesRead == -1) {
+                break;
+            }
+            total += bytesRead;
         }
-        executor.shutdown();
-        bais.close();
-        return md.digest();
+        return total;
+    }
+
+    /**
+     * Complete the digests into checksums by algorithm, in the requested order
+     */
+    private static Map<String, byte[]> toChecksums(List<String> hashAlgorithms, List<String> digestAlgorithms,
+            MessageDigest[] digests, Map<String, byte[]> otherChecksums) {
+        Map<String, byte[]> checksums = new LinkedHashMap<>();
+        for (String algorithm : hashAlgorithms) {
+            int index = digestAlgorithms.indexOf(algorithm);
+            checksums.put(algorithm, index > -1 ? digests[index].digest() : otherChecksums.get(algorithm));
+        }
+        return checksums;
+    }
+
+    /**
+     * Holder of the worker threads shared by all checksum calculations, created on first use.
+     * The pool is bounded to the number of processors and its daemon threads never block the JVM exit.
+     */
+    private static final class Workers {
+        private static final ExecutorService POOL = Executors.newFixedThreadPool(PARALLELISM, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "filechampion-checksum-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     /**
@@ -99,17 +444,19 @@ public class CalculateChecksum {
     private static class ChecksumTask implements Runnable {
         private MessageDigest md;
         private byte[] buffer;
+        private int offset;
         private int bytesRead;
 
-        private ChecksumTask(MessageDigest md, byte[] buffer, int bytesRead) {
+        private ChecksumTask(MessageDigest md, byte[] buffer, int offset, int bytesRead) {
             this.md = md;
             this.buffer = buffer;
+            this.offset = offset;
             this.bytesRead = bytesRead;
         }
 
         @Override
         public void run() {
-            md.update(buffer, 0, bytesRead);
+            md.update(buffer, offset, bytesRead);
         }
     }
 }
@@ -0,0 +1,31 @@
+package dev.filechampion.filechampion4j;
+
+/**
+ * The checks run on the content of a file, in the order they are run.
+ */
+public enum CheckCode {
+    /** The file size, compared to the configured max_size */
+    FILE_SIZE("max_size"),
+    /** The provided or detected MIME type, compared to the configured mime_type */
+    MIME_TYPE("mime_type"),
+    /** The configured magic_bytes, searched in the file */
+    MAGIC_BYTES("magic_bytes"),
+    /** The configured header_signatures, compared to the first bytes of the file */
+    HEADER_SIGNATURES("header_signatures"),
+    /** The configured footer_signatures, compared to the last bytes of the file */
+    FOOTER_SIGNATURES("footer_signatures");
+
+    private final String configKey;
+
+    CheckCode(String configKey) {
+        this.configKey = configKey;
+    }
+
+    /**
+     * Returns the configuration key of the check
+     * @return (String) the configuration key of the check, e.g. "magic_bytes"
+     */
+    public String getConfigKey() {
+        return configKey;
+    }
+}
@@ -0,0 +1,102 @@
+package dev.filechampion.filechampion4j;
+
+/**
+ * This class is used to return the result of a single check of a file, with the values it measured.
+ * Its text is only built when toString is called.
+ */
+public final class CheckResult {
+    private final CheckCode code;
+    private final boolean passed;
+    private final long measuredValue;
+    private final long limit;
+    private final String expected;
+    private final String actual;
+    // Appended to the text of failed checks, e.g. " for file: test.pdf"
+    private final String subject;
+
+    /**
+     * Creates the result of a check
+     * @param code (CheckCode) the check
+     * @param passed (boolean) true if the file passed the check
+     * @param measuredValue (long) the measured value of a numeric check, the file size in bytes for FILE_SIZE, -1 otherwise
+     * @param limit (long) the configured limit of a numeric check, the max_size in KB for FILE_SIZE, -1 otherwise
+     * @param expected (String) the configured value of the check, or null
+     * @param actual (String) the value found in the file, or null if not measured
+     * @param subject (String) the text appended to a failed check
+     */
+    CheckResult(CheckCode code, boolean passed, long measuredValue, long limit, String expected, String actual, String subject) {
+        this.code = code;
+        this.passed = passed;
+        this.measuredValue = measuredValue;
+        this.limit = limit;
+        this.expected = expected;
+        this.actual = actual;
+        this.subject = subject;
+    }
+
+    /**
+     * Returns the check
+     * @return (CheckCode) the check
+     */
+    public CheckCode getCode() {
+        return code;
+    }
+
+    /**
+     * Returns true if the file passed the check, false otherwise
+     * @return (boolean) true if the file passed the check
+     */
+    public boolean isPassed() {
+        return passed;
+    }
+
+    /**
+     * Returns the measured value of a numeric check
+     * @return (long) the file size in bytes for FILE_SIZE, -1 for other checks
+     */
+    public long getMeasuredValue() {
+        return measuredValue;
+    }
+
+    /**
+     * Returns the configured limit of a numeric check
+     * @return (long) the max_size in KB for FILE_SIZE, or -1 if not limited or not a numeric check
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the configured value of the check
+     * @return (String) the configured mime type or signatures, or null if not configured
+     */
+    public String getExpected() {
+        return expected;
+    }
+
+    /**
+     * Returns the value found in the file
+     * @return (String) the provided or detected mime type for MIME_TYPE, null for other checks
+     */
+    public String getActual() {
+        return actual;
+    }
+
+    @Override
+    public String toString() {
+        switch (code) {
+            case FILE_SIZE:
+                return passed
+                    ? "File size check passed, file size: " + measuredValue / 1000 + "KB"
+                    : "Invalid file size (" + measuredValue / 1000 + "KB) exceeds maximum allowed size (" + limit + "KB)" + subject;
+            case MIME_TYPE:
+                return passed ? "Mime type check passed, mime type: " + expected : "Invalid mime_type" + subject;
+            case MAGIC_BYTES:
+                return passed ? "Magic bytes check passed, magic bytes: " + expected : "Invalid magic_bytes" + subject;
+            case HEADER_SIGNATURES:
+                return passed ? "Header signatures check passed, header signatures: " + expected : "Invalid header_signatures" + subject;
+            default:
+                return passed ? "Footer signatures check passed, footer signatures: " + expected : "Invalid footer_signatures" + subject;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package dev.filechampion.filechampion4j;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.Checksum;
+
+/**
+ * This class exposes a fast non-cryptographic checksum as a MessageDigest, so that it is calculated in the same pass
+ * as the cryptographic digests. The digest is the checksum value in big-endian order.
+ * Supported algorithms are "CRC32C", using the intrinsic java.util.zip.CRC32C of Java 9 and later when available,
+ * and "XXHASH64", a pure-Java xxHash64 with a seed of 0.
+ * These checksums only detect accidental changes, they must not be relied on against deliberate tampering.
+ */
+final class ChecksumMessageDigest extends MessageDigest {
+    static final String CRC32C = "CRC32C";
+    static final String XXHASH64 = "XXHASH64";
+    private static final Class<?> JDK_CRC32C = loadJdkCrc32c();
+
+    private final Checksum checksum;
+    private final int digestLength;
+
+    /**
+     * Creates a checksum digest
+     * @param algorithm (String) the checksum algorithm name, "CRC32C" or "XXHASH64"
+     * @throws NoSuchAlgorithmException if the algorithm is not a supported checksum
+     */
+    ChecksumMessageDigest(String algorithm) throws NoSuchAlgorithmException {
+        super(algorithm);
+        if (CRC32C.equals(algorithm)) {
+            this.checksum = newCrc32c();
+            this.digestLength = 4;
+        } else if (XXHASH64.equals(algorithm)) {
+            this.checksum = new XxHash64();
+            this.digestLength = 8;
+        } else {
+            throw new NoSuchAlgorithmException(algorithm + " is not a checksum algorithm");
+        }
+    }
+
+    /**
+     * Check whether an algorithm name designates a non-cryptographic checksum
+     * @param algorithm (String) the algorithm name
+     * @return boolean (boolean) true if the algorithm is CRC32C or XXHASH64
+     */
+    static boolean isChecksumAlgorithm(String algorithm) {
+        return CRC32C.equals(algorithm) || XXHASH64.equals(algorithm);
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        checksum.update(input);
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int length) {
+        checksum.update(input, offset, length);
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        long value = checksum.getValue();
+        byte[] digest = new byte[digestLength];
+        for (int i = digestLength - 1; i >= 0; i--) {
+            digest[i] = (byte) value;
+            value >>>= 8;
+        }
+        checksum.reset();
+        return digest;
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return digestLength;
+    }
+
+    @Override
+    protected void engineReset() {
+        checksum.reset();
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Load the JDK CRC32C class, which is only available from Java 9
+     */
+    private static Class<?> loadJdkCrc32c() {
+        try {
+            return Class.forName("java.util.zip.CRC32C");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Create a CRC32C checksum, the JDK one when available
+     */
+    private static Checksum newCrc32c() {
+        if (JDK_CRC32C != null) {
+            try {
+                return (Checksum) JDK_CRC32C.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                // Fall back to the table implementation
+            }
+        }
+        return new TableCrc32c();
+    }
+
+    /**
+     * This class calculates CRC32C with a lookup table, for runtimes without java.util.zip.CRC32C.
+     */
+    private static final class TableCrc32c implements Checksum {
+        private static final int[] TABLE = new int[256];
+        static {
+            for (int i = 0; i < TABLE.length; i++) {
+                int crc = i;
+                for (int bit = 0; bit < 8; bit++) {
+                    crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0x82F63B78 : crc >>> 1;
+                }
+                TABLE[i] = crc;
+            }
+        }
+
+        private int crc = 0xFFFFFFFF;
+
+        @Override
+        public void update(int b) {
+            crc = (crc >>> 8) ^ TABLE[(crc ^ b) & 0xFF];
+        }
+
+        @Override
+        public void update(byte[] input, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                crc = (crc >>> 8) ^ TABLE[(crc ^ input[i]) & 0xFF];
+            }
+        }
+
+        @Override
+        public long getValue() {
+            return ~crc & 0xFFFFFFFFL;
+        }
+
+        @Override
+        public void reset() {
+            crc = 0xFFFFFFFF;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.filechampion.filechampion4j;
+
+/**
+ * The management interface of the checksum calculations shared by every FileValidator of the JVM, registered in the platform
+ * MBean server under dev.filechampion.filechampion4j:type=Checksums along the first validator registered with the General "Jmx_name" option.
+ * Its tunables apply to every validator and every CalculateChecksum caller of the JVM.
+ */
+public interface ChecksumsMXBean {
+    /**
+     * Returns the smallest content whose checksums are calculated in parallel, one algorithm per worker
+     * @return (int) the size in bytes
+     */
+    int getFanOutMinSize();
+
+    /**
+     * Changes the smallest content whose checksums are calculated in parallel, for every validator of the JVM
+     * @param size (int) the size in bytes
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    void setFanOutMinSize(int size);
+}
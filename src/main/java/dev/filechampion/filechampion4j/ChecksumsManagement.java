@@ -0,0 +1,47 @@
+package dev.filechampion.filechampion4j;
+
+import java.lang.management.ManagementFactory;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The ChecksumsMXBean of the JVM, reading and changing the tunables of CalculateChecksum.
+ * A single bean is registered, as the tunables are shared by every validator.
+ */
+final class ChecksumsManagement implements ChecksumsMXBean {
+    private static final String OBJECT_NAME = "dev.filechampion.filechampion4j:type=Checksums";
+    static final ChecksumsManagement INSTANCE = new ChecksumsManagement();
+    private boolean registered;
+
+    private ChecksumsManagement() {
+    }
+
+    /**
+     * Register the bean in the platform MBean server, once for the JVM
+     * @throws IllegalArgumentException if the bean cannot be registered
+     */
+    synchronized void register() {
+        if (registered) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by another copy of the library, whose tunables are its own
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Error registering " + OBJECT_NAME + ": " + e.getMessage());
+        }
+        registered = true;
+    }
+
+    @Override
+    public int getFanOutMinSize() {
+        return CalculateChecksum.getFanOutMinSize();
+    }
+
+    @Override
+    public void setFanOutMinSize(int size) {
+        CalculateChecksum.setFanOutMinSize(size);
+    }
+}
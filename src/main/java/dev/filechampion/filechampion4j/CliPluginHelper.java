@@ -1,24 +1,25 @@
 package dev.filechampion.filechampion4j;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.SequenceInputStream;
-import java.math.BigInteger;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Base64;
+import java.nio.file.StandardCopyOption;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import dev.filechampion.filechampion4j.PluginsHelper.StepConfig;
@@ -26,14 +27,29 @@ import dev.filechampion.filechampion4j.PluginsHelper.StepConfig;
 /**
  * CliPluginHelper class is used to execute CLI commands Defined in the FileChampion Plugins.
  * The class is responsible for injecting file path/content/hash into the CLI command, execute the command, and process the results.
+ * A single instance is shared by all validations of its step, so the endpoint template is never modified by execution.
+ * Steps configured with "worker_pool_size" keep persistent worker processes instead, see PluginWorkerPool.
+ * The "file_transport" of a step selects how the file reaches the plugin:
+ * "copy" (default) hands ${filePath} of a temporary copy, "stdin" streams the content to the plugin stdin without any copy,
+ * and "path" hands the path of the file being validated when it is on disk, which the plugin must never modify.
+ * With "content_output": "stdout", the plugin writes the cleaned content on stdout, replacing the file, and its stderr is the response.
  */
 public class CliPluginHelper {
-    private StepConfig singleStepConfig;
-    private int timeout;
-    private String errString = "Error: ";
-    private String endpoint;
-    private String responseConfig;
-    private StringBuilder logMessage = new StringBuilder();
+    private final StepConfig singleStepConfig;
+    private final int timeout;
+    private static final String errString = "Error: ";
+    private final String endpoint;
+    private final String responseConfig;
+    private final int maxOutputBytes;
+    private final String fileTransport;
+    private final boolean contentOutput;
+    private final PluginWorkerPool workerPool;
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder tempFiles = new LongAdder();
+    private static final String TRANSPORT_COPY = "copy";
+    private static final String TRANSPORT_STDIN = "stdin";
+    private static final String TRANSPORT_PATH = "path";
+    private static final String STDOUT = "stdout";
     private static final Logger LOGGER = Logger.getLogger(CliPluginHelper.class.getName());
     private void logFine(String message) {
         if (LOGGER.isLoggable(Level.FINE )) {
@@ -49,14 +65,21 @@ public class CliPluginHelper {
     /**
      * Constructor for CliPluginHelper
      * @param singleStepConfig (StepConfig) - the step configuration
+     * @throws IllegalArgumentException - if the worker, transport or output configuration of the step is invalid
      */
     public CliPluginHelper(StepConfig singleStepConfig) {
         this.singleStepConfig = singleStepConfig;
         this.endpoint = singleStepConfig.getEndpoint();
         this.timeout = singleStepConfig.getTimeout();
         this.responseConfig = singleStepConfig.getResponse();
-        logMessage.replace(0, logMessage.length(), singleStepConfig.getName()).append(" object created");
-        logFine(logMessage.toString());
+        this.maxOutputBytes = singleStepConfig.getMaxOutputBytes();
+        this.fileTransport = singleStepConfig.getFileTransport();
+        this.contentOutput = STDOUT.equals(singleStepConfig.getContentOutput());
+        checkTransportConfig();
+        this.workerPool = singleStepConfig.getWorkerPoolSize() > 0
+            ? new PluginWorkerPool(singleStepConfig.getName(), endpoint, singleStepConfig.getWorkerPoolSize(), timeout, maxOutputBytes)
+            : null;
+        logFine(singleStepConfig.getName() + " object created");
     }
     
     /**
@@ -66,36 +89,101 @@ public class CliPluginHelper {
      * @return Map&lt;String, Map&lt;String, String&gt;&gt; - the results map
      */
     public Map<String, Map<String, String>> execute(String fileExtension, byte[] fileContent) { 
-    String result = "";
+        if (TRANSPORT_STDIN.equals(fileTransport)) {
+            return execute(null, false, fileExtension, null, fileContent);
+        }
+        // Content held in memory has no path of its own, so the path transport falls back to a copy
+        return execute(saveFileToTempDir(fileExtension, fileContent), true, fileExtension, null, fileContent);
+    }
+
+    /**
+     * Executes the CLI command for a file that is not held in memory, e.g. a streamed file spooled to disk
+     * @param fileExtension (String) - the file extension
+     * @param contentPath (Path) - the path of the file content, which is never modified
+     * @return Map&lt;String, Map&lt;String, String&gt;&gt; - the results map
+     */
+    public Map<String, Map<String, String>> execute(String fileExtension, Path contentPath) {
+        if (TRANSPORT_STDIN.equals(fileTransport)) {
+            return execute(null, false, fileExtension, contentPath, null);
+        }
+        if (TRANSPORT_PATH.equals(fileTransport)) {
+            return execute(contentPath, false, fileExtension, contentPath, null);
+        }
+        return execute(copyFileToTempDir(fileExtension, contentPath), true, fileExtension, contentPath, null);
+    }
+
+    /**
+     * Executes the CLI command on the file
+     * @param filePathRaw (Path) - the path handed to the plugin, or null with the stdin transport
+     * @param temporaryCopy (boolean) - true if filePathRaw is a temporary copy, which may be deleted
+     * @param fileExtension (String) - the file extension
+     * @param contentPath (Path) - the path of the file content, or null if it is held in memory
+     * @param fileContent (byte[]) - the file content, or null if it is read from contentPath
+     * @return Map&lt;String, Map&lt;String, String&gt;&gt; - the results map
+     */
+    private Map<String, Map<String, String>> execute(Path filePathRaw, boolean temporaryCopy, String fileExtension,
+            Path contentPath, byte[] fileContent) {
+        String result = "";
+        StringBuilder logMessage = new StringBuilder();
         Map<String, Map<String, String>> responseMap = new HashMap<>();
         Map<String, String> responsePatterns = new HashMap<>();
-        Path filePathRaw;
 
-        filePathRaw = saveFileToTempDir(fileExtension, fileContent);
-        if (filePathRaw == null) {
+        if (filePathRaw == null && !TRANSPORT_STDIN.equals(fileTransport)) {
             responsePatterns.put(errString, "Failed to save file to temporary directory");
             responseMap.put(errString, responsePatterns);
             return responseMap;
         }
 
-        String filePath = filePathRaw.toString();
-        prepEndpoint(filePath, fileContent);
-        logMessage.replace(0, logMessage.length(), singleStepConfig.getName()).append(" endpoint: ").append(endpoint);
-        logFine(logMessage.toString());
-
+        String filePath = filePathRaw == null ? null : filePathRaw.toString();
+        Path outputPath = null;
         try {
-            result = timedProcessExecution(endpoint);
+            if (workerPool != null) {
+                result = workerPool.execute(filePath, fileExtension);
+            } else {
+                if (contentOutput) {
+                    outputPath = Files.createTempFile(Files.createTempDirectory("tempDir"), "tempOutput", "." + fileExtension);
+                    tempFiles.increment();
+                }
+                Path sourcePath = filePathRaw != null ? filePathRaw : contentPath;
+                String preparedEndpoint = prepEndpoint(filePath, sourcePath == null ? null : sourcePath.toString(), fileContent, fileExtension);
+                logMessage.replace(0, logMessage.length(), singleStepConfig.getName()).append(" endpoint: ").append(preparedEndpoint);
+                logFine(logMessage.toString());
+                result = TRANSPORT_STDIN.equals(fileTransport)
+                    ? timedProcessExecution(preparedEndpoint, contentPath, fileContent, outputPath)
+                    : timedProcessExecution(preparedEndpoint, null, null, outputPath);
+            }
             logFine(singleStepConfig.getName() + " result: " + result);
-        } catch (IOException|NullPointerException|InterruptedException e) {
+        } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             responsePatterns.put(errString, e.getMessage());
+        } catch (IOException|NullPointerException e) {
+            responsePatterns.put(errString, e.getMessage());
         }
 
-        String expectedResults = responseConfig.substring(0, responseConfig.indexOf("${")>-1?
-        responseConfig.indexOf("${") : responseConfig.length());
+        String expectedResults = PluginTemplates.expectedResponse(responseConfig);
 
-        if (result.contains(expectedResults)) {
-            responsePatterns = extractResponsePatterns(result);
+        if (result.contains(expectedResults) && (outputPath == null || isContentOutput(result, outputPath))) {
+            responsePatterns = PluginTemplates.extractResponsePatterns(responseConfig, result);
+            String stepName = singleStepConfig.getName();
+            String filePathKey = stepName.substring(stepName.lastIndexOf('.') + 1) + ".filePath";
+            if (outputPath != null) {
+                // The content written on stdout is picked up as a file returned by the plugin
+                responsePatterns.put(filePathKey, outputPath.toString());
+            } else if (!temporaryCopy && responsePatterns.get(filePathKey) != null && !responsePatterns.get(filePathKey).trim().isEmpty()) {
+                // The directory of a returned file is deleted once read, which must never be the directory of the validated file
+                try {
+                    Path returnedFile = new File(responsePatterns.get(filePathKey).trim()).toPath();
+                    Path relocatedFile = Files.createTempDirectory("tempDir").resolve(returnedFile.getFileName());
+                    Files.move(returnedFile, relocatedFile);
+                    responsePatterns.put(filePathKey, relocatedFile.toString());
+                } catch (IOException e) {
+                    logWarn("Error relocating returned file failed: " + e.getMessage());
+                    responsePatterns.clear();
+                    responsePatterns.put("Error, failed to read returned file: ", e.getMessage());
+                    responseMap.put(errString, responsePatterns);
+                    return responseMap;
+                }
+            }
             responseMap.put("Success", responsePatterns);
             return responseMap;
         } else {
@@ -103,149 +191,188 @@ public class CliPluginHelper {
                     .append(expectedResults).append("\", received: ");
             responsePatterns.put(logMessage.toString(), result);
             responseMap.put(errString, responsePatterns);
-            deleteTempDir(filePathRaw);
+            if (temporaryCopy) {
+                deleteTempDir(filePathRaw);
+            }
+            if (outputPath != null) {
+                deleteTempDir(outputPath.getParent());
+            }
             return responseMap;
         }
     }
 
     /**
-     * Extracts the response patterns from the results
-     * @param results (String) - the results
-     * @return Map&lt;String, String&gt; - the response patterns map
+     * Checks that a plugin returning its content on stdout completed and returned content
+     * @param result (String) - the results of the process
+     * @param outputPath (Path) - the file holding the stdout of the process
+     * @return boolean - true if the process succeeded with non empty content
      */
-    private Map<String, String> extractResponsePatterns (String results) {
-        Map<String, String> responsePatterns = new HashMap<>();
-    
-        // Extract the placeholder name from the response pattern
-        Pattern placeholderPattern = Pattern.compile("\\$\\{(.+?)\\}");
-        Matcher placeholderMatcher = placeholderPattern.matcher(responseConfig);
-        if (!placeholderMatcher.find()) {
-            responsePatterns.put(results, results);
-            return responsePatterns;
+    private boolean isContentOutput(String result, Path outputPath) {
+        try {
+            return !result.startsWith(errString) && Files.size(outputPath) > 0;
+        } catch (IOException e) {
+            logWarn("Error isContentOutput failed: " + e.getMessage());
+            return false;
+        }
+    }
 
+    /**
+     * Checks that the file transport and content output of the step are consistent
+     * @throws IllegalArgumentException - if the configuration is invalid
+     */
+    private void checkTransportConfig() {
+        String stepName = singleStepConfig.getName();
+        if (singleStepConfig.getWorkerPoolSize() < 0) {
+            throw new IllegalArgumentException("worker_pool_size cannot be negative for step " + stepName);
+        }
+        if (maxOutputBytes < 1) {
+            throw new IllegalArgumentException("max_output_bytes must be a positive number for step " + stepName);
+        }
+        if (!TRANSPORT_COPY.equals(fileTransport) && !TRANSPORT_STDIN.equals(fileTransport) && !TRANSPORT_PATH.equals(fileTransport)) {
+            throw new IllegalArgumentException("file_transport must be one of copy, stdin or path for step " + stepName);
+        }
+        String configuredOutput = singleStepConfig.getContentOutput();
+        if (configuredOutput != null && !configuredOutput.isEmpty() && !STDOUT.equals(configuredOutput)) {
+            throw new IllegalArgumentException("content_output must be stdout for step " + stepName);
+        }
+        if (TRANSPORT_STDIN.equals(fileTransport) && (endpoint.contains("${filePath}") || endpoint.contains("${fileContent}"))) {
+            throw new IllegalArgumentException("${filePath} and ${fileContent} are not available with the stdin file_transport for step " + stepName);
+        }
+        if (singleStepConfig.getWorkerPoolSize() > 0 && (TRANSPORT_STDIN.equals(fileTransport) || contentOutput)) {
+            throw new IllegalArgumentException("Workers exchange requests on stdin and stdout, stdin file_transport and stdout content_output are not available for step " + stepName);
         }
-        do {
-            String placeholderName = placeholderMatcher.group(1);
-            String placeholderValue;
-    
-            logMessage.replace(0, logMessage.length(), "Placeholder name: ")
-            .append(placeholderName)
-            .append(", ResponseConfig: ")
-            .append(responseConfig);
-            logFine(logMessage.toString());
-            
-            String fixedPrefix = String.format("%s", responseConfig.substring(0, responseConfig.indexOf("${")));
-            logMessage.replace(0, logMessage.length(), "Fixed prefix: ").append(fixedPrefix);
-            logFine(logMessage.toString());
-    
-            String fixedSuffix;
-            int suffixStartIndex = responseConfig.indexOf("${") + placeholderName.length() + 3;
-            if (suffixStartIndex == responseConfig.length()) {
-                fixedSuffix = "";
-            } else {
-                fixedSuffix = responseConfig.substring(suffixStartIndex);
-                logMessage.replace(0, logMessage.length(), "Fixed suffix: ").append(fixedSuffix);
-                logFine(logMessage.toString());
-            }
-    
-            String captureGroupPattern = String.format("%s(.*)%s", fixedPrefix, fixedSuffix);
-            logMessage.replace(0, logMessage.length(), "Capture group pattern: ").append(captureGroupPattern);
-            logFine(logMessage.toString());
-    
-            Pattern pattern = Pattern.compile(captureGroupPattern);
-            Matcher matcher = pattern.matcher(results);
-    
-            if (matcher.find()) {
-                placeholderValue = matcher.group(1);
-                responsePatterns.put(placeholderName, placeholderValue);
-            }
-    
-        } while (placeholderMatcher.find());
-    
-        return responsePatterns;
     }
-    
+
     /**
      * Prepares the endpoint command by replacing the placeholders with the actual values
-     * @param filePath (String) - the path to the file
-     * @param fileContent (byte[]) - the file content
+     * @param filePath (String) - the path handed to the plugin, or null with the stdin transport
+     * @param sourcePath (String) - the path to read the file content from when fileContent is null
+     * @param fileContent (byte[]) - the file content, or null to read it from sourcePath when needed
+     * @param fileExtension (String) - the file extension
+     * @return String - the endpoint command with the placeholders replaced
      */
-    private void prepEndpoint(String filePath, byte[] fileContent) {
+    private String prepEndpoint(String filePath, String sourcePath, byte[] fileContent, String fileExtension) {
         
         String newEndpoint = endpoint.contains("${filePath}") ? endpoint.replace("${filePath}", filePath) : endpoint;
-        newEndpoint = newEndpoint.contains("${fileContent}") ? newEndpoint.replace("${fileContent}", Base64.getEncoder().encodeToString(fileContent)) : newEndpoint;
-        newEndpoint = newEndpoint.contains("${fileChecksum.md5}") ? newEndpoint.replace("${fileChecksum.md5}", calculateChecksum(fileContent, "MD5")) : newEndpoint;
-        newEndpoint = newEndpoint.contains("${fileChecksum.sha1}") ? newEndpoint.replace("${fileChecksum.sha1}", calculateChecksum(fileContent, "SHA-1")) : newEndpoint;
-        newEndpoint = newEndpoint.contains("${fileChecksum.sha256}") ? newEndpoint.replace("${fileChecksum.sha256}", calculateChecksum(fileContent, "SHA-256")) : newEndpoint;
-        newEndpoint = newEndpoint.contains("${fileChecksum.sha512}") ? newEndpoint.replace("${fileChecksum.sha512}", calculateChecksum(fileContent, "SHA-512")) : newEndpoint;
-        endpoint = newEndpoint;
+        return PluginTemplates.replaceFilePlaceholders(newEndpoint, sourcePath, fileContent, fileExtension);
     }
 
     /**
-     * Executes the CLI command with a timeout
+     * Executes the CLI command with a timeout.
+     * The output of the process is drained on the calling thread while it runs, so that a chatty
+     * process never blocks on a full pipe, and only the first max_output_bytes bytes are kept.
+     * With the stdin transport the file is streamed to the process stdin, redirected from the file by the OS when
+     * it is on disk. With a content output file, stdout is redirected to it and stderr alone is the result.
+     * The timeout runs on the shared PluginScheduler.
      * @param command (String) - the command to execute
+     * @param stdinPath (Path) - the file to stream to the process stdin, or null
+     * @param stdinBytes (byte[]) - the content to stream to the process stdin, or null
+     * @param outputPath (Path) - the file receiving the process stdout, or null to capture it as the result
      * @return String - the results
      * @throws IOException
      * @throws InterruptedException
      * @throws NullPointerException
      */
-    private String timedProcessExecution(String command) throws IOException, InterruptedException, NullPointerException {
+    private String timedProcessExecution(String command, Path stdinPath, byte[] stdinBytes, Path outputPath) throws IOException, InterruptedException, NullPointerException {
+        StringBuilder logMessage = new StringBuilder();
         ProcessBuilder processBuilder = new ProcessBuilder(command.split("\\p{Zs}+"));
+        if (outputPath != null) {
+            processBuilder.redirectOutput(outputPath.toFile());
+        } else {
+            processBuilder.redirectErrorStream(true);
+        }
+        if (stdinPath != null) {
+            processBuilder.redirectInput(stdinPath.toFile());
+        }
         logMessage.replace(0, logMessage.length(), "Process starting: ").append(command);
         logFine(logMessage.toString());
 
-        long timeoutCounter = System.currentTimeMillis();
         Process process = processBuilder.start();
-        TimeUnit timeUnit = TimeUnit.SECONDS;
-        java.util.Timer timer = new java.util.Timer();
-        timer.schedule(
-            new java.util.TimerTask() {
-                @Override
-                public void run() {
-                    process.destroy();
-                }
-            },
-            timeUnit.toMillis(timeout)
-        );
-        int exitCode = process.waitFor();
-        InputStream inputStream = process.getInputStream();
-        InputStream errorStream = process.getErrorStream();
-        SequenceInputStream sequenceInputStream = new SequenceInputStream(inputStream, errorStream);
-        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(sequenceInputStream));
-        try(Scanner scanner = new Scanner(bufferedReader).useDelimiter("\\A")){
-            String results;
-            if (exitCode == 143 || exitCode == 1) {
-                if (System.currentTimeMillis() - timeoutCounter > timeout * 1000) {
-                    bufferedReader.close();
-                    sequenceInputStream.close();
-                    errorStream.close();
-                    inputStream.close();
-                    logMessage.replace(0, logMessage.length(), errString).append("Process timeout: ").append(command);
-                    logWarn(logMessage.toString());
-                    return logMessage.toString();
-                }
-                results = scanner.hasNext() ? scanner.next() : "";
-                bufferedReader.close();
-                sequenceInputStream.close();
-                errorStream.close();
-                inputStream.close();
-                timer.cancel();
-                logMessage.replace(0, logMessage.length(), errString).append(command) .append("Process failed: ").append(results);
-                logWarn(logMessage.toString());
-                return logMessage.toString();
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> timeoutTask = PluginScheduler.scheduleDestroy(process, timeout, TimeUnit.SECONDS, () -> timedOut.set(true));
+        String results;
+        int exitCode;
+        try {
+            if (stdinBytes != null) {
+                feedInput(process, stdinBytes);
+            } else if (stdinPath == null) {
+                process.getOutputStream().close();
             }
-            results = scanner.hasNext() ? scanner.next() : "";
-            bufferedReader.close();
-            sequenceInputStream.close();
-            errorStream.close();
-            inputStream.close();
-            timer.cancel();
-            logFine(results);
-            return results;
+            results = drainOutput(outputPath != null ? process.getErrorStream() : process.getInputStream());
+            exitCode = process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            throw e;
+        } finally {
+            timeoutTask.cancel(false);
+        }
+
+        if (timedOut.get()) {
+            timeouts.increment();
+            logMessage.replace(0, logMessage.length(), errString).append("Process timeout: ").append(command);
+            logWarn(logMessage.toString());
+            return logMessage.toString();
+        }
+        if (exitCode == 143 || exitCode == 1 || (outputPath != null && exitCode != 0)) {
+            logMessage.replace(0, logMessage.length(), errString).append(command) .append("Process failed: ").append(results);
+            logWarn(logMessage.toString());
+            return logMessage.toString();
         }
+        logFine(results);
+        return results;
+    }
+
+    /**
+     * Writes content to the stdin of a process from a feeder thread, so that the calling thread keeps draining its output
+     * @param process (Process) - the process to feed
+     * @param content (byte[]) - the content to write, stdin being closed afterwards
+     */
+    private void feedInput(Process process, byte[] content) {
+        InputFeeder.POOL.execute(() -> {
+            try (OutputStream stdin = process.getOutputStream()) {
+                stdin.write(content);
+            } catch (IOException e) {
+                // The plugin may exit without reading all of its input
+                logFine(singleStepConfig.getName() + " stdin closed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Reads the output of a process to its end, keeping only its first max_output_bytes bytes
+     * @param output (InputStream) - the output of the process, closed when returning
+     * @return String - the captured output
+     * @throws IOException
+     */
+    private String drainOutput(InputStream output) throws IOException {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        long discarded = 0;
+        try (InputStream inputStream = output) {
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                int kept = Math.min(bytesRead, maxOutputBytes - captured.size());
+                captured.write(buffer, 0, kept);
+                discarded += bytesRead - kept;
+            }
+        }
+        if (discarded > 0) {
+            logWarn(singleStepConfig.getName() + " output truncated to max_output_bytes, discarded bytes: " + discarded);
+        }
+        return new String(captured.toByteArray(), Charset.defaultCharset());
+    }
+
+    /**
+     * Holder of the daemon threads feeding the stdin of plugins, created on first use
+     */
+    private static final class InputFeeder {
+        private static final ExecutorService POOL = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "filechampion-plugin-stdin");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    
     /**
      * Saves the file to a temporary directory
      * @param fileExtension (String) - the file extension
@@ -258,15 +385,52 @@ public class CliPluginHelper {
             // Create a temporary directory
             Path tempDir = Files.createTempDirectory("tempDir");
             tempFilePath = Files.createTempFile(tempDir, "tempFile", "." + fileExtension);
+            tempFiles.increment();
             Files.write(tempFilePath, originalFile);
             return tempFilePath;
         } catch (Exception e) {
-            logMessage.replace(0, logMessage.length(), "Error saveFileToTempDir failed: ").append(e.getMessage());
-            logWarn(logMessage.toString());
+            logWarn("Error saveFileToTempDir failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Copies the file to a temporary directory
+     * @param fileExtension (String) - the file extension
+     * @param contentPath (Path) - the path of the file content
+     * @return Path - the path to the copy
+     */
+    private Path copyFileToTempDir(String fileExtension, Path contentPath) {
+        Path tempFilePath;
+        try {
+            // Create a temporary directory
+            Path tempDir = Files.createTempDirectory("tempDir");
+            tempFilePath = Files.createTempFile(tempDir, "tempFile", "." + fileExtension);
+            tempFiles.increment();
+            Files.copy(contentPath, tempFilePath, StandardCopyOption.REPLACE_EXISTING);
+            return tempFilePath;
+        } catch (Exception e) {
+            logWarn("Error copyFileToTempDir failed: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Returns the number of executions of the step that timed out, including those waiting for a worker
+     * @return long - the number of timed out executions
+     */
+    long getTimeouts() {
+        return timeouts.sum() + (workerPool != null ? workerPool.getTimeouts() : 0);
+    }
+
+    /**
+     * Returns the number of temporary files created for the step, copies of the validated file and captured outputs
+     * @return long - the number of temporary files created
+     */
+    long getTempFiles() {
+        return tempFiles.sum();
+    }
+
     /**
      * Deletes the temporary directory
      * @param tempFilePath (Path) - the path to the temporary directory
@@ -279,25 +443,8 @@ public class CliPluginHelper {
                     .forEach(File::delete);
             return true;
         } catch (Exception e) {
-            logMessage.replace(0, logMessage.length(), "Error deleteTempDir failed: ").append(e.getMessage());
-            logWarn(logMessage.toString());
+            logWarn("Error deleteTempDir failed: " + e.getMessage());
             return false;
         }
     }
-
-    /**
-     * Calculate the checksum of the file
-     * @param fileBytes (byte[]) the file bytes of the file being validated
-     * @return String (String) the SHA-256 checksum of the file
-     */
-    private String calculateChecksum(byte[] fileBytes, String checksumAlgorithm) {
-        try {
-            CalculateChecksum paralChecksum = new CalculateChecksum(fileBytes);
-            byte[] checksum = paralChecksum.getChecksum(checksumAlgorithm);
-            return new BigInteger(1, checksum).toString(16);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
 }
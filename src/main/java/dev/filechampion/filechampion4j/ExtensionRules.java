@@ -0,0 +1,274 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import dev.filechampion.filechampion4j.PluginsHelper.StepConfig;
+
+/**
+ * This class holds the validation rules of a single extension, compiled once from the Validations json object.
+ * Signatures are decoded, sizes parsed and plugin steps resolved at load time, so that validating a file
+ * does not need any configuration lookup or parsing.
+ * Instances are immutable and shared by all validations.
+ */
+final class ExtensionRules {
+    final String category;
+    final String extension;
+    final String mimeType;
+    final String magicBytesPattern;
+    final BytePatternSearch magicBytes;
+    final long magicBytesWindow;
+    final String headerSignaturesPattern;
+    final byte[] headerSignatures;
+    final String footerSignaturesPattern;
+    final byte[] footerSignatures;
+    final int maxSize;
+    final boolean failFast;
+    final boolean addChecksum;
+    final boolean nameEncoding;
+    final boolean changeOwnership;
+    final String changeOwnershipUser;
+    final String changeOwnershipMode;
+    final List<String> extensionPlugins;
+    final List<List<StepConfig>> beforeStages;
+    final List<List<StepConfig>> afterStages;
+
+    /**
+     * Compiles the rules of an extension from its Validations json values
+     * @param category (String) the category of the extension
+     * @param extension (String) the file extension
+     * @param values (Map) the validation values of the extension
+     * @throws IllegalArgumentException if a signature is not valid hex, or a value has an unsupported type
+     */
+    ExtensionRules(String category, String extension, Map<String, Object> values) {
+        this.category = category;
+        this.extension = extension;
+        this.mimeType = getString(values, "mime_type");
+        this.magicBytesPattern = getString(values, "magic_bytes");
+        this.magicBytes = compileMagicBytes(values.get("magic_bytes"));
+        int magicBytesWindowKb = getInt(values, "magic_bytes_window", -1);
+        this.magicBytesWindow = magicBytesWindowKb > 0 ? magicBytesWindowKb * 1000L : -1;
+        this.headerSignaturesPattern = getString(values, "header_signatures");
+        this.headerSignatures = hexToBytes(headerSignaturesPattern, "header_signatures");
+        this.footerSignaturesPattern = getString(values, "footer_signatures");
+        this.footerSignatures = hexToBytes(footerSignaturesPattern, "footer_signatures");
+        this.maxSize = getInt(values, "max_size", -1);
+        this.failFast = getBoolean(values, "fail_fast", false);
+        this.addChecksum = getBoolean(values, "add_checksum", true);
+        this.nameEncoding = getBoolean(values, "name_encoding", false);
+        this.changeOwnership = getBoolean(values, "change_ownership", false);
+        this.changeOwnershipUser = getString(values, "change_ownership_user");
+        this.changeOwnershipMode = getString(values, "change_ownership_mode");
+        this.extensionPlugins = getStringList(values, "extension_plugins");
+        this.beforeStages = Collections.emptyList();
+        this.afterStages = Collections.emptyList();
+    }
+
+    /**
+     * Copy constructor resolving the plugin steps
+     */
+    private ExtensionRules(ExtensionRules rules, List<List<StepConfig>> beforeStages, List<List<StepConfig>> afterStages) {
+        this.category = rules.category;
+        this.extension = rules.extension;
+        this.mimeType = rules.mimeType;
+        this.magicBytesPattern = rules.magicBytesPattern;
+        this.magicBytes = rules.magicBytes;
+        this.magicBytesWindow = rules.magicBytesWindow;
+        this.headerSignaturesPattern = rules.headerSignaturesPattern;
+        this.headerSignatures = rules.headerSignatures;
+        this.footerSignaturesPattern = rules.footerSignaturesPattern;
+        this.footerSignatures = rules.footerSignatures;
+        this.maxSize = rules.maxSize;
+        this.failFast = rules.failFast;
+        this.addChecksum = rules.addChecksum;
+        this.nameEncoding = rules.nameEncoding;
+        this.changeOwnership = rules.changeOwnership;
+        this.changeOwnershipUser = rules.changeOwnershipUser;
+        this.changeOwnershipMode = rules.changeOwnershipMode;
+        this.extensionPlugins = rules.extensionPlugins;
+        this.beforeStages = beforeStages;
+        this.afterStages = afterStages;
+    }
+
+    /**
+     * Returns a copy of the rules with the extension_plugins resolved to their step configurations.
+     * Steps run in configured order unless depends_on requires otherwise, and are grouped in stages:
+     * consecutive read_only steps share a stage and run concurrently, while any other step runs alone.
+     * @param stepConfigsBefore (Map) the steps configured to run before the validations
+     * @param stepConfigsAfter (Map) the steps configured to run after the validations
+     * @return ExtensionRules (ExtensionRules) the rules with resolved plugin steps
+     * @throws IllegalArgumentException if the depends_on of the steps form a cycle
+     */
+    ExtensionRules withPluginSteps(Map<String, StepConfig> stepConfigsBefore, Map<String, StepConfig> stepConfigsAfter) {
+        if (extensionPlugins == null) {
+            return this;
+        }
+        List<StepConfig> before = new ArrayList<>();
+        List<StepConfig> after = new ArrayList<>();
+        for (String plugin : extensionPlugins) {
+            if (stepConfigsBefore.get(plugin) != null) {
+                before.add(stepConfigsBefore.get(plugin));
+            }
+            if (stepConfigsAfter.get(plugin) != null) {
+                after.add(stepConfigsAfter.get(plugin));
+            }
+        }
+        return new ExtensionRules(this, toStages(before), toStages(after));
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Order steps by their dependencies, keeping the configured order otherwise, and group them in stages
+     */
+    private List<List<StepConfig>> toStages(List<StepConfig> steps) {
+        List<String> stepNames = new ArrayList<>();
+        for (StepConfig step : steps) {
+            stepNames.add(step.getName());
+        }
+        List<StepConfig> pending = new ArrayList<>(steps);
+        Set<String> placed = new HashSet<>();
+        List<List<StepConfig>> stages = new ArrayList<>();
+        List<StepConfig> stage = new ArrayList<>();
+        Set<String> stageNames = new HashSet<>();
+        while (!pending.isEmpty()) {
+            StepConfig next = null;
+            for (StepConfig step : pending) {
+                if (dependenciesPlaced(step, stepNames, placed)) {
+                    next = step;
+                    break;
+                }
+            }
+            if (next == null) {
+                throw new IllegalArgumentException("Circular depends_on between plugin steps of extension " + extension + ": " + pending.get(0).getName());
+            }
+            pending.remove(next);
+            placed.add(next.getName());
+            if (!stage.isEmpty() && (!next.isReadOnly() || !stage.get(0).isReadOnly() || !Collections.disjoint(next.getDependsOn(), stageNames))) {
+                stages.add(Collections.unmodifiableList(stage));
+                stage = new ArrayList<>();
+                stageNames.clear();
+            }
+            stage.add(next);
+            stageNames.add(next.getName());
+        }
+        if (!stage.isEmpty()) {
+            stages.add(Collections.unmodifiableList(stage));
+        }
+        return Collections.unmodifiableList(stages);
+    }
+
+    /**
+     * Check that the dependencies of a step within the same steps list are already placed,
+     * dependencies on steps of another list are ignored as they never run concurrently
+     */
+    private static boolean dependenciesPlaced(StepConfig step, List<String> stepNames, Set<String> placed) {
+        for (String dependency : step.getDependsOn()) {
+            if (stepNames.contains(dependency) && !placed.contains(dependency)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getString(Map<String, Object> values, String key) {
+        Object value = values.get(key);
+        return value == null ? null : value.toString();
+    }
+
+    private static int getInt(Map<String, Object> values, String key, int defaultValue) {
+        Object value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private boolean getBoolean(Map<String, Object> values, String key, boolean defaultValue) {
+        Object value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException(new StringBuilder("Unsupported value type: ").append(value.getClass().getName())
+                .append(" for key: ").append(key).append(" of extension: ").append(extension).toString());
+        }
+        return (Boolean) value;
+    }
+
+    private List<String> getStringList(Map<String, Object> values, String key) {
+        Object value = values.get(key);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException(new StringBuilder("Unsupported value type: ").append(value.getClass().getName())
+                .append(" for key: ").append(key).append(" of extension: ").append(extension).toString());
+        }
+        List<String> list = new ArrayList<>();
+        for (Object item : (List<?>) value) {
+            list.add(item.toString());
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Compile the configured magic_bytes, a single hex pattern or a list of alternative patterns
+     * @param value (Object) the configured magic_bytes value
+     * @return BytePatternSearch (BytePatternSearch) the compiled search, or null if no pattern is configured
+     */
+    private BytePatternSearch compileMagicBytes(Object value) {
+        List<byte[]> patterns = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                byte[] pattern = hexToBytes(item == null ? null : item.toString(), "magic_bytes");
+                if (pattern != null) {
+                    patterns.add(pattern);
+                }
+            }
+        } else if (value != null) {
+            byte[] pattern = hexToBytes(value.toString(), "magic_bytes");
+            if (pattern != null) {
+                patterns.add(pattern);
+            }
+        }
+        return BytePatternSearch.compile(patterns);
+    }
+
+    /**
+     * Convert a configured hex pattern (e.g. "25 50 44 46") to bytes
+     * @param hexPattern (String) the hex pattern, whitespace is ignored
+     * @param key (String) the validation key of the pattern
+     * @return byte[] (byte[]) the bytes of the pattern, or null if the pattern is blank
+     * @throws IllegalArgumentException if the pattern is not valid hex
+     */
+    private byte[] hexToBytes(String hexPattern, String key) {
+        if (hexPattern == null || hexPattern.trim().isEmpty()) {
+            return null;
+        }
+        String cleanPattern = hexPattern.replaceAll("\\p{Zs}", "");
+        if (cleanPattern.length() % 2 != 0) {
+            cleanPattern = "0" + cleanPattern;
+        }
+        byte[] patternBytes = new byte[cleanPattern.length() / 2];
+        try {
+            for (int i = 0; i < cleanPattern.length(); i += 2) {
+                patternBytes[i / 2] = (byte) Integer.parseInt(cleanPattern.substring(i, i + 2), 16);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(new StringBuilder("Invalid hex value: ").append(hexPattern)
+                .append(" for key: ").append(key).append(" of extension: ").append(extension).toString());
+        }
+        return patternBytes;
+    }
+}
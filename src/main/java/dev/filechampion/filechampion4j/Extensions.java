@@ -7,11 +7,16 @@ import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import dev.filechampion.filechampion4j.PluginsHelper.StepConfig;
+
 /**
  * This class is used to load the Validations json objectand provide the validation values for a given extension.
+ * The configuration is read-only after construction, so lookups are safe from concurrent validations.
+ * Validations use the ExtensionRules compiled at construction, getValidationValue is kept for raw value access.
  */
 public class Extensions {
     private static final Logger LOGGER = Logger.getLogger(Extensions.class.getName());
@@ -35,16 +40,18 @@ public class Extensions {
     private Map<String, Map<String, Object>> categoriesMap;
     private Map<String, Map<String, Object>> extensionsMap;
     private Map<String, Object> validationsMap;
-    private Map<String, Object> validationCache = new HashMap<>();
+    private final Map<String, Object> validationCache = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, ExtensionRules>> rulesMap = new HashMap<>();
+    private SignatureTrie signatureTrie;
     private String sharedMessage1 = "Unsupported value type: ";
     private String sharedMessage2 = " for key: ";
     // Allowed key values from the json Validations object
     private List<String> allowedKeyValues = Arrays.asList("mime_type", "magic_bytes", "header_signatures", 
         "footer_signatures", "change_ownership", "change_ownership_user", "change_ownership_mode",
-        "name_encoding", "max_size", "extension_plugins", "add_checksum", "fail_fast");
+        "name_encoding", "max_size", "extension_plugins", "add_checksum", "fail_fast", "magic_bytes_window");
     private List<String> stringKeyValues = Arrays.asList("mime_type", "magic_bytes", "header_signatures", 
     "footer_signatures", "change_ownership_user", "change_ownership_mode",
-    "max_size", "extension_plugins");
+    "max_size", "extension_plugins", "magic_bytes_window");
     private List<String> boolKeyValues = Arrays.asList("change_ownership", "name_encoding", "add_checksum", "fail_fast");
 
     /**
@@ -72,6 +79,83 @@ public class Extensions {
             throw new IllegalArgumentException("Validations must contain categories objects");
         }
         mapConfiguredExtensions();
+        compileRules();
+    }
+
+    /**
+     * Compile the validations of every configured extension into ExtensionRules
+     * @throws IllegalArgumentException if any of the extension validations is invalid
+     */
+    private void compileRules() {
+        for (Map.Entry<String, Map<String, Object>> categoryEntry : categoriesMap.entrySet()) {
+            Map<String, ExtensionRules> categoryRules = new HashMap<>();
+            for (Map.Entry<String, Object> extensionEntry : categoryEntry.getValue().entrySet()) {
+                if (!(extensionEntry.getValue() instanceof Map)) {
+                    sbLogMessage.replace(0, sbLogMessage.length(), sharedMessage1)
+                        .append(extensionEntry.getValue() == null ? "null" : extensionEntry.getValue().getClass().getName())
+                        .append(sharedMessage2)
+                        .append(extensionEntry.getKey());
+                    logWarn(sbLogMessage.toString());
+                    throw new IllegalArgumentException(sbLogMessage.toString());
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> values = (Map<String, Object>) extensionEntry.getValue();
+                categoryRules.put(extensionEntry.getKey(), new ExtensionRules(categoryEntry.getKey(), extensionEntry.getKey(), values));
+            }
+            rulesMap.put(categoryEntry.getKey(), categoryRules);
+        }
+        // Sorted so that extensions sharing a header signature are always reported in the same order
+        List<ExtensionRules> allRules = new ArrayList<>();
+        for (Map<String, ExtensionRules> categoryRules : rulesMap.values()) {
+            allRules.addAll(categoryRules.values());
+        }
+        allRules.sort((a, b) -> a.category.equals(b.category) ? a.extension.compareTo(b.extension) : a.category.compareTo(b.category));
+        signatureTrie = new SignatureTrie(allRules);
+    }
+
+    /**
+     * Resolve the extension_plugins of all compiled rules to their step configurations.
+     * Called once while the owning FileValidator is constructed, before any validation.
+     * @param stepConfigsBefore (Map) the steps configured to run before the validations
+     * @param stepConfigsAfter (Map) the steps configured to run after the validations
+     */
+    void resolvePluginSteps(Map<String, StepConfig> stepConfigsBefore, Map<String, StepConfig> stepConfigsAfter) {
+        for (Map<String, ExtensionRules> categoryRules : rulesMap.values()) {
+            for (Map.Entry<String, ExtensionRules> rulesEntry : categoryRules.entrySet()) {
+                rulesEntry.setValue(rulesEntry.getValue().withPluginSteps(stepConfigsBefore, stepConfigsAfter));
+            }
+        }
+    }
+
+    /**
+     * Returns the trie of the header_signatures of all configured extensions
+     * @return (SignatureTrie) - The signature trie
+     */
+    SignatureTrie getSignatureTrie() {
+        return signatureTrie;
+    }
+
+    /**
+     * Returns the compiled validation rules for a given extension
+     * @param category (String) - The category of the extension
+     * @param extension (String) - The file extension (without the dot)
+     * @return (ExtensionRules) - The compiled rules of the extension
+     * @throws IllegalArgumentException if the category or extension is not configured
+     */
+    ExtensionRules getExtensionRules(String category, String extension) {
+        Map<String, ExtensionRules> categoryRules = rulesMap.get(category);
+        if (categoryRules == null) {
+            StringBuilder sbMessage = new StringBuilder("category ").append(category).append(" not found");
+            logWarn(sbMessage.toString());
+            throw new IllegalArgumentException(sbMessage.toString());
+        }
+        ExtensionRules rules = categoryRules.get(extension);
+        if (rules == null) {
+            StringBuilder sbMessage = new StringBuilder("extension ").append(extension).append(" not found");
+            logWarn(sbMessage.toString());
+            throw new IllegalArgumentException(sbMessage.toString());
+        }
+        return rules;
     }
 
     /**
@@ -180,7 +264,7 @@ public class Extensions {
      * @param value (Object) - The value of the validation key
      */
     private void setArrayList (String validation, Object value) {
-        if (validation.equals("extension_plugins")) {
+        if (validation.equals("extension_plugins") || validation.equals("magic_bytes")) {
             validationsMap.put(validation, (ArrayList) value);
         } else {
             sbLogMessage.replace(0, sbLogMessage.length(),  sharedMessage1)
@@ -199,6 +283,7 @@ public class Extensions {
      * @param validationKey (String) - The validation key to get the value for
      */
     private void checkInputs(String category, String extension, String validationKey) {
+        StringBuilder sbLogMessage = new StringBuilder();
         if (!categoriesMap.containsKey(category)) {
             sbLogMessage.replace(0, sbLogMessage.length(), "category ").append(category)
                 .append(" not found");
@@ -229,24 +314,28 @@ public class Extensions {
     public Object getValidationValue(String category, String extension, String validationKey) {
         checkInputs(category, extension, validationKey);
         String cacheKey = category + "|" + extension + "|" + validationKey;
-        if (validationCache.containsKey(cacheKey)) {
-            sbLogMessage.replace(0, sbLogMessage.length(), "Returning ").append(validationKey)
-                .append(" for ").append(extension).append(" (cached)");
-            logFine(sbLogMessage.toString());
-            return validationCache.get(cacheKey);
+        Object cachedValue = validationCache.get(cacheKey);
+        if (cachedValue != null) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                logFine(new StringBuilder("Returning ").append(validationKey)
+                    .append(" for ").append(extension).append(" (cached)").toString());
+            }
+            return cachedValue;
         }
         
         Object value = ((HashMap<?,?>) categoriesMap.get(category).get(extension)).get(validationKey);
         if (value != null) {
             validationCache.put(cacheKey, value);
-            sbLogMessage.replace(0, sbLogMessage.length(), "Returning ").append(validationKey)
-                .append(" for ").append(extension);
-            logFine(sbLogMessage.toString());
+            if (LOGGER.isLoggable(Level.FINE)) {
+                logFine(new StringBuilder("Returning ").append(validationKey)
+                    .append(" for ").append(extension).toString());
+            }
             return value;
         } else {
-            sbLogMessage.replace(0, sbLogMessage.length(), "Returning null for ")
-                .append(validationKey).append(" for ").append(extension);
-            logFine(sbLogMessage.toString());
+            if (LOGGER.isLoggable(Level.FINE)) {
+                logFine(new StringBuilder("Returning null for ")
+                    .append(validationKey).append(" for ").append(extension).toString());
+            }
             return null;
         }
     }
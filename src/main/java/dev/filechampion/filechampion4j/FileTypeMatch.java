@@ -0,0 +1,51 @@
+package dev.filechampion.filechampion4j;
+
+/**
+ * This class is used to return a file type detected from the content of a file.
+ */
+public class FileTypeMatch {
+    private final String category;
+    private final String extension;
+    private final int signatureLength;
+
+    /**
+    * FileTypeMatch is used to return a file type detected from the content of a file.
+    * @param category (String) the configured category of the detected type
+    * @param extension (String) the configured extension of the detected type
+    * @param signatureLength (int) the length of the matched header signature
+    */
+    public FileTypeMatch(String category, String extension, int signatureLength) {
+        this.category = category;
+        this.extension = extension;
+        this.signatureLength = signatureLength;
+    }
+
+    /**
+     * Returns the configured category of the detected type
+     * @return (String) the category of the detected type
+     */
+    public String getCategory() {
+        return category;
+    }
+
+    /**
+     * Returns the configured extension of the detected type
+     * @return (String) the extension of the detected type
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns the length of the matched header signature, longer signatures being more specific
+     * @return (int) the length of the matched header signature
+     */
+    public int getSignatureLength() {
+        return signatureLength;
+    }
+
+    @Override
+    public String toString() {
+        return category + "." + extension;
+    }
+}
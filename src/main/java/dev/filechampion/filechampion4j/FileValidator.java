@@ -2,13 +2,31 @@ package dev.filechampion.filechampion4j;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
 import java.util.logging.Level;
@@ -20,7 +38,13 @@ import dev.filechampion.filechampion4j.PluginsHelper.StepConfig;
 
 
 /**
- * This class is used to validate files
+ * This class is used to validate files.
+ * A FileValidator is immutable once constructed, and a single instance can be shared by any number of threads,
+ * as every validateFile call keeps its state in its own ValidationContext.
+ * Large files can be validated with validateStream, which reads the file in chunks and never holds it in memory as a whole,
+ * or from disk with the "Memory_mapped" General option, which validates Path inputs through memory-mapped file regions.
+ * Its live statistics and tunables are available from getManagementBean, and registered in the platform MBean server
+ * with the "Jmx_name" General option, along the checksum tunables shared by every validator, see getChecksumsManagementBean.
  * @author filechampion
  * @version 0.9.8.4
  * @see <a href="https://www.filechampion.dev/">FileChampion4j Docs</a>
@@ -37,30 +61,28 @@ public class FileValidator {
     }
     private static final Logger LOGGER = Logger.getLogger(FileValidator.class.getName());
 
-    private JSONObject configJsonObject;
+    private final JSONObject configJsonObject;
     private PluginsHelper pluginsHelper;
-    private Map<String, StepConfig> stepConfigsBefore = new HashMap<>();
-    private Map<String, StepConfig> stepConfigsAfter = new HashMap<>();
-    private Extensions extensions;
-    private ValidationsHelper validationsHelper;
-    private StringBuilder sharedStringBuilder = new StringBuilder();
-    private String sharedStepMessage = "Step: ";
-    private String errorResponse = "File is not valid.";
-    private String fileCategory;
-    private String fileName;
-    private Path filePath;
-    private byte[] originalFile;
-    private String mimeString;
-    private Path outDir;
-    private String fileExtension;
-    private String commonFileError = "Error reading file: ";
-    private String commonLogString;
-    private int responseMsgCountFail;
-    private StringBuilder sbresponseAggregationFail;
-    private int responseMsgCountSuccess;
-    private StringBuilder sbresponseAggregationSuccess;
-    private List<String> checksumAlgorithms = new ArrayList<>();
-    private static final List<String> supportedAlgorithms = Arrays.asList("MD5", "SHA-1", "SHA-256", "SHA-512");
+    private final Map<String, StepConfig> stepConfigsBefore = new HashMap<>();
+    private final Map<String, StepConfig> stepConfigsAfter = new HashMap<>();
+    private final Extensions extensions;
+    private final ValidationsHelper validationsHelper;
+    private static final String SHARED_STEP_MESSAGE = "Step: ";
+    private static final String ERROR_RESPONSE = "File is not valid.";
+    private static final String COMMON_FILE_ERROR = "Error reading file: ";
+    private static final String UNKNOWN_LABEL = "unknown";
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final long MAPPED_SEGMENT_SIZE = 64L * 1024 * 1024;
+    private final List<String> checksumAlgorithms = new ArrayList<>();
+    private final boolean memoryMapped;
+    private final VerdictCache verdictCache;
+    private final Executor asyncExecutor;
+    private static final int DEFAULT_PLUGIN_STEP_THREADS = 4 * Runtime.getRuntime().availableProcessors();
+    private final ThreadPoolExecutor pluginStepPool;
+    private final MetricsSink metricsSink;
+    private final ValidatorStatistics statistics = new ValidatorStatistics();
+    private final FileValidatorManagement management;
+    private static final List<String> supportedAlgorithms = Arrays.asList("MD5", "SHA-1", "SHA-256", "SHA-512", "SHA-256-TREE", "SHA-512-TREE", "CRC32C", "XXHASH64");
 
     /**
      * This method is used to initiate the class with relevant json configurations
@@ -68,9 +90,29 @@ public class FileValidator {
      * @throws IllegalArgumentException - If the configJsonObject is null or empty, or if the configJsonObject contains errors.
      */
     public FileValidator(JSONObject configJsonObject) throws IllegalArgumentException {
+        this(configJsonObject, null);
+    }
+
+    /**
+     * This method is used to initiate the class with relevant json configurations, measuring every stage of every validation.
+     * @param configJsonObject (JSONObject) - The json object containing the Validations and Plugins configurations for the class.
+     * @param metricsSink (MetricsSink) - The sink receiving the latency, bytes and outcome of every stage, or null to use an InMemoryMetrics
+     * when the General "Metrics" option is true, and measure nothing otherwise.
+     * @throws IllegalArgumentException - If the configJsonObject is null or empty, or if the configJsonObject contains errors.
+     */
+    public FileValidator(JSONObject configJsonObject, MetricsSink metricsSink) throws IllegalArgumentException {
+        StringBuilder sharedStringBuilder = new StringBuilder();
         if (configJsonObject == null || configJsonObject.isEmpty() || !configJsonObject.has("Validations")) {
             throw new IllegalArgumentException("Config JSON object cannot be null or empty, and must have Validations section.");
         } else {
+            memoryMapped = configJsonObject.has("General") && configJsonObject.getJSONObject("General").optBoolean("Memory_mapped", false);
+            JSONObject verdictCacheConfig = configJsonObject.has("General")
+                ? configJsonObject.getJSONObject("General").optJSONObject("Verdict_cache") : null;
+            verdictCache = verdictCacheConfig != null ? new VerdictCache(verdictCacheConfig, configJsonObject.toString()) : null;
+            asyncExecutor = AsyncExecutors.forMode(configJsonObject.has("General")
+                ? configJsonObject.getJSONObject("General").optString("Async_executor", "auto") : "auto");
+            pluginStepPool = newPluginStepPool(configJsonObject.has("General")
+                ? configJsonObject.getJSONObject("General").optInt("Plugin_step_threads", DEFAULT_PLUGIN_STEP_THREADS) : DEFAULT_PLUGIN_STEP_THREADS);
             try {
                 if (configJsonObject.has("General") && configJsonObject.getJSONObject("General").has("Checksums"))
                 {
@@ -86,7 +128,9 @@ public class FileValidator {
                 }
 
                 extensions = new Extensions(configJsonObject.getJSONObject("Validations"));
-                validationsHelper = new ValidationsHelper(extensions);
+                JSONArray mimeSignatures = configJsonObject.has("General")
+                    ? configJsonObject.getJSONObject("General").optJSONArray("Mime_signatures") : null;
+                validationsHelper = new ValidationsHelper(extensions, new MimeSniffer(mimeSignatures));
             } catch (Exception e) {
                 sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error initializing extensions: ")
                     .append(e.getMessage());
@@ -96,11 +140,17 @@ public class FileValidator {
         }
 
         this.configJsonObject = configJsonObject;
+        if (metricsSink == null && configJsonObject.has("General") && configJsonObject.getJSONObject("General").optBoolean("Metrics", false)) {
+            metricsSink = new InMemoryMetrics();
+        }
+        this.metricsSink = metricsSink;
+        validationsHelper.setMetricsSink(metricsSink);
         if (configJsonObject.has("Plugins")) {
             try {
                 pluginsHelper = new PluginsHelper(configJsonObject.getJSONObject("Plugins"));
                 loadPlugins();
                 checkPluginsConfig();
+                extensions.resolvePluginSteps(stepConfigsBefore, stepConfigsAfter);
             } catch (Exception e) {
                 sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error initializing plugins: ")
                     .append(e.getMessage());
@@ -108,6 +158,23 @@ public class FileValidator {
                 throw new IllegalArgumentException("Error initializing plugins: " + e.getMessage());
             }
         }
+        // The steps running before and after the validations, steps running at both stages listed once
+        Map<StepConfig, Boolean> stepConfigs = new IdentityHashMap<>();
+        for (StepConfig stepConfig : stepConfigsBefore.values()) {
+            if (stepConfig != null) {
+                stepConfigs.put(stepConfig, Boolean.TRUE);
+            }
+        }
+        for (StepConfig stepConfig : stepConfigsAfter.values()) {
+            if (stepConfig != null) {
+                stepConfigs.put(stepConfig, Boolean.TRUE);
+            }
+        }
+        management = new FileValidatorManagement(statistics, verdictCache, new ArrayList<>(stepConfigs.keySet()), pluginStepPool);
+        String jmxName = configJsonObject.has("General") ? configJsonObject.getJSONObject("General").optString("Jmx_name", "") : "";
+        if (!jmxName.isEmpty()) {
+            management.register(jmxName);
+        }
     }
 
     /**
@@ -122,17 +189,13 @@ public class FileValidator {
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
     public ValidationResponse validateFile(String fileCategory, byte[] originalFile, String fileName, Path outputDir,  String mimeString) {
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating with request mime ")
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, null, originalFile, mimeString, outputDir);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating with request mime ")
             .append(mimeString)
             .append(" and storage for file bytes of: ")
             .append(fileName);
-        logFine(sharedStringBuilder);
-        this.fileCategory = fileCategory;
-        this.fileName = fileName;
-        this.originalFile = originalFile;
-        this.mimeString = mimeString;
-        this.outDir = outputDir;
-        return validateFileMain();
+        logFine(ctx.sharedStringBuilder);
+        return validateFileMain(ctx);
     }
 
     /**
@@ -147,17 +210,13 @@ public class FileValidator {
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
     public ValidationResponse validateFile(String fileCategory, Path filePath, String fileName, Path outputDir,  String mimeString) {
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating with request mime ")
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, filePath, null, mimeString, outputDir);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating with request mime ")
             .append(mimeString)
             .append(" and storage for file path of: ")
             .append(fileName);
-        logFine(sharedStringBuilder);
-        this.fileCategory = fileCategory;
-        this.fileName = fileName;
-        this.mimeString = mimeString;
-        this.outDir = outputDir;
-        this.filePath = filePath;
-        return validateFileMain();
+        logFine(ctx.sharedStringBuilder);
+        return validateFileMain(ctx);
     }
     
     /**
@@ -170,16 +229,13 @@ public class FileValidator {
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
     public ValidationResponse validateFile(String fileCategory, byte[] originalFile, String fileName, String mimeString) {
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating with request ")
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, null, originalFile, mimeString, null);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating with request ")
             .append(mimeString)
             .append(" mime for file bytes of: ")
             .append(fileName);
-        logFine(sharedStringBuilder);
-        this.fileCategory = fileCategory;
-        this.fileName = fileName;
-        this.originalFile = originalFile;
-        this.mimeString = mimeString;
-        return validateFileMain();
+        logFine(ctx.sharedStringBuilder);
+        return validateFileMain(ctx);
     }
 
     /**
@@ -192,14 +248,11 @@ public class FileValidator {
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
     public ValidationResponse validateFile(String fileCategory, byte[] originalFile, String fileName, Path outputDir) {
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating and Storing file bytes of: ")
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, null, originalFile, null, outputDir);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating and Storing file bytes of: ")
             .append(fileName);
-        logFine(sharedStringBuilder);
-        this.fileCategory = fileCategory;
-        this.fileName = fileName;
-        this.originalFile = originalFile;
-        this.outDir = outputDir;
-        return validateFileMain();
+        logFine(ctx.sharedStringBuilder);
+        return validateFileMain(ctx);
     }
 
     /**
@@ -212,16 +265,13 @@ public class FileValidator {
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
     public ValidationResponse validateFile(String fileCategory, Path filePath, String fileName,  String mimeString) {
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating with request mime ")
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, filePath, null, mimeString, null);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating with request mime ")
             .append(mimeString)
             .append(" for file path of: ")
             .append(fileName);
-        logFine(sharedStringBuilder);
-        this.fileCategory = fileCategory;
-        this.fileName = fileName;
-        this.mimeString = mimeString;
-        this.filePath = filePath;
-        return validateFileMain();
+        logFine(ctx.sharedStringBuilder);
+        return validateFileMain(ctx);
     }
 
     /**
@@ -234,14 +284,11 @@ public class FileValidator {
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
     public ValidationResponse validateFile(String fileCategory, Path filePath, String fileName, Path outputDir) {
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating and Storing file path of: ")
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, filePath, null, null, outputDir);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating and Storing file path of: ")
             .append(fileName);
-        logFine(sharedStringBuilder);
-        this.fileCategory = fileCategory;
-        this.fileName = fileName;
-        this.outDir = outputDir;
-        this.filePath = filePath;
-        return validateFileMain();
+        logFine(ctx.sharedStringBuilder);
+        return validateFileMain(ctx);
     }
 
     /**
@@ -253,13 +300,11 @@ public class FileValidator {
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
     public ValidationResponse validateFile(String fileCategory, byte[] originalFile,String fileName) {
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating file bytes of: ")
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, null, originalFile, null, null);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating file bytes of: ")
             .append(fileName);
-        logFine(sharedStringBuilder);
-        this.fileCategory = fileCategory;
-        this.fileName = fileName;
-        this.originalFile = originalFile;
-        return validateFileMain();
+        logFine(ctx.sharedStringBuilder);
+        return validateFileMain(ctx);
     }
 
     /**
@@ -271,148 +316,604 @@ public class FileValidator {
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
     public ValidationResponse validateFile(String fileCategory, Path filePath, String fileName) {
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating file path of: ")
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, filePath, null, null, null);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating file path of: ")
             .append(fileName);
-        logFine(sharedStringBuilder);
-        this.fileCategory = fileCategory;
-        this.fileName = fileName;
-        this.filePath = filePath;
-        return validateFileMain();
+        logFine(ctx.sharedStringBuilder);
+        return validateFileMain(ctx);
+    }
+
+    /**
+     * This method is used to validate a file from a stream, without loading the whole file into memory, and return the results.
+     * Size, mime type, magic bytes, header/footer signatures and checksums are all evaluated in a single pass over the stream,
+     * and reading stops as soon as the file exceeds its configured max_size.
+     * ValidationResponse.getFileBytes() returns null for streamed files.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param inputStream (InputStream) - The file to be validated as a stream. The stream is not closed.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @return (ValidationResponse) - The results of the validations.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    public ValidationResponse validateStream(String fileCategory, InputStream inputStream, String fileName) {
+        return validateStream(fileCategory, inputStream, fileName, null, null);
+    }
+
+    /**
+     * This method is used to validate a file from a stream with existing mime type, typically present in web related file uploads.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param inputStream (InputStream) - The file to be validated as a stream. The stream is not closed.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @param mimeString (String) - The mime type of the file to be validated.
+     * @return (ValidationResponse) - The results of the validations.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    public ValidationResponse validateStream(String fileCategory, InputStream inputStream, String fileName, String mimeString) {
+        return validateStream(fileCategory, inputStream, fileName, null, mimeString);
+    }
+
+    /**
+     * This method is used to validate a file from a stream, and save the file to the output directory if passed validations.
+     * The stream is spooled to a temporary file while being validated, and moved to the output directory when valid.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param inputStream (InputStream) - The file to be validated as a stream. The stream is not closed.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @param outputDir (Path) - The directory to save the file to if it passes validations.
+     * @return (ValidationResponse) - The results of the validations.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    public ValidationResponse validateStream(String fileCategory, InputStream inputStream, String fileName, Path outputDir) {
+        return validateStream(fileCategory, inputStream, fileName, outputDir, null);
+    }
+
+    /**
+     * This method is used to validate a file from a stream with existing mime type, and save the file to the output directory if passed validations.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param inputStream (InputStream) - The file to be validated as a stream. The stream is not closed.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @param outputDir (Path) - The directory to save the file to if it passes validations, or null.
+     * @param mimeString (String) - The mime type of the file to be validated, or null.
+     * @return (ValidationResponse) - The results of the validations.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    public ValidationResponse validateStream(String fileCategory, InputStream inputStream, String fileName, Path outputDir, String mimeString) {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("inputStream cannot be null.");
+        }
+        return validateStream(fileCategory, Channels.newChannel(inputStream), fileName, outputDir, mimeString);
+    }
+
+    /**
+     * This method is used to validate a file from a channel, without loading the whole file into memory,
+     * and save the file to the output directory if passed validations.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param inputChannel (ReadableByteChannel) - The file to be validated as a blocking channel. The channel is not closed.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @param outputDir (Path) - The directory to save the file to if it passes validations, or null.
+     * @param mimeString (String) - The mime type of the file to be validated, or null.
+     * @return (ValidationResponse) - The results of the validations.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    public ValidationResponse validateStream(String fileCategory, ReadableByteChannel inputChannel, String fileName, Path outputDir, String mimeString) {
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, null, null, mimeString, outputDir);
+        ctx.inputChannel = inputChannel;
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating with request mime ")
+            .append(mimeString)
+            .append(" and storage in ")
+            .append(outputDir)
+            .append(" for stream of: ")
+            .append(fileName);
+        logFine(ctx.sharedStringBuilder);
+        return validateStreamMain(ctx);
+    }
+
+    /**
+     * This method is used to open an incremental validation of a file received in parts, such as a chunked or resumable upload.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @return (ValidationSession) - The session receiving the parts of the file, to finish or close once done.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    public ValidationSession openSession(String fileCategory, String fileName) {
+        return openSession(fileCategory, fileName, null, null);
+    }
+
+    /**
+     * This method is used to open an incremental validation of a file received in parts, such as a chunked or resumable upload,
+     * saving the file to the output directory if it passes validations.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @param outputDir (Path) - The directory to save the file to if it passes validations, or null.
+     * @param mimeString (String) - The mime type of the file to be validated, or null.
+     * @return (ValidationSession) - The session receiving the parts of the file, to finish or close once done.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    public ValidationSession openSession(String fileCategory, String fileName, Path outputDir, String mimeString) {
+        ValidationContext ctx = new ValidationContext(fileCategory, fileName, null, null, mimeString, outputDir);
+        checkCommonInputs(ctx);
+        ctx.fileExtension = getFileExtension(ctx.fileName);
+        ctx.rules = extensions.getExtensionRules(ctx.fileCategory, ctx.fileExtension);
+        ctx.commonLogString = String.format(" for file extension: %s", ctx.fileExtension);
+        String originalFilenameClean = ctx.fileName.replaceAll("[^\\p{IsAlphabetic}\\p{IsDigit}.]", "_");
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Opening validation session for ")
+            .append(originalFilenameClean).append(", as file type: ").append(ctx.fileCategory);
+        logInfo(ctx.sharedStringBuilder);
+
+        boolean hasBeforePlugins = !ctx.rules.beforeStages.isEmpty();
+        try {
+            StreamValidationsHelper streamValidations = new StreamValidationsHelper(ctx.rules, validationsHelper,
+                originalFilenameClean, ctx.mimeString, ctx.rules.addChecksum ? checksumAlgorithms : null);
+            OutputStream spoolStream = null;
+            if (hasBeforePlugins || !ctx.rules.afterStages.isEmpty() || ctx.outDir != null) {
+                spoolStream = Files.newOutputStream(spoolContentPath(ctx));
+            }
+            return new ValidationSession(this, ctx, streamValidations, originalFilenameClean, hasBeforePlugins, spoolStream);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            deleteSpoolDir(ctx);
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error opening validation session: ").append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
+            throw new IllegalArgumentException(ctx.sharedStringBuilder.toString());
+        }
+    }
+
+    /**
+     * This method is used to identify the type of a file from its content, by matching its first bytes against the
+     * header_signatures of every configured extension in all categories at once.
+     * Only the first getIdentifyHeadSize() bytes are looked at, so the whole file does not need to be passed.
+     * @param fileHead (byte[]) - The file, or at least its first bytes.
+     * @return (List&lt;FileTypeMatch&gt;) - The matching configured types, longest signature first, empty if none matched.
+     * @throws IllegalArgumentException - If fileHead is null or empty.
+     */
+    public List<FileTypeMatch> identifyFileType(byte[] fileHead) {
+        if (fileHead == null || fileHead.length == 0) {
+            throw new IllegalArgumentException("fileHead cannot be null or empty.");
+        }
+        return identifyFileType(fileHead, fileHead.length);
+    }
+
+    /**
+     * This method is used to identify the type of a file from a stream, reading only its first getIdentifyHeadSize() bytes.
+     * @param inputStream (InputStream) - The file as a stream. The stream is not closed, and is left past the bytes read.
+     * @return (List&lt;FileTypeMatch&gt;) - The matching configured types, longest signature first, empty if none matched.
+     * @throws IllegalArgumentException - If inputStream is null.
+     * @throws IOException - If there is an error reading the stream.
+     */
+    public List<FileTypeMatch> identifyFileType(InputStream inputStream) throws IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("inputStream cannot be null.");
+        }
+        byte[] head = new byte[getIdentifyHeadSize()];
+        int headLength = 0;
+        int bytesRead;
+        while (headLength < head.length && (bytesRead = inputStream.read(head, headLength, head.length - headLength)) != -1) {
+            headLength += bytesRead;
+        }
+        return identifyFileType(head, headLength);
+    }
+
+    /**
+     * This method is used to identify the type of a file on disk, reading only its first getIdentifyHeadSize() bytes.
+     * @param filePath (Path) - The path of the file.
+     * @return (List&lt;FileTypeMatch&gt;) - The matching configured types, longest signature first, empty if none matched.
+     * @throws IllegalArgumentException - If filePath is null.
+     * @throws IOException - If there is an error reading the file.
+     */
+    public List<FileTypeMatch> identifyFileType(Path filePath) throws IOException {
+        if (filePath == null) {
+            throw new IllegalArgumentException("filePath cannot be null.");
+        }
+        try (InputStream inputStream = Files.newInputStream(filePath)) {
+            return identifyFileType(inputStream);
+        }
+    }
+
+    /**
+     * Returns the number of first bytes of a file needed to identify its type, the length of the longest configured header_signatures.
+     * @return (int) - The number of first bytes used by identifyFileType.
+     */
+    public int getIdentifyHeadSize() {
+        return extensions.getSignatureTrie().getMaxDepth();
+    }
+
+    /**
+     * This method is used to validate the file as file bytes without blocking the calling thread.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param originalFile (byte[]) - The file to be validated as a byte array.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @return (CompletableFuture&lt;ValidationResponse&gt;) - The results of the validations, completed exceptionally with an IllegalArgumentException if any of the required inputs are null or empty.
+     */
+    public CompletableFuture<ValidationResponse> validateFileAsync(String fileCategory, byte[] originalFile, String fileName) {
+        return validateFileAsync(new ValidationRequest(fileCategory, originalFile, fileName), asyncExecutor);
+    }
+
+    /**
+     * This method is used to validate the file in target path without blocking the calling thread.
+     * @param fileCategory (String) - The category of the file to be validated.  This is used to determine which validations to run.
+     * @param filePath (Path) - The target file path to be validated.
+     * @param fileName (String) - The original name of the file to be validated.
+     * @return (CompletableFuture&lt;ValidationResponse&gt;) - The results of the validations, completed exceptionally with an IllegalArgumentException if any of the required inputs are null or empty.
+     */
+    public CompletableFuture<ValidationResponse> validateFileAsync(String fileCategory, Path filePath, String fileName) {
+        return validateFileAsync(new ValidationRequest(fileCategory, filePath, fileName), asyncExecutor);
+    }
+
+    /**
+     * This method is used to validate a file without blocking the calling thread, on the executor selected by the General Async_executor configuration.
+     * @param request (ValidationRequest) - The file to be validated.
+     * @return (CompletableFuture&lt;ValidationResponse&gt;) - The results of the validations, completed exceptionally with an IllegalArgumentException if any of the required inputs are null or empty.
+     */
+    public CompletableFuture<ValidationResponse> validateFileAsync(ValidationRequest request) {
+        return validateFileAsync(request, asyncExecutor);
+    }
+
+    /**
+     * This method is used to validate a file without blocking the calling thread, on the given executor.
+     * @param request (ValidationRequest) - The file to be validated.
+     * @param executor (Executor) - The executor running the validation, which blocks on disk reads and plugins.
+     * @return (CompletableFuture&lt;ValidationResponse&gt;) - The results of the validations, completed exceptionally with an IllegalArgumentException if any of the required inputs are null or empty.
+     */
+    public CompletableFuture<ValidationResponse> validateFileAsync(ValidationRequest request, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> validateFileMain(new ValidationContext(request.getFileCategory(), request.getFileName(),
+            request.getFilePath(), request.getFileBytes(), request.getMimeString(), request.getOutputDir())), executor);
+    }
+
+    /**
+     * This method is used to validate a batch of files, running validations concurrently, and return the results in the order of the requests.
+     * Requests with invalid inputs get an invalid response rather than stopping the batch.
+     * @param requests (Collection&lt;ValidationRequest&gt;) - The files to be validated.
+     * @return (List&lt;ValidationResponse&gt;) - The results of the validations, in the order of the requests.
+     * @throws InterruptedException - If the thread is interrupted while waiting for the validations.
+     */
+    public List<ValidationResponse> validateBatch(Collection<ValidationRequest> requests) throws InterruptedException {
+        final ValidationResponse[] responses = new ValidationResponse[requests.size()];
+        ValidationBatch.run(requests.iterator(), this::isBlockingRequest, this::validateRequest,
+            (index, request, response) -> responses[index] = response);
+        return Arrays.asList(responses);
+    }
+
+    /**
+     * This method is used to validate a stream of files, running validations concurrently, and pass each result to a handler as it completes.
+     * Requests are consumed from the stream as validations complete, and the method returns once all of them are handled.
+     * Requests with invalid inputs get an invalid response rather than stopping the batch.
+     * @param requests (Stream&lt;ValidationRequest&gt;) - The files to be validated.
+     * @param resultHandler (BiConsumer&lt;ValidationRequest, ValidationResponse&gt;) - Called with each request and its results, from the validating threads.
+     * @throws InterruptedException - If the thread is interrupted while waiting for the validations.
+     */
+    public void validateBatch(Stream<ValidationRequest> requests, BiConsumer<ValidationRequest, ValidationResponse> resultHandler) throws InterruptedException {
+        ValidationBatch.run(requests.iterator(), this::isBlockingRequest, this::validateRequest,
+            (index, request, response) -> resultHandler.accept(request, response));
+    }
+
+    /**
+     * Returns the sink receiving the latency, bytes and outcome of every stage of every validation.
+     * @return (MetricsSink) - The metrics sink, an InMemoryMetrics when enabled with the General "Metrics" option, or null if validations are not measured.
+     */
+    public MetricsSink getMetricsSink() {
+        return metricsSink;
+    }
+
+    /**
+     * Returns the live statistics and tunables of this validator, whether or not it is registered in the platform MBean server.
+     * @return (FileValidatorMXBean) - The management bean of this validator.
+     */
+    public FileValidatorMXBean getManagementBean() {
+        return management;
+    }
+
+    /**
+     * Returns the checksum tunables shared by every validator of the JVM, whether or not they are registered in the platform MBean server.
+     * @return (ChecksumsMXBean) - The management bean of the checksum calculations.
+     */
+    public static ChecksumsMXBean getChecksumsManagementBean() {
+        return ChecksumsManagement.INSTANCE;
+    }
+
+    /**
+     * Unregisters the management bean registered with the General "Jmx_name" option, so that the name can be used by another validator.
+     * Does nothing if the bean is not registered.
+     */
+    public void unregisterMBean() {
+        management.unregister();
+    }
+
+    /**
+     * Returns the verdict cache counters, "hits", "misses" and "entries", when the General Verdict_cache is configured.
+     * @return (Map&lt;String, Long&gt;) - The verdict cache counters, empty if the verdict cache is not configured.
+     */
+    public Map<String, Long> getVerdictCacheStats() {
+        return verdictCache != null ? verdictCache.getStats() : Collections.<String, Long>emptyMap();
     }
 
     /**
-     * This method is the internal entry point for the file validation process.
+     * This method is the internal entry point for the file validation process, returning the cached verdict of content already validated.
+     * @param ctx (ValidationContext) - The context of the current validation request.
      * @return (ValidationResponse) - The results of the validations.
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
-    private ValidationResponse validateFileMain() {
-        commonLogString = String.format(" for file extension: %s", fileExtension);
-        responseMsgCountFail = 0;
-        sbresponseAggregationFail = new StringBuilder("");
-        responseMsgCountSuccess = 0;
-        sbresponseAggregationSuccess = new StringBuilder("");
+    private ValidationResponse validateFileMain(ValidationContext ctx) {
+        long startNanos = startNanos(ValidationStage.TOTAL);
+        statistics.validationStarted();
+        try {
+            String verdictKey = verdictCacheKey(ctx);
+            if (verdictKey != null) {
+                VerdictCache.Verdict verdict = verdictCache.get(verdictKey);
+                if (verdict != null) {
+                    ValidationResponse response = cachedResponse(ctx, verdict);
+                    if (startNanos != 0) {
+                        // Cached verdicts are measured under the rules of their request
+                        ctx.rules = extensions.getExtensionRules(ctx.fileCategory, getFileExtension(ctx.fileName));
+                    }
+                    completeValidation(ctx, verdict.valid ? MetricsSink.Outcome.PASS : MetricsSink.Outcome.FAIL, startNanos, verdict.failedChecks);
+                    return response;
+                }
+            }
+            ValidationResponse response;
+            try {
+                response = validateFileContent(ctx);
+            } catch (IllegalArgumentException e) {
+                failValidation(ctx, startNanos);
+                throw e;
+            }
+            if (verdictKey != null && ctx.verdictCacheable) {
+                verdictCache.put(verdictKey, response, ctx.contentModified);
+            }
+            completeValidation(ctx, outcomeOf(ctx, response), startNanos);
+            return response;
+        } finally {
+            statistics.validationEnded();
+        }
+    }
+
+    /**
+     * This method runs the file validation process.
+     * @param ctx (ValidationContext) - The context of the current validation request.
+     * @return (ValidationResponse) - The results of the validations.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    private ValidationResponse validateFileContent(ValidationContext ctx) {
+        // Files on disk are validated in place when memory-mapped mode is enabled
+        if (memoryMapped && ctx.filePath != null) {
+            return validateStreamContent(ctx);
+        }
 
         // Check that the input parameters are not null or empty
-        checkMethodInputs();
+        checkMethodInputs(ctx);
 
         // Initialize variables
-        fileExtension = getFileExtension(fileName);
-        String originalFilenameClean = fileName.replaceAll("[^\\p{IsAlphabetic}\\p{IsDigit}.]", "_");
+        ctx.fileExtension = getFileExtension(ctx.fileName);
+        ctx.rules = extensions.getExtensionRules(ctx.fileCategory, ctx.fileExtension);
+        ctx.commonLogString = String.format(" for file extension: %s", ctx.fileExtension);
+        String originalFilenameClean = ctx.fileName.replaceAll("[^\\p{IsAlphabetic}\\p{IsDigit}.]", "_");
 
         // Log the file type category being validated
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Validating ").append(originalFilenameClean).append(", as file type: ").append(fileCategory);
-        logInfo(sharedStringBuilder);
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Validating ").append(originalFilenameClean).append(", as file type: ").append(ctx.fileCategory);
+        logInfo(ctx.sharedStringBuilder);
 
+        ValidationResponse beforePluginsResponse = executeBeforePluginsStage(ctx, originalFilenameClean);
+        if (beforePluginsResponse != null) {
+            return beforePluginsResponse;
+        }
+        return (doValidations(ctx, originalFilenameClean));
+    }
+
+    /**
+     * This method is the internal entry point for the streamed file validation process.
+     * @param ctx (ValidationContext) - The context of the current validation request.
+     * @return (ValidationResponse) - The results of the validations.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    private ValidationResponse validateStreamMain(ValidationContext ctx) {
+        long startNanos = startNanos(ValidationStage.TOTAL);
+        statistics.validationStarted();
+        try {
+            ValidationResponse response;
+            try {
+                response = validateStreamContent(ctx);
+            } catch (IllegalArgumentException e) {
+                failValidation(ctx, startNanos);
+                throw e;
+            }
+            completeValidation(ctx, outcomeOf(ctx, response), startNanos);
+            return response;
+        } finally {
+            statistics.validationEnded();
+        }
+    }
+
+    /**
+     * This method runs the streamed and memory-mapped file validation process.
+     * Streams are spooled to a temporary file only when plugins or the output directory need the content,
+     * while memory-mapped files are used in place and only copied if a plugin changes them.
+     * @param ctx (ValidationContext) - The context of the current validation request.
+     * @return (ValidationResponse) - The results of the validations.
+     * @throws IllegalArgumentException - If any of the required inputs are null or empty.
+     */
+    private ValidationResponse validateStreamContent(ValidationContext ctx) {
+        // Check that the input parameters are not null or empty
+        if (ctx.filePath != null) {
+            checkMappedInputs(ctx);
+        } else {
+            checkStreamInputs(ctx);
+        }
+
+        // Initialize variables
+        ctx.fileExtension = getFileExtension(ctx.fileName);
+        ctx.rules = extensions.getExtensionRules(ctx.fileCategory, ctx.fileExtension);
+        ctx.commonLogString = String.format(" for file extension: %s", ctx.fileExtension);
+        String originalFilenameClean = ctx.fileName.replaceAll("[^\\p{IsAlphabetic}\\p{IsDigit}.]", "_");
+
+        // Log the file type category being validated
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), ctx.filePath != null ? "Validating mapped " : "Validating stream ")
+            .append(originalFilenameClean).append(", as file type: ").append(ctx.fileCategory);
+        logInfo(ctx.sharedStringBuilder);
+
+        try {
+            boolean hasBeforePlugins = !ctx.rules.beforeStages.isEmpty();
+            if (ctx.filePath != null) {
+                ctx.contentPath = ctx.filePath;
+            } else if (hasBeforePlugins || !ctx.rules.afterStages.isEmpty() || ctx.outDir != null) {
+                spoolContentPath(ctx);
+            }
+            StreamValidationsHelper streamValidations = new StreamValidationsHelper(ctx.rules, validationsHelper,
+                originalFilenameClean, ctx.mimeString, ctx.rules.addChecksum ? checksumAlgorithms : null);
+
+            if (hasBeforePlugins) {
+                if (ctx.filePath == null) {
+                    // Before plugins need the whole file, so spool it first and validate what they leave behind
+                    long fileSize;
+                    try (OutputStream spoolStream = Files.newOutputStream(ctx.contentPath)) {
+                        fileSize = readStream(ctx.inputChannel, null, spoolStream);
+                    }
+                    checkStreamSize(fileSize);
+                }
+                ValidationResponse beforePluginsResponse = executeBeforePluginsStage(ctx, originalFilenameClean);
+                if (beforePluginsResponse != null) {
+                    return beforePluginsResponse;
+                }
+                ctx.contentModified = false;
+                readFile(ctx.contentPath, streamValidations);
+            } else {
+                executeBeforePluginsStage(ctx, originalFilenameClean);
+                if (ctx.filePath != null) {
+                    readFile(ctx.contentPath, streamValidations);
+                } else if (ctx.contentPath != null) {
+                    try (OutputStream spoolStream = Files.newOutputStream(ctx.contentPath)) {
+                        checkStreamSize(readStream(ctx.inputChannel, streamValidations, spoolStream));
+                    }
+                } else {
+                    checkStreamSize(readStream(ctx.inputChannel, streamValidations, null));
+                }
+            }
+            ValidationReport validationResults = streamValidations.getValidationReport();
+            return completeValidations(ctx, originalFilenameClean, validationResults, streamValidations.getChecksums());
+        } catch (IOException | NoSuchAlgorithmException | NumberFormatException | SecurityException e) {
+            ctx.verdictCacheable = false;
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error in doValidations: ").append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
+            return new ValidationResponse(false, ERROR_RESPONSE, ctx.sharedStringBuilder.toString() , originalFilenameClean, null, null);
+        } finally {
+            deleteSpoolDir(ctx);
+        }
+    }
+
+    /**
+     * Execute the plugins configured to run before the validations, if any
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param originalFilenameClean (String) a string containing the cleaned file name
+     * @return ValidationResponse (ValidationResponse) the failed validation response if a plugin failed, null otherwise
+     */
+    private ValidationResponse executeBeforePluginsStage(ValidationContext ctx, String originalFilenameClean) {
         // Check for before plugins
-        if (extensions.getValidationValue(fileCategory, fileExtension, "extension_plugins") != null) {
-            String executionResults = executeBeforePlugins(fileCategory, fileExtension);
-            if (executionResults.contains(". Failed for step:")) {
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), "executeBeforePlugins failed for file: ").append(originalFilenameClean).append(", Results: ").append(executionResults);
-                logWarn(sharedStringBuilder);
-                return new ValidationResponse(false, errorResponse, sharedStringBuilder.toString() , originalFilenameClean, null, null);
-            } else if (executionResults.contains(". Error for step:")) {
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error executing Plugins defined to run before validations for file: ").append(originalFilenameClean).append(", Results: ").append(executionResults);
-                sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                    .append("executeBeforePlugins passed with error: ")
-                    .append(executionResults);
-                logFine(sbresponseAggregationSuccess);
-                logWarn(sharedStringBuilder);
+        if (ctx.rules.extensionPlugins != null) {
+            ValidationReport.PluginStage executionResults = executeBeforePlugins(ctx);
+            if (executionResults.getStatus() == PluginOutcome.Status.FAILED) {
+                logWarn(ctx.report.fail("executeBeforePlugins failed for file: ", originalFilenameClean, ", Results: " + executionResults));
+                return new ValidationResponse(false, ERROR_RESPONSE, ctx.report, originalFilenameClean, null, null);
+            } else if (executionResults.getStatus() == PluginOutcome.Status.ERROR) {
+                logFine(ctx.report.pass("executeBeforePlugins passed with error: ", executionResults));
+                if (LOGGER.isLoggable(Level.WARNING)) {
+                    ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error executing Plugins defined to run before validations for file: ").append(originalFilenameClean).append(", Results: ").append(executionResults);
+                    logWarn(ctx.sharedStringBuilder);
+                }
             } else {
-                sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                    .append("executeBeforePlugins executed successfully: ")
-                    .append(executionResults);
-                logFine(sbresponseAggregationSuccess);
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), executionResults);
-                logInfo(sharedStringBuilder);
+                logInfo(ctx.report.pass("executeBeforePlugins executed successfully: ", executionResults));
             }
         }  else {
-            sharedStringBuilder.replace(0, sharedStringBuilder.length(), "No before plugins defined for file: ").append(originalFilenameClean);
-            logInfo(sharedStringBuilder);
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "No before plugins defined for file: ").append(originalFilenameClean);
+            logInfo(ctx.sharedStringBuilder);
         }
-        return (doValidations(originalFilenameClean));
+        return null;
     }
 
     /**
      * Following initial validations and before plugins, this method is used to execute the validations for the file.
+     * @param ctx (ValidationContext) the context of the current validation request
      * @param originalFilenameClean (String) a string containing the cleaned file name
      * @return ValidationResponse (ValidationResponse) a ValidationResponse object containing the results of the validation
      * @throws IllegalArgumentException - If any of the required inputs are null or empty.
      */
-    private ValidationResponse doValidations(String originalFilenameClean) {
+    private ValidationResponse doValidations(ValidationContext ctx, String originalFilenameClean) {
+        ValidationReport validationResults;
         try {
-            sharedStringBuilder = validationsHelper.getValidationResults(fileCategory, originalFilenameClean, originalFile, mimeString);
+            validationResults = validationsHelper.getValidationReport(ctx.rules, originalFilenameClean, ctx.originalFile, ctx.mimeString);
         } catch (Exception e) {
-            sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error in doValidations: ").append(e.getMessage());
-            logWarn(sharedStringBuilder);
-            return new ValidationResponse(false, errorResponse, sharedStringBuilder.toString() , originalFilenameClean, null, null);
+            ctx.verdictCacheable = false;
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error in doValidations: ").append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
+            return new ValidationResponse(false, ERROR_RESPONSE, ctx.sharedStringBuilder.toString() , originalFilenameClean, null, null);
         }
+        return completeValidations(ctx, originalFilenameClean, validationResults, null);
+    }
 
-        if (sharedStringBuilder.indexOf("Invalid") > -1) {
-            sbresponseAggregationFail.append(sharedStringBuilder);
-            logWarn(sharedStringBuilder);
-            return new ValidationResponse(false, errorResponse, sbresponseAggregationFail.toString(), originalFilenameClean, null, null);
-        } else {
-            sbresponseAggregationSuccess.append(sharedStringBuilder);
+    /**
+     * Following the validations, this method is used to execute the after plugins, calculate checksums and store the file.
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param originalFilenameClean (String) a string containing the cleaned file name
+     * @param validationResults (ValidationReport) the results of the file validations
+     * @param precomputedChecksums (Map) checksums already calculated while streaming the file, or null
+     * @return ValidationResponse (ValidationResponse) a ValidationResponse object containing the results of the validation
+     */
+    private ValidationResponse completeValidations(ValidationContext ctx, String originalFilenameClean,
+            ValidationReport validationResults, Map<String, String> precomputedChecksums) {
+        // The failed checks were already logged by the validations
+        ctx.report.addChecks(validationResults);
+        if (validationResults.hasFailures()) {
+            return new ValidationResponse(false, ERROR_RESPONSE, ctx.report, originalFilenameClean, null, null);
         }
 
         // Check for after plugins
-        executeAfterPlugins();
+        executeAfterPlugins(ctx);
         Map<String, String> checksumMap = new HashMap<>();
 
-        boolean isAddChecksum = extensions.getValidationValue(fileCategory, fileExtension, "add_checksum") != null 
-        ? (boolean) extensions.getValidationValue(fileCategory, fileExtension, "add_checksum") : true;
-        if (isAddChecksum) {
-            checksumMap = calculateChecksum(originalFile);
+        if (ctx.rules.addChecksum) {
+            if (precomputedChecksums != null && !ctx.contentModified) {
+                checksumMap = precomputedChecksums;
+            } else {
+                long startNanos = startNanos(ValidationStage.CHECKSUMS);
+                checksumMap = ctx.contentPath != null ? calculateChecksum(ctx.contentPath) : calculateChecksum(ctx.originalFile);
+                recordContentStage(ctx, ValidationStage.CHECKSUMS, checksumMap != null ? MetricsSink.Outcome.PASS : MetricsSink.Outcome.ERROR, startNanos);
+            }
+            ctx.verdictCacheable &= checksumMap != null;
         }
 
 
         // Check if file passed all defined validations, return false and reason if not.
-        if (responseMsgCountFail > 0) {
-            logWarn(sbresponseAggregationFail);
-            return new ValidationResponse(false, errorResponse, sbresponseAggregationFail.toString(), originalFilenameClean, originalFile, checksumMap);
+        if (ctx.report.hasFailures()) {
+            return new ValidationResponse(false, ERROR_RESPONSE, ctx.report, originalFilenameClean, ctx.originalFile, checksumMap);
         }
 
         // Check if the file name should be encoded
         String encodedFileName = "";
-        boolean isNameEncoding = extensions.getValidationValue(fileCategory, fileExtension, "name_encoding") != null ? (boolean) extensions.getValidationValue(fileCategory, fileExtension, "name_encoding") : false;
-        if (isNameEncoding) { 
-            sharedStringBuilder.replace(0, sharedStringBuilder.length(), Base64.getEncoder().encodeToString(originalFilenameClean.getBytes(StandardCharsets.UTF_8))).append(".").append(fileExtension);
-            encodedFileName = sharedStringBuilder.toString();
-            sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                    .append("File name: ")
-                    .append(originalFilenameClean)
-                    .append(" has been successfully encoded to: ")
-                    .append(encodedFileName);
-            logFine(sbresponseAggregationSuccess);
+        if (ctx.rules.nameEncoding) { 
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), Base64.getEncoder().encodeToString(originalFilenameClean.getBytes(StandardCharsets.UTF_8))).append(".").append(ctx.fileExtension);
+            encodedFileName = ctx.sharedStringBuilder.toString();
+            logFine(ctx.report.pass("File name: " + originalFilenameClean + " has been successfully encoded to: ", encodedFileName));
         }
         String targetFileName = encodedFileName.isEmpty() ? originalFilenameClean : encodedFileName;
 
         // Check if the file should be saved to output directory
-        String savedFilePath;
-        if (outDir != null && !isBlank(outDir.toString())) {
-            savedFilePath = saveFileToOutputDir(fileCategory, fileExtension, outDir, targetFileName, originalFile);
-            if (savedFilePath.contains("Error:")) {
+        if (ctx.outDir != null && !isBlank(ctx.outDir.toString())) {
+            String savedFilePath;
+            long startNanos = startNanos(ValidationStage.SAVE);
+            try {
+                savedFilePath = saveFileToOutputDir(ctx, targetFileName);
+                recordContentStage(ctx, ValidationStage.SAVE, MetricsSink.Outcome.PASS, startNanos);
+            } catch (IOException e) {
+                recordStage(ctx, ValidationStage.SAVE, MetricsSink.Outcome.ERROR, startNanos, 0);
                 // Return valid file response if file failed to save to output directory
-                sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                    .append("File is valid but failed to save to output directory: ")
-                    .append(savedFilePath);
-                logInfo(sbresponseAggregationSuccess);
-                return new ValidationResponse(true, "File is valid but failed to save to output directory", sbresponseAggregationSuccess.toString(), originalFilenameClean, originalFile, checksumMap);
+                ctx.report.pass("File is valid but failed to save to output directory: ", e.getMessage());
+                logDetails(ctx.report);
+                return new ValidationResponse(true, "File is valid but failed to save to output directory", ctx.report, originalFilenameClean, ctx.originalFile, checksumMap);
             }
             // Return valid file response if file was saved to output directory
-            sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                .append("File is valid and was saved to output directory: ")
-                .append(savedFilePath);
-            logInfo(sbresponseAggregationSuccess);
-            return new ValidationResponse(true, "File is valid and was saved to output directory", sbresponseAggregationSuccess.toString(), originalFilenameClean, originalFile, checksumMap);
+            ctx.report.pass("File is valid and was saved to output directory: ", savedFilePath);
+            logDetails(ctx.report);
+            return new ValidationResponse(true, "File is valid and was saved to output directory", ctx.report, originalFilenameClean, ctx.originalFile, checksumMap);
         }
 
         // Return valid response if file passed all validations but is not meant to be saved to disk
-        sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-            .append("File is valid: ")
-            .append(originalFilenameClean);
-        logInfo(sbresponseAggregationSuccess);
-        return new ValidationResponse(true, "File is valid", sbresponseAggregationSuccess.toString(), originalFilenameClean, originalFile, checksumMap);
+        ctx.report.pass("File is valid: ", originalFilenameClean);
+        logDetails(ctx.report);
+        return new ValidationResponse(true, "File is valid", ctx.report, originalFilenameClean, ctx.originalFile, checksumMap);
     }
     
 
@@ -422,9 +923,9 @@ public class FileValidator {
 
     /**
      * LOGGER.info wrapper
-     * @param message (String) - message to log
+     * @param message (Object) - message to log, rendered only if logged
      */
-    private void logInfo(StringBuilder message) {
+    private void logInfo(Object message) {
         if (LOGGER.isLoggable(Level.INFO)) {
             LOGGER.info(message.toString());
         }
@@ -432,9 +933,9 @@ public class FileValidator {
 
     /**
      * LOGGER.warning wrapper
-     * @param message (String) - message to log
+     * @param message (Object) - message to log, rendered only if logged
      */
-    private void logWarn(StringBuilder message) {
+    private void logWarn(Object message) {
         if (LOGGER.isLoggable(Level.WARNING)) {
             LOGGER.warning(message.toString());
         }
@@ -442,19 +943,149 @@ public class FileValidator {
 
     /**
      * LOGGER.severe wrapper
-     * @param message (String) - message to log
+     * @param message (Object) - message to log, rendered only if logged
      */
-    private void logSevere(StringBuilder message) {
+    private void logSevere(Object message) {
         if (LOGGER.isLoggable(Level.SEVERE)) {
             LOGGER.severe(message.toString());
         }
     }
 
+    /**
+     * Start measuring a stage, for the metrics sink or a Flight Recorder recording
+     * @param stage (ValidationStage) the stage to measure
+     * @return long (long) the current System.nanoTime, or 0 if the stage is not measured
+     */
+    private long startNanos(ValidationStage stage) {
+        return metricsSink != null || FlightRecorderEvents.isEnabled(stage) ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record a measured stage, labelled with the configured category and extension of the request
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param stage (ValidationStage) the measured stage
+     * @param outcome (MetricsSink.Outcome) the outcome of the stage
+     * @param startNanos (long) the System.nanoTime at which the stage started, or 0 if not measured
+     * @param bytes (long) the number of bytes processed by the stage
+     */
+    private void recordStage(ValidationContext ctx, ValidationStage stage, MetricsSink.Outcome outcome, long startNanos, long bytes) {
+        if (startNanos == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        String category = ctx.rules != null ? ctx.rules.category : UNKNOWN_LABEL;
+        String extension = ctx.rules != null ? ctx.rules.extension : UNKNOWN_LABEL;
+        if (metricsSink != null) {
+            metricsSink.record(category, extension, stage, outcome, nanos, bytes);
+        }
+        FlightRecorderEvents.commitStage(category, extension, stage, outcome, nanos, bytes);
+    }
+
+    /**
+     * Record a measured stage processing the whole content of the file
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param stage (ValidationStage) the measured stage
+     * @param outcome (MetricsSink.Outcome) the outcome of the stage
+     * @param startNanos (long) the System.nanoTime at which the stage started, or 0 if not measured
+     */
+    private void recordContentStage(ValidationContext ctx, ValidationStage stage, MetricsSink.Outcome outcome, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        recordStage(ctx, stage, outcome, startNanos, contentSize(ctx));
+    }
+
+    /**
+     * Get the size of the current content of a validation request
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @return long (long) the size of the content in bytes, or 0 if it cannot be read
+     */
+    private static long contentSize(ValidationContext ctx) {
+        long bytes = ctx.originalFile != null ? ctx.originalFile.length : ctx.report.getFileSize();
+        if (bytes < 0) {
+            try {
+                bytes = ctx.contentPath != null ? Files.size(ctx.contentPath) : 0;
+            } catch (IOException e) {
+                bytes = 0;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Count a completed validation and record its TOTAL stage
+     * @param ctx (ValidationContext) the context of the validation request
+     * @param outcome (MetricsSink.Outcome) the outcome of the validation
+     * @param startNanos (long) the System.nanoTime at which the validation started, or 0 if not measured
+     */
+    private void completeValidation(ValidationContext ctx, MetricsSink.Outcome outcome, long startNanos) {
+        completeValidation(ctx, outcome, startNanos,
+            outcome == MetricsSink.Outcome.FAIL ? ctx.report.getFailedChecks() : Collections.<CheckCode>emptyList());
+    }
+
+    /**
+     * Count a completed validation with the failed checks of its verdict, e.g. a cached verdict, and record its TOTAL stage
+     * @param ctx (ValidationContext) the context of the validation request
+     * @param outcome (MetricsSink.Outcome) the outcome of the validation
+     * @param startNanos (long) the System.nanoTime at which the validation started, or 0 if not measured
+     * @param failedChecks (List) the codes of the failed checks of the verdict
+     */
+    private void completeValidation(ValidationContext ctx, MetricsSink.Outcome outcome, long startNanos, List<CheckCode> failedChecks) {
+        long bytes = contentSize(ctx);
+        statistics.validationCompleted(outcome, bytes, failedChecks);
+        recordStage(ctx, ValidationStage.TOTAL, outcome, startNanos, bytes);
+    }
+
+    /**
+     * Count a validation rejected as an invalid request and record its TOTAL stage
+     * @param ctx (ValidationContext) the context of the validation request
+     * @param startNanos (long) the System.nanoTime at which the validation started, or 0 if not measured
+     */
+    private void failValidation(ValidationContext ctx, long startNanos) {
+        statistics.validationCompleted(MetricsSink.Outcome.ERROR, 0, Collections.<CheckCode>emptyList());
+        recordStage(ctx, ValidationStage.TOTAL, MetricsSink.Outcome.ERROR, startNanos, 0);
+    }
+
+    /**
+     * Get the outcome of a whole validation
+     * @param ctx (ValidationContext) the context of the validation request
+     * @param response (ValidationResponse) the response of the validation
+     * @return MetricsSink.Outcome (MetricsSink.Outcome) FAIL if the file failed a check or plugin, ERROR if the validation could not complete
+     */
+    private static MetricsSink.Outcome outcomeOf(ValidationContext ctx, ValidationResponse response) {
+        if (response.isValid()) {
+            return MetricsSink.Outcome.PASS;
+        }
+        return ctx.report.hasFailures() ? MetricsSink.Outcome.FAIL : MetricsSink.Outcome.ERROR;
+    }
+
+    /**
+     * Get the metrics outcome of a plugin stage
+     * @param status (PluginOutcome.Status) the outcome of the plugin stage
+     * @return MetricsSink.Outcome (MetricsSink.Outcome) the outcome of the measured stage
+     */
+    private static MetricsSink.Outcome outcomeOf(PluginOutcome.Status status) {
+        if (status == PluginOutcome.Status.SUCCESS) {
+            return MetricsSink.Outcome.PASS;
+        }
+        return status == PluginOutcome.Status.FAILED ? MetricsSink.Outcome.FAIL : MetricsSink.Outcome.ERROR;
+    }
+
+    /**
+     * Log the details of a valid file at INFO level, rendering them only if logged
+     * @param report (ValidationReport) - the report of the validation
+     */
+    private void logDetails(ValidationReport report) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info(report.render());
+        }
+    }
+
     /**
      * LOGGER.fine wrapper
-     * @param message (StringBuilder) - message to log
+     * @param message (Object) - message to log, rendered only if logged
      */
-    private void logFine(StringBuilder message) {
+    private void logFine(Object message) {
         if (LOGGER.isLoggable(Level.FINE )) {
             LOGGER.fine(message.toString());
         }
@@ -499,7 +1130,7 @@ public class FileValidator {
     private void checkPluginsExist(JSONObject validationsJsonObject, String categroyKey, String extensionKey){
         for (String pluginName : validationsJsonObject.getJSONObject(categroyKey).getJSONObject(extensionKey).getJSONArray("extension_plugins").toList().toArray(new String[0])) {
             if (!stepConfigsBefore.containsKey(pluginName) && !stepConfigsAfter.containsKey(pluginName)) {
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), sharedStepMessage).append(pluginName).append(" defined in config does not exist in plugins configuration");
+                StringBuilder sharedStringBuilder = new StringBuilder(SHARED_STEP_MESSAGE).append(pluginName).append(" defined in config does not exist in plugins configuration");
                 logWarn(sharedStringBuilder);
                 throw new IllegalArgumentException(sharedStringBuilder.toString());
             }
@@ -508,241 +1139,686 @@ public class FileValidator {
 
     /**
      * This method is used to check that method inputs are as expected
+     * @param ctx (ValidationContext) - The context of the current validation request.
      * @throws IllegalArgumentException - If any of the inputs are null, empty, or does not contain appropiate values
      * @throws IOException - If there is an error reading the file
      */
-    private void checkMethodInputs() {
-        if (isBlank(fileCategory)) {
+    private void checkMethodInputs(ValidationContext ctx) {
+        checkCommonInputs(ctx);
+        checkFilePathInputs(ctx);
+        if (ctx.filePath != null && ctx.originalFile == null) {
+            try {
+                Path path = ctx.filePath;
+                ctx.originalFile = Files.readAllBytes(path);
+            } catch (IOException e) {
+                ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), COMMON_FILE_ERROR)
+                    .append(e.getMessage());
+                logWarn(ctx.sharedStringBuilder);
+                throw new IllegalArgumentException("Error reading file: " + e.getMessage());
+            }
+        }
+        if (ctx.originalFile == null || ctx.originalFile.length == 0) {
+            throw new IllegalArgumentException("originalFile cannot be null or empty.");
+        }
+    }
+
+    /**
+     * This method is used to check that memory-mapped validation inputs are as expected, without reading the file
+     * @param ctx (ValidationContext) - The context of the current validation request.
+     * @throws IllegalArgumentException - If any of the inputs are null, empty, or does not contain appropiate values
+     */
+    private void checkMappedInputs(ValidationContext ctx) {
+        checkCommonInputs(ctx);
+        checkFilePathInputs(ctx);
+        long fileSize;
+        try {
+            fileSize = Files.size(ctx.filePath);
+        } catch (IOException e) {
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), COMMON_FILE_ERROR)
+                .append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
+            throw new IllegalArgumentException("Error reading file: " + e.getMessage());
+        }
+        if (fileSize == 0) {
+            throw new IllegalArgumentException("originalFile cannot be null or empty.");
+        }
+    }
+
+    /**
+     * This method is used to check that the file path input points to a file
+     * @param ctx (ValidationContext) - The context of the current validation request.
+     * @throws IllegalArgumentException - If the file path does not exist or is a directory
+     */
+    private void checkFilePathInputs(ValidationContext ctx) {
+        if (ctx.filePath != null && !Files.exists(ctx.filePath)) {
+            throw new IllegalArgumentException("filepath does not exist.");
+        } else if (ctx.filePath != null && Files.isDirectory(ctx.filePath)) {
+            throw new IllegalArgumentException("filepath cannot be a directory.");
+        }
+    }
+
+    /**
+     * This method is used to check that streamed validation inputs are as expected
+     * @param ctx (ValidationContext) - The context of the current validation request.
+     * @throws IllegalArgumentException - If any of the inputs are null, empty, or does not contain appropiate values
+     */
+    private void checkStreamInputs(ValidationContext ctx) {
+        checkCommonInputs(ctx);
+        if (ctx.inputChannel == null) {
+            throw new IllegalArgumentException("inputStream cannot be null.");
+        }
+    }
+
+    /**
+     * This method is used to check the inputs shared by all validation methods
+     * @param ctx (ValidationContext) - The context of the current validation request.
+     * @throws IllegalArgumentException - If any of the inputs are null, empty, or does not contain appropiate values
+     */
+    private void checkCommonInputs(ValidationContext ctx) {
+        if (isBlank(ctx.fileCategory)) {
             throw new IllegalArgumentException("fileCategory cannot be null or empty.");
         }
-        if (isBlank(fileName)) {
+        if (isBlank(ctx.fileName)) {
             throw new IllegalArgumentException("fileName cannot be null or empty.");
         }
-        if (fileName.indexOf(".") == -1) {
+        if (ctx.fileName.indexOf(".") == -1) {
             throw new IllegalArgumentException("fileName must contain a file extension.");
         }
-        if (outDir != null && !Files.exists(outDir)) {
+        if (ctx.outDir != null && !Files.exists(ctx.outDir)) {
             throw new IllegalArgumentException("outDir does not exist.");
         }
-        if (filePath != null && !Files.exists(filePath)) {
-            throw new IllegalArgumentException("filepath does not exist.");
-        } else if (filePath != null && Files.isDirectory(filePath)) {
-            throw new IllegalArgumentException("filepath cannot be a directory.");
-        } else if (filePath != null) {
-            try {
-                Path path = filePath;
-                originalFile = Files.readAllBytes(path);
-            } catch (IOException e) {
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), commonFileError)
-                    .append(e.getMessage());
-                logWarn(sharedStringBuilder);
-                throw new IllegalArgumentException("Error reading file: " + e.getMessage());
+    }
+
+    /**
+     * Complete the validations of a session once all parts were appended, in the same way as a streamed validation
+     * @param session (ValidationSession) the session to complete
+     * @param rejected (boolean) true if the first parts already failed the validations
+     * @return ValidationResponse (ValidationResponse) the results of the validations
+     * @throws IllegalArgumentException - If no bytes were appended
+     */
+    ValidationResponse finishSession(ValidationSession session, boolean rejected) {
+        long startNanos = startNanos(ValidationStage.TOTAL);
+        statistics.validationStarted();
+        try {
+            ValidationResponse response = finishSessionContent(session, rejected);
+            completeValidation(session.ctx, outcomeOf(session.ctx, response), startNanos);
+            return response;
+        } finally {
+            statistics.validationEnded();
+        }
+    }
+
+    /**
+     * Complete the validations of a session
+     * @param session (ValidationSession) the session to complete
+     * @param rejected (boolean) true if the session was rejected by the validations of its first parts
+     * @return ValidationResponse (ValidationResponse) the results of the validations
+     */
+    private ValidationResponse finishSessionContent(ValidationSession session, boolean rejected) {
+        ValidationContext ctx = session.ctx;
+        String originalFilenameClean = session.originalFilenameClean;
+        try {
+            if (!rejected) {
+                checkStreamSize(session.getSize());
             }
+            if (session.hasBeforePlugins) {
+                ValidationResponse beforePluginsResponse = executeBeforePluginsStage(ctx, originalFilenameClean);
+                if (beforePluginsResponse != null) {
+                    return beforePluginsResponse;
+                }
+                ctx.contentModified = false;
+                readFile(ctx.contentPath, session.streamValidations);
+            } else if (!rejected) {
+                executeBeforePluginsStage(ctx, originalFilenameClean);
+            }
+            ValidationReport validationResults = session.streamValidations.getValidationReport();
+            return completeValidations(ctx, originalFilenameClean, validationResults, session.streamValidations.getChecksums());
+        } catch (IOException e) {
+            ctx.verdictCacheable = false;
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error in doValidations: ").append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
+            return new ValidationResponse(false, ERROR_RESPONSE, ctx.sharedStringBuilder.toString() , originalFilenameClean, null, null);
+        } finally {
+            discardSession(session);
         }
-        if (originalFile == null || originalFile.length == 0) {
-            throw new IllegalArgumentException("originalFile cannot be null or empty.");
+    }
+
+    /**
+     * Delete the temporary file of a session, if any
+     * @param session (ValidationSession) the finished or abandoned session
+     */
+    void discardSession(ValidationSession session) {
+        deleteSpoolDir(session.ctx);
+    }
+
+    /**
+     * Delete the spool directory of a validation, once
+     * @param ctx (ValidationContext) the context of the validation request
+     */
+    private void deleteSpoolDir(ValidationContext ctx) {
+        if (ctx.spoolDir != null) {
+            deleteTempDir(ctx, ctx.spoolDir);
+            ctx.spoolDir = null;
+            statistics.spoolDeleted();
         }
     }
 
     /**
-     * Execute and check results of plugins configured to run before the validations
-     * @param fileCategory (String) the file category of the file being validated
-     * @param fileExtension (String) the file extension of the file being validated
-     * @return String (String) a string containing the results of the plugin execution
-     */
-    private String executeBeforePlugins(String fileCategory, String fileExtension) {
-        String responseAggregation = "";
-        char responseMsgCount = 'a';
-        StringBuilder sbResponseAggregation = new StringBuilder(responseAggregation);
-        
-
-        ArrayList plugins = (ArrayList) extensions.getValidationValue(fileCategory, fileExtension, "extension_plugins");
-        for (int i = 0; i < plugins.size(); i++) {
-            String extensionPlugin = (String) plugins.get(i);
-            for (String step : stepConfigsBefore.keySet()) {
-                if (step.equals(extensionPlugin)) {
-                    String stepResults = executePlugin(extensionPlugin, stepConfigsBefore, fileExtension);
-                    sharedStringBuilder.replace(0, sharedStringBuilder.length(), sharedStepMessage)
-                        .append(stepConfigsBefore.get(extensionPlugin).getName()).append(" Success, Results: Error");
-                    String sharedString = ", Results: ";
-                    if (stepResults.startsWith(sharedStringBuilder.toString()) || stepResults.startsWith("Error ")) {
-                        if (stepConfigsBefore.get(extensionPlugin).getOnFail().equals("fail")) {
-                            sbResponseAggregation.append(System.lineSeparator()).append("\t")  .append(responseMsgCount + ". ")
-                                .append("Failed for step: ")
-                                .append(stepConfigsBefore.get(extensionPlugin).getName())
-                                .append(sharedString)
-                                .append(stepResults);
-                            logFine(sbResponseAggregation);        
-                            return sbResponseAggregation.toString();
-                        }
-                        sbResponseAggregation.append(System.lineSeparator()).append("\t")  .append(responseMsgCount + ". ")
-                            .append("Error for step: ")
-                            .append(stepConfigsBefore.get(extensionPlugin).getName())
-                            .append(sharedString + stepResults);
-                        logFine(sbResponseAggregation);
-                        ++responseMsgCount;
-                        responseAggregation = sbResponseAggregation.toString();
-                    } else {
-                        sbResponseAggregation.append(System.lineSeparator()).append("\t")  .append(responseMsgCount + ". ")
-                            .append("Success for step: ")
-                            .append(stepConfigsBefore.get(extensionPlugin).getName());
-                        logFine(sbResponseAggregation);
-                        ++responseMsgCount;
-                    }
+     * Check that a streamed file was not empty
+     * @param fileSize (long) the number of bytes read from the stream
+     * @throws IllegalArgumentException - If the stream was empty
+     */
+    private void checkStreamSize(long fileSize) {
+        if (fileSize == 0) {
+            throw new IllegalArgumentException("inputStream cannot be empty.");
+        }
+    }
+
+    /**
+     * Read a stream to its end in chunks, feeding the incremental validations and/or a spool file
+     * @param channel (ReadableByteChannel) the channel to read
+     * @param streamValidations (StreamValidationsHelper) the incremental validations, or null
+     * @param spoolStream (OutputStream) the stream to copy the content to, or null
+     * @return long (long) the number of bytes read, reading stops early once the file exceeds its max_size
+     * @throws IOException - If there is an error reading or spooling the stream
+     */
+    private long readStream(ReadableByteChannel channel, StreamValidationsHelper streamValidations, OutputStream spoolStream) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        long totalBytes = 0;
+        int bytesRead;
+        while ((bytesRead = channel.read(ByteBuffer.wrap(buffer))) != -1) {
+            totalBytes += bytesRead;
+            if (streamValidations != null && !streamValidations.update(buffer, 0, bytesRead)) {
+                break;
+            }
+            if (spoolStream != null) {
+                spoolStream.write(buffer, 0, bytesRead);
+            }
+        }
+        return totalBytes;
+    }
+
+    /**
+     * Read a file on disk for the incremental validations, memory-mapped when enabled.
+     * The size is checked before reading, and when no check needs the whole content only its first and last bytes are read.
+     * @param filePath (Path) the file to read
+     * @param streamValidations (StreamValidationsHelper) the incremental validations
+     * @throws IOException - If there is an error reading the file
+     */
+    private void readFile(Path filePath, StreamValidationsHelper streamValidations) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long fileSize = fileChannel.size();
+            if (!streamValidations.expectSize(fileSize)) {
+                return;
+            }
+            if (!memoryMapped) {
+                readStream(fileChannel, streamValidations, null);
+                return;
+            }
+            if (!streamValidations.isFullScanRequired()) {
+                long headSize = Math.min(streamValidations.getHeadSize(), fileSize);
+                long tailSize = Math.min(streamValidations.getTailSize(), fileSize);
+                streamValidations.updateSparse(fileSize,
+                    fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, headSize),
+                    fileChannel.map(FileChannel.MapMode.READ_ONLY, fileSize - tailSize, tailSize));
+                return;
+            }
+            // Map in segments, as a single mapping is limited to 2 GB
+            for (long position = 0; position < fileSize; position += MAPPED_SEGMENT_SIZE) {
+                if (!streamValidations.update(fileChannel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAPPED_SEGMENT_SIZE, fileSize - position)))) {
+                    return;
                 }
             }
         }
-        return "executeBeforePlugins completed: " + sbResponseAggregation.toString();
     }
 
-    private void executeAfterPlugins() {
+    /**
+     * Point the content of the validation to a file in its own temporary spool directory
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @return Path (Path) the spooled content path
+     * @throws IOException - If the spool directory cannot be created
+     */
+    private Path spoolContentPath(ValidationContext ctx) throws IOException {
+        if (ctx.spoolDir == null) {
+            ctx.spoolDir = Files.createTempDirectory("filechampion");
+            statistics.spoolCreated();
+        }
+        ctx.contentPath = ctx.spoolDir.resolve("content." + ctx.fileExtension);
+        return ctx.contentPath;
+    }
+
+    /**
+     * Match the first bytes of a file against the signature trie
+     * @param head (byte[]) the first bytes of the file
+     * @param headLength (int) the number of valid bytes in head
+     * @return List (List) the matching configured types, longest signature first
+     */
+    private List<FileTypeMatch> identifyFileType(byte[] head, int headLength) {
+        List<FileTypeMatch> matches = new ArrayList<>();
+        for (ExtensionRules rules : extensions.getSignatureTrie().match(head, headLength)) {
+            matches.add(new FileTypeMatch(rules.category, rules.extension, rules.headerSignatures.length));
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(new StringBuilder("Identified file types: ").append(matches).toString());
+        }
+        return matches;
+    }
+
+    /**
+     * Execute and check results of plugins configured to run before the validations
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @return ValidationReport.PluginStage (ValidationReport.PluginStage) the outcomes of the plugin execution
+     */
+    private ValidationReport.PluginStage executeBeforePlugins(ValidationContext ctx) {
+        return executePluginStages(ctx, ctx.rules.beforeStages, ValidationStage.BEFORE_PLUGINS, "executeBeforePlugins completed: ");
+    }
+
+    private void executeAfterPlugins(ValidationContext ctx) {
         // Check for after plugins
-        if (extensions.getValidationValue(fileCategory, fileExtension, "extension_plugins") != null) {
-            String executionResults = executeAfterPluginsProcess(fileCategory, fileExtension);
-            if (executionResults.contains(". Failed for step:")) {
-                sbresponseAggregationFail.append(System.lineSeparator() + ++responseMsgCountFail + ". ")
-                    .append("Error in executeAfterPlugins: ")
-                    .append(executionResults)
-                    .append(commonLogString);
-                logWarn(sbresponseAggregationFail);
-            } else if (executionResults.contains(". Error for step:")) {
-                sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                    .append("executeAfterPlugins passed with error: ")
-                    .append(executionResults);
-                logFine(sbresponseAggregationSuccess);
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error in executeAfterPlugins: ").append(executionResults);
-                logWarn(sharedStringBuilder);
+        if (ctx.rules.extensionPlugins != null) {
+            ValidationReport.PluginStage executionResults = executeAfterPluginsProcess(ctx);
+            if (executionResults.getStatus() == PluginOutcome.Status.FAILED) {
+                logWarn(ctx.report.fail("Error in executeAfterPlugins: ", executionResults, ctx.commonLogString));
+            } else if (executionResults.getStatus() == PluginOutcome.Status.ERROR) {
+                logFine(ctx.report.pass("executeAfterPlugins passed with error: ", executionResults));
+                if (LOGGER.isLoggable(Level.WARNING)) {
+                    ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error in executeAfterPlugins: ").append(executionResults);
+                    logWarn(ctx.sharedStringBuilder);
+                }
             } else {
-                sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                    .append("executeAfterPlugins executed successfully: ")
-                    .append(executionResults);
-                logFine(sbresponseAggregationSuccess);
+                logFine(ctx.report.pass("executeAfterPlugins executed successfully: ", executionResults));
             }
         } else {
-            sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                .append("No after plugins to execute");
-            logFine(sbresponseAggregationSuccess);
+            logFine(ctx.report.pass("No after plugins to execute", null));
         }
     }
 
     /**
      * Execute and check results of plugins configured to run after the validations
-     * @param fileCategory (String) the file category of the file being validated
-     * @param fileExtension (String) the file extension of the file being validated
-     * @return String (String) a string containing the results of the plugin execution
-     */
-    private String executeAfterPluginsProcess(String fileCategory, String fileExtension) {
-        String responseAggregation = "";
-        char responseMsgCount = 'a';
-        StringBuilder sbResponseAggregation = new StringBuilder(responseAggregation);
-        
-        ArrayList plugins = (ArrayList) extensions.getValidationValue(fileCategory, fileExtension, "extension_plugins");
-        for (int i = 0; i < plugins.size(); i++) {
-            String extensionPlugin = (String) plugins.get(i);
-            for (String step : stepConfigsAfter.keySet()) {
-                if (step.equals(extensionPlugin)) {
-                    String stepResults = executePlugin(extensionPlugin, stepConfigsAfter, fileExtension);
-                    sharedStringBuilder.replace(0, sharedStringBuilder.length(), sharedStepMessage)
-                        .append(stepConfigsAfter.get(extensionPlugin).getName()).append(" Success, Results: Error");
-                    String sharedString = ", Results: ";
-                    if (stepResults.startsWith(sharedStringBuilder.toString()) || stepResults.startsWith("Error ")) {
-                        if (stepConfigsAfter.get(extensionPlugin).getOnFail().equals("fail")) {
-                            sbResponseAggregation.append(System.lineSeparator()).append("\t")  .append(responseMsgCount + ". ")
-                                .append("Failed for step: ")
-                                .append(stepConfigsAfter.get(extensionPlugin).getName())
-                                .append(sharedString)
-                                .append(stepResults);
-                            logFine(sbResponseAggregation);
-                            return sbResponseAggregation.toString();
-                        }
-                        sbResponseAggregation.append(System.lineSeparator()).append("\t")  .append(responseMsgCount + ". ")
-                            .append("Error for step: ")
-                            .append(stepConfigsAfter.get(extensionPlugin).getName())
-                            .append(sharedString + stepResults);
-                        logFine(sbResponseAggregation);
-                        ++responseMsgCount;
-                        responseAggregation = sbResponseAggregation.toString();
-                    } else {
-                        sbResponseAggregation.append(System.lineSeparator()).append("\t")  .append(responseMsgCount + ". ")
-                            .append("Success for step: ")
-                            .append(stepConfigsAfter.get(extensionPlugin).getName());
-                        logFine(sbResponseAggregation);
-                        ++responseMsgCount;
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @return ValidationReport.PluginStage (ValidationReport.PluginStage) the outcomes of the plugin execution
+     */
+    private ValidationReport.PluginStage executeAfterPluginsProcess(ValidationContext ctx) {
+        return executePluginStages(ctx, ctx.rules.afterStages, ValidationStage.AFTER_PLUGINS, "executeAfterPlugins completed: ");
+    }
+
+    /**
+     * Execute plugin steps stage by stage, the steps of a stage running concurrently, and check their outcomes in order
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param stages (List) the stages of plugin steps to execute
+     * @param validationStage (ValidationStage) the stage measuring the execution
+     * @param completedMessage (String) the prefix of the results when no failing step stopped the execution
+     * @return ValidationReport.PluginStage (ValidationReport.PluginStage) the outcomes of the executed steps, recorded in the report
+     */
+    private ValidationReport.PluginStage executePluginStages(ValidationContext ctx, List<List<StepConfig>> stages,
+            ValidationStage validationStage, String completedMessage) {
+        long startNanos = stages.isEmpty() ? 0 : startNanos(validationStage);
+        List<PluginOutcome> outcomes = new ArrayList<>();
+        stagesLoop:
+        for (List<StepConfig> stage : stages) {
+            List<Map<String, Map<String, String>>> stageResults = runPluginStage(ctx, stage);
+            PluginOutcome[] stepsOutcomes = new PluginOutcome[stage.size()];
+            for (int i = 0; i < stage.size(); i++) {
+                stepsOutcomes[i] = applyPluginResults(ctx, stage.get(i), stageResults.get(i));
+            }
+            for (int i = 0; i < stage.size(); i++) {
+                StepConfig stepConfig = stage.get(i);
+                PluginOutcome stepOutcome = stepsOutcomes[i];
+                if (stepOutcome.getStatus() != PluginOutcome.Status.SUCCESS) {
+                    // Plugin errors may be transient, so their verdicts are never cached
+                    ctx.verdictCacheable = false;
+                    if (stepConfig.getOnFail().equals("fail")) {
+                        outcomes.add(stepOutcome.withStatus(PluginOutcome.Status.FAILED));
+                        logFine(stepOutcome);
+                        break stagesLoop;
                     }
                 }
+                outcomes.add(stepOutcome);
+                logFine(stepOutcome);
+            }
+        }
+        ValidationReport.PluginStage pluginStage = new ValidationReport.PluginStage(completedMessage, outcomes);
+        ctx.report.addPluginStage(pluginStage);
+        recordContentStage(ctx, validationStage, outcomeOf(pluginStage.getStatus()), startNanos);
+        return pluginStage;
+    }
+
+    /**
+     * Run the plugins of a stage, the first one on the calling thread and the others concurrently, on the calling thread too when the pool is busy
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param stage (List) the plugin steps of the stage
+     * @return List (List) the raw results of each step, in the order of the stage
+     */
+    private List<Map<String, Map<String, String>>> runPluginStage(ValidationContext ctx, List<StepConfig> stage) {
+        for (StepConfig stepConfig : stage) {
+            if (stepConfig.getResultCache() != null) {
+                calculateContentDigest(ctx);
+                break;
+            }
+        }
+        List<Future<Map<String, Map<String, String>>>> futures = new ArrayList<>();
+        for (int i = 1; i < stage.size(); i++) {
+            final StepConfig stepConfig = stage.get(i);
+            futures.add(pluginStepPool.submit(() -> runPlugin(ctx, stepConfig)));
+        }
+        List<Map<String, Map<String, String>>> stageResults = new ArrayList<>();
+        stageResults.add(runPlugin(ctx, stage.get(0)));
+        for (Future<Map<String, Map<String, String>>> future : futures) {
+            try {
+                stageResults.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                stageResults.add(stepError("interrupted"));
+            } catch (ExecutionException e) {
+                stageResults.add(stepError(String.valueOf(e.getCause())));
+            }
+        }
+        return stageResults;
+    }
+
+    /**
+     * Execute a single plugin step, or return its cached results, without changing the validation context so that steps can run concurrently
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param stepConfig (StepConfig) the configuration of the step to execute
+     * @return Map (Map) the results of the step, keyed by "Success" or "Error: ", or empty for an unknown step type
+     */
+    private Map<String, Map<String, String>> runPlugin(ValidationContext ctx, StepConfig stepConfig) {
+        long startNanos = FlightRecorderEvents.isPluginStepEnabled() ? System.nanoTime() : 0;
+        PluginResultCache resultCache = ctx.contentDigest != null ? stepConfig.getResultCache() : null;
+        if (resultCache != null) {
+            try {
+                Map<String, Map<String, String>> cachedResults = resultCache.get(ctx.contentDigest, ctx.fileExtension);
+                if (cachedResults != null) {
+                    logFine(new StringBuilder(SHARED_STEP_MESSAGE).append(stepConfig.getName()).append(" cached results used"));
+                    recordPluginStep(ctx, stepConfig, true, cachedResults, startNanos);
+                    return cachedResults;
+                }
+            } catch (IOException e) {
+                logWarn(new StringBuilder("Error reading cached plugin results: ").append(e.getMessage()));
             }
         }
-        return "executeAfterPlugins completed: " + sbResponseAggregation.toString();
+        Map<String, Map<String, String>> stepResults = executePluginStep(ctx, stepConfig);
+        if (resultCache != null) {
+            try {
+                resultCache.put(ctx.contentDigest, ctx.fileExtension, stepResults);
+            } catch (IOException e) {
+                logWarn(new StringBuilder("Error caching plugin results: ").append(e.getMessage()));
+            }
+        }
+        recordPluginStep(ctx, stepConfig, false, stepResults, startNanos);
+        return stepResults;
     }
 
     /**
-     * Execute a single plugin step
-     * @param extensionPlugin (String) a string containing the name of the plugin step to execute
-     * @param stepConfigs (Map<String, StepConfig>) a map containing the configuration for the step to execute
-     * @param fileExtension (String) the file extension of the file being validated
-     * @return String (String) a string containing the results of the plugin execution
+     * Emit the Flight Recorder event of a plugin step
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param stepConfig (StepConfig) the configuration of the executed step
+     * @param cached (boolean) true if the results were read from the result cache of the step
+     * @param stepResults (Map) the results of the step
+     * @param startNanos (long) the System.nanoTime at which the step started, or 0 if not measured
      */
-    private String executePlugin(String extensionPlugin, Map<String, StepConfig> stepConfigs , String fileExtension) {
+    private static void recordPluginStep(ValidationContext ctx, StepConfig stepConfig, boolean cached,
+            Map<String, Map<String, String>> stepResults, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        FlightRecorderEvents.commitPluginStep(ctx.rules.category, ctx.rules.extension, stepConfig.getName(), stepConfig.getType(), cached,
+            stepResults.containsKey("Success") || stepResults.isEmpty() ? MetricsSink.Outcome.PASS : MetricsSink.Outcome.ERROR,
+            nanos, contentSize(ctx));
+    }
+
+    /**
+     * Execute a single plugin step with its plugin helper
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param stepConfig (StepConfig) the configuration of the step to execute
+     * @return Map (Map) the results of the step, keyed by "Success" or "Error: ", or empty for an unknown step type
+     */
+    private Map<String, Map<String, String>> executePluginStep(ValidationContext ctx, StepConfig stepConfig) {
+        logFine(new StringBuilder(SHARED_STEP_MESSAGE).append(stepConfig.getName()));
+        if (stepConfig.getType().equals("cli")) {
+            CliPluginHelper cliPluginHelper = stepConfig.getCliPluginHelper();
+            if (ctx.contentPath != null) {
+                return cliPluginHelper.execute(ctx.fileExtension, ctx.contentPath);
+            }
+            // A file validated by path is handed as is to the path transport, until a step changes its content
+            if (ctx.filePath != null && !ctx.contentModified && "path".equals(stepConfig.getFileTransport())) {
+                return cliPluginHelper.execute(ctx.fileExtension, ctx.filePath);
+            }
+            return cliPluginHelper.execute(ctx.fileExtension, ctx.originalFile);
+        }
+        if (stepConfig.getType().equals("http")) {
+            HttpPluginHelper httpPluginHelper = stepConfig.getHttpPluginHelper();
+            return ctx.contentPath != null
+                ? httpPluginHelper.execute(ctx.fileExtension, ctx.contentPath)
+                : httpPluginHelper.execute(ctx.fileExtension, ctx.originalFile);
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Calculate the SHA-256 of the current content once, keeping it null on error so that caches are skipped
+     * @param ctx (ValidationContext) the context of the current validation request
+     */
+    private void calculateContentDigest(ValidationContext ctx) {
+        if (ctx.contentDigest != null) {
+            return;
+        }
+        List<String> algorithms = Collections.singletonList("SHA-256");
+        try {
+            Map<String, byte[]> digests;
+            if (ctx.contentPath != null || ctx.originalFile == null) {
+                try (FileChannel fileChannel = FileChannel.open(ctx.contentPath != null ? ctx.contentPath : ctx.filePath, StandardOpenOption.READ)) {
+                    digests = CalculateChecksum.getChecksums(fileChannel, algorithms);
+                }
+            } else {
+                digests = CalculateChecksum.getChecksums(ctx.originalFile, algorithms);
+            }
+            ctx.contentDigest = new BigInteger(1, digests.get("SHA-256")).toString(16);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error calculating content digest, results not cached: ").append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
+        }
+    }
+
+    /**
+     * Apply the file content returned by a plugin step to the validation context and record its outcome
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param stepConfig (StepConfig) the configuration of the executed step
+     * @param stepResults (Map) the results of the step
+     * @return PluginOutcome (PluginOutcome) the outcome of the step, SUCCESS or ERROR
+     */
+    private PluginOutcome applyPluginResults(ValidationContext ctx, StepConfig stepConfig, Map<String, Map<String, String>> stepResults) {
         Map<String, String> stepResultsMap = new HashMap<>();
-        String extensionPluginName = stepConfigs.get(extensionPlugin).getName();
-        sharedStringBuilder.replace(0, sharedStringBuilder.length(), sharedStepMessage).append(extensionPluginName);
-        logFine(sharedStringBuilder);
-        
-        if (stepConfigs.get(extensionPlugin).getType().equals("cli")) {
-            Map<String, Map<String, String>> stepResults = stepConfigs.get(extensionPlugin)
-                .getCliPluginHelper()
-                .execute(fileExtension, originalFile);    
+        String extensionPluginName = stepConfig.getName();
+        if (!stepResults.isEmpty()) {
             stepResultsMap.putAll(stepResults.get(stepResults.keySet().toArray()[0]));
+        }
 
-            if (!stepResultsMap.isEmpty() && stepResults.containsKey("Success")) {
-                String newFilePath = stepResultsMap.get(extensionPluginName.substring(extensionPluginName.lastIndexOf(".")+1,
-                extensionPluginName.length()) + ".filePath");
-                String newB64Content = stepResultsMap.get(extensionPluginName.substring(extensionPluginName.lastIndexOf(".")+1,
-                extensionPluginName.length()) + ".fileContent");
+        if (!stepResultsMap.isEmpty() && stepResults.containsKey("Success")) {
+            String newFilePath = stepResultsMap.get(extensionPluginName.substring(extensionPluginName.lastIndexOf(".")+1,
+            extensionPluginName.length()) + ".filePath");
+            String newB64Content = stepResultsMap.get(extensionPluginName.substring(extensionPluginName.lastIndexOf(".")+1,
+            extensionPluginName.length()) + ".fileContent");
 
+            if (stepConfig.isReadOnly() && (!isBlank(newFilePath) || !isBlank(newB64Content))) {
+                // A read-only step may run along other steps, so the content it returns is never applied
+                ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Ignored file content returned by read_only step: ").append(extensionPluginName);
+                logWarn(ctx.sharedStringBuilder);
                 if (!isBlank(newFilePath)) {
-                    try {
-                        Path newFile = new File(newFilePath).toPath();
-                        originalFile = Files.readAllBytes(newFile);
-                        deleteTempDir(newFile.getParent().toAbsolutePath());
-                        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Successfully read plugin expected file: ").append(newFilePath);
-                        logFine(sharedStringBuilder);
-                    } catch (IOException e) {
-                        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error reading plugin expected file: ").append(e.getMessage());
-                        logWarn(sharedStringBuilder);
-                        return sharedStringBuilder.toString();
+                    deletePluginFile(ctx, new File(newFilePath).toPath());
+                }
+                newFilePath = null;
+                newB64Content = null;
+            }
+            if (!isBlank(newFilePath)) {
+                try {
+                    Path newFile = new File(newFilePath).toPath();
+                    if (ctx.contentPath != null && ctx.filePath != null && Files.isSameFile(newFile, ctx.filePath)) {
+                        // The validated file itself is returned, it is copied so that it is never moved away
+                        Files.copy(newFile, spoolContentPath(ctx), StandardCopyOption.REPLACE_EXISTING);
+                    } else if (ctx.contentPath != null) {
+                        // Never overwrite a memory-mapped file in place
+                        Files.move(newFile, spoolContentPath(ctx), StandardCopyOption.REPLACE_EXISTING);
+                    } else {
+                        ctx.originalFile = Files.readAllBytes(newFile);
                     }
+                    ctx.contentModified = true;
+                    ctx.contentDigest = null;
+                    deletePluginFile(ctx, newFile);
+                    ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Successfully read plugin expected file: ").append(newFilePath);
+                    logFine(ctx.sharedStringBuilder);
+                } catch (IOException e) {
+                    ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error reading plugin expected file: ").append(e.getMessage());
+                    logWarn(ctx.sharedStringBuilder);
+                    return new PluginOutcome(extensionPluginName, PluginOutcome.Status.ERROR, stepResultsMap, ctx.sharedStringBuilder.toString());
                 }
-                if (!isBlank(newB64Content)) {
-                    try {
-                        originalFile = Base64.getDecoder().decode(newB64Content);
-                        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Successfully decoded plugin expected file");
-                        logFine(sharedStringBuilder);
-                    } catch (Exception e) {
-                        sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error decoding plugin expected file: ").append(e.getMessage());
-                        logWarn(sharedStringBuilder);
-                        return sharedStringBuilder.toString();
+            }
+            if (!isBlank(newB64Content)) {
+                try {
+                    if (ctx.contentPath != null) {
+                        Files.write(spoolContentPath(ctx), Base64.getDecoder().decode(newB64Content));
+                    } else {
+                        ctx.originalFile = Base64.getDecoder().decode(newB64Content);
                     }
+                    ctx.contentModified = true;
+                    ctx.contentDigest = null;
+                    ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Successfully decoded plugin expected file");
+                    logFine(ctx.sharedStringBuilder);
+                } catch (Exception e) {
+                    ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error decoding plugin expected file: ").append(e.getMessage());
+                    logWarn(ctx.sharedStringBuilder);
+                    return new PluginOutcome(extensionPluginName, PluginOutcome.Status.ERROR, stepResultsMap, ctx.sharedStringBuilder.toString());
                 }
             }
-            for(Map.Entry<String, String> entry : stepResultsMap.entrySet()) {
-                String errorMsg =  entry.getValue();
-                String errorDetails = entry.getKey();
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), sharedStepMessage).append(extensionPluginName)
-                    .append(" Success, Results: ")
-                    .append(errorDetails)
-                    .append("\"")
-                    .append(errorMsg);
-                logFine(sharedStringBuilder);
+        }
+        // Steps report failures under the "Error: " key, see CliPluginHelper and HttpPluginHelper
+        return new PluginOutcome(extensionPluginName, stepResults.containsKey("Success") || stepResults.isEmpty()
+            ? PluginOutcome.Status.SUCCESS : PluginOutcome.Status.ERROR, stepResultsMap, null);
+    }
+
+    /**
+     * Build the verdict cache key of a validation request, reading the content of files not memory-mapped as validating them would
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @return String (String) the key, or null if verdicts are not cached, the request saves the file, or its inputs are not valid
+     */
+    private String verdictCacheKey(ValidationContext ctx) {
+        if (verdictCache == null || ctx.outDir != null || isBlank(ctx.fileCategory) || isBlank(ctx.fileName) || ctx.fileName.indexOf('.') == -1) {
+            return null;
+        }
+        if (ctx.filePath == null && (ctx.originalFile == null || ctx.originalFile.length == 0)) {
+            return null;
+        }
+        if (ctx.filePath != null) {
+            if (!Files.isRegularFile(ctx.filePath)) {
+                return null;
+            }
+            if (!memoryMapped) {
+                try {
+                    ctx.originalFile = Files.readAllBytes(ctx.filePath);
+                } catch (IOException e) {
+                    return null;
+                }
             }
-            return sharedStringBuilder.toString();
-        } else if (stepConfigs.get(extensionPlugin).getType().equals("http")) {
-            // TODO: Implement http plugin type
         }
-        return sharedStringBuilder.toString();
+        calculateContentDigest(ctx);
+        if (ctx.contentDigest == null) {
+            return null;
+        }
+        return ctx.fileCategory + "\n" + getFileExtension(ctx.fileName) + "\n" + ctx.mimeString + "\n" + ctx.contentDigest;
+    }
+
+    /**
+     * Build the response of a request from a cached verdict
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param verdict (Verdict) the cached verdict of the content
+     * @return ValidationResponse (ValidationResponse) the cached verdict, with the file name and bytes of the request
+     */
+    private ValidationResponse cachedResponse(ValidationContext ctx, VerdictCache.Verdict verdict) {
+        String originalFilenameClean = ctx.fileName.replaceAll("[^\\p{IsAlphabetic}\\p{IsDigit}.]", "_");
+        ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Cached verdict used for file: ").append(originalFilenameClean);
+        logInfo(ctx.sharedStringBuilder);
+        byte[] fileBytes = null;
+        if (verdict.modifiedFileBytes != null) {
+            fileBytes = verdict.modifiedFileBytes.clone();
+        } else if (verdict.hasFileBytes) {
+            fileBytes = ctx.originalFile;
+        }
+        Map<String, String> fileChecksums = verdict.fileChecksums != null ? new HashMap<>(verdict.fileChecksums) : null;
+        if (verdict.report != null) {
+            return new ValidationResponse(verdict.valid, verdict.resultsInfo, verdict.report, originalFilenameClean, fileBytes, fileChecksums);
+        }
+        return new ValidationResponse(verdict.valid, verdict.resultsInfo, verdict.resultsDetails, originalFilenameClean, fileBytes, fileChecksums);
+    }
+
+    /**
+     * Validate a single request of a batch, returning an invalid response for invalid inputs
+     * @param request (ValidationRequest) the file to be validated
+     * @return ValidationResponse (ValidationResponse) the results of the validations
+     */
+    private ValidationResponse validateRequest(ValidationRequest request) {
+        ValidationContext ctx = new ValidationContext(request.getFileCategory(), request.getFileName(), request.getFilePath(),
+            request.getFileBytes(), request.getMimeString(), request.getOutputDir());
+        try {
+            return validateFileMain(ctx);
+        } catch (IllegalArgumentException e) {
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error in validateBatch: ").append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
+            return new ValidationResponse(false, ERROR_RESPONSE, ctx.sharedStringBuilder.toString(), null, null, null);
+        }
+    }
+
+    /**
+     * Check whether a request of a batch waits on the disk or on plugins, rather than only using the processor
+     * @param request (ValidationRequest) the file to be validated
+     * @return boolean (boolean) true if the request reads or saves a file, or its extension runs plugins
+     */
+    private boolean isBlockingRequest(ValidationRequest request) {
+        if (request.getFilePath() != null || request.getOutputDir() != null || request.getFileName() == null) {
+            return true;
+        }
+        try {
+            ExtensionRules rules = extensions.getExtensionRules(request.getFileCategory(), getFileExtension(request.getFileName()));
+            return !rules.beforeStages.isEmpty() || !rules.afterStages.isEmpty();
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Results of a step that could not complete
+     */
+    private static Map<String, Map<String, String>> stepError(String message) {
+        Map<String, String> responsePatterns = new HashMap<>();
+        responsePatterns.put("Error, step execution failed: ", message);
+        Map<String, Map<String, String>> responseMap = new HashMap<>();
+        responseMap.put("Error: ", responsePatterns);
+        return responseMap;
+    }
+
+    /**
+     * Create the pool running the additional steps of a stage of read-only plugin steps.
+     * Plugin calls mostly wait on processes or the network, so threads are created on demand up to the limit and expire when idle.
+     * A step runs on the validating thread when every thread of the pool is busy, so that threads never grow with the load.
+     * @param threads (int) the maximum number of threads, from the General "Plugin_step_threads" configuration
+     * @return ThreadPoolExecutor (ThreadPoolExecutor) the bounded pool
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    private static ThreadPoolExecutor newPluginStepPool(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Plugin_step_threads must be a positive number.");
+        }
+        return new ThreadPoolExecutor(0, threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "filechampion-plugin-step");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
-    
     /**
      * isBlank wrapper method for support of Java 8
      * @param str (String) the string to check if empty or null
@@ -754,22 +1830,44 @@ public class FileValidator {
 
     /**
      * Helper method to delete the temporary directory
+     * @param ctx (ValidationContext) the context of the current validation request
      * @param tempFilePath (Path) the path to the temporary file
      * @return Boolean (Boolean) true if the temporary directory was deleted successfully, false otherwise
      */
-    private Boolean deleteTempDir(Path tempFilePath) {
+    private Boolean deleteTempDir(ValidationContext ctx, Path tempFilePath) {
         try (Stream<Path> walk = Files.walk(tempFilePath)) {
             walk.sorted(Comparator.reverseOrder())
             .map(Path::toFile)
             .forEach(File::delete);
             return true;
         } catch (Exception e) {
-            sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error: Delete temporary directoy failed: ").append(e.getMessage());
-            logWarn(sharedStringBuilder);
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error: Delete temporary directoy failed: ").append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
             return false;
         }
     }
 
+    /**
+     * Delete a file returned by a plugin with its temporary directory, or alone when it was written next to the validated file
+     * @param ctx (ValidationContext) the context of the current validation request
+     * @param pluginFile (Path) the file returned by the plugin
+     */
+    private void deletePluginFile(ValidationContext ctx, Path pluginFile) {
+        Path pluginDir = pluginFile.toAbsolutePath().getParent();
+        if (ctx.filePath == null || !pluginDir.equals(ctx.filePath.toAbsolutePath().getParent())) {
+            deleteTempDir(ctx, pluginDir);
+            return;
+        }
+        try {
+            if (!Files.exists(pluginFile) || !Files.isSameFile(pluginFile, ctx.filePath)) {
+                Files.deleteIfExists(pluginFile);
+            }
+        } catch (IOException e) {
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error: Delete plugin file failed: ").append(e.getMessage());
+            logWarn(ctx.sharedStringBuilder);
+        }
+    }
+
     /**
      * Parse the file extension from the file name
      * @param fileName (String) the name of the file being validated
@@ -784,52 +1882,77 @@ public class FileValidator {
     }
  
     /**
-     * Calculate the checksum of the file
+     * Calculate the checksums of the file, all configured algorithms in a single pass over the bytes
      * @param fileBytes (byte[]) the file bytes of the file being validated
-     * @return String (String) the SHA-256 checksum of the file
+     * @return Map (Map) the checksums of the file by algorithm, or null on error
      */
     private Map<String, String> calculateChecksum(byte[] fileBytes) {
-        CalculateChecksum checksumInstance = new CalculateChecksum(fileBytes);
         Map<String, String> checksums = new HashMap<>();
-        for (String algorithm : checksumAlgorithms) {
-            try {
-                byte[] checksum = checksumInstance.getChecksum(algorithm);
-                checksums.put(algorithm, new BigInteger(1, checksum).toString(16));
-            } catch (Exception e) {
-                e.printStackTrace();
-                return null;
+        try {
+            for (Map.Entry<String, byte[]> checksum : CalculateChecksum.getChecksums(fileBytes, checksumAlgorithms).entrySet()) {
+                checksums.put(checksum.getKey(), new BigInteger(1, checksum.getValue()).toString(16));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logWarn(new StringBuilder("Error calculating checksums: ").append(e.getMessage()));
+            return null;
+        }
+        return checksums.size() > 0 ? checksums : null;
+    }
+
+    /**
+     * Calculate the checksums of a file without loading it into memory
+     * @param filePath (Path) the path of the file content
+     * @return Map (Map) the checksums of the file by algorithm, or null on error
+     */
+    private Map<String, String> calculateChecksum(Path filePath) {
+        Map<String, String> checksums = new HashMap<>();
+        try (FileChannel fileChannel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            for (Map.Entry<String, byte[]> checksum : CalculateChecksum.getChecksums(fileChannel, checksumAlgorithms).entrySet()) {
+                checksums.put(checksum.getKey(), new BigInteger(1, checksum.getValue()).toString(16));
+            }
+        } catch (InterruptedIOException | ClosedByInterruptException e) {
+            // Channel checksums report interrupts as I/O errors, the interrupt is kept for the caller
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logWarn(new StringBuilder("Error calculating checksums of ").append(filePath).append(": ").append(e.getMessage()));
+            return null;
         }
         return checksums.size() > 0 ? checksums : null;
     }
 
     /**
      * Helper method to save the file defined file attributes to the output directory and return the path to the saved file
-     * @param fileCategory (String) the file category of the file being validated
-     * @param fileExtension (String) the file extension of the file being validated
-     * @param outDir (Path) the path to the output directory
+     * @param ctx (ValidationContext) the context of the current validation request
      * @param fileName (String) the name of the file being validated
-     * @param fileBytes (byte[]) the file bytes of the file being validated
      * @return String (String) the path to the saved file
+     * @throws IOException if the file cannot be saved or its attributes cannot be changed
      */
-    private String saveFileToOutputDir(String fileCategory, String fileExtension, Path outDir, String fileName, byte[] fileBytes) {
-        Path targetFilePath = Paths.get(outDir.toString(), fileName);
+    private String saveFileToOutputDir(ValidationContext ctx, String fileName) throws IOException {
+        Path targetFilePath = Paths.get(ctx.outDir.toString(), fileName);
         try {
-            Files.write(targetFilePath, fileBytes, StandardOpenOption.CREATE);
+            if (ctx.contentPath != null && ctx.spoolDir != null && ctx.contentPath.startsWith(ctx.spoolDir)) {
+                // Spooled content is moved out of its spool directory rather than copied
+                Files.move(ctx.contentPath, targetFilePath, StandardCopyOption.REPLACE_EXISTING);
+                ctx.contentPath = targetFilePath;
+            } else if (ctx.contentPath != null) {
+                Files.copy(ctx.contentPath, targetFilePath, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.write(targetFilePath, ctx.originalFile, StandardOpenOption.CREATE);
+            }
         } catch (IOException e) {
-            sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error: Saving file to directory failed: ").append(e.getMessage());
-            logSevere(sharedStringBuilder);
-            return sharedStringBuilder.toString();
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error: Saving file to directory failed: ").append(e.getMessage());
+            logSevere(ctx.sharedStringBuilder);
+            throw new IOException(ctx.sharedStringBuilder.toString(), e);
         }
 
-        boolean changeOwnership = extensions.getValidationValue(fileCategory, fileExtension, "change_ownership") != null 
-        ? (boolean) extensions.getValidationValue(fileCategory, fileExtension, "change_ownership") : false;
-        if (changeOwnership) {
-            String changeOwnershipUser = (String) extensions.getValidationValue(fileCategory, fileExtension, "change_ownership_user");
-            String changePermissionsMode = (String) extensions.getValidationValue(fileCategory, fileExtension, "change_ownership_mode");
-            String changeOwnershipStatus = setFileAttributes(targetFilePath, changeOwnershipUser, changePermissionsMode);
-            if (changeOwnershipStatus.contains("Error:")) {
-                return changeOwnershipStatus;
+        if (ctx.rules.changeOwnership) {
+            String changeOwnershipStatus = setFileAttributes(ctx, targetFilePath, ctx.rules.changeOwnershipUser, ctx.rules.changeOwnershipMode);
+            if (changeOwnershipStatus != null) {
+                throw new IOException(changeOwnershipStatus);
             }
         }
         return targetFilePath.toAbsolutePath().toString();
@@ -837,26 +1960,30 @@ public class FileValidator {
 
     /**
      * Helper method to set the file attributes
+     * @param ctx (ValidationContext) the context of the current validation request
      * @param targetFilePath (Path) the path to the file
      * @param changeOwnershipUser (String) the user to change the ownership to
      * @param changePermissionsMode (String) the permissions to change the file to
-     * @return String (String) the status of the file attribute change
+     * @return String (String) the error of the file attribute change, or null if the attributes were changed
      */
-    private String setFileAttributes(Path targetFilePath, String changeOwnershipUser, String changePermissionsMode) {
+    private String setFileAttributes(ValidationContext ctx, Path targetFilePath, String changeOwnershipUser, String changePermissionsMode) {
+        long startNanos = startNanos(ValidationStage.FILE_ACL);
         FileAclHelper fileAclHelper = new FileAclHelper(targetFilePath, changeOwnershipUser, changePermissionsMode);
         String newFileAttributesStatus = fileAclHelper.changeFileAcl();
-        if (newFileAttributesStatus.contains("Error:")) {
+        boolean failed = newFileAttributesStatus.contains("Error:");
+        recordStage(ctx, ValidationStage.FILE_ACL, failed ? MetricsSink.Outcome.ERROR : MetricsSink.Outcome.PASS, startNanos, 0);
+        if (failed) {
             try {
                 Files.deleteIfExists(targetFilePath);
             } catch (IOException e) { 
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error: Failed to delete file from permissions change operation: ").append(e.getMessage());
-                logSevere(sharedStringBuilder);
+                ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), "Error: Failed to delete file from permissions change operation: ").append(e.getMessage());
+                logSevere(ctx.sharedStringBuilder);
             }
-            sharedStringBuilder.replace(0, sharedStringBuilder.length(), newFileAttributesStatus);
-            logSevere(sharedStringBuilder);
+            ctx.sharedStringBuilder.replace(0, ctx.sharedStringBuilder.length(), newFileAttributesStatus);
+            logSevere(ctx.sharedStringBuilder);
             return newFileAttributesStatus;
         } else {
-            return "Success: File attributes changed successfully";
+            return null;
         }
     }
 }
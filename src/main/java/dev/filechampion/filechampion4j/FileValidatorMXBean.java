@@ -0,0 +1,117 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.Map;
+
+/**
+ * The management interface of a FileValidator, registered in the platform MBean server under
+ * dev.filechampion.filechampion4j:type=FileValidator,name=&lt;Jmx_name&gt; when the General "Jmx_name" option is set.
+ * It reports the live statistics of the validator, counted since it was created, and offers the tunables
+ * that can be changed without restarting the application.
+ * The checksum tunables are shared by every validator of the JVM, and offered by the ChecksumsMXBean instead.
+ */
+public interface FileValidatorMXBean {
+    /**
+     * Returns the number of validations currently running, including sessions being finished
+     * @return (long) the number of validations in flight
+     */
+    long getInFlightValidations();
+
+    /**
+     * Returns the number of validated files found valid
+     * @return (long) the number of valid files
+     */
+    long getValidFiles();
+
+    /**
+     * Returns the number of validated files found invalid by a check or a plugin
+     * @return (long) the number of invalid files
+     */
+    long getInvalidFiles();
+
+    /**
+     * Returns the number of validations that could not complete, e.g. invalid requests or I/O errors
+     * @return (long) the number of validation errors
+     */
+    long getValidationErrors();
+
+    /**
+     * Returns the number of bytes of the validated files
+     * @return (long) the number of bytes validated
+     */
+    long getValidatedBytes();
+
+    /**
+     * Returns the average throughput of the validator since it was created
+     * @return (double) the completed validations per second
+     */
+    double getValidationsPerSecond();
+
+    /**
+     * Returns the number of files rejected by each check
+     * @return (Map&lt;String, Long&gt;) the rejections keyed by the configuration key of the check, e.g. "max_size"
+     */
+    Map<String, Long> getCheckRejections();
+
+    /**
+     * Returns the share of completed validations rejected by each check
+     * @return (Map&lt;String, Double&gt;) the rejection rates between 0 and 1, keyed by the configuration key of the check
+     */
+    Map<String, Double> getCheckRejectionRates();
+
+    /**
+     * Returns the number of plugin executions that timed out, including those waiting for a concurrency limit or a worker
+     * @return (long) the number of plugin timeouts
+     */
+    long getPluginTimeouts();
+
+    /**
+     * Returns the share of verdict cache lookups that found a cached verdict
+     * @return (double) the hit ratio between 0 and 1, 0 if the verdict cache is not configured or was never used
+     */
+    double getVerdictCacheHitRatio();
+
+    /**
+     * Returns the verdict cache counters
+     * @return (Map&lt;String, Long&gt;) the "hits", "misses" and "entries" counts, empty if the verdict cache is not configured
+     */
+    Map<String, Long> getVerdictCacheStats();
+
+    /**
+     * Returns the number of spool directories of streamed files and sessions not deleted yet
+     * @return (long) the number of live spool directories
+     */
+    long getActiveSpoolFiles();
+
+    /**
+     * Returns the number of temporary files created, spooled content and plugin copies and outputs
+     * @return (long) the number of temporary files created
+     */
+    long getTempFilesCreated();
+
+    /**
+     * Returns the concurrency limits of the http plugin steps
+     * @return (Map&lt;String, Integer&gt;) the maximum calls in flight keyed by step name, 0 for steps without a limit
+     */
+    Map<String, Integer> getPluginMaxConcurrency();
+
+    /**
+     * Changes the concurrency limit of an http plugin step, calls already in flight completing under the previous limit
+     * @param step (String) the name of the step, e.g. "clean_pdf_documents1.step1"
+     * @param maxConcurrency (int) the maximum calls in flight, 0 to stop limiting the calls
+     * @throws IllegalArgumentException if the step is not an http step of the validator or the limit is negative
+     */
+    void setPluginMaxConcurrency(String step, int maxConcurrency);
+
+    /**
+     * Returns the maximum number of threads running read-only plugin steps concurrently, steps beyond it running on the validating thread
+     * @return (int) the maximum number of threads
+     */
+    int getPluginStepThreads();
+
+    /**
+     * Changes the maximum number of threads running read-only plugin steps concurrently, threads above it ending once idle
+     * @param threads (int) the maximum number of threads
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    void setPluginStepThreads(int threads);
+}
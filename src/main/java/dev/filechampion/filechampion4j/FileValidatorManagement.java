@@ -0,0 +1,203 @@
+package dev.filechampion.filechampion4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import dev.filechampion.filechampion4j.PluginsHelper.StepConfig;
+
+/**
+ * The FileValidatorMXBean of a FileValidator, reading its statistics, verdict cache and plugin step helpers.
+ * Plugin counters are summed over the steps on every read, so that nothing is added to the validation path.
+ */
+final class FileValidatorManagement implements FileValidatorMXBean {
+    private static final String DOMAIN = "dev.filechampion.filechampion4j";
+    private final ValidatorStatistics statistics;
+    private final VerdictCache verdictCache;
+    private final Collection<StepConfig> stepConfigs;
+    private final ThreadPoolExecutor pluginStepPool;
+    private ObjectName objectName;
+
+    /**
+     * Creates the management bean of a validator
+     * @param statistics (ValidatorStatistics) the counters of the validator
+     * @param verdictCache (VerdictCache) the verdict cache of the validator, or null if not configured
+     * @param stepConfigs (Collection) every configured plugin step
+     * @param pluginStepPool (ThreadPoolExecutor) the pool running read-only plugin steps concurrently
+     */
+    FileValidatorManagement(ValidatorStatistics statistics, VerdictCache verdictCache, Collection<StepConfig> stepConfigs,
+            ThreadPoolExecutor pluginStepPool) {
+        this.statistics = statistics;
+        this.verdictCache = verdictCache;
+        this.stepConfigs = stepConfigs;
+        this.pluginStepPool = pluginStepPool;
+    }
+
+    /**
+     * Register the bean in the platform MBean server, along the ChecksumsMXBean shared by every validator
+     * @param name (String) the name of the validator, unique within the JVM
+     * @throws IllegalArgumentException if the name is not valid or a validator with the same name is registered
+     */
+    synchronized void register(String name) {
+        try {
+            ObjectName registeredName = new ObjectName(DOMAIN + ":type=FileValidator,name=" + name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, registeredName);
+            objectName = registeredName;
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Error registering the Jmx_name " + name + ": " + e.getMessage());
+        }
+        ChecksumsManagement.INSTANCE.register();
+    }
+
+    /**
+     * Unregister the bean from the platform MBean server, if registered
+     */
+    synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            // Already unregistered by another party
+        }
+        objectName = null;
+    }
+
+    @Override
+    public long getInFlightValidations() {
+        return statistics.getInFlight();
+    }
+
+    @Override
+    public long getValidFiles() {
+        return statistics.getCount(MetricsSink.Outcome.PASS);
+    }
+
+    @Override
+    public long getInvalidFiles() {
+        return statistics.getCount(MetricsSink.Outcome.FAIL);
+    }
+
+    @Override
+    public long getValidationErrors() {
+        return statistics.getCount(MetricsSink.Outcome.ERROR);
+    }
+
+    @Override
+    public long getValidatedBytes() {
+        return statistics.getBytes();
+    }
+
+    @Override
+    public double getValidationsPerSecond() {
+        return statistics.getCompleted() / Math.max(statistics.getUptimeNanos() / 1e9, 1e-9);
+    }
+
+    @Override
+    public Map<String, Long> getCheckRejections() {
+        Map<String, Long> rejections = new LinkedHashMap<>();
+        for (CheckCode code : CheckCode.values()) {
+            rejections.put(code.getConfigKey(), statistics.getRejections(code));
+        }
+        return rejections;
+    }
+
+    @Override
+    public Map<String, Double> getCheckRejectionRates() {
+        long completed = statistics.getCompleted();
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (CheckCode code : CheckCode.values()) {
+            rates.put(code.getConfigKey(), completed > 0 ? (double) statistics.getRejections(code) / completed : 0);
+        }
+        return rates;
+    }
+
+    @Override
+    public long getPluginTimeouts() {
+        long timeouts = 0;
+        for (StepConfig stepConfig : stepConfigs) {
+            if (stepConfig.getCliPluginHelper() != null) {
+                timeouts += stepConfig.getCliPluginHelper().getTimeouts();
+            }
+            if (stepConfig.getHttpPluginHelper() != null) {
+                timeouts += stepConfig.getHttpPluginHelper().getTimeouts();
+            }
+        }
+        return timeouts;
+    }
+
+    @Override
+    public double getVerdictCacheHitRatio() {
+        if (verdictCache == null) {
+            return 0;
+        }
+        Map<String, Long> stats = verdictCache.getStats();
+        long lookups = stats.get("hits") + stats.get("misses");
+        return lookups > 0 ? (double) stats.get("hits") / lookups : 0;
+    }
+
+    @Override
+    public Map<String, Long> getVerdictCacheStats() {
+        return verdictCache != null ? verdictCache.getStats() : Collections.<String, Long>emptyMap();
+    }
+
+    @Override
+    public long getActiveSpoolFiles() {
+        return statistics.getActiveSpools();
+    }
+
+    @Override
+    public long getTempFilesCreated() {
+        long tempFiles = statistics.getSpoolsCreated();
+        for (StepConfig stepConfig : stepConfigs) {
+            if (stepConfig.getCliPluginHelper() != null) {
+                tempFiles += stepConfig.getCliPluginHelper().getTempFiles();
+            }
+            if (stepConfig.getHttpPluginHelper() != null) {
+                tempFiles += stepConfig.getHttpPluginHelper().getTempFiles();
+            }
+        }
+        return tempFiles;
+    }
+
+    @Override
+    public Map<String, Integer> getPluginMaxConcurrency() {
+        Map<String, Integer> limits = new TreeMap<>();
+        for (StepConfig stepConfig : stepConfigs) {
+            if (stepConfig.getHttpPluginHelper() != null) {
+                limits.put(stepConfig.getName(), stepConfig.getHttpPluginHelper().getMaxConcurrency());
+            }
+        }
+        return limits;
+    }
+
+    @Override
+    public void setPluginMaxConcurrency(String step, int maxConcurrency) {
+        for (StepConfig stepConfig : stepConfigs) {
+            if (stepConfig.getName().equals(step) && stepConfig.getHttpPluginHelper() != null) {
+                stepConfig.getHttpPluginHelper().setMaxConcurrency(maxConcurrency);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No http plugin step named " + step);
+    }
+
+    @Override
+    public int getPluginStepThreads() {
+        return pluginStepPool.getMaximumPoolSize();
+    }
+
+    @Override
+    public void setPluginStepThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Plugin step threads must be a positive number.");
+        }
+        pluginStepPool.setMaximumPoolSize(threads);
+    }
+}
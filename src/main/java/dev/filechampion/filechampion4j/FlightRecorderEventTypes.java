@@ -0,0 +1,178 @@
+package dev.filechampion.filechampion4j;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The JDK Flight Recorder events of FileChampion4j, only used through FlightRecorderEvents.
+ * Events are committed once their stage is over, so their measured duration is carried by the Elapsed field
+ * and their start time is the end of the stage. Stack traces are not recorded, keeping the cost of
+ * an enabled event to its allocation and commit.
+ */
+final class FlightRecorderEventTypes {
+    private static final String CATEGORY = "FileChampion4j";
+    private static final EventType VALIDATION_TYPE = EventType.getEventType(ValidationEvent.class);
+    private static final EventType STAGE_TYPE = EventType.getEventType(StageEvent.class);
+    private static final EventType PLUGIN_STEP_TYPE = EventType.getEventType(PluginStepEvent.class);
+
+    private FlightRecorderEventTypes() {
+    }
+
+    /**
+     * The validation of a file, from its request to its response
+     */
+    @Name("dev.filechampion.Validation")
+    @Label("File Validation")
+    @Description("The validation of a file, from its request to its response")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class ValidationEvent extends Event {
+        @Label("Category")
+        String category;
+
+        @Label("Extension")
+        String extension;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    /**
+     * A stage of the validation of a file
+     */
+    @Name("dev.filechampion.ValidationStage")
+    @Label("Validation Stage")
+    @Description("A check, plugin stage, checksum, save or file ACL change of a file validation")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class StageEvent extends Event {
+        @Label("Category")
+        String category;
+
+        @Label("Extension")
+        String extension;
+
+        @Label("Stage")
+        String stage;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    /**
+     * The execution of a plugin step
+     */
+    @Name("dev.filechampion.PluginStep")
+    @Label("Plugin Step")
+    @Description("The execution of a cli or http plugin step, or the read of its cached results")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    static final class PluginStepEvent extends Event {
+        @Label("Category")
+        String category;
+
+        @Label("Extension")
+        String extension;
+
+        @Label("Step")
+        String step;
+
+        @Label("Type")
+        String type;
+
+        @Label("Cached")
+        boolean cached;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    /**
+     * Check that Flight Recorder can record the events, registering them
+     * @return boolean (boolean) true if Flight Recorder is available
+     */
+    static boolean register() {
+        return FlightRecorder.isAvailable() && VALIDATION_TYPE != null && STAGE_TYPE != null && PLUGIN_STEP_TYPE != null;
+    }
+
+    static boolean isEnabled(ValidationStage stage) {
+        return (stage == ValidationStage.TOTAL ? VALIDATION_TYPE : STAGE_TYPE).isEnabled();
+    }
+
+    static boolean isPluginStepEnabled() {
+        return PLUGIN_STEP_TYPE.isEnabled();
+    }
+
+    static void commitStage(String category, String extension, ValidationStage stage, MetricsSink.Outcome outcome, long nanos, long bytes) {
+        if (stage == ValidationStage.TOTAL) {
+            ValidationEvent event = new ValidationEvent();
+            if (event.shouldCommit()) {
+                event.category = category;
+                event.extension = extension;
+                event.outcome = outcome.name();
+                event.elapsed = nanos;
+                event.bytes = bytes;
+                event.commit();
+            }
+            return;
+        }
+        StageEvent event = new StageEvent();
+        if (event.shouldCommit()) {
+            event.category = category;
+            event.extension = extension;
+            event.stage = stage.name();
+            event.outcome = outcome.name();
+            event.elapsed = nanos;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    static void commitPluginStep(String category, String extension, String step, String type, boolean cached,
+            MetricsSink.Outcome outcome, long nanos, long bytes) {
+        PluginStepEvent event = new PluginStepEvent();
+        if (event.shouldCommit()) {
+            event.category = category;
+            event.extension = extension;
+            event.step = step;
+            event.type = type;
+            event.cached = cached;
+            event.outcome = outcome.name();
+            event.elapsed = nanos;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.filechampion.filechampion4j;
+
+/**
+ * This class emits the JDK Flight Recorder events of validations, validation stages and plugin steps.
+ * The events are defined in FlightRecorderEventTypes, which is only loaded here so that the library still runs
+ * on Java 8 runtimes without the jdk.jfr module, where every method of this class does nothing.
+ * Callers check isEnabled before measuring, so that no time is read and no event is created while no recording
+ * has the event enabled.
+ */
+final class FlightRecorderEvents {
+    private static final boolean AVAILABLE = loadEventTypes();
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Check whether a recording is collecting the events of a stage
+     * @param stage (ValidationStage) the stage, TOTAL for the events of whole validations
+     * @return boolean (boolean) true if the events of the stage are recorded
+     */
+    static boolean isEnabled(ValidationStage stage) {
+        return AVAILABLE && FlightRecorderEventTypes.isEnabled(stage);
+    }
+
+    /**
+     * Check whether a recording is collecting the events of plugin steps
+     * @return boolean (boolean) true if the events of plugin steps are recorded
+     */
+    static boolean isPluginStepEnabled() {
+        return AVAILABLE && FlightRecorderEventTypes.isPluginStepEnabled();
+    }
+
+    /**
+     * Emit the event of a measured stage, or of a whole validation for the TOTAL stage
+     * @param category (String) the configured category of the file
+     * @param extension (String) the configured extension of the file
+     * @param stage (ValidationStage) the measured stage
+     * @param outcome (MetricsSink.Outcome) the outcome of the stage
+     * @param nanos (long) the duration of the stage in nanoseconds
+     * @param bytes (long) the number of bytes processed by the stage
+     */
+    static void commitStage(String category, String extension, ValidationStage stage, MetricsSink.Outcome outcome, long nanos, long bytes) {
+        if (AVAILABLE) {
+            FlightRecorderEventTypes.commitStage(category, extension, stage, outcome, nanos, bytes);
+        }
+    }
+
+    /**
+     * Emit the event of an executed plugin step
+     * @param category (String) the configured category of the file
+     * @param extension (String) the configured extension of the file
+     * @param step (String) the name of the step
+     * @param type (String) the type of the step, cli or http
+     * @param cached (boolean) true if the results of the step were read from its result cache
+     * @param outcome (MetricsSink.Outcome) PASS if the step succeeded, ERROR otherwise
+     * @param nanos (long) the duration of the step in nanoseconds
+     * @param bytes (long) the size of the file passed to the step
+     */
+    static void commitPluginStep(String category, String extension, String step, String type, boolean cached,
+            MetricsSink.Outcome outcome, long nanos, long bytes) {
+        if (AVAILABLE) {
+            FlightRecorderEventTypes.commitPluginStep(category, extension, step, type, cached, outcome, nanos, bytes);
+        }
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Register the event types, failing on runtimes without the jdk.jfr module or with Flight Recorder disabled
+     * @return boolean (boolean) true if events can be emitted
+     */
+    private static boolean loadEventTypes() {
+        try {
+            return FlightRecorderEventTypes.register();
+        } catch (LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package dev.filechampion.filechampion4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.JSONObject;
+
+import dev.filechampion.filechampion4j.PluginsHelper.StepConfig;
+
+/**
+ * HttpPluginHelper class is used to call HTTP services Defined in the FileChampion Plugins, e.g. AV scanners or sanitizers.
+ * Unless the step defines a JSON "body", the file content is streamed as the raw request body, without Base64 or copy.
+ * Placeholders describing the file are replaced in the endpoint (URL encoded), the headers and the body string values.
+ * Connections are kept alive and reused across calls by the JDK connection cache (see the http.maxConnections property),
+ * each call fully reading its response so that its connection can be reused.
+ * The calls run on the validating thread, and "max_concurrency" bounds the calls of the step in flight at once.
+ * With "content_output": "body", the response body of a passing call replaces the file, e.g. the output of a sanitizer.
+ * A single instance is shared by all validations of its step.
+ */
+public class HttpPluginHelper {
+    private final StepConfig singleStepConfig;
+    private final int timeout;
+    private static final String errString = "Error: ";
+    private final String endpoint;
+    private final String responseConfig;
+    private final String method;
+    private final int passCode;
+    private final int maxOutputBytes;
+    private final boolean contentOutput;
+    // Replaced as a whole when the limit changes, calls in flight releasing the semaphore they acquired
+    private volatile Semaphore concurrency;
+    private volatile int maxConcurrency;
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder tempFiles = new LongAdder();
+    private static final String BODY = "body";
+    private static final Logger LOGGER = Logger.getLogger(HttpPluginHelper.class.getName());
+    private void logFine(String message) {
+        if (LOGGER.isLoggable(Level.FINE )) {
+            LOGGER.fine(message);
+        }
+    }
+    private void logWarn(String message) {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.warning(message);
+        }
+    }
+
+    /**
+     * Constructor for HttpPluginHelper
+     * @param singleStepConfig (StepConfig) - the step configuration
+     * @throws IllegalArgumentException - if the concurrency, output or method configuration of the step is invalid
+     */
+    public HttpPluginHelper(StepConfig singleStepConfig) {
+        this.singleStepConfig = singleStepConfig;
+        this.endpoint = singleStepConfig.getEndpoint();
+        this.timeout = singleStepConfig.getTimeout();
+        this.responseConfig = singleStepConfig.getResponse();
+        String configuredMethod = singleStepConfig.getMethod();
+        this.method = configuredMethod == null || configuredMethod.isEmpty() ? "POST" : configuredMethod.toUpperCase();
+        this.passCode = singleStepConfig.getHttpPassCode() > 0 ? singleStepConfig.getHttpPassCode() : HttpURLConnection.HTTP_OK;
+        this.maxOutputBytes = singleStepConfig.getMaxOutputBytes();
+        String configuredOutput = singleStepConfig.getContentOutput();
+        this.contentOutput = BODY.equals(configuredOutput);
+        String stepName = singleStepConfig.getName();
+        if (configuredOutput != null && !configuredOutput.isEmpty() && !contentOutput) {
+            throw new IllegalArgumentException("content_output must be body for http step " + stepName);
+        }
+        if (!"POST".equals(method) && !"PUT".equals(method) && !"PATCH".equals(method)) {
+            throw new IllegalArgumentException("method must be one of POST, PUT or PATCH for http step " + stepName);
+        }
+        if (maxOutputBytes < 1) {
+            throw new IllegalArgumentException("max_output_bytes must be a positive number for step " + stepName);
+        }
+        if (singleStepConfig.getMaxConcurrency() < 0) {
+            throw new IllegalArgumentException("max_concurrency cannot be negative for step " + stepName);
+        }
+        this.maxConcurrency = singleStepConfig.getMaxConcurrency();
+        this.concurrency = maxConcurrency > 0 ? new Semaphore(maxConcurrency, true) : null;
+        logFine(stepName + " object created");
+    }
+
+    /**
+     * Calls the HTTP service with the file content
+     * @param fileExtension (String) - the file extension
+     * @param fileContent (byte[]) - the file content
+     * @return Map&lt;String, Map&lt;String, String&gt;&gt; - the results map
+     */
+    public Map<String, Map<String, String>> execute(String fileExtension, byte[] fileContent) {
+        return execute(fileExtension, null, fileContent);
+    }
+
+    /**
+     * Calls the HTTP service for a file that is not held in memory, e.g. a streamed file spooled to disk
+     * @param fileExtension (String) - the file extension
+     * @param contentPath (Path) - the path of the file content, which is streamed and never modified
+     * @return Map&lt;String, Map&lt;String, String&gt;&gt; - the results map
+     */
+    public Map<String, Map<String, String>> execute(String fileExtension, Path contentPath) {
+        return execute(fileExtension, contentPath, null);
+    }
+
+    /**
+     * Calls the HTTP service within the concurrency limit of the step
+     * @param fileExtension (String) - the file extension
+     * @param contentPath (Path) - the path of the file content, or null if it is held in memory
+     * @param fileContent (byte[]) - the file content, or null if it is read from contentPath
+     * @return Map&lt;String, Map&lt;String, String&gt;&gt; - the results map
+     */
+    private Map<String, Map<String, String>> execute(String fileExtension, Path contentPath, byte[] fileContent) {
+        Map<String, Map<String, String>> responseMap = new HashMap<>();
+        Map<String, String> responsePatterns = new HashMap<>();
+        Path outputPath = null;
+        String result;
+        int statusCode = -1;
+        Semaphore limit = concurrency;
+        try {
+            if (limit != null && !limit.tryAcquire(timeout, TimeUnit.SECONDS)) {
+                timeouts.increment();
+                result = errString + "Request timeout: too many concurrent requests for " + singleStepConfig.getName();
+            } else {
+                HttpURLConnection connection = null;
+                boolean completed = false;
+                try {
+                    if (contentOutput) {
+                        outputPath = Files.createTempFile(Files.createTempDirectory("tempDir"), "tempOutput", "." + fileExtension);
+                        tempFiles.increment();
+                    }
+                    connection = openConnection(fileExtension, contentPath, fileContent);
+                    sendRequest(connection, fileExtension, contentPath, fileContent);
+                    statusCode = connection.getResponseCode();
+                    result = readResponse(connection, statusCode == passCode ? outputPath : null);
+                    completed = true;
+                } finally {
+                    if (connection != null && !completed) {
+                        closeConnection(connection);
+                    }
+                    if (limit != null) {
+                        limit.release();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = errString + "Request interrupted: " + singleStepConfig.getName();
+        } catch (SocketTimeoutException e) {
+            timeouts.increment();
+            result = errString + "Request failed: " + e.getMessage();
+            logWarn(singleStepConfig.getName() + " request timed out: " + e.getMessage());
+        } catch (IOException e) {
+            result = errString + "Request failed: " + e.getMessage();
+            logWarn(singleStepConfig.getName() + " request failed: " + e.getMessage());
+        }
+        logFine(singleStepConfig.getName() + " status: " + statusCode + ", result: " + result);
+
+        String expectedResults = PluginTemplates.expectedResponse(responseConfig);
+        if (statusCode == passCode && (contentOutput || result.contains(expectedResults))) {
+            responsePatterns = PluginTemplates.extractResponsePatterns(responseConfig, result);
+            if (outputPath != null) {
+                // The response body is picked up as a file returned by the plugin
+                String stepName = singleStepConfig.getName();
+                responsePatterns.put(stepName.substring(stepName.lastIndexOf('.') + 1) + ".filePath", outputPath.toString());
+            }
+            responseMap.put("Success", responsePatterns);
+            return responseMap;
+        }
+        StringBuilder logMessage = new StringBuilder("Error, expected: HTTP ").append(passCode);
+        if (!contentOutput) {
+            logMessage.append(" \"").append(expectedResults).append("\"");
+        }
+        logMessage.append(", received: ");
+        if (statusCode > -1) {
+            logMessage.append("HTTP ").append(statusCode).append(statusCode == singleStepConfig.getHttpFailCode() ? " (fail code) " : " ");
+        }
+        responsePatterns.put(logMessage.toString(), result);
+        responseMap.put(errString, responsePatterns);
+        if (outputPath != null) {
+            deleteTempDir(outputPath.getParent());
+        }
+        return responseMap;
+    }
+
+    /**
+     * Opens the connection with its method, timeouts and headers, without sending the request
+     * @param fileExtension (String) - the file extension
+     * @param contentPath (Path) - the path of the file content, or null if it is held in memory
+     * @param fileContent (byte[]) - the file content, or null if it is read from contentPath
+     * @return HttpURLConnection - the connection, not yet connected
+     * @throws IOException - if the endpoint is invalid
+     */
+    private HttpURLConnection openConnection(String fileExtension, Path contentPath, byte[] fileContent) throws IOException {
+        String sourcePath = contentPath == null ? null : contentPath.toString();
+        URL url;
+        try {
+            url = new URL(prepEndpoint(sourcePath, fileContent, fileExtension));
+        } catch (MalformedURLException e) {
+            throw new IOException("Invalid endpoint URL: " + endpoint);
+        }
+        if (!"http".equals(url.getProtocol()) && !"https".equals(url.getProtocol())) {
+            throw new IOException("Invalid endpoint URL: " + endpoint);
+        }
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(timeout));
+        connection.setReadTimeout((int) TimeUnit.SECONDS.toMillis(timeout));
+        connection.setDoOutput(true);
+        JSONObject headers = singleStepConfig.getHeaders();
+        if (headers != null) {
+            for (String headerName : headers.keySet()) {
+                connection.setRequestProperty(headerName, PluginTemplates.replaceFilePlaceholders(headers.get(headerName).toString(), sourcePath, fileContent, fileExtension));
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * Sends the request, the body being the configured JSON or the raw file content
+     * @param connection (HttpURLConnection) - the connection opened by openConnection
+     * @param fileExtension (String) - the file extension
+     * @param contentPath (Path) - the path of the file content, or null if it is held in memory
+     * @param fileContent (byte[]) - the file content, or null if it is read from contentPath
+     * @throws IOException - if the request fails
+     */
+    private void sendRequest(HttpURLConnection connection, String fileExtension, Path contentPath, byte[] fileContent) throws IOException {
+        String sourcePath = contentPath == null ? null : contentPath.toString();
+        JSONObject bodyConfig = singleStepConfig.getBody();
+        if (bodyConfig != null) {
+            byte[] body = prepBody(bodyConfig, sourcePath, fileContent, fileExtension).toString().getBytes(StandardCharsets.UTF_8);
+            if (connection.getRequestProperty("Content-Type") == null) {
+                connection.setRequestProperty("Content-Type", "application/json");
+            }
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream requestBody = connection.getOutputStream()) {
+                requestBody.write(body);
+            }
+            return;
+        }
+        if (connection.getRequestProperty("Content-Type") == null) {
+            connection.setRequestProperty("Content-Type", "application/octet-stream");
+        }
+        if (fileContent != null) {
+            connection.setFixedLengthStreamingMode(fileContent.length);
+            try (OutputStream requestBody = connection.getOutputStream()) {
+                requestBody.write(fileContent);
+            }
+        } else {
+            connection.setFixedLengthStreamingMode(Files.size(contentPath));
+            try (OutputStream requestBody = connection.getOutputStream()) {
+                Files.copy(contentPath, requestBody);
+            }
+        }
+    }
+
+    /**
+     * Prepares the endpoint URL by replacing the placeholders with their URL encoded values
+     * @param sourcePath (String) - the path to read the file content from when fileContent is null
+     * @param fileContent (byte[]) - the file content, or null to read it from sourcePath when needed
+     * @param fileExtension (String) - the file extension
+     * @return String - the endpoint URL with the placeholders replaced
+     */
+    private String prepEndpoint(String sourcePath, byte[] fileContent, String fileExtension) throws IOException {
+        String newEndpoint = endpoint;
+        int start;
+        while ((start = newEndpoint.indexOf("${")) > -1) {
+            int end = newEndpoint.indexOf('}', start);
+            if (end == -1) {
+                break;
+            }
+            String placeholder = newEndpoint.substring(start, end + 1);
+            String value = PluginTemplates.replaceFilePlaceholders(placeholder, sourcePath, fileContent, fileExtension);
+            if (value.equals(placeholder)) {
+                throw new IOException("Unknown endpoint placeholder: " + placeholder);
+            }
+            newEndpoint = newEndpoint.substring(0, start) + URLEncoder.encode(value, "UTF-8") + newEndpoint.substring(end + 1);
+        }
+        return newEndpoint;
+    }
+
+    /**
+     * Prepares the request body by replacing the placeholders in its string values
+     * @param bodyConfig (JSONObject) - the configured body, never modified
+     * @param sourcePath (String) - the path to read the file content from when fileContent is null
+     * @param fileContent (byte[]) - the file content, or null to read it from sourcePath when needed
+     * @param fileExtension (String) - the file extension
+     * @return JSONObject - the body with the placeholders replaced
+     */
+    private JSONObject prepBody(JSONObject bodyConfig, String sourcePath, byte[] fileContent, String fileExtension) {
+        JSONObject body = new JSONObject();
+        for (String key : bodyConfig.keySet()) {
+            Object value = bodyConfig.get(key);
+            if (value instanceof JSONObject) {
+                body.put(key, prepBody((JSONObject) value, sourcePath, fileContent, fileExtension));
+            } else if (value instanceof String) {
+                body.put(key, PluginTemplates.replaceFilePlaceholders((String) value, sourcePath, fileContent, fileExtension));
+            } else {
+                body.put(key, value);
+            }
+        }
+        return body;
+    }
+
+    /**
+     * Reads the response to its end so that the connection can be reused, keeping only its first max_output_bytes bytes,
+     * or copying it to outputPath when the response body is the returned content
+     * @param connection (HttpURLConnection) - the connection with its request sent
+     * @param outputPath (Path) - the file receiving the response body, or null to read it as the result
+     * @return String - the result, empty when the body was copied to outputPath
+     * @throws IOException - if the response cannot be read
+     */
+    private String readResponse(HttpURLConnection connection, Path outputPath) throws IOException {
+        InputStream responseBody = connection.getResponseCode() >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        if (responseBody == null) {
+            return "";
+        }
+        try (InputStream inputStream = responseBody) {
+            if (outputPath != null) {
+                Files.copy(inputStream, outputPath, StandardCopyOption.REPLACE_EXISTING);
+                return "";
+            }
+            ByteArrayOutputStream captured = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                captured.write(buffer, 0, Math.min(bytesRead, maxOutputBytes - captured.size()));
+            }
+            return new String(captured.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Closes a connection whose exchange failed, so that its socket is not left open until the connection is collected.
+     * An unread error response is closed with it, a completed exchange is left to the keep-alive cache instead.
+     * @param connection (HttpURLConnection) - the connection of the failed exchange
+     */
+    private void closeConnection(HttpURLConnection connection) {
+        InputStream errorStream = connection.getErrorStream();
+        if (errorStream != null) {
+            try {
+                errorStream.close();
+            } catch (IOException e) {
+                logFine(singleStepConfig.getName() + " error response close failed: " + e.getMessage());
+            }
+        }
+        connection.disconnect();
+    }
+
+    /**
+     * Returns the maximum number of calls of the step in flight at once
+     * @return int - the limit, 0 if the calls are not limited
+     */
+    int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Changes the maximum number of calls of the step in flight at once.
+     * Calls already in flight complete under the previous limit.
+     * @param maxConcurrency (int) - the new limit, 0 to stop limiting the calls
+     * @throws IllegalArgumentException - if the limit is negative
+     */
+    synchronized void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("max_concurrency cannot be negative for step " + singleStepConfig.getName());
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.concurrency = maxConcurrency > 0 ? new Semaphore(maxConcurrency, true) : null;
+    }
+
+    /**
+     * Returns the number of calls of the step that timed out, waiting for the concurrency limit or for the service
+     * @return long - the number of timed out calls
+     */
+    long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * Returns the number of temporary files created for the step to capture response bodies
+     * @return long - the number of temporary files created
+     */
+    long getTempFiles() {
+        return tempFiles.sum();
+    }
+
+    /**
+     * Deletes a temporary directory
+     * @param tempDir (Path) - the path to the temporary directory
+     */
+    private void deleteTempDir(Path tempDir) {
+        File[] files = tempDir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    logWarn("Error deleteTempDir failed: " + file);
+                }
+            }
+        }
+        if (!tempDir.toFile().delete()) {
+            logWarn("Error deleteTempDir failed: " + tempDir);
+        }
+    }
+}
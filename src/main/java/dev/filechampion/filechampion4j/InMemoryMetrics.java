@@ -0,0 +1,309 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The default MetricsSink, keeping per category, extension and stage counters of outcomes, bytes processed
+ * and a latency histogram in memory.
+ * Recording is lock-free: series are found without allocating once created, counters are striped LongAdders
+ * and the histogram buckets are updated atomically. Each power of two of nanoseconds is split in 4 buckets,
+ * so that percentiles are reported within 25% of the measured latency.
+ * The counters are read with getStats, or with scrape in the Prometheus text format.
+ */
+public final class InMemoryMetrics implements MetricsSink {
+    // 4 buckets per power of two, up to 2^41 nanoseconds (about 36 minutes)
+    private static final int BUCKETS = 160;
+    // Upper bounds, in nanoseconds, of the cumulative buckets reported by scrape, from 1 microsecond to about 68 seconds
+    private static final long[] SCRAPE_BOUNDS = new long[14];
+    static {
+        for (int i = 0; i < SCRAPE_BOUNDS.length; i++) {
+            SCRAPE_BOUNDS[i] = 1L << (10 + 2 * i);
+        }
+    }
+
+    private final ConcurrentMap<String, ConcurrentMap<String, Series[]>> series = new ConcurrentHashMap<>();
+
+    /**
+     * The counters of a category, extension and stage
+     */
+    private static final class Series {
+        private final LongAdder[] outcomes = {new LongAdder(), new LongAdder(), new LongAdder()};
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * A snapshot of the counters of a category, extension and stage
+     */
+    public static final class StageStats {
+        private final String category;
+        private final String extension;
+        private final ValidationStage stage;
+        private final long[] outcomes;
+        private final long bytes;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] buckets;
+
+        private StageStats(String category, String extension, ValidationStage stage, Series series) {
+            this.category = category;
+            this.extension = extension;
+            this.stage = stage;
+            this.outcomes = new long[series.outcomes.length];
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = series.outcomes[i].sum();
+            }
+            this.bytes = series.bytes.sum();
+            this.totalNanos = series.totalNanos.sum();
+            this.maxNanos = series.maxNanos.get();
+            this.buckets = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = series.buckets.get(i);
+            }
+        }
+
+        /**
+         * Returns the configured category of the measured files
+         * @return (String) the category
+         */
+        public String getCategory() {
+            return category;
+        }
+
+        /**
+         * Returns the configured extension of the measured files
+         * @return (String) the extension
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Returns the measured stage
+         * @return (ValidationStage) the stage
+         */
+        public ValidationStage getStage() {
+            return stage;
+        }
+
+        /**
+         * Returns the number of times the stage ended with an outcome
+         * @param outcome (Outcome) the outcome
+         * @return (long) the number of times the stage ended with the outcome
+         */
+        public long getCount(Outcome outcome) {
+            return outcomes[outcome.ordinal()];
+        }
+
+        /**
+         * Returns the number of times the stage was measured
+         * @return (long) the number of measurements, whatever their outcome
+         */
+        public long getCount() {
+            long count = 0;
+            for (long outcomeCount : outcomes) {
+                count += outcomeCount;
+            }
+            return count;
+        }
+
+        /**
+         * Returns the number of bytes processed by the stage
+         * @return (long) the number of bytes processed
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * Returns the total duration of the stage
+         * @return (long) the sum of the measured durations, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Returns the longest duration of the stage
+         * @return (long) the longest measured duration, in nanoseconds
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        /**
+         * Returns a percentile of the durations of the stage
+         * @param percentile (double) the percentile, between 0 and 100, e.g. 99 for the p99
+         * @return (long) the upper bound of the bucket holding the percentile, in nanoseconds, or 0 if nothing was measured
+         * @throws IllegalArgumentException if the percentile is not between 0 and 100
+         */
+        public long getPercentileNanos(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100.");
+            }
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long cumulative = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                cumulative += buckets[i];
+                if (cumulative >= rank) {
+                    return Math.min(bucketUpperBound(i), maxNanos);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return category + "." + extension + " " + stage + ": " + getCount() + " in " + totalNanos + "ns";
+        }
+    }
+
+    @Override
+    public void record(String category, String extension, ValidationStage stage, Outcome outcome, long nanos, long bytes) {
+        Series stageSeries = seriesOf(category, extension, stage);
+        stageSeries.outcomes[outcome.ordinal()].increment();
+        stageSeries.bytes.add(bytes);
+        stageSeries.totalNanos.add(nanos);
+        stageSeries.maxNanos.accumulate(nanos);
+        stageSeries.buckets.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * Returns a snapshot of the counters of every measured category, extension and stage
+     * @return (List&lt;StageStats&gt;) the counters, one entry per category, extension and stage
+     */
+    public List<StageStats> getStats() {
+        List<StageStats> stats = new ArrayList<>();
+        for (Map.Entry<String, ConcurrentMap<String, Series[]>> categoryEntry : series.entrySet()) {
+            for (Map.Entry<String, Series[]> extensionEntry : categoryEntry.getValue().entrySet()) {
+                Series[] stages = extensionEntry.getValue();
+                for (int i = 0; i < stages.length; i++) {
+                    if (stages[i] != null) {
+                        stats.add(new StageStats(categoryEntry.getKey(), extensionEntry.getKey(), ValidationStage.values()[i], stages[i]));
+                    }
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Returns the counters in the Prometheus text exposition format, as filechampion_stage_total,
+     * filechampion_stage_bytes_total and the filechampion_stage_duration_seconds histogram
+     * @return (String) the counters of every measured category, extension and stage
+     */
+    public String scrape() {
+        List<StageStats> stats = getStats();
+        StringBuilder text = new StringBuilder();
+        text.append("# TYPE filechampion_stage_total counter\n");
+        for (StageStats stageStats : stats) {
+            for (Outcome outcome : Outcome.values()) {
+                appendSample(text, "filechampion_stage_total", stageStats, "outcome", outcome.name().toLowerCase(), stageStats.getCount(outcome));
+            }
+        }
+        text.append("# TYPE filechampion_stage_bytes_total counter\n");
+        for (StageStats stageStats : stats) {
+            appendSample(text, "filechampion_stage_bytes_total", stageStats, null, null, stageStats.getBytes());
+        }
+        text.append("# TYPE filechampion_stage_duration_seconds histogram\n");
+        for (StageStats stageStats : stats) {
+            long cumulative = 0;
+            int bucket = 0;
+            for (long bound : SCRAPE_BOUNDS) {
+                while (bucket < BUCKETS && bucketUpperBound(bucket) < bound) {
+                    cumulative += stageStats.buckets[bucket++];
+                }
+                appendSample(text, "filechampion_stage_duration_seconds_bucket", stageStats, "le", Double.toString(bound / 1e9), cumulative);
+            }
+            appendSample(text, "filechampion_stage_duration_seconds_bucket", stageStats, "le", "+Inf", stageStats.getCount());
+            text.append("filechampion_stage_duration_seconds_sum");
+            appendLabels(text, stageStats, null, null);
+            text.append(' ').append(stageStats.getTotalNanos() / 1e9).append('\n');
+            appendSample(text, "filechampion_stage_duration_seconds_count", stageStats, null, null, stageStats.getCount());
+        }
+        return text.toString();
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    private Series seriesOf(String category, String extension, ValidationStage stage) {
+        ConcurrentMap<String, Series[]> categorySeries = series.get(category);
+        if (categorySeries == null) {
+            categorySeries = series.computeIfAbsent(category, key -> new ConcurrentHashMap<>());
+        }
+        Series[] stages = categorySeries.get(extension);
+        if (stages == null) {
+            stages = categorySeries.computeIfAbsent(extension, key -> new Series[ValidationStage.values().length]);
+        }
+        Series stageSeries = stages[stage.ordinal()];
+        if (stageSeries == null) {
+            // Racing threads create the series once, all of them then recording into the same one
+            synchronized (stages) {
+                stageSeries = stages[stage.ordinal()];
+                if (stageSeries == null) {
+                    stageSeries = new Series();
+                    stages[stage.ordinal()] = stageSeries;
+                }
+            }
+        }
+        return stageSeries;
+    }
+
+    /**
+     * Index of the bucket of a duration, durations below 4 nanoseconds each having their own bucket
+     */
+    static int bucketOf(long nanos) {
+        if (nanos < 4) {
+            return (int) Math.max(nanos, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int index = (exponent - 1) * 4 + (int) ((nanos >>> (exponent - 2)) & 3);
+        return Math.min(index, BUCKETS - 1);
+    }
+
+    /**
+     * The largest duration held by a bucket, in nanoseconds
+     */
+    static long bucketUpperBound(int index) {
+        if (index < 4) {
+            return index;
+        }
+        int exponent = index / 4 + 1;
+        return ((5L + index % 4) << (exponent - 2)) - 1;
+    }
+
+    private static void appendSample(StringBuilder text, String name, StageStats stageStats, String labelName, String labelValue, long value) {
+        text.append(name);
+        appendLabels(text, stageStats, labelName, labelValue);
+        text.append(' ').append(value).append('\n');
+    }
+
+    private static void appendLabels(StringBuilder text, StageStats stageStats, String labelName, String labelValue) {
+        text.append("{category=\"").append(escape(stageStats.getCategory()))
+            .append("\",extension=\"").append(escape(stageStats.getExtension()))
+            .append("\",stage=\"").append(stageStats.getStage().name().toLowerCase()).append('"');
+        if (labelName != null) {
+            text.append(',').append(labelName).append("=\"").append(labelValue).append('"');
+        }
+        text.append('}');
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
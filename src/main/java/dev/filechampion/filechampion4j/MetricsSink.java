@@ -0,0 +1,31 @@
+package dev.filechampion.filechampion4j;
+
+/**
+ * This interface receives the latency, bytes and outcome of every stage of every file validation.
+ * A sink is passed to the FileValidator constructor, or enabled with "Metrics": true in the General configuration
+ * for the InMemoryMetrics default, and is called from the validating threads, so it must be thread safe and fast.
+ */
+public interface MetricsSink {
+    /**
+     * The outcome of a stage
+     */
+    enum Outcome {
+        /** The file passed the stage */
+        PASS,
+        /** The file failed the stage */
+        FAIL,
+        /** The stage could not be completed, e.g. a plugin error or an I/O error */
+        ERROR
+    }
+
+    /**
+     * Record a measured stage
+     * @param category (String) the configured category of the file, or "unknown" if the request was not valid
+     * @param extension (String) the configured extension of the file, or "unknown" if the request was not valid
+     * @param stage (ValidationStage) the measured stage
+     * @param outcome (Outcome) the outcome of the stage
+     * @param nanos (long) the duration of the stage in nanoseconds
+     * @param bytes (long) the number of bytes processed by the stage, 0 for checks looking at a fixed number of bytes
+     */
+    void record(String category, String extension, ValidationStage stage, Outcome outcome, long nanos, long bytes);
+}
@@ -0,0 +1,242 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * This class detects the MIME type of a file from its first bytes, using a table of signatures.
+ * Detection runs on the in-memory bytes only, so it needs no filesystem access and gives the same answer on every host.
+ * The built-in table can be extended through the "Mime_signatures" General configuration, whose entries are matched first:
+ * <pre>
+ * "Mime_signatures": [{"mime_type": "application/x-custom", "signature": "43555354", "offset": 0, "extensions": ["cst"]}]
+ * </pre>
+ * An entry listing extensions only applies to files with one of these extensions, which tells apart container
+ * formats sharing a signature (e.g. docx and xlsx are both zip files).
+ * Content matching no signature is reported as text when it holds no binary bytes.
+ * Instances are immutable and shared by all validations.
+ */
+final class MimeSniffer {
+    private static final int TEXT_PROBE_BYTES = 8192;
+    private static final List<Signature> DEFAULT_SIGNATURES = Collections.unmodifiableList(Arrays.asList(
+        new Signature("application/pdf", 0, "25504446"),
+        new Signature("image/png", 0, "89504e470d0a1a0a"),
+        new Signature("image/jpeg", 0, "ffd8ff"),
+        new Signature("image/gif", 0, "474946383761"),
+        new Signature("image/gif", 0, "474946383961"),
+        new Signature("image/tiff", 0, "49492a00"),
+        new Signature("image/tiff", 0, "4d4d002a"),
+        new Signature("image/bmp", 0, "424d", "bmp"),
+        new Signature("image/webp", 8, "57454250"),
+        new Signature("audio/wav", 8, "57415645"),
+        new Signature("video/x-msvideo", 8, "41564920"),
+        new Signature("application/vnd.openxmlformats-officedocument.wordprocessingml.document", 0, "504b0304", "docx"),
+        new Signature("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", 0, "504b0304", "xlsx"),
+        new Signature("application/vnd.openxmlformats-officedocument.presentationml.presentation", 0, "504b0304", "pptx"),
+        new Signature("application/vnd.oasis.opendocument.text", 0, "504b0304", "odt"),
+        new Signature("application/vnd.oasis.opendocument.spreadsheet", 0, "504b0304", "ods"),
+        new Signature("application/java-archive", 0, "504b0304", "jar"),
+        new Signature("application/epub+zip", 0, "504b0304", "epub"),
+        new Signature("application/zip", 0, "504b0304"),
+        new Signature("application/zip", 0, "504b0506"),
+        new Signature("application/msword", 0, "d0cf11e0a1b11ae1", "doc"),
+        new Signature("application/vnd.ms-excel", 0, "d0cf11e0a1b11ae1", "xls"),
+        new Signature("application/vnd.ms-powerpoint", 0, "d0cf11e0a1b11ae1", "ppt"),
+        new Signature("application/x-ole-storage", 0, "d0cf11e0a1b11ae1"),
+        new Signature("application/rtf", 0, "7b5c727466"),
+        new Signature("application/gzip", 0, "1f8b08"),
+        new Signature("application/x-bzip2", 0, "425a68"),
+        new Signature("application/x-xz", 0, "fd377a585a00"),
+        new Signature("application/x-7z-compressed", 0, "377abcaf271c"),
+        new Signature("application/vnd.rar", 0, "526172211a07"),
+        new Signature("application/x-tar", 257, "7573746172"),
+        new Signature("application/x-executable", 0, "7f454c46"),
+        new Signature("application/x-msdownload", 0, "4d5a", "exe", "dll"),
+        new Signature("application/java-vm", 0, "cafebabe", "class"),
+        new Signature("audio/mpeg", 0, "494433"),
+        new Signature("audio/flac", 0, "664c6143"),
+        new Signature("application/ogg", 0, "4f676753"),
+        new Signature("audio/mp4", 4, "66747970", "m4a"),
+        new Signature("video/quicktime", 4, "66747970", "mov"),
+        new Signature("video/mp4", 4, "66747970"),
+        new Signature("video/webm", 0, "1a45dfa3", "webm"),
+        new Signature("video/x-matroska", 0, "1a45dfa3"),
+        new Signature("image/svg+xml", 0, "3c3f786d6c", "svg"),
+        new Signature("application/xml", 0, "3c3f786d6c"),
+        new Signature("application/postscript", 0, "2521")
+    ));
+    private static final Map<String, String> TEXT_TYPES = new HashMap<>();
+    static {
+        TEXT_TYPES.put("csv", "text/csv");
+        TEXT_TYPES.put("htm", "text/html");
+        TEXT_TYPES.put("html", "text/html");
+        TEXT_TYPES.put("css", "text/css");
+        TEXT_TYPES.put("js", "text/javascript");
+        TEXT_TYPES.put("json", "application/json");
+        TEXT_TYPES.put("xml", "application/xml");
+        TEXT_TYPES.put("md", "text/markdown");
+        TEXT_TYPES.put("svg", "image/svg+xml");
+    }
+
+    private final List<Signature> signatures;
+    private final int probeSize;
+
+    /**
+     * A signature of the table, the bytes expected at an offset of the file
+     */
+    private static final class Signature {
+        private final String mimeType;
+        private final int offset;
+        private final byte[] bytes;
+        private final List<String> extensions;
+
+        private Signature(String mimeType, int offset, String hexSignature, String... extensions) {
+            this(mimeType, offset, hexToBytes(hexSignature), extensions.length == 0 ? null : Arrays.asList(extensions));
+        }
+
+        private Signature(String mimeType, int offset, byte[] bytes, List<String> extensions) {
+            this.mimeType = mimeType;
+            this.offset = offset;
+            this.bytes = bytes;
+            this.extensions = extensions;
+        }
+
+        private boolean matches(byte[] content, int length) {
+            if (offset + bytes.length > length) {
+                return false;
+            }
+            for (int i = 0; i < bytes.length; i++) {
+                if (content[offset + i] != bytes[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Creates a sniffer using the built-in signatures only
+     */
+    MimeSniffer() {
+        this(null);
+    }
+
+    /**
+     * Creates a sniffer using the configured signatures before the built-in ones
+     * @param customSignatures (JSONArray) the "Mime_signatures" General configuration, or null
+     * @throws IllegalArgumentException if a configured signature is invalid
+     */
+    MimeSniffer(JSONArray customSignatures) {
+        List<Signature> allSignatures = new ArrayList<>();
+        if (customSignatures != null) {
+            for (int i = 0; i < customSignatures.length(); i++) {
+                allSignatures.add(parseSignature(customSignatures.getJSONObject(i)));
+            }
+        }
+        allSignatures.addAll(DEFAULT_SIGNATURES);
+        this.signatures = Collections.unmodifiableList(allSignatures);
+        int size = TEXT_PROBE_BYTES;
+        for (Signature signature : signatures) {
+            size = Math.max(size, signature.offset + signature.bytes.length);
+        }
+        this.probeSize = size;
+    }
+
+    /**
+     * Get the number of first bytes of a file looked at by detect
+     * @return int (int) the number of first bytes needed
+     */
+    int getProbeSize() {
+        return probeSize;
+    }
+
+    /**
+     * Detect the MIME type of a file from its first bytes
+     * @param content (byte[]) the file, or at least its first getProbeSize() bytes
+     * @param length (int) the number of valid bytes in content
+     * @param extension (String) the extension of the file, used to tell apart formats sharing a signature
+     * @return String (String) the detected MIME type, application/octet-stream for unknown binary content, or null if the content is empty
+     */
+    String detect(byte[] content, int length, String extension) {
+        if (length <= 0) {
+            return null;
+        }
+        String lowerExtension = extension == null ? "" : extension.toLowerCase();
+        for (Signature signature : signatures) {
+            if ((signature.extensions == null || signature.extensions.contains(lowerExtension)) && signature.matches(content, length)) {
+                return signature.mimeType;
+            }
+        }
+        if (isText(content, Math.min(length, TEXT_PROBE_BYTES))) {
+            String textType = TEXT_TYPES.get(lowerExtension);
+            return textType != null ? textType : "text/plain";
+        }
+        return "application/octet-stream";
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Check that the content holds no binary bytes, control characters other than whitespace and escape
+     */
+    private static boolean isText(byte[] content, int length) {
+        for (int i = 0; i < length; i++) {
+            int b = content[i] & 0xff;
+            if (b <= 0x08 || b == 0x0b || (b >= 0x0e && b <= 0x1a) || (b >= 0x1c && b <= 0x1f)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse a configured signature entry
+     */
+    private static Signature parseSignature(JSONObject entry) {
+        String mimeType = entry.optString("mime_type", "");
+        String hexSignature = entry.optString("signature", "");
+        if (mimeType.trim().isEmpty() || hexSignature.trim().isEmpty()) {
+            throw new IllegalArgumentException("Mime_signatures entries must have mime_type and signature values");
+        }
+        int offset = entry.optInt("offset", 0);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Invalid offset for mime signature: " + hexSignature);
+        }
+        List<String> extensions = null;
+        JSONArray extensionsArray = entry.optJSONArray("extensions");
+        if (extensionsArray != null && extensionsArray.length() > 0) {
+            extensions = new ArrayList<>();
+            for (int i = 0; i < extensionsArray.length(); i++) {
+                extensions.add(extensionsArray.getString(i).toLowerCase());
+            }
+        }
+        return new Signature(mimeType, offset, hexToBytes(hexSignature), extensions);
+    }
+
+    /**
+     * Convert a hex signature to bytes
+     */
+    private static byte[] hexToBytes(String hexSignature) {
+        String cleanSignature = hexSignature.replaceAll("\\p{Zs}", "");
+        if (cleanSignature.isEmpty() || cleanSignature.length() % 2 != 0) {
+            throw new IllegalArgumentException("Invalid hex value for mime signature: " + hexSignature);
+        }
+        byte[] bytes = new byte[cleanSignature.length() / 2];
+        try {
+            for (int i = 0; i < cleanSignature.length(); i += 2) {
+                bytes[i / 2] = (byte) Integer.parseInt(cleanSignature.substring(i, i + 2), 16);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid hex value for mime signature: " + hexSignature);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,96 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class is used to return the outcome of a single plugin step.
+ * Its message is only built when getMessage is called.
+ */
+public final class PluginOutcome {
+    /**
+     * The outcome of a plugin step
+     */
+    public enum Status {
+        /** The step succeeded */
+        SUCCESS,
+        /** The step failed and its on_fail is not "fail", so the validation went on */
+        ERROR,
+        /** The step failed and its on_fail is "fail", so the validation stopped */
+        FAILED
+    }
+
+    private final String stepName;
+    private final Status status;
+    private final Map<String, String> results;
+    private final String error;
+
+    /**
+     * Creates the outcome of a step
+     * @param stepName (String) the name of the step, e.g. "av_scan.step1"
+     * @param status (Status) the outcome of the step
+     * @param results (Map) the response patterns returned by the step
+     * @param error (String) the error applying the file returned by the step, or null
+     */
+    PluginOutcome(String stepName, Status status, Map<String, String> results, String error) {
+        this.stepName = stepName;
+        this.status = status;
+        this.results = results;
+        this.error = error;
+    }
+
+    /**
+     * Returns the outcome with another status, e.g. an error of a step set to fail the validation
+     * @param newStatus (Status) the new status
+     * @return PluginOutcome (PluginOutcome) the outcome with the new status
+     */
+    PluginOutcome withStatus(Status newStatus) {
+        return new PluginOutcome(stepName, newStatus, results, error);
+    }
+
+    /**
+     * Returns the name of the step
+     * @return (String) the name of the step, e.g. "av_scan.step1"
+     */
+    public String getStepName() {
+        return stepName;
+    }
+
+    /**
+     * Returns the outcome of the step
+     * @return (Status) the outcome of the step
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the response patterns returned by the step, or its error details
+     * @return (Map&lt;String, String&gt;) the results of the step as 'name' =&gt; 'value'
+     */
+    public Map<String, String> getResults() {
+        return Collections.unmodifiableMap(results);
+    }
+
+    /**
+     * Returns the results of the step as text
+     * @return (String) the results of the step as text
+     */
+    public String getMessage() {
+        if (error != null) {
+            return error;
+        }
+        StringBuilder message = new StringBuilder("Step: ").append(stepName);
+        String separator = " Success, Results: ";
+        for (Map.Entry<String, String> entry : results.entrySet()) {
+            message.append(separator).append(entry.getKey()).append("\"").append(entry.getValue());
+            separator = ", ";
+        }
+        return message.toString();
+    }
+
+    @Override
+    public String toString() {
+        return stepName + ": " + status;
+    }
+}
@@ -0,0 +1,150 @@
+package dev.filechampion.filechampion4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class caches the successful results of a plugin step, so that a file already processed by the step
+ * does not run the plugin again. A step enables it with "cache_ttl", the number of seconds an entry is kept,
+ * and bounds it with "cache_max_entries" and "cache_max_bytes".
+ * Entries are keyed by the SHA-256 of the file content and its extension, and evicted least recently used first.
+ * When the step returns a file, its bytes are kept in the entry and written to a new temporary file on every hit,
+ * as the returned file itself is consumed by the validation.
+ * A cache belongs to the configuration of a single step, so a changed step configuration never reuses entries.
+ */
+final class PluginResultCache {
+    /** Default maximum number of cached results of a step */
+    static final int DEFAULT_MAX_ENTRIES = 1024;
+    /** Default maximum number of bytes held by the cached results of a step, 64 MB */
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final String filePathKey;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * A cached step result and the bytes of the file it returned
+     */
+    private static final class Entry {
+        private final Map<String, Map<String, String>> results;
+        private final String fileName;
+        private final byte[] fileBytes;
+        private final long expiresAt;
+        private final long size;
+
+        private Entry(Map<String, Map<String, String>> results, String fileName, byte[] fileBytes, long expiresAt, long size) {
+            this.results = results;
+            this.fileName = fileName;
+            this.fileBytes = fileBytes;
+            this.expiresAt = expiresAt;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Creates the result cache of a step
+     * @param stepName (String) the name of the step, e.g. "av_scan.step1"
+     * @param ttlSeconds (int) the number of seconds a result is kept
+     * @param maxEntries (int) the maximum number of cached results
+     * @param maxBytes (long) the maximum number of bytes held by the cached results
+     * @throws IllegalArgumentException if a bound is not positive
+     */
+    PluginResultCache(String stepName, int ttlSeconds, int maxEntries, long maxBytes) {
+        if (ttlSeconds < 1 || maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("cache_ttl, cache_max_entries and cache_max_bytes must be positive numbers for step " + stepName);
+        }
+        this.filePathKey = stepName.substring(stepName.lastIndexOf('.') + 1) + ".filePath";
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Return the cached results of a file, with any returned file written to a new temporary file
+     * @param contentDigest (String) the hex SHA-256 of the file content
+     * @param fileExtension (String) the extension of the file
+     * @return Map (Map) the results of the step, or null if not cached
+     * @throws IOException if the returned file cannot be written
+     */
+    Map<String, Map<String, String>> get(String contentDigest, String fileExtension) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            String key = contentDigest + "." + fileExtension;
+            entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(key);
+                totalBytes -= entry.size;
+                return null;
+            }
+        }
+        if (entry.fileBytes == null) {
+            return entry.results;
+        }
+        Path returnedFile = Files.createTempDirectory("tempDir").resolve(entry.fileName);
+        Files.write(returnedFile, entry.fileBytes);
+        Map<String, String> responsePatterns = new HashMap<>(entry.results.get("Success"));
+        responsePatterns.put(filePathKey, returnedFile.toString());
+        return Collections.singletonMap("Success", responsePatterns);
+    }
+
+    /**
+     * Cache the results of a file if the step succeeded, reading the file it returned if any
+     * @param contentDigest (String) the hex SHA-256 of the file content
+     * @param fileExtension (String) the extension of the file
+     * @param results (Map) the results of the step
+     * @throws IOException if the returned file cannot be read
+     */
+    void put(String contentDigest, String fileExtension, Map<String, Map<String, String>> results) throws IOException {
+        Map<String, String> responsePatterns = results.get("Success");
+        if (responsePatterns == null) {
+            return;
+        }
+        String returnedFilePath = responsePatterns.get(filePathKey);
+        String fileName = null;
+        byte[] fileBytes = null;
+        long size = 0;
+        if (returnedFilePath != null && !returnedFilePath.trim().isEmpty()) {
+            Path returnedFile = Paths.get(returnedFilePath.trim());
+            if (Files.size(returnedFile) > maxBytes) {
+                return;
+            }
+            fileName = returnedFile.getFileName().toString();
+            fileBytes = Files.readAllBytes(returnedFile);
+            size = fileBytes.length;
+        }
+        for (Map.Entry<String, String> pattern : responsePatterns.entrySet()) {
+            size += 2L * (pattern.getKey().length() + (pattern.getValue() == null ? 0 : pattern.getValue().length()));
+        }
+        if (size > maxBytes) {
+            return;
+        }
+        Entry entry = new Entry(Collections.singletonMap("Success", Collections.unmodifiableMap(new HashMap<>(responsePatterns))),
+            fileName, fileBytes, System.nanoTime() + ttlNanos, size);
+        synchronized (this) {
+            Entry previous = entries.put(contentDigest + "." + fileExtension, entry);
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += size;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while ((entries.size() > maxEntries || totalBytes > maxBytes) && eldest.hasNext()) {
+                totalBytes -= eldest.next().size;
+                eldest.remove();
+            }
+        }
+    }
+}
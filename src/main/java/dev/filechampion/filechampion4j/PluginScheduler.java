@@ -0,0 +1,55 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class holds the single scheduler running the timeouts of all plugin executions,
+ * so that a plugin call costs no timer thread of its own.
+ * Its daemon thread only destroys processes, it never runs plugin work.
+ */
+final class PluginScheduler {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "filechampion-plugin-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PluginScheduler() {
+    }
+
+    /**
+     * Schedule a timeout task
+     * @param task (Runnable) the task to run once the delay expires, it must be quick
+     * @param delay (long) the delay before running the task
+     * @param unit (TimeUnit) the unit of the delay
+     * @return ScheduledFuture (ScheduledFuture) the scheduled task, to cancel once the plugin call completes
+     */
+    static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return SCHEDULER.schedule(task, delay, unit);
+    }
+
+    /**
+     * Schedule the destruction of a process, forcibly if it still runs after a grace period
+     * @param process (Process) the process to destroy
+     * @param delay (long) the delay before destroying the process
+     * @param unit (TimeUnit) the unit of the delay
+     * @param onTimeout (Runnable) a task run first when the delay expires, e.g. to record the timeout, or null
+     * @return ScheduledFuture (ScheduledFuture) the scheduled destruction, to cancel once the process completes
+     */
+    static ScheduledFuture<?> scheduleDestroy(final Process process, long delay, TimeUnit unit, final Runnable onTimeout) {
+        return SCHEDULER.schedule(() -> {
+            if (onTimeout != null) {
+                onTimeout.run();
+            }
+            process.destroy();
+            SCHEDULER.schedule(() -> {
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }, 1, TimeUnit.SECONDS);
+        }, delay, unit);
+    }
+}
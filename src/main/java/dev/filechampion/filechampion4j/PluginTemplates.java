@@ -0,0 +1,186 @@
+package dev.filechampion.filechampion4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class holds the placeholder and response handling shared by the cli and http plugin steps.
+ * Placeholders describing the file (${fileExtension}, ${fileSize}, ${fileContent}, ${fileChecksum.*}) are replaced in
+ * endpoints, headers and bodies, and the results of a step are matched against its "response" configuration.
+ */
+final class PluginTemplates {
+    private static final Logger LOGGER = Logger.getLogger(PluginTemplates.class.getName());
+    private static void logFine(String message) {
+        if (LOGGER.isLoggable(Level.FINE )) {
+            LOGGER.fine(message);
+        }
+    }
+    private static void logWarn(String message) {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.warning(message);
+        }
+    }
+
+    private PluginTemplates() {
+    }
+
+    /**
+     * Replaces the placeholders describing the file with their values
+     * @param template (String) - the template, e.g. an endpoint
+     * @param sourcePath (String) - the path to read the file content from when fileContent is null
+     * @param fileContent (byte[]) - the file content, or null to read it from sourcePath when needed
+     * @param fileExtension (String) - the file extension
+     * @return String - the template with the placeholders replaced
+     */
+    static String replaceFilePlaceholders(String template, String sourcePath, byte[] fileContent, String fileExtension) {
+        String newTemplate = template.contains("${fileExtension}") ? template.replace("${fileExtension}", fileExtension) : template;
+        newTemplate = newTemplate.contains("${fileSize}") ? newTemplate.replace("${fileSize}", String.valueOf(fileSize(sourcePath, fileContent))) : newTemplate;
+        newTemplate = newTemplate.contains("${fileContent}") ? newTemplate.replace("${fileContent}", Base64.getEncoder().encodeToString(readFileContent(sourcePath, fileContent))) : newTemplate;
+        newTemplate = newTemplate.contains("${fileChecksum.md5}") ? newTemplate.replace("${fileChecksum.md5}", calculateChecksum(sourcePath, fileContent, "MD5")) : newTemplate;
+        newTemplate = newTemplate.contains("${fileChecksum.sha1}") ? newTemplate.replace("${fileChecksum.sha1}", calculateChecksum(sourcePath, fileContent, "SHA-1")) : newTemplate;
+        newTemplate = newTemplate.contains("${fileChecksum.sha256}") ? newTemplate.replace("${fileChecksum.sha256}", calculateChecksum(sourcePath, fileContent, "SHA-256")) : newTemplate;
+        newTemplate = newTemplate.contains("${fileChecksum.sha512}") ? newTemplate.replace("${fileChecksum.sha512}", calculateChecksum(sourcePath, fileContent, "SHA-512")) : newTemplate;
+        return newTemplate;
+    }
+
+    /**
+     * Returns the fixed text that the results of a step must contain, the response configuration up to its first placeholder
+     * @param responseConfig (String) - the response configuration of the step
+     * @return String - the expected text
+     */
+    static String expectedResponse(String responseConfig) {
+        return responseConfig.substring(0, responseConfig.indexOf("${")>-1?
+        responseConfig.indexOf("${") : responseConfig.length());
+    }
+
+    /**
+     * Extracts the response patterns from the results
+     * @param responseConfig (String) - the response configuration of the step, e.g. "Success: ${step1.filePath}"
+     * @param results (String) - the results
+     * @return Map&lt;String, String&gt; - the response patterns map
+     */
+    static Map<String, String> extractResponsePatterns(String responseConfig, String results) {
+        Map<String, String> responsePatterns = new HashMap<>();
+        StringBuilder logMessage = new StringBuilder();
+    
+        // Extract the placeholder name from the response pattern
+        Pattern placeholderPattern = Pattern.compile("\\$\\{(.+?)\\}");
+        Matcher placeholderMatcher = placeholderPattern.matcher(responseConfig);
+        if (!placeholderMatcher.find()) {
+            responsePatterns.put(results, results);
+            return responsePatterns;
+
+        }
+        do {
+            String placeholderName = placeholderMatcher.group(1);
+            String placeholderValue;
+    
+            logMessage.replace(0, logMessage.length(), "Placeholder name: ")
+            .append(placeholderName)
+            .append(", ResponseConfig: ")
+            .append(responseConfig);
+            logFine(logMessage.toString());
+            
+            String fixedPrefix = String.format("%s", responseConfig.substring(0, responseConfig.indexOf("${")));
+            logMessage.replace(0, logMessage.length(), "Fixed prefix: ").append(fixedPrefix);
+            logFine(logMessage.toString());
+    
+            String fixedSuffix;
+            int suffixStartIndex = responseConfig.indexOf("${") + placeholderName.length() + 3;
+            if (suffixStartIndex == responseConfig.length()) {
+                fixedSuffix = "";
+            } else {
+                fixedSuffix = responseConfig.substring(suffixStartIndex);
+                logMessage.replace(0, logMessage.length(), "Fixed suffix: ").append(fixedSuffix);
+                logFine(logMessage.toString());
+            }
+    
+            String captureGroupPattern = String.format("%s(.*)%s", fixedPrefix, fixedSuffix);
+            logMessage.replace(0, logMessage.length(), "Capture group pattern: ").append(captureGroupPattern);
+            logFine(logMessage.toString());
+    
+            Pattern pattern = Pattern.compile(captureGroupPattern);
+            Matcher matcher = pattern.matcher(results);
+    
+            if (matcher.find()) {
+                placeholderValue = matcher.group(1);
+                responsePatterns.put(placeholderName, placeholderValue);
+            }
+    
+        } while (placeholderMatcher.find());
+    
+        return responsePatterns;
+    }
+    
+    /**
+     * Returns the size of the file content
+     * @param filePath (String) - the path to the file, used when fileContent is null
+     * @param fileContent (byte[]) - the file content, or null
+     * @return long - the size of the file content, or -1 if it cannot be read
+     */
+    static long fileSize(String filePath, byte[] fileContent) {
+        if (fileContent != null) {
+            return fileContent.length;
+        }
+        try {
+            return Files.size(new File(filePath).toPath());
+        } catch (IOException e) {
+            logWarn("Error fileSize failed: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the file content, reading it from the file if it is not held in memory
+     * @param filePath (String) - the path to the file
+     * @param fileContent (byte[]) - the file content, or null
+     * @return byte[] - the file content
+     */
+    static byte[] readFileContent(String filePath, byte[] fileContent) {
+        if (fileContent != null) {
+            return fileContent;
+        }
+        try {
+            return Files.readAllBytes(new File(filePath).toPath());
+        } catch (IOException e) {
+            logWarn("Error readFileContent failed: " + e.getMessage());
+            return new byte[0];
+        }
+    }
+
+    /**
+     * Calculate the checksum of the file
+     * @param filePath (String) the path to the file, used when fileBytes is null
+     * @param fileBytes (byte[]) the file bytes of the file being validated, or null
+     * @param checksumAlgorithm (String) the checksum algorithm
+     * @return String (String) the checksum of the file
+     */
+    static String calculateChecksum(String filePath, byte[] fileBytes, String checksumAlgorithm) {
+        try {
+            byte[] checksum;
+            if (fileBytes != null) {
+                checksum = new CalculateChecksum(fileBytes).getChecksum(checksumAlgorithm);
+            } else {
+                try (FileChannel fileChannel = FileChannel.open(new File(filePath).toPath(), StandardOpenOption.READ)) {
+                    checksum = CalculateChecksum.getChecksums(fileChannel, Collections.singletonList(checksumAlgorithm)).get(checksumAlgorithm);
+                }
+            }
+            return new BigInteger(1, checksum).toString(16);
+        } catch (Exception e) {
+            logWarn("Error calculateChecksum failed: " + e.getMessage());
+            return null;
+        }
+    }
+}
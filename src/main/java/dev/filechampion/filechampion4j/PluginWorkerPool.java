@@ -0,0 +1,245 @@
+package dev.filechampion.filechampion4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.JSONObject;
+
+/**
+ * This class keeps long-lived worker processes of a cli plugin step, so that each file does not pay the start of a new process.
+ * A step configured with "worker_pool_size" starts up to that many processes of its endpoint command on first use and reuses them.
+ * Files and results are exchanged with each worker over its stdin and stdout, one request at a time:
+ * <pre>
+ * request:  a single line of JSON, e.g. {"filePath":"/tmp/tempDir1/tempFile2.pdf","fileExtension":"pdf"}
+ * response: a line holding the length in bytes of the result, followed by the UTF-8 result, e.g. "22\nSuccess: /tmp/new.pdf"
+ * </pre>
+ * The result is then matched against the step "response" as the output of a cli step is,
+ * and only its first "max_output_bytes" bytes are kept.
+ * A worker that times out, fails or breaks the protocol is destroyed and replaced on the next request.
+ * Workers should exit when their stdin is closed; live workers are also destroyed when the JVM shuts down.
+ */
+final class PluginWorkerPool {
+    private static final String ERR_STRING = "Error: ";
+    private static final Set<Process> LIVE_PROCESSES = Collections.newSetFromMap(new ConcurrentHashMap<Process, Boolean>());
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Process process : LIVE_PROCESSES) {
+                process.destroy();
+            }
+        }, "filechampion-plugin-workers-shutdown"));
+    }
+
+    private final String name;
+    private final String[] command;
+    private final int timeout;
+    private final int maxOutputBytes;
+    private final Semaphore permits;
+    private final LongAdder timeouts = new LongAdder();
+    private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+    private static final Logger LOGGER = Logger.getLogger(PluginWorkerPool.class.getName());
+    private void logFine(String message) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(message);
+        }
+    }
+    private void logWarn(String message) {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.warning(message);
+        }
+    }
+
+    /**
+     * A single worker process and its pipes
+     */
+    private static final class Worker {
+        private final Process process;
+        private final OutputStream stdin;
+        private final InputStream stdout;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.stdin = process.getOutputStream();
+            this.stdout = new BufferedInputStream(process.getInputStream());
+        }
+
+        private void destroy() {
+            process.destroy();
+            LIVE_PROCESSES.remove(process);
+        }
+    }
+
+    /**
+     * Creates the pool of a step, no process is started until the first request
+     * @param name (String) the name of the step, used in logs
+     * @param endpoint (String) the command starting a worker
+     * @param poolSize (int) the maximum number of workers
+     * @param timeout (int) the timeout of a single request in seconds, also bounding the wait for a free worker
+     * @param maxOutputBytes (int) the maximum number of result bytes kept, the rest being discarded
+     * @throws IllegalArgumentException if the pool size is not positive or the endpoint holds file placeholders
+     */
+    PluginWorkerPool(String name, String endpoint, int poolSize, int timeout, int maxOutputBytes) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("worker_pool_size must be a positive number for step " + name);
+        }
+        if (endpoint.contains("${")) {
+            throw new IllegalArgumentException("Worker endpoint cannot hold file placeholders for step " + name + ", files are sent over stdin");
+        }
+        this.name = name;
+        this.command = endpoint.trim().split("\\p{Zs}+");
+        this.timeout = timeout;
+        this.maxOutputBytes = maxOutputBytes;
+        this.permits = new Semaphore(poolSize, true);
+    }
+
+    /**
+     * Send a file to a free worker and wait for its result
+     * @param filePath (String) the path of the temporary copy of the file
+     * @param fileExtension (String) the extension of the file
+     * @return String (String) the result of the worker, or a message starting with "Error: " on failure or timeout
+     * @throws InterruptedException if the thread is interrupted while waiting for a free worker
+     */
+    String execute(String filePath, String fileExtension) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        if (!permits.tryAcquire(timeout, TimeUnit.SECONDS)) {
+            timeouts.increment();
+            logWarn(name + " no worker available within timeout");
+            return ERR_STRING + "Process timeout: no worker available for " + name;
+        }
+        Worker worker = null;
+        ScheduledFuture<?> timeoutTask = null;
+        try {
+            worker = idleWorkers.poll();
+            while (worker != null && !worker.process.isAlive()) {
+                worker.destroy();
+                worker = idleWorkers.poll();
+            }
+            if (worker == null) {
+                worker = startWorker();
+            }
+            final Worker timedWorker = worker;
+            timeoutTask = PluginScheduler.schedule(timedWorker::destroy, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+
+            JSONObject request = new JSONObject();
+            request.put("filePath", filePath);
+            request.put("fileExtension", fileExtension);
+            worker.stdin.write((request.toString() + "\n").getBytes(StandardCharsets.UTF_8));
+            worker.stdin.flush();
+            String result = readResponse(worker.stdout, maxOutputBytes);
+
+            if (!timeoutTask.cancel(false)) {
+                worker = null;
+                return timeoutMessage();
+            }
+            idleWorkers.offer(worker);
+            worker = null;
+            logFine(name + " worker result: " + result);
+            return result;
+        } catch (IOException e) {
+            if (timeoutTask != null && !timeoutTask.cancel(false)) {
+                return timeoutMessage();
+            }
+            logWarn(name + " worker failed: " + e.getMessage());
+            return ERR_STRING + "Worker process failed: " + e.getMessage();
+        } finally {
+            if (worker != null) {
+                worker.destroy();
+            }
+            permits.release();
+        }
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Start a new worker process
+     */
+    private Worker startWorker() throws IOException {
+        logFine(name + " starting worker: " + String.join(" ", command));
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectError(Redirect.INHERIT);
+        Process process = processBuilder.start();
+        LIVE_PROCESSES.add(process);
+        return new Worker(process);
+    }
+
+    /**
+     * Read a length framed response from a worker, keeping at most maxOutputBytes of it
+     */
+    private static String readResponse(InputStream stdout, int maxOutputBytes) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        int b;
+        while ((b = stdout.read()) != '\n') {
+            if (b == -1) {
+                throw new IOException("worker closed its output");
+            }
+            if (header.size() > 10) {
+                throw new IOException("invalid response length header");
+            }
+            header.write(b);
+        }
+        int length;
+        try {
+            length = Integer.parseInt(new String(header.toByteArray(), StandardCharsets.US_ASCII).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid response length header");
+        }
+        if (length < 0) {
+            throw new IOException("invalid response length " + length);
+        }
+        byte[] response = new byte[Math.min(length, maxOutputBytes)];
+        int total = 0;
+        while (total < response.length) {
+            int bytesRead = stdout.read(response, total, response.length - total);
+            if (bytesRead == -1) {
+                throw new IOException("worker closed its output");
+            }
+            total += bytesRead;
+        }
+        // The rest of the frame is discarded so the next response starts in sync
+        long remaining = (long) length - response.length;
+        while (remaining > 0) {
+            long skipped = stdout.skip(remaining);
+            if (skipped <= 0) {
+                if (stdout.read() == -1) {
+                    throw new IOException("worker closed its output");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+        return new String(response, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of requests that timed out, waiting for a worker or for its result
+     * @return long (long) the number of timed out requests
+     */
+    long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    private String timeoutMessage() {
+        timeouts.increment();
+        String message = ERR_STRING + "Process timeout: " + name;
+        logWarn(message);
+        return message;
+    }
+}
@@ -1,7 +1,10 @@
 package dev.filechampion.filechampion4j;
 
 import org.json.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -48,9 +51,23 @@ public class PluginsHelper {
                 stepConfig.setOnFail(step.getString("on_timeout_or_fail"));
                 stepConfig.setEndpoint(step.getString("endpoint"));
                 stepConfig.setResponse(step.getString("response"));
+                stepConfig.setReadOnly(step.optBoolean("read_only"));
+                stepConfig.setDependsOn(getDependsOn(step.optJSONArray("depends_on")));
+                if (stepConfig.isReadOnly() && !step.optString("content_output").isEmpty()) {
+                    throw new IllegalArgumentException("read_only step " + pluginStepName + " cannot set content_output");
+                }
+                if (step.has("cache_ttl")) {
+                    stepConfig.setResultCache(new PluginResultCache(pluginStepName, step.getInt("cache_ttl"),
+                        step.optInt("cache_max_entries", PluginResultCache.DEFAULT_MAX_ENTRIES),
+                        step.optLong("cache_max_bytes", PluginResultCache.DEFAULT_MAX_BYTES)));
+                }
 
                 switch (stepConfig.getType()) {
                     case "cli":
+                        stepConfig.setWorkerPoolSize(step.optInt("worker_pool_size", 0));
+                        stepConfig.setMaxOutputBytes(step.optInt("max_output_bytes", StepConfig.DEFAULT_MAX_OUTPUT_BYTES));
+                        stepConfig.setFileTransport(step.optString("file_transport", "copy"));
+                        stepConfig.setContentOutput(step.optString("content_output"));
                         CliPluginHelper cliPluginStep = new CliPluginHelper(stepConfig);
                         stepConfig.setCliPluginHelper(cliPluginStep);
                         stepConfigs.put(pluginStepName, stepConfig);
@@ -62,6 +79,10 @@ public class PluginsHelper {
                         stepConfig.setBody(step.optJSONObject("body"));
                         stepConfig.setHttpPassCode(step.optInt("http_pass_code"));
                         stepConfig.setHttpFailCode(step.optInt("http_fail_code"));
+                        stepConfig.setMaxConcurrency(step.optInt("max_concurrency", 0));
+                        stepConfig.setMaxOutputBytes(step.optInt("max_output_bytes", StepConfig.DEFAULT_MAX_OUTPUT_BYTES));
+                        stepConfig.setContentOutput(step.optString("content_output"));
+                        stepConfig.setHttpPluginHelper(new HttpPluginHelper(stepConfig));
                         stepConfigs.put(pluginStepName, stepConfig);
                         continue;
                     default:
@@ -74,6 +95,22 @@ public class PluginsHelper {
         return pluginConfigs;
     }
 
+    /**
+     * Returns the names of the steps listed in depends_on.
+     * @param dependsOn (JSONArray) the depends_on values of a step, or null
+     * @return (List&lt;String&gt;) the names of the steps, empty if none
+     */
+    private static List<String> getDependsOn(JSONArray dependsOn) {
+        if (dependsOn == null) {
+            return Collections.emptyList();
+        }
+        List<String> stepNames = new ArrayList<>();
+        for (int i = 0; i < dependsOn.length(); i++) {
+            stepNames.add(dependsOn.getString(i));
+        }
+        return Collections.unmodifiableList(stepNames);
+    }
+
     /**
      * Class to set and return a single plugin configuration.
      */
@@ -118,6 +155,8 @@ public class PluginsHelper {
      * Class to set and return a single step configuration.
      */
     public static class StepConfig {
+        /** Default maximum number of output bytes captured from a cli step, 1 MB */
+        public static final int DEFAULT_MAX_OUTPUT_BYTES = 1024 * 1024;
         private String name;
         private String type;
         private String endpoint;
@@ -131,8 +170,17 @@ public class PluginsHelper {
         private int httpFailCode;
         private String credsPath;
         private CliPluginHelper cliPluginHelper;
+        private HttpPluginHelper httpPluginHelper;
+        private int maxConcurrency;
         private boolean runBefore;
         private boolean runAfter;
+        private int workerPoolSize;
+        private int maxOutputBytes = DEFAULT_MAX_OUTPUT_BYTES;
+        private String fileTransport = "copy";
+        private String contentOutput;
+        private boolean readOnly;
+        private List<String> dependsOn = Collections.emptyList();
+        private PluginResultCache resultCache;
 
         /**
          * Check if run_before is set to true.
@@ -166,6 +214,119 @@ public class PluginsHelper {
             this.runAfter = runAfter;
         }
 
+        /**
+         * Return the number of persistent worker processes of a cli step.
+         * @return (int) the number of worker processes, 0 to start a new process for each file
+         */
+        public int getWorkerPoolSize() {
+            return workerPoolSize;
+        }
+
+        /**
+         * Set the number of persistent worker processes of a cli step.
+         * @param workerPoolSize (int) the number of worker processes, 0 to start a new process for each file
+         */
+        public void setWorkerPoolSize(int workerPoolSize) {
+            this.workerPoolSize = workerPoolSize;
+        }
+
+        /**
+         * Return the maximum number of output bytes captured from a cli or http step.
+         * @return (int) the maximum number of output bytes, further output is discarded
+         */
+        public int getMaxOutputBytes() {
+            return maxOutputBytes;
+        }
+
+        /**
+         * Set the maximum number of output bytes captured from a cli or http step.
+         * @param maxOutputBytes (int) the maximum number of output bytes, further output is discarded
+         */
+        public void setMaxOutputBytes(int maxOutputBytes) {
+            this.maxOutputBytes = maxOutputBytes;
+        }
+
+        /**
+         * Return how the file is handed to a cli step.
+         * @return (String) the file transport, "copy", "stdin" or "path"
+         */
+        public String getFileTransport() {
+            return fileTransport;
+        }
+
+        /**
+         * Set how the file is handed to a cli step.
+         * @param fileTransport (String) the file transport, "copy", "stdin" or "path"
+         */
+        public void setFileTransport(String fileTransport) {
+            this.fileTransport = fileTransport;
+        }
+
+        /**
+         * Return where a step writes the cleaned file content.
+         * @return (String) "stdout" for a cli step or "body" for a http step returning the content, null or empty otherwise
+         */
+        public String getContentOutput() {
+            return contentOutput;
+        }
+
+        /**
+         * Set where a step writes the cleaned file content.
+         * @param contentOutput (String) "stdout" for a cli step or "body" for a http step returning the content, null or empty otherwise
+         */
+        public void setContentOutput(String contentOutput) {
+            this.contentOutput = contentOutput;
+        }
+
+        /**
+         * Check if read_only is set to true, meaning the step never changes the file content.
+         * Consecutive read-only steps run concurrently.
+         * @return (boolean) true if the step is read-only, false if it may return new file content
+         */
+        public boolean isReadOnly() {
+            return readOnly;
+        }
+
+        /**
+         * Set read_only to true or false.
+         * @param readOnly (boolean) true if the step never changes the file content, false otherwise
+         */
+        public void setReadOnly(boolean readOnly) {
+            this.readOnly = readOnly;
+        }
+
+        /**
+         * Return the names of the steps that must complete before this step runs.
+         * @return (List&lt;String&gt;) the step names (e.g. "av_scan.step1"), empty if none
+         */
+        public List<String> getDependsOn() {
+            return dependsOn;
+        }
+
+        /**
+         * Set the names of the steps that must complete before this step runs.
+         * @param dependsOn (List&lt;String&gt;) the step names (e.g. "av_scan.step1"), empty if none
+         */
+        public void setDependsOn(List<String> dependsOn) {
+            this.dependsOn = dependsOn;
+        }
+
+        /**
+         * Return the cache of the step results, set when cache_ttl is configured.
+         * @return (PluginResultCache) the result cache of the step, or null if results are not cached
+         */
+        PluginResultCache getResultCache() {
+            return resultCache;
+        }
+
+        /**
+         * Set the cache of the step results.
+         * @param resultCache (PluginResultCache) the result cache of the step, or null to disable caching
+         */
+        void setResultCache(PluginResultCache resultCache) {
+            this.resultCache = resultCache;
+        }
+
         /**
          * Return a CliPluginHelper object.
          * @return (CliPluginHelper) a CliPluginHelper object
@@ -182,6 +343,38 @@ public class PluginsHelper {
             this.cliPluginHelper = cliPluginHelper;
         }
 
+        /**
+         * Return a HttpPluginHelper object.
+         * @return (HttpPluginHelper) a HttpPluginHelper object
+         */
+        public HttpPluginHelper getHttpPluginHelper() {
+            return httpPluginHelper;
+        }
+
+        /**
+         * Set a HttpPluginHelper object.
+         * @param httpPluginHelper (HttpPluginHelper) a HttpPluginHelper object
+         */
+        public void setHttpPluginHelper(HttpPluginHelper httpPluginHelper) {
+            this.httpPluginHelper = httpPluginHelper;
+        }
+
+        /**
+         * Return the maximum number of concurrent requests of a http step.
+         * @return (int) the maximum number of concurrent requests, 0 for no limit
+         */
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        /**
+         * Set the maximum number of concurrent requests of a http step.
+         * @param maxConcurrency (int) the maximum number of concurrent requests, 0 for no limit
+         */
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
         /**
          * Return the name of the step.
          * @return (String) the name of the step
@@ -0,0 +1,86 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds the header_signatures of every configured extension in a single trie, so that the
+ * extensions whose header matches a file are all found by walking its first bytes once.
+ * The trie is built once when the validations are loaded, and is immutable and shared afterwards.
+ */
+final class SignatureTrie {
+    private final Node root = new Node();
+    private final int maxDepth;
+
+    /**
+     * A trie node, children are indexed by unsigned byte value
+     */
+    private static final class Node {
+        private Node[] children;
+        private List<ExtensionRules> terminals;
+    }
+
+    /**
+     * Builds the trie of the header_signatures of the given rules
+     * @param rules (Collection) the compiled rules of all configured extensions
+     */
+    SignatureTrie(Collection<ExtensionRules> rules) {
+        int depth = 0;
+        for (ExtensionRules extensionRules : rules) {
+            byte[] signature = extensionRules.headerSignatures;
+            if (signature == null) {
+                continue;
+            }
+            Node node = root;
+            for (byte b : signature) {
+                if (node.children == null) {
+                    node.children = new Node[256];
+                }
+                Node child = node.children[b & 0xff];
+                if (child == null) {
+                    child = new Node();
+                    node.children[b & 0xff] = child;
+                }
+                node = child;
+            }
+            if (node.terminals == null) {
+                node.terminals = new ArrayList<>();
+            }
+            node.terminals.add(extensionRules);
+            depth = Math.max(depth, signature.length);
+        }
+        this.maxDepth = depth;
+    }
+
+    /**
+     * Get the length of the longest header signature, which is all the trie needs to read of a file
+     * @return int (int) the length of the longest signature
+     */
+    int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Find the rules of every extension whose header signature starts the given bytes
+     * @param head (byte[]) the first bytes of a file
+     * @param length (int) the number of valid bytes in head
+     * @return List (List) the matching rules, longest signature first
+     */
+    List<ExtensionRules> match(byte[] head, int length) {
+        List<ExtensionRules> matches = new ArrayList<>();
+        Node node = root;
+        int end = Math.min(length, maxDepth);
+        for (int i = 0; i < end && node.children != null; i++) {
+            node = node.children[head[i] & 0xff];
+            if (node == null) {
+                break;
+            }
+            if (node.terminals != null) {
+                matches.addAll(0, node.terminals);
+            }
+        }
+        return matches.isEmpty() ? Collections.<ExtensionRules>emptyList() : matches;
+    }
+}
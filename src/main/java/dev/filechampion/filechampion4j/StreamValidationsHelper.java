@@ -0,0 +1,341 @@
+package dev.filechampion.filechampion4j;
+
+import java.math.BigInteger;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class runs the file validations incrementally over a stream of chunks, so that the validated file
+ * never has to be held in memory as a whole.
+ * Only the data needed by the checks is kept: the first bytes of the file (header signatures and mime type probing),
+ * a rolling window of its last bytes (footer signatures), a carry-over of the previous chunk for magic bytes that
+ * span two chunks, and the running checksum digests.
+ * Magic bytes are only searched within the magic_bytes_window, when one is configured.
+ * Chunks can be heap buffers or memory-mapped regions of a file; when the file size is known upfront and
+ * no check needs the whole content, only its first and last bytes are looked at (see updateSparse).
+ * An instance holds the state of a single stream and must not be shared between threads.
+ */
+class StreamValidationsHelper {
+    private static final Logger LOGGER = Logger.getLogger(StreamValidationsHelper.class.getName());
+
+    private final ValidationsHelper validationsHelper;
+    private final ValidationContext ctx;
+    private final long sizeLimit;
+    private final BytePatternSearch magicBytes;
+    private final long magicBytesWindow;
+    private final byte[] headBytes;
+    private int headLength = 0;
+    private final byte[] tailBytes;
+    private int tailLength = 0;
+    private final byte[] carryBytes;
+    private int carryLength = 0;
+    private boolean magicBytesFound = false;
+    private long fileSize = 0;
+    private boolean sizeExceeded = false;
+    private boolean headerMismatch = false;
+    private final List<String> checksumAlgorithms;
+    private final MessageDigest[] digests;
+
+    /**
+     * Creates the incremental validations for a single stream
+     * @param rules (ExtensionRules) the compiled rules of the file extension
+     * @param validationsHelper (ValidationsHelper) the helper producing the validation results
+     * @param fileName (String) the file name of the file being validated
+     * @param mimeString (String) the mime type of the file being validated, or null to probe it
+     * @param checksumAlgorithms (List) the checksum algorithms to calculate while streaming, or null for none
+     * @throws NoSuchAlgorithmException if one of the checksum algorithms is not supported
+     */
+    StreamValidationsHelper(ExtensionRules rules, ValidationsHelper validationsHelper,
+            String fileName, String mimeString, List<String> checksumAlgorithms) throws NoSuchAlgorithmException {
+        this.validationsHelper = validationsHelper;
+        this.ctx = validationsHelper.newValidationContext(rules, fileName, null, mimeString);
+        this.sizeLimit = rules.maxSize > -1 ? (rules.maxSize + 1L) * 1000L : Long.MAX_VALUE;
+
+        this.magicBytes = rules.magicBytes;
+        this.magicBytesWindow = rules.magicBytesWindow > -1 ? rules.magicBytesWindow : Long.MAX_VALUE;
+        this.carryBytes = magicBytes != null ? new byte[magicBytes.getMaxPatternLength() - 1] : new byte[0];
+
+        int headSize = rules.headerSignatures != null ? rules.headerSignatures.length : 0;
+        if (!isBlank(rules.mimeType) && isBlank(mimeString)) {
+            headSize = Math.max(headSize, validationsHelper.getMimeSniffer().getProbeSize());
+        }
+        this.headBytes = new byte[headSize];
+
+        // The footer check expects the signature to be followed by a single trailing byte
+        this.tailBytes = rules.footerSignatures == null ? new byte[0] : new byte[rules.footerSignatures.length + 1];
+
+        this.checksumAlgorithms = checksumAlgorithms;
+        if (checksumAlgorithms != null) {
+            this.digests = new MessageDigest[checksumAlgorithms.size()];
+            for (int i = 0; i < digests.length; i++) {
+                digests[i] = CalculateChecksum.newDigest(checksumAlgorithms.get(i));
+            }
+        } else {
+            this.digests = new MessageDigest[0];
+        }
+    }
+
+    /**
+     * Feed the next chunk of the stream to the validations
+     * @param buffer (byte[]) the buffer holding the chunk
+     * @param offset (int) the offset of the chunk in the buffer
+     * @param length (int) the length of the chunk
+     * @return boolean (boolean) false once the file exceeded its maximum allowed size and the rest of the stream is not needed
+     */
+    boolean update(byte[] buffer, int offset, int length) {
+        return update(ByteBuffer.wrap(buffer, offset, length));
+    }
+
+    /**
+     * Feed the next chunk of the stream to the validations
+     * @param chunk (ByteBuffer) the chunk, between its position and limit, which are left unchanged
+     * @return boolean (boolean) false once the file exceeded its maximum allowed size and the rest of the stream is not needed
+     */
+    boolean update(ByteBuffer chunk) {
+        int length = chunk.remaining();
+        if (sizeExceeded || length <= 0) {
+            return !sizeExceeded;
+        }
+        if (!checkSize(fileSize + length)) {
+            return false;
+        }
+        updateHead(chunk);
+        updateMagicBytes(chunk, fileSize);
+        fileSize += length;
+        updateTail(chunk);
+        for (MessageDigest digest : digests) {
+            digest.update(chunk.duplicate());
+        }
+        return true;
+    }
+
+    /**
+     * Check the header signatures as soon as the first bytes they cover were read, so that a file can be rejected before its end
+     * @return boolean (boolean) false once the first bytes do not match the header_signatures, true otherwise or while too few bytes were read
+     */
+    boolean checkHeader() {
+        byte[] headerSignatures = ctx.rules.headerSignatures;
+        if (headerMismatch || headerSignatures == null || headLength < headerSignatures.length) {
+            return !headerMismatch;
+        }
+        for (int i = 0; i < headerSignatures.length; i++) {
+            if (headBytes[i] != headerSignatures[i]) {
+                headerMismatch = true;
+                break;
+            }
+        }
+        return !headerMismatch;
+    }
+
+    /**
+     * Check the total size of the file before reading it, when it is known upfront
+     * @param totalSize (long) the size of the file in bytes
+     * @return boolean (boolean) false if the file exceeds its maximum allowed size and does not need to be read
+     */
+    boolean expectSize(long totalSize) {
+        return checkSize(totalSize);
+    }
+
+    /**
+     * Check whether the validations need every byte of the file, or only its first and last bytes
+     * @return boolean (boolean) true if magic bytes are searched without a window or checksums calculated
+     */
+    boolean isFullScanRequired() {
+        return (magicBytes != null && magicBytesWindow > Integer.MAX_VALUE) || digests.length > 0;
+    }
+
+    /**
+     * Feed only the first and last bytes of a file of known size to the validations
+     * @param totalSize (long) the size of the file in bytes
+     * @param head (ByteBuffer) the first bytes of the file, at least getHeadSize() bytes unless the file is smaller
+     * @param tail (ByteBuffer) the last bytes of the file, at least getTailSize() bytes unless the file is smaller
+     * @throws IllegalStateException if the validations require a full scan of the file
+     */
+    void updateSparse(long totalSize, ByteBuffer head, ByteBuffer tail) {
+        if (isFullScanRequired()) {
+            throw new IllegalStateException("updateSparse cannot be used when magic bytes or checksums are validated");
+        }
+        if (!checkSize(totalSize)) {
+            return;
+        }
+        fileSize = totalSize;
+        updateHead(head);
+        updateMagicBytes(head, 0);
+        updateTail(tail);
+    }
+
+    /**
+     * Get the number of first bytes used by the validations, including the magic_bytes_window
+     * @return int (int) the number of first bytes needed
+     */
+    int getHeadSize() {
+        return magicBytes != null ? (int) Math.max(headBytes.length, Math.min(magicBytesWindow, Integer.MAX_VALUE)) : headBytes.length;
+    }
+
+    /**
+     * Get the number of last bytes used by the validations
+     * @return int (int) the number of last bytes kept
+     */
+    int getTailSize() {
+        return tailBytes.length;
+    }
+
+    /**
+     * Get the number of bytes read so far
+     * @return long (long) the number of bytes read
+     */
+    long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Check whether the stream was abandoned for exceeding the maximum allowed size
+     * @return boolean (boolean) true if the maximum allowed size was exceeded
+     */
+    boolean isSizeExceeded() {
+        return sizeExceeded;
+    }
+
+    /**
+     * Complete the validations once the stream was fully read
+     * @return ValidationReport (ValidationReport) the results of the file validations, as recorded by ValidationsHelper
+     */
+    ValidationReport getValidationReport() {
+        if (sizeExceeded || headerMismatch) {
+            // Nothing but the size and first bytes is known about a file that was not read to its end
+            ctx.failFast = true;
+        }
+        return validationsHelper.getStreamValidationReport(ctx, fileSize,
+            Arrays.copyOf(headBytes, headLength), Arrays.copyOf(tailBytes, tailLength), magicBytes == null || magicBytesFound);
+    }
+
+    /**
+     * Get the checksums calculated while streaming
+     * @return Map (Map) algorithm to hex checksum, or null if no checksums were requested or the stream was not fully read
+     */
+    Map<String, String> getChecksums() {
+        if (checksumAlgorithms == null || sizeExceeded || headerMismatch) {
+            return null;
+        }
+        Map<String, String> checksums = new LinkedHashMap<>();
+        for (int i = 0; i < digests.length; i++) {
+            checksums.put(checksumAlgorithms.get(i), new BigInteger(1, digests[i].digest()).toString(16));
+        }
+        return checksums;
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Compare a size to the maximum allowed size, and stop the validations if exceeded
+     */
+    private boolean checkSize(long totalSize) {
+        if (totalSize >= sizeLimit) {
+            sizeExceeded = true;
+            fileSize = totalSize;
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(new StringBuilder("Stream exceeded maximum allowed size after ").append(totalSize)
+                    .append(" bytes").append(ctx.commonLogString).toString());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Keep the first bytes of the stream
+     */
+    private void updateHead(ByteBuffer chunk) {
+        if (headLength < headBytes.length) {
+            int copyLength = Math.min(chunk.remaining(), headBytes.length - headLength);
+            copy(chunk, chunk.position(), headBytes, headLength, copyLength);
+            headLength += copyLength;
+        }
+    }
+
+    /**
+     * Keep a rolling window of the last bytes of the stream
+     */
+    private void updateTail(ByteBuffer chunk) {
+        tailLength = roll(chunk, tailBytes, tailLength);
+    }
+
+    /**
+     * Search the magic bytes in the chunk, including occurrences spanning the previous chunk
+     * @param chunk (ByteBuffer) the chunk to search
+     * @param chunkOffset (long) the offset of the chunk in the file
+     */
+    private void updateMagicBytes(ByteBuffer chunk, long chunkOffset) {
+        if (magicBytes == null || magicBytesFound || chunkOffset >= magicBytesWindow) {
+            return;
+        }
+        int searchLength = (int) Math.min(chunk.remaining(), magicBytesWindow - chunkOffset);
+        if (carryLength > 0) {
+            int joinLength = Math.min(searchLength, carryBytes.length);
+            byte[] joined = new byte[carryLength + joinLength];
+            System.arraycopy(carryBytes, 0, joined, 0, carryLength);
+            copy(chunk, chunk.position(), joined, carryLength, joinLength);
+            if (magicBytes.find(joined, 0, joined.length)) {
+                magicBytesFound = true;
+                return;
+            }
+        }
+        if (magicBytes.find(chunk, chunk.position(), chunk.position() + searchLength)) {
+            magicBytesFound = true;
+            return;
+        }
+        // Keep the last bytes seen, for matches spanning two chunks
+        ByteBuffer searched = chunk.duplicate();
+        ((Buffer) searched).limit(chunk.position() + searchLength);
+        carryLength = roll(searched, carryBytes, carryLength);
+    }
+
+    /**
+     * Append the chunk to a window holding the last window.length bytes seen
+     * @return int (int) the new number of bytes in the window
+     */
+    private static int roll(ByteBuffer chunk, byte[] window, int windowLength) {
+        int length = chunk.remaining();
+        if (window.length == 0) {
+            return 0;
+        }
+        if (length >= window.length) {
+            copy(chunk, chunk.limit() - window.length, window, 0, window.length);
+            return window.length;
+        }
+        int keepLength = Math.min(windowLength, window.length - length);
+        System.arraycopy(window, windowLength - keepLength, window, 0, keepLength);
+        copy(chunk, chunk.position(), window, keepLength, length);
+        return keepLength + length;
+    }
+
+    /**
+     * Copy bytes from a buffer by absolute index, leaving its position unchanged
+     */
+    private static void copy(ByteBuffer source, int index, byte[] target, int offset, int length) {
+        if (source.hasArray()) {
+            System.arraycopy(source.array(), source.arrayOffset() + index, target, offset, length);
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            target[offset + i] = source.get(index + i);
+        }
+    }
+
+    /**
+     * isBlank wrapper method for configuration values
+     */
+    private static boolean isBlank(Object value) {
+        return value == null || value.toString().trim().isEmpty();
+    }
+}
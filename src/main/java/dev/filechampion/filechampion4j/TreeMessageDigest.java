@@ -0,0 +1,153 @@
+package dev.filechampion.filechampion4j;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * This class calculates a tree hash: the data is split in fixed size leaves that are digested independently,
+ * and the root digest is calculated over the leaf digests.
+ * leaf = H(0x00 || leaf data), root = H(0x01 || leaf digest 1 || ... || leaf digest n), an empty input having a single empty leaf.
+ * As leaves do not depend on each other, CalculateChecksum digests them in parallel for large files, while this
+ * MessageDigest calculates the same value incrementally, e.g. while streaming.
+ * The algorithm name is the name of the underlying digest followed by "-TREE", e.g. "SHA-256-TREE".
+ */
+final class TreeMessageDigest extends MessageDigest {
+    static final String SUFFIX = "-TREE";
+    static final int LEAF_SIZE = 4 * 1024 * 1024;
+    private static final byte LEAF_PREFIX = 0;
+    private static final byte NODE_PREFIX = 1;
+
+    private final MessageDigest leafDigest;
+    private final MessageDigest rootDigest;
+    private int leafLength = 0;
+    private long leafCount = 0;
+
+    /**
+     * Creates a tree digest
+     * @param algorithm (String) the tree algorithm name, e.g. "SHA-256-TREE"
+     * @throws NoSuchAlgorithmException if the name does not end with -TREE or the underlying digest is not available
+     */
+    TreeMessageDigest(String algorithm) throws NoSuchAlgorithmException {
+        super(algorithm);
+        if (!isTreeAlgorithm(algorithm)) {
+            throw new NoSuchAlgorithmException(algorithm + " is not a tree hash algorithm");
+        }
+        this.leafDigest = MessageDigest.getInstance(getBaseAlgorithm(algorithm));
+        this.rootDigest = MessageDigest.getInstance(getBaseAlgorithm(algorithm));
+        engineReset();
+    }
+
+    /**
+     * Check whether an algorithm name designates a tree hash
+     * @param algorithm (String) the algorithm name
+     * @return boolean (boolean) true if the name ends with -TREE
+     */
+    static boolean isTreeAlgorithm(String algorithm) {
+        return algorithm.endsWith(SUFFIX);
+    }
+
+    /**
+     * Get the underlying digest algorithm of a tree algorithm
+     * @param algorithm (String) the tree algorithm name, e.g. "SHA-256-TREE"
+     * @return String (String) the underlying algorithm name, e.g. "SHA-256"
+     */
+    static String getBaseAlgorithm(String algorithm) {
+        return algorithm.substring(0, algorithm.length() - SUFFIX.length());
+    }
+
+    /**
+     * Get the number of leaves of data of a given size
+     * @param size (long) the size of the data
+     * @return long (long) the number of leaves, at least one
+     */
+    static long getLeafCount(long size) {
+        return Math.max(1, (size + LEAF_SIZE - 1) / LEAF_SIZE);
+    }
+
+    /**
+     * Digest a single leaf
+     * @param digest (MessageDigest) a digest of the underlying algorithm, reset when returning
+     * @param data (byte[]) the buffer holding the leaf data
+     * @param offset (int) the offset of the leaf data
+     * @param length (int) the length of the leaf data
+     * @return byte[] (byte[]) the leaf digest
+     */
+    static byte[] digestLeaf(MessageDigest digest, byte[] data, int offset, int length) {
+        digest.update(LEAF_PREFIX);
+        digest.update(data, offset, length);
+        return digest.digest();
+    }
+
+    /**
+     * Digest the root of the tree from its leaf digests
+     * @param digest (MessageDigest) a digest of the underlying algorithm, reset when returning
+     * @param leaves (byte[][]) the leaf digests, in order
+     * @return byte[] (byte[]) the root digest
+     */
+    static byte[] digestRoot(MessageDigest digest, byte[][] leaves) {
+        digest.update(NODE_PREFIX);
+        for (byte[] leaf : leaves) {
+            digest.update(leaf);
+        }
+        return digest.digest();
+    }
+
+    @Override
+    protected void engineUpdate(byte input) {
+        if (leafLength == LEAF_SIZE) {
+            completeLeaf();
+        }
+        leafDigest.update(input);
+        leafLength++;
+    }
+
+    @Override
+    protected void engineUpdate(byte[] input, int offset, int length) {
+        while (length > 0) {
+            if (leafLength == LEAF_SIZE) {
+                completeLeaf();
+            }
+            int chunk = Math.min(length, LEAF_SIZE - leafLength);
+            leafDigest.update(input, offset, chunk);
+            leafLength += chunk;
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    @Override
+    protected byte[] engineDigest() {
+        // A full leaf is only completed when more data follows, so the last leaf is completed here
+        if (leafLength > 0 || leafCount == 0) {
+            completeLeaf();
+        }
+        byte[] root = rootDigest.digest();
+        engineReset();
+        return root;
+    }
+
+    @Override
+    protected int engineGetDigestLength() {
+        return rootDigest.getDigestLength();
+    }
+
+    @Override
+    protected void engineReset() {
+        leafDigest.reset();
+        rootDigest.reset();
+        leafDigest.update(LEAF_PREFIX);
+        rootDigest.update(NODE_PREFIX);
+        leafLength = 0;
+        leafCount = 0;
+    }
+
+    /**
+     * Add the current leaf digest to the root and start the next leaf
+     */
+    private void completeLeaf() {
+        rootDigest.update(leafDigest.digest());
+        leafDigest.update(LEAF_PREFIX);
+        leafLength = 0;
+        leafCount++;
+    }
+}
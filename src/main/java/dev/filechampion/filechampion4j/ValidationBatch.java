@@ -0,0 +1,100 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This class schedules the validations of a batch of files.
+ * Requests only needing CPU work, file bytes validated without plugins or output directory, run on a pool sized
+ * to the number of processors, while requests waiting on the disk or on plugins run on a larger blocking pool,
+ * so that waits overlap with signature checks and hashing instead of holding processor threads.
+ * The number of requests in flight is bounded by the size of both pools, so a long stream of requests is
+ * consumed as validations complete rather than queued at once.
+ */
+final class ValidationBatch {
+    private static final int CPU_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int BLOCKING_THREADS = 4 * CPU_THREADS;
+    private static final ExecutorService CPU_POOL = newPool(CPU_THREADS, "filechampion-batch-cpu");
+    private static final ExecutorService BLOCKING_POOL = newPool(BLOCKING_THREADS, "filechampion-batch-blocking");
+
+    /**
+     * Receives the response of each request of a batch
+     */
+    interface ResultHandler {
+        /**
+         * Called once per request, from the thread that validated it
+         * @param index (int) the position of the request in the batch
+         * @param request (ValidationRequest) the request
+         * @param response (ValidationResponse) the response of the request
+         */
+        void onResult(int index, ValidationRequest request, ValidationResponse response);
+    }
+
+    private ValidationBatch() {
+    }
+
+    /**
+     * Return the pool running validations that wait on the disk or on plugins
+     * @return ExecutorService (ExecutorService) the blocking pool, shared by all validators
+     */
+    static ExecutorService blockingPool() {
+        return BLOCKING_POOL;
+    }
+
+    /**
+     * Validate all requests and wait for their completion
+     * @param requests (Iterator) the requests to validate
+     * @param blocking (Predicate) true for requests that wait on the disk or on plugins
+     * @param validation (Function) the validation of a single request, which must not throw
+     * @param handler (ResultHandler) the handler of each response
+     * @throws InterruptedException if the thread is interrupted, requests already started still complete
+     */
+    static void run(Iterator<ValidationRequest> requests, Predicate<ValidationRequest> blocking,
+            Function<ValidationRequest, ValidationResponse> validation, ResultHandler handler) throws InterruptedException {
+        int maxInFlight = CPU_THREADS + BLOCKING_THREADS;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicReference<RuntimeException> handlerFailure = new AtomicReference<>();
+        int index = 0;
+        while (requests.hasNext()) {
+            final ValidationRequest request = requests.next();
+            final int requestIndex = index++;
+            inFlight.acquire();
+            try {
+                (blocking.test(request) ? BLOCKING_POOL : CPU_POOL).execute(() -> {
+                    try {
+                        handler.onResult(requestIndex, request, validation.apply(request));
+                    } catch (RuntimeException e) {
+                        handlerFailure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                inFlight.release();
+                throw e;
+            }
+        }
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+        if (handlerFailure.get() != null) {
+            throw handlerFailure.get();
+        }
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    private static ExecutorService newPool(int threads, String name) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
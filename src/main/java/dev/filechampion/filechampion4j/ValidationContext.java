@@ -0,0 +1,52 @@
+package dev.filechampion.filechampion4j;
+
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * This class holds the state of a single validation request.
+ * A new context is created for every call to FileValidator.validateFile/validateStream, so that a single
+ * FileValidator instance can be shared between threads without any request data leaking between calls.
+ */
+class ValidationContext {
+    final String fileCategory;
+    final String fileName;
+    final Path filePath;
+    final String mimeString;
+    final Path outDir;
+    byte[] originalFile;
+    // Streamed validations: the source channel, and the file holding the content when it has to be kept
+    ReadableByteChannel inputChannel;
+    Path contentPath;
+    Path spoolDir;
+    boolean contentModified;
+    // Hex SHA-256 of the current content, calculated on first use by the verdict and plugin result caches
+    String contentDigest;
+    // Cleared when the verdict depends on a transient condition, such as a plugin or read error
+    boolean verdictCacheable = true;
+    String fileExtension;
+    ExtensionRules rules;
+    String commonLogString;
+    boolean failFast;
+    // Typed results of the validation, rendered as text only when the details are read
+    final ValidationReport report = new ValidationReport();
+    final StringBuilder sharedStringBuilder = new StringBuilder();
+
+    /**
+     * Creates a new validation context.
+     * @param fileCategory (String) the file category of the file being validated
+     * @param fileName (String) the original name of the file being validated
+     * @param filePath (Path) the path of the file being validated, or null if validated as bytes
+     * @param originalFile (byte[]) the bytes of the file being validated, or null if validated from a path
+     * @param mimeString (String) the mime type provided with the request, or null
+     * @param outDir (Path) the directory to save the file to if it passes validations, or null
+     */
+    ValidationContext(String fileCategory, String fileName, Path filePath, byte[] originalFile, String mimeString, Path outDir) {
+        this.fileCategory = fileCategory;
+        this.fileName = fileName;
+        this.filePath = filePath;
+        this.originalFile = originalFile;
+        this.mimeString = mimeString;
+        this.outDir = outDir;
+    }
+}
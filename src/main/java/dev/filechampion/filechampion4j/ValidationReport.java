@@ -0,0 +1,227 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class collects the results of a single validation as typed entries: check results, plugin stages
+ * and messages, each recorded as passed or failed.
+ * Pass/fail decisions are taken from the recorded entries, and the numbered text returned by
+ * ValidationResponse.resultsDetails is only rendered when first asked for.
+ * A report is filled by a single validation and never changed once its response is returned.
+ */
+final class ValidationReport {
+    private final List<Object> passed = new ArrayList<>();
+    private final List<Object> failed = new ArrayList<>(2);
+    private List<CheckResult> checks = Collections.emptyList();
+    private List<PluginOutcome> pluginOutcomes = Collections.emptyList();
+    private volatile String rendered;
+
+    /**
+     * A message and the value it reports, concatenated only when rendered
+     */
+    static final class Line {
+        private final String message;
+        private final Object value;
+        private final String suffix;
+
+        Line(String message, Object value, String suffix) {
+            this.message = message;
+            this.value = value;
+            this.suffix = suffix;
+        }
+
+        @Override
+        public String toString() {
+            return message + (value != null ? value : "") + (suffix != null ? suffix : "");
+        }
+    }
+
+    /**
+     * The outcomes of the plugin steps run before or after the validations
+     */
+    static final class PluginStage {
+        private final String completedMessage;
+        private final List<PluginOutcome> outcomes;
+        private final PluginOutcome.Status status;
+
+        /**
+         * Creates the results of a plugin stage
+         * @param completedMessage (String) the prefix of the results when no failing step stopped the execution
+         * @param outcomes (List) the outcomes of the executed steps, in order
+         */
+        PluginStage(String completedMessage, List<PluginOutcome> outcomes) {
+            this.completedMessage = completedMessage;
+            this.outcomes = outcomes;
+            PluginOutcome.Status stageStatus = PluginOutcome.Status.SUCCESS;
+            for (PluginOutcome outcome : outcomes) {
+                if (outcome.getStatus() == PluginOutcome.Status.FAILED) {
+                    stageStatus = PluginOutcome.Status.FAILED;
+                    break;
+                } else if (outcome.getStatus() == PluginOutcome.Status.ERROR) {
+                    stageStatus = PluginOutcome.Status.ERROR;
+                }
+            }
+            this.status = stageStatus;
+        }
+
+        /**
+         * Returns the outcome of the stage
+         * @return PluginOutcome.Status (PluginOutcome.Status) FAILED if a step stopped the validation, ERROR if a step failed, SUCCESS otherwise
+         */
+        PluginOutcome.Status getStatus() {
+            return status;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            if (status != PluginOutcome.Status.FAILED) {
+                text.append(completedMessage);
+            }
+            char responseMsgCount = 'a';
+            for (PluginOutcome outcome : outcomes) {
+                text.append(System.lineSeparator()).append("\t").append(responseMsgCount++).append(". ");
+                switch (outcome.getStatus()) {
+                    case SUCCESS:
+                        text.append("Success for step: ").append(outcome.getStepName());
+                        break;
+                    case ERROR:
+                        text.append("Error for step: ").append(outcome.getStepName()).append(", Results: ").append(outcome.getMessage());
+                        break;
+                    default:
+                        text.append("Failed for step: ").append(outcome.getStepName()).append(", Results: ").append(outcome.getMessage());
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Record the result of a check
+     * @param check (CheckResult) the result of the check
+     */
+    void addCheck(CheckResult check) {
+        if (checks.isEmpty()) {
+            checks = new ArrayList<>(CheckCode.values().length);
+        }
+        checks.add(check);
+        (check.isPassed() ? passed : failed).add(check);
+    }
+
+    /**
+     * Record the results of the checks of another report, e.g. the validations run by ValidationsHelper
+     * @param other (ValidationReport) the report holding the check results
+     */
+    void addChecks(ValidationReport other) {
+        for (CheckResult check : other.checks) {
+            addCheck(check);
+        }
+    }
+
+    /**
+     * Record the outcomes of a plugin stage
+     * @param stage (PluginStage) the outcomes of the stage
+     */
+    void addPluginStage(PluginStage stage) {
+        if (pluginOutcomes.isEmpty()) {
+            pluginOutcomes = new ArrayList<>(stage.outcomes.size());
+        }
+        pluginOutcomes.addAll(stage.outcomes);
+    }
+
+    /**
+     * Record a passed entry
+     * @param message (String) the message of the entry
+     * @param value (Object) the value reported by the message, or null
+     * @return Line (Line) the recorded entry
+     */
+    Line pass(String message, Object value) {
+        Line line = new Line(message, value, null);
+        passed.add(line);
+        return line;
+    }
+
+    /**
+     * Record a failed entry
+     * @param message (String) the message of the entry
+     * @param value (Object) the value reported by the message, or null
+     * @param suffix (String) the text following the value, or null
+     * @return Line (Line) the recorded entry
+     */
+    Line fail(String message, Object value, String suffix) {
+        Line line = new Line(message, value, suffix);
+        failed.add(line);
+        return line;
+    }
+
+    /**
+     * Check whether a failed entry was recorded
+     * @return boolean (boolean) true if the file failed a check, a plugin or a validation step
+     */
+    boolean hasFailures() {
+        return !failed.isEmpty();
+    }
+
+    /**
+     * Returns the file size measured by the FILE_SIZE check
+     * @return long (long) the file size in bytes, or -1 if the check did not run
+     */
+    long getFileSize() {
+        for (CheckResult check : checks) {
+            if (check.getCode() == CheckCode.FILE_SIZE) {
+                return check.getMeasuredValue();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the check results, in the order they were run
+     * @return List (List) the check results
+     */
+    List<CheckResult> getCheckResults() {
+        return Collections.unmodifiableList(checks);
+    }
+
+    /**
+     * Returns the codes of the failed checks, in the order they were run
+     * @return List (List) the codes of the failed checks, empty if every check passed
+     */
+    List<CheckCode> getFailedChecks() {
+        List<CheckCode> failedChecks = new ArrayList<>();
+        for (CheckResult check : checks) {
+            if (!check.isPassed()) {
+                failedChecks.add(check.getCode());
+            }
+        }
+        return failedChecks;
+    }
+
+    /**
+     * Returns the outcomes of the plugin steps, in the order they were run
+     * @return List (List) the plugin outcomes
+     */
+    List<PluginOutcome> getPluginOutcomes() {
+        return Collections.unmodifiableList(pluginOutcomes);
+    }
+
+    /**
+     * Render the numbered failed entries, or the passed entries if none failed, once
+     * @return String (String) the details of the validation
+     */
+    String render() {
+        String text = rendered;
+        if (text == null) {
+            StringBuilder sbResponseAggregation = new StringBuilder();
+            int responseMsgCount = 0;
+            for (Object entry : hasFailures() ? failed : passed) {
+                sbResponseAggregation.append(System.lineSeparator()).append(++responseMsgCount).append(". ").append(entry);
+            }
+            text = sbResponseAggregation.toString();
+            rendered = text;
+        }
+        return text;
+    }
+}
@@ -0,0 +1,117 @@
+package dev.filechampion.filechampion4j;
+
+import java.nio.file.Path;
+
+/**
+ * This class is used to describe a single file to validate in a batch, as file bytes or as a file path,
+ * with the same inputs as the FileValidator.validateFile methods.
+ */
+public class ValidationRequest {
+    private final String fileCategory;
+    private final byte[] fileBytes;
+    private final Path filePath;
+    private final String fileName;
+    private final Path outputDir;
+    private final String mimeString;
+
+    /**
+     * ValidationRequest of file bytes.
+     * @param fileCategory (String) the category of the file to be validated
+     * @param fileBytes (byte[]) the file to be validated as a byte array
+     * @param fileName (String) the original name of the file to be validated
+     * @param outputDir (Path) the directory to save the file to if it passes validations, or null
+     * @param mimeString (String) the mime type of the file to be validated, or null
+     */
+    public ValidationRequest(String fileCategory, byte[] fileBytes, String fileName, Path outputDir, String mimeString) {
+        this(fileCategory, fileBytes, null, fileName, outputDir, mimeString);
+    }
+
+    /**
+     * ValidationRequest of file bytes, without output directory or mime type.
+     * @param fileCategory (String) the category of the file to be validated
+     * @param fileBytes (byte[]) the file to be validated as a byte array
+     * @param fileName (String) the original name of the file to be validated
+     */
+    public ValidationRequest(String fileCategory, byte[] fileBytes, String fileName) {
+        this(fileCategory, fileBytes, null, fileName, null, null);
+    }
+
+    /**
+     * ValidationRequest of a file path.
+     * @param fileCategory (String) the category of the file to be validated
+     * @param filePath (Path) the path of the file to be validated
+     * @param fileName (String) the original name of the file to be validated
+     * @param outputDir (Path) the directory to save the file to if it passes validations, or null
+     * @param mimeString (String) the mime type of the file to be validated, or null
+     */
+    public ValidationRequest(String fileCategory, Path filePath, String fileName, Path outputDir, String mimeString) {
+        this(fileCategory, null, filePath, fileName, outputDir, mimeString);
+    }
+
+    /**
+     * ValidationRequest of a file path, without output directory or mime type.
+     * @param fileCategory (String) the category of the file to be validated
+     * @param filePath (Path) the path of the file to be validated
+     * @param fileName (String) the original name of the file to be validated
+     */
+    public ValidationRequest(String fileCategory, Path filePath, String fileName) {
+        this(fileCategory, null, filePath, fileName, null, null);
+    }
+
+    private ValidationRequest(String fileCategory, byte[] fileBytes, Path filePath, String fileName, Path outputDir, String mimeString) {
+        this.fileCategory = fileCategory;
+        this.fileBytes = fileBytes;
+        this.filePath = filePath;
+        this.fileName = fileName;
+        this.outputDir = outputDir;
+        this.mimeString = mimeString;
+    }
+
+    /**
+     * Returns the category of the file to be validated
+     * @return (String) the category of the file to be validated
+     */
+    public String getFileCategory() {
+        return fileCategory;
+    }
+
+    /**
+     * Returns the file bytes
+     * @return (byte[]) the file to be validated as a byte array, or null if validated from a path
+     */
+    public byte[] getFileBytes() {
+        return fileBytes;
+    }
+
+    /**
+     * Returns the file path
+     * @return (Path) the path of the file to be validated, or null if validated as bytes
+     */
+    public Path getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Returns the original name of the file
+     * @return (String) the original name of the file to be validated
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns the output directory
+     * @return (Path) the directory to save the file to if it passes validations, or null
+     */
+    public Path getOutputDir() {
+        return outputDir;
+    }
+
+    /**
+     * Returns the mime type provided with the file
+     * @return (String) the mime type of the file to be validated, or null
+     */
+    public String getMimeString() {
+        return mimeString;
+    }
+}
@@ -1,5 +1,7 @@
 package dev.filechampion.filechampion4j;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -9,6 +11,7 @@ public class ValidationResponse {
     private final boolean isValid;
     private final String resultsInfo;
     private final String resultsDetails;
+    private final ValidationReport report;
     private final String cleanFileName;
     private final byte[] fileBytes;
     private final Map<String, String> fileChecksums;
@@ -25,9 +28,28 @@ public class ValidationResponse {
     * @param validFilePath (String) optional valid file path if outputDir was set in the filechampion4j constructor
     */
     public ValidationResponse(boolean isValid, String resultsInfo, String resultsDetails, String cleanFileName, byte[] fileBytes, Map<String, String> fileChecksums, String... validFilePath) {
+        this(isValid, resultsInfo, resultsDetails, null, cleanFileName, fileBytes, fileChecksums, validFilePath);
+    }
+
+    /**
+    * ValidationResponse of a validation, its details rendered from the report when first read.
+    * @param isValid (Boolean) true if the file is valid, false otherwise
+    * @param resultsInfo (String) a String containing the result summary of the validation
+    * @param report (ValidationReport) the typed results of the validation
+    * @param cleanFileName (String) the file name with all special characters replaced with underscores
+    * @param fileBytes (bytes[]) the file bytes
+    * @param fileChecksums (Map&lt;String, String&gt;) hash map containing the file checksums as 'algorithm' =&gt; 'checksum'
+    * @param validFilePath (String) optional valid file path if outputDir was set in the filechampion4j constructor
+    */
+    ValidationResponse(boolean isValid, String resultsInfo, ValidationReport report, String cleanFileName, byte[] fileBytes, Map<String, String> fileChecksums, String... validFilePath) {
+        this(isValid, resultsInfo, null, report, cleanFileName, fileBytes, fileChecksums, validFilePath);
+    }
+
+    private ValidationResponse(boolean isValid, String resultsInfo, String resultsDetails, ValidationReport report, String cleanFileName, byte[] fileBytes, Map<String, String> fileChecksums, String[] validFilePath) {
         this.isValid = isValid;
         this.resultsInfo = resultsInfo;
         this.resultsDetails = resultsDetails;
+        this.report = report;
         this.fileBytes = fileBytes;
         this.fileChecksums = fileChecksums;
         this.validFilePath = validFilePath;
@@ -55,7 +77,31 @@ public class ValidationResponse {
      * @return (String) a String containing the details of the validation
      */
     public String resultsDetails() {
-        return resultsDetails;
+        return report != null ? report.render() : resultsDetails;
+    }
+
+    /**
+     * Returns the results of the checks run on the file, in the order they were run
+     * @return (List&lt;CheckResult&gt;) the check results, empty if the file was not checked or the response was read from a verdict directory
+     */
+    public List<CheckResult> getCheckResults() {
+        return report != null ? report.getCheckResults() : Collections.<CheckResult>emptyList();
+    }
+
+    /**
+     * Returns the outcomes of the plugin steps run on the file, in the order they were run
+     * @return (List&lt;PluginOutcome&gt;) the plugin outcomes, empty if no plugin ran or the response was read from a verdict directory
+     */
+    public List<PluginOutcome> getPluginOutcomes() {
+        return report != null ? report.getPluginOutcomes() : Collections.<PluginOutcome>emptyList();
+    }
+
+    /**
+     * Returns the typed results the details are rendered from
+     * @return (ValidationReport) the report of the validation, or null if the details were given as text
+     */
+    ValidationReport getReport() {
+        return report;
     }
 
     /**
@@ -0,0 +1,150 @@
+package dev.filechampion.filechampion4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * This class is used to validate a file incrementally as its parts arrive, e.g. a chunked or resumable upload,
+ * without reassembling it in memory. A session is opened with FileValidator.openSession, fed with append,
+ * and completed with finish, which returns the results of the validations.
+ * The size and header_signatures are checked as parts arrive, so that a bad upload is rejected on its first parts,
+ * checksums are updated with every part, and only the last bytes of the file are kept for the footer_signatures.
+ * The content is only written to a temporary file when plugins or the output directory need it.
+ * When the extension runs plugins before the validations, those see the whole file first, so nothing is rejected before finish.
+ * A session holds the state of a single file and must not be shared between threads.
+ */
+public final class ValidationSession implements AutoCloseable {
+    private final FileValidator fileValidator;
+    final ValidationContext ctx;
+    final StreamValidationsHelper streamValidations;
+    final String originalFilenameClean;
+    final boolean hasBeforePlugins;
+    private OutputStream spoolStream;
+    private long size = 0;
+    private boolean rejected = false;
+    private boolean finished = false;
+
+    /**
+     * Creates a session, see FileValidator.openSession
+     * @param fileValidator (FileValidator) the validator completing the session
+     * @param ctx (ValidationContext) the context of the validation request
+     * @param streamValidations (StreamValidationsHelper) the incremental validations of the file
+     * @param originalFilenameClean (String) the cleaned file name
+     * @param hasBeforePlugins (boolean) true if plugins run on the whole file before the validations
+     * @param spoolStream (OutputStream) the temporary file receiving the content, or null if the content is not kept
+     */
+    ValidationSession(FileValidator fileValidator, ValidationContext ctx, StreamValidationsHelper streamValidations,
+            String originalFilenameClean, boolean hasBeforePlugins, OutputStream spoolStream) {
+        this.fileValidator = fileValidator;
+        this.ctx = ctx;
+        this.streamValidations = streamValidations;
+        this.originalFilenameClean = originalFilenameClean;
+        this.hasBeforePlugins = hasBeforePlugins;
+        this.spoolStream = spoolStream;
+    }
+
+    /**
+     * Append the next part of the file.
+     * @param part (byte[]) the next bytes of the file
+     * @return (boolean) false once the file was rejected, in which case further parts are ignored and finish returns the failed results
+     * @throws IOException if the part cannot be written to the temporary file
+     * @throws IllegalStateException if the session is already finished or closed
+     */
+    public boolean append(byte[] part) throws IOException {
+        return append(part, 0, part.length);
+    }
+
+    /**
+     * Append the next part of the file.
+     * @param buffer (byte[]) the buffer holding the part
+     * @param offset (int) the offset of the part in the buffer
+     * @param length (int) the length of the part
+     * @return (boolean) false once the file was rejected, in which case further parts are ignored and finish returns the failed results
+     * @throws IOException if the part cannot be written to the temporary file
+     * @throws IllegalStateException if the session is already finished or closed
+     */
+    public boolean append(byte[] buffer, int offset, int length) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("ValidationSession is already finished.");
+        }
+        if (rejected) {
+            return false;
+        }
+        size += length;
+        if (!hasBeforePlugins && (!streamValidations.update(buffer, offset, length) || !streamValidations.checkHeader())) {
+            rejected = true;
+            closeSpool();
+            return false;
+        }
+        if (spoolStream != null) {
+            spoolStream.write(buffer, offset, length);
+        }
+        return true;
+    }
+
+    /**
+     * Check whether the file was already rejected by the validations of its first parts.
+     * @return (boolean) true if the file was rejected
+     */
+    public boolean isRejected() {
+        return rejected;
+    }
+
+    /**
+     * Returns the number of bytes appended so far.
+     * @return (long) the number of bytes appended
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Complete the validations once the last part was appended, run the plugins and save the file if configured.
+     * @return (ValidationResponse) the results of the validations
+     * @throws IOException if the temporary file cannot be completed
+     * @throws IllegalArgumentException if no bytes were appended
+     * @throws IllegalStateException if the session is already finished or closed
+     */
+    public ValidationResponse finish() throws IOException {
+        if (finished) {
+            throw new IllegalStateException("ValidationSession is already finished.");
+        }
+        finished = true;
+        try {
+            closeSpool();
+        } catch (IOException e) {
+            fileValidator.discardSession(this);
+            throw e;
+        }
+        return fileValidator.finishSession(this, rejected);
+    }
+
+    /**
+     * Abandon the session if it was not finished, deleting any temporary file.
+     */
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            closeSpool();
+        } catch (IOException e) {
+            // The temporary file is deleted regardless
+        }
+        fileValidator.discardSession(this);
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    private void closeSpool() throws IOException {
+        if (spoolStream != null) {
+            OutputStream stream = spoolStream;
+            spoolStream = null;
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dev.filechampion.filechampion4j;
+
+/**
+ * The stages of a file validation measured by a MetricsSink.
+ */
+public enum ValidationStage {
+    /** The whole validation of a file, from the request to its response */
+    TOTAL,
+    /** The plugins configured to run before the validations */
+    BEFORE_PLUGINS,
+    /** The file size check */
+    FILE_SIZE,
+    /** The MIME type check, including the detection of a MIME type not provided with the file */
+    MIME_TYPE,
+    /** The magic bytes search */
+    MAGIC_BYTES,
+    /** The header signatures check */
+    HEADER_SIGNATURES,
+    /** The footer signatures check */
+    FOOTER_SIGNATURES,
+    /** The plugins configured to run after the validations */
+    AFTER_PLUGINS,
+    /** The checksums of a file, when not already calculated while it was read */
+    CHECKSUMS,
+    /** Saving the file to the output directory, including the change of its owner and permissions */
+    SAVE,
+    /** The change of owner and permissions of the saved file */
+    FILE_ACL;
+
+    private static final ValidationStage[] CHECK_STAGES = {FILE_SIZE, MIME_TYPE, MAGIC_BYTES, HEADER_SIGNATURES, FOOTER_SIGNATURES};
+
+    /**
+     * Returns the stage of a check
+     * @param code (CheckCode) the check
+     * @return (ValidationStage) the stage measuring the check
+     */
+    public static ValidationStage of(CheckCode code) {
+        return CHECK_STAGES[code.ordinal()];
+    }
+}
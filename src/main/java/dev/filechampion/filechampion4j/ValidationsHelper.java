@@ -1,33 +1,20 @@
 package dev.filechampion.filechampion4j;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.*;
 import java.util.logging.Logger;
-import java.util.stream.Stream;
 import java.util.logging.Level;
 
 
 /**
- * This class contains helper methods for the FileValidator class
+ * This class contains helper methods for the FileValidator class.
+ * It holds no per-file state, so a single instance is shared by all concurrent validations.
  * @version 0.9.8.3
  */
 public class ValidationsHelper {
     private static final Logger LOGGER = Logger.getLogger(ValidationsHelper.class.getName());
-    private Extensions extensions;
-    private boolean failFast = false;
-    private StringBuilder sharedStringBuilder = new StringBuilder();
-    private String fileCategory;
-    private byte[] originalFile;
-    private String mimeString;
-    private String fileExtension;
-    private String commonLogString;
-    private int responseMsgCountFail;
-    private StringBuilder sbresponseAggregationFail;
-    private int responseMsgCountSuccess;
-    private StringBuilder sbresponseAggregationSuccess;
+    private final Extensions extensions;
+    private final MimeSniffer mimeSniffer;
+    private volatile MetricsSink metricsSink;
 
 
     /**
@@ -35,7 +22,33 @@ public class ValidationsHelper {
     * @param extensions (Extensions) the Extensions object containing the file validation configuration
     */
     public ValidationsHelper(Extensions extensions) {
+        this(extensions, new MimeSniffer());
+    }
+
+    /**
+    * Constructor with a configured MIME sniffer
+    * @param extensions (Extensions) the Extensions object containing the file validation configuration
+    * @param mimeSniffer (MimeSniffer) the sniffer detecting the MIME type of files validated without one
+    */
+    ValidationsHelper(Extensions extensions, MimeSniffer mimeSniffer) {
         this.extensions = extensions;
+        this.mimeSniffer = mimeSniffer;
+    }
+
+    /**
+     * Set the sink receiving the latency of every check, or null to stop measuring them
+     * @param metricsSink (MetricsSink) the metrics sink
+     */
+    void setMetricsSink(MetricsSink metricsSink) {
+        this.metricsSink = metricsSink;
+    }
+
+    /**
+     * Get the sniffer detecting the MIME type of files validated without one
+     * @return MimeSniffer (MimeSniffer) the MIME sniffer
+     */
+    MimeSniffer getMimeSniffer() {
+        return mimeSniffer;
     }
 
     /**
@@ -45,70 +58,88 @@ public class ValidationsHelper {
      * @param originalFile (byte[]) the byte of the file being validated
      * @param mimeString (String) the mime type of the file being validated
      * @return StringBuilder (StringBuilder) the results of the file validations
-     * @throws IOException (IOException) if the file cannot be saved/deleted to/from a temporary directory
-     * @throws SecurityException (SecurityException) if the accessed to file is denied for Files.probContentType
+     * @throws IOException (IOException) kept for compatibility, MIME types are detected in memory
      */
     public StringBuilder getValidationResults(String fileCategory, String fileName, byte[] originalFile, String mimeString) throws IOException, SecurityException, NumberFormatException{
-        this.fileExtension = getFileExtension(fileName);
-        this.responseMsgCountFail = 0;
-        this.sbresponseAggregationFail = new StringBuilder();
-        this.responseMsgCountSuccess = 0;
-        this.sbresponseAggregationSuccess = new StringBuilder();
-        this.fileCategory = fileCategory;
-        this .failFast = extensions.getValidationValue(fileCategory, fileExtension, "fail_fast") != null ?
-            (boolean) extensions.getValidationValue(fileCategory, fileExtension, "fail_fast") : false;
-        this.originalFile = originalFile;
-        this.mimeString = mimeString;
-        this.commonLogString = " for file: " + fileName;
-        
-        return doValidations();
+        return new StringBuilder(getValidationReport(extensions.getExtensionRules(fileCategory, getFileExtension(fileName)), fileName, originalFile, mimeString).render());
+    }
+
+    /**
+     * ValidationsHelper entry point for file validation with already resolved rules
+     * @param rules (ExtensionRules) the compiled rules of the file extension
+     * @param fileName (String) the file name of the file being validated
+     * @param originalFile (byte[]) the byte of the file being validated
+     * @param mimeString (String) the mime type of the file being validated
+     * @return ValidationReport (ValidationReport) the results of the file validations
+     */
+    ValidationReport getValidationReport(ExtensionRules rules, String fileName, byte[] originalFile, String mimeString) {
+        ValidationContext ctx = newValidationContext(rules, fileName, originalFile, mimeString);
+        return doValidations(ctx, originalFile.length, originalFile, originalFile, null);
+    }
+
+    /**
+     * ValidationsHelper entry point for streamed file validation.
+     * The file content is never available as a whole, so the checks are run against the evidence collected
+     * while the stream was read (see StreamValidationsHelper).
+     * @param ctx (ValidationContext) the context of the current validation, as created by newValidationContext
+     * @param fileSize (long) the number of bytes read from the stream
+     * @param headBytes (byte[]) the first bytes of the stream
+     * @param tailBytes (byte[]) the last bytes of the stream
+     * @param magicBytesFound (boolean) true if the configured magic bytes were found in the stream
+     * @return ValidationReport (ValidationReport) the results of the file validations
+     */
+    ValidationReport getStreamValidationReport(ValidationContext ctx, long fileSize, byte[] headBytes, byte[] tailBytes,
+            boolean magicBytesFound) {
+        return doValidations(ctx, fileSize, headBytes, tailBytes, magicBytesFound);
+    }
+
+    /**
+     * Creates the validation context used by the checks of this class
+     * @param rules (ExtensionRules) the compiled rules of the file extension
+     * @param fileName (String) the file name of the file being validated
+     * @param originalFile (byte[]) the byte of the file being validated, or null if the file is streamed
+     * @param mimeString (String) the mime type of the file being validated
+     * @return ValidationContext (ValidationContext) the context of the validation
+     */
+    ValidationContext newValidationContext(ExtensionRules rules, String fileName, byte[] originalFile, String mimeString) {
+        ValidationContext ctx = new ValidationContext(rules.category, fileName, null, originalFile, mimeString, null);
+        ctx.rules = rules;
+        ctx.fileExtension = rules.extension;
+        ctx.failFast = rules.failFast;
+        ctx.commonLogString = " for file: " + fileName;
+        return ctx;
     }
 
     /**
      * Following initial validations and before plugins, this method is used to execute the validations for the file.
-     * @return StringBuilder (StringBuilder) the results of the file validations
-     * @throws IOException (IOException) if the file cannot be saved/deleted to/from a temporary directory
-     * @throws SecurityException (SecurityException) if the accessed to file is denied for Files.probContentType
+     * @param ctx (ValidationContext) the context of the current validation
+     * @param fileSize (long) the size of the file in bytes
+     * @param headBytes (byte[]) the file bytes, or at least its first bytes
+     * @param tailBytes (byte[]) the file bytes, or at least its last bytes
+     * @param magicBytesFound (Boolean) the result of an already performed magic bytes search, or null to search ctx.originalFile
+     * @return ValidationReport (ValidationReport) the results of the file validations
      */
-    private StringBuilder doValidations() throws IOException, SecurityException, NumberFormatException {
+    private ValidationReport doValidations(ValidationContext ctx, long fileSize, byte[] headBytes, byte[] tailBytes,
+            Boolean magicBytesFound) {
         
-        checkFileSize();
-        if (responseMsgCountFail > 0 && failFast) {
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
+        if (!checkFileSize(ctx, fileSize) && ctx.failFast) {
+            return ctx.report;
         }
 
-        checkMimeType();
-        if (responseMsgCountFail > 0 && failFast) {
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
+        if (!checkMimeType(ctx, headBytes) && ctx.failFast) {
+            return ctx.report;
         }
 
-        containsMagicBytes();
-        if (responseMsgCountFail > 0 && failFast) {
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
+        if (!containsMagicBytes(ctx, magicBytesFound) && ctx.failFast) {
+            return ctx.report;
         }
         
-        containsHeaderSignatures();
-        if (responseMsgCountFail > 0 && failFast) {
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
+        if (!containsHeaderSignatures(ctx, headBytes) && ctx.failFast) {
+            return ctx.report;
         }
 
-        containsFooterSignatures();
-        if (responseMsgCountFail > 0 && failFast) {
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
-        }
-
-        if (responseMsgCountFail > 0) {
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
-        } else {
-            logFine(sbresponseAggregationSuccess);
-            return sbresponseAggregationSuccess;
-        }
+        containsFooterSignatures(ctx, tailBytes);
+        return ctx.report;
     }
 
 
@@ -118,9 +149,9 @@ public class ValidationsHelper {
 
     /**
      * LOGGER.warning wrapper
-     * @param message (String) - message to log
+     * @param message (Object) - message to log, rendered only if logged
      */
-    private void logWarn(StringBuilder message) {
+    private void logWarn(Object message) {
         if (LOGGER.isLoggable(Level.WARNING)) {
             LOGGER.warning(message.toString());
         }
@@ -128,14 +159,51 @@ public class ValidationsHelper {
 
     /**
      * LOGGER.fine wrapper
-     * @param message (StringBuilder) - message to log
+     * @param message (Object) - message to log, rendered only if logged
      */
-    private void logFine(StringBuilder message) {
+    private void logFine(Object message) {
         if (LOGGER.isLoggable(Level.FINE )) {
             LOGGER.fine(message.toString());
         }
     }
 
+    /**
+     * Record the result of a check, its latency if measured, and log it
+     * @param ctx (ValidationContext) the context of the current validation
+     * @param check (CheckResult) the result of the check
+     * @param startNanos (long) the System.nanoTime at which the check started, or 0 if not measured
+     * @param bytes (long) the number of bytes looked at by the check, 0 for a fixed number of bytes
+     * @return boolean (boolean) true if the file passed the check
+     */
+    private boolean addCheck(ValidationContext ctx, CheckResult check, long startNanos, long bytes) {
+        if (startNanos != 0) {
+            long nanos = System.nanoTime() - startNanos;
+            ValidationStage stage = ValidationStage.of(check.getCode());
+            MetricsSink.Outcome outcome = check.isPassed() ? MetricsSink.Outcome.PASS : MetricsSink.Outcome.FAIL;
+            MetricsSink sink = metricsSink;
+            if (sink != null) {
+                sink.record(ctx.rules.category, ctx.rules.extension, stage, outcome, nanos, bytes);
+            }
+            FlightRecorderEvents.commitStage(ctx.rules.category, ctx.rules.extension, stage, outcome, nanos, bytes);
+        }
+        ctx.report.addCheck(check);
+        if (check.isPassed()) {
+            logFine(check);
+        } else {
+            logWarn(check);
+        }
+        return check.isPassed();
+    }
+
+    /**
+     * Start measuring a check, for the metrics sink or a Flight Recorder recording
+     * @param code (CheckCode) the check to measure
+     * @return long (long) the current System.nanoTime, or 0 if the check is not measured
+     */
+    private long startNanos(CheckCode code) {
+        return metricsSink != null || FlightRecorderEvents.isEnabled(ValidationStage.of(code)) ? System.nanoTime() : 0;
+    }
+
     /**
      * isBlank wrapper method for support of Java 8
      * @param str (String) the string to check if empty or null
@@ -147,80 +215,35 @@ public class ValidationsHelper {
     
     /**
      * Compare file size to the maximum allowed size
-     * @return StringBuilder (StringBuilder) the results of the file size check
+     * @param ctx (ValidationContext) the context of the current validation
+     * @param fileSize (long) the size of the file in bytes
+     * @return boolean (boolean) true if the file passed the file size check
      */
-    private StringBuilder checkFileSize() {
-        int maxSize;
-        try {
-            maxSize = Integer.parseInt(extensions.getValidationValue(fileCategory, fileExtension, "max_size") != null ? extensions.getValidationValue(fileCategory, fileExtension, "max_size").toString() : "-1");
-        } catch (NumberFormatException e) {
-            maxSize = -1;
-        }
-        if ((maxSize > -1) && (originalFile.length / 1000 > maxSize || originalFile.length == 0)) {
-            sbresponseAggregationFail.append(System.lineSeparator() + ++responseMsgCountFail + ". ")
-                .append("Invalid file size (")
-                .append(originalFile.length / 1000)
-                .append("KB) exceeds maximum allowed size (")
-                .append(maxSize)
-                .append("KB)")
-                .append(commonLogString);
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
-        } else {
-            sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                .append("File size check passed, file size: ")
-                .append(originalFile.length / 1000)
-                .append("KB");
-            logFine(sbresponseAggregationSuccess);
-            return sbresponseAggregationSuccess;
-        }
+    private boolean checkFileSize(ValidationContext ctx, long fileSize) {
+        long startNanos = startNanos(CheckCode.FILE_SIZE);
+        int maxSize = ctx.rules.maxSize;
+        boolean passed = !((maxSize > -1) && (fileSize / 1000 > maxSize || fileSize == 0));
+        return addCheck(ctx, new CheckResult(CheckCode.FILE_SIZE, passed, fileSize, maxSize, null, null, ctx.commonLogString), startNanos, 0);
     }
 
 
 
     /**
      * Compare the file MIME type to the expected MIME type
-     * @return StringBuilder (StringBuilder) the results of the MIME type check
-     * @throws IOException (IOException) if the file cannot be saved/deleted to/from a temporary directory
-     * @throws SecurityException (SecurityException) if the accessed to file is denied for Files.probContentType
+     * @param ctx (ValidationContext) the context of the current validation
+     * @param probeBytes (byte[]) the file bytes, or at least its first bytes, used to detect the MIME type when none was provided
+     * @return boolean (boolean) true if the file passed the MIME type check
      */
-    private StringBuilder checkMimeType()throws IOException, SecurityException {
-        String mimeType = (String) extensions.getValidationValue(fileCategory, fileExtension, "mime_type");
-        String fileMimeType = isBlank(mimeString) ? "" : mimeString;
+    private boolean checkMimeType(ValidationContext ctx, byte[] probeBytes) {
+        long startNanos = startNanos(CheckCode.MIME_TYPE);
+        String mimeType = ctx.rules.mimeType;
+        String fileMimeType = isBlank(ctx.mimeString) ? "" : ctx.mimeString;
         if (!isBlank(mimeType) && isBlank(fileMimeType)) {
-            Path tempFile = saveFileToTempDir(fileExtension, originalFile);
-            if (tempFile == null) {
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error: checkMimeType failed: tempFile is null");
-                logWarn(sharedStringBuilder);
-                throw new IOException(sharedStringBuilder.toString());
-            }
-            try {
-                fileMimeType = Files.probeContentType(tempFile);
-            } catch (IOException e) {
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error: checkMimeType failed: ").append(e.getMessage());
-                logWarn(sharedStringBuilder);
-                throw new IOException(sharedStringBuilder.toString());
-            } catch (SecurityException e) {
-                sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error: checkMimeType failed: ").append(e.getMessage());
-                logWarn(sharedStringBuilder);
-                throw new SecurityException(sharedStringBuilder.toString());
-            } finally {
-                deleteTempDir(tempFile);
-            }
-        }
-        if (!isBlank(mimeType) && !isBlank(fileMimeType) && !fileMimeType.equals(mimeType)) {
-            sbresponseAggregationFail.append(System.lineSeparator() + ++responseMsgCountFail + ". ")
-                .append("Invalid mime_type")
-                .append(commonLogString);
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
-        } else {
-            sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                .append("Mime type check passed, mime type: ")
-                .append(mimeType);
-            logFine(sbresponseAggregationSuccess);
-            return sbresponseAggregationSuccess;
+            fileMimeType = mimeSniffer.detect(probeBytes, probeBytes.length, ctx.fileExtension);
         }
+        boolean passed = !(!isBlank(mimeType) && !isBlank(fileMimeType) && !fileMimeType.equals(mimeType));
+        return addCheck(ctx, new CheckResult(CheckCode.MIME_TYPE, passed, -1, -1, mimeType,
+            isBlank(fileMimeType) ? null : fileMimeType, ctx.commonLogString), startNanos, 0);
     }
     
     /**
@@ -238,97 +261,58 @@ public class ValidationsHelper {
 
     /**
      * Check if the file contains the expected magic bytes
-     * @return StringBuilder (StringBuilder) the results of the magic bytes check
+     * @param ctx (ValidationContext) the context of the current validation
+     * @param magicBytesFound (Boolean) the result of an already performed search, or null to search ctx.originalFile
+     * @return boolean (boolean) true if the file passed the magic bytes check
      */
-    private StringBuilder containsMagicBytes() {
-        String magicBytes = (String) extensions.getValidationValue(fileCategory, fileExtension, "magic_bytes");
-        if (!isBlank(magicBytes) && !containsMagicBytesProcessor(originalFile, magicBytes)) {
-            sbresponseAggregationFail.append(System.lineSeparator() + ++responseMsgCountFail + ". ")
-                .append("Invalid magic_bytes")
-                .append(commonLogString);
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
-        } else {
-            sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                .append("Magic bytes check passed, magic bytes: ")
-                .append(magicBytes);
-            logFine(sbresponseAggregationSuccess);
-            return sbresponseAggregationSuccess;
-        }
+    private boolean containsMagicBytes(ValidationContext ctx, Boolean magicBytesFound) {
+        long startNanos = startNanos(CheckCode.MAGIC_BYTES);
+        boolean searched = ctx.rules.magicBytes != null && magicBytesFound == null;
+        boolean passed = ctx.rules.magicBytes == null || (magicBytesFound != null ? magicBytesFound : containsMagicBytesProcessor(ctx.originalFile, ctx.rules));
+        return addCheck(ctx, new CheckResult(CheckCode.MAGIC_BYTES, passed, -1, -1, ctx.rules.magicBytesPattern, null, ctx.commonLogString),
+            startNanos, searched ? searchLength(ctx.originalFile, ctx.rules) : 0);
     }
     
     /**
-     * Check if the file contains the expected magic bytes
+     * Check if the file contains the expected magic bytes, within the configured magic_bytes_window if any
      * @param originalFileBytes (byte[]) the file bytes of the file being validated
-     * @param magicBytesPattern (String) the expected magic bytes of the file being validated
+     * @param rules (ExtensionRules) the compiled rules holding the magic bytes search
      * @return Boolean (Boolean) true if the file contains the expected magic bytes, false otherwise
      */
-    private boolean containsMagicBytesProcessor(byte[] originalFileBytes, String magicBytesPattern) throws NumberFormatException{
-        if (originalFileBytes.length == 0 || magicBytesPattern == null || magicBytesPattern.isEmpty()) {
-            return false;
-        }
-        magicBytesPattern = magicBytesPattern.replaceAll("\\p{Zs}", "");
-        if (magicBytesPattern.length() % 2 != 0) {
-            magicBytesPattern = "0" + magicBytesPattern;
-        }
-        byte[] magicBytes = new byte[magicBytesPattern.length() / 2];
-        for (int i = 0; i < magicBytesPattern.length(); i += 2) {
-            magicBytes[i / 2] = (byte) Integer.parseInt(magicBytesPattern.substring(i, i + 2), 16);
-        }
-        for (int i = 0; i < originalFileBytes.length - magicBytes.length; i++) {
-            boolean found = true;
-            for (int j = 0; j < magicBytes.length; j++) {
-                if (originalFileBytes[i + j] != magicBytes[j]) {
-                    found = false;
-                    break;
-                }
-            }
-            if (found) {
-                return true;
-            }
-        }
-        return false;
+    private boolean containsMagicBytesProcessor(byte[] originalFileBytes, ExtensionRules rules) {
+        return rules.magicBytes.find(originalFileBytes, 0, searchLength(originalFileBytes, rules));
+    }
+
+    /**
+     * Get the number of bytes searched for the magic bytes, limited by the configured magic_bytes_window if any
+     * @param originalFileBytes (byte[]) the file bytes of the file being validated
+     * @param rules (ExtensionRules) the compiled rules holding the magic bytes search
+     * @return int (int) the number of bytes searched from the start of the file
+     */
+    private int searchLength(byte[] originalFileBytes, ExtensionRules rules) {
+        return rules.magicBytesWindow > -1
+            ? (int) Math.min(originalFileBytes.length, rules.magicBytesWindow) : originalFileBytes.length;
     }
 
     /**
      * Check if the file contains the expected header signatures
-     * @return StringBuilder (StringBuilder) the results of the header signatures check
+     * @param ctx (ValidationContext) the context of the current validation
+     * @param headBytes (byte[]) the file bytes, or at least its first bytes
+     * @return boolean (boolean) true if the file passed the header signatures check
      */
-    private StringBuilder containsHeaderSignatures() {
-        String headerSignatures = (String) extensions.getValidationValue(fileCategory, fileExtension, "header_signatures");
-        if (!isBlank(headerSignatures) && !containsHeaderSignaturesProcessor(originalFile, headerSignatures)) {
-            sbresponseAggregationFail.append(System.lineSeparator() + ++responseMsgCountFail + ". ")
-                .append("Invalid header_signatures")
-                .append(commonLogString);
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
-        } else {
-            sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                .append("Header signatures check passed, header signatures: ")
-                .append(headerSignatures);
-            logFine(sbresponseAggregationSuccess);
-            return sbresponseAggregationSuccess;
-        }
+    private boolean containsHeaderSignatures(ValidationContext ctx, byte[] headBytes) {
+        long startNanos = startNanos(CheckCode.HEADER_SIGNATURES);
+        boolean passed = ctx.rules.headerSignatures == null || containsHeaderSignaturesProcessor(headBytes, ctx.rules.headerSignatures);
+        return addCheck(ctx, new CheckResult(CheckCode.HEADER_SIGNATURES, passed, -1, -1, ctx.rules.headerSignaturesPattern, null, ctx.commonLogString), startNanos, 0);
     }
 
     /**
      * Check if the file contains the expected header signatures
      * @param fileBytes (byte[]) the file bytes of the file being validated
-     * @param headerSignaturesPattern (String) the expected header signatures of the file being validated
+     * @param headerSignatures (byte[]) the expected header signatures of the file being validated
      * @return Boolean (Boolean) true if the file contains the expected header signatures, false otherwise
      */
-    private boolean containsHeaderSignaturesProcessor(byte[] fileBytes, String headerSignaturesPattern) throws NumberFormatException {
-        if (isBlank(headerSignaturesPattern)) {
-            return true;
-        }
-        String hexPattern = headerSignaturesPattern.replaceAll("\\p{Zs}", "");
-        if (hexPattern.length() % 2 != 0) {
-            hexPattern = "0" + hexPattern;
-        }
-        byte[] headerSignatures = new byte[hexPattern.length() / 2];
-        for (int i = 0; i < hexPattern.length(); i += 2) {
-            headerSignatures[i / 2] = (byte) Integer.parseInt(hexPattern.substring(i, i + 2), 16);
-        }
+    private boolean containsHeaderSignaturesProcessor(byte[] fileBytes, byte[] headerSignatures) {
         for (int i = 0; i < headerSignatures.length; i++) {
             if (i >= fileBytes.length || fileBytes[i] != headerSignatures[i]) {
                 return false;
@@ -339,43 +323,23 @@ public class ValidationsHelper {
 
     /**
      * Check if the file contains the expected footer signatures
-     * @return StringBuilder (StringBuilder) the results of the footer signatures check
+     * @param ctx (ValidationContext) the context of the current validation
+     * @param tailBytes (byte[]) the file bytes, or at least its last bytes
+     * @return boolean (boolean) true if the file passed the footer signatures check
      */
-    private StringBuilder containsFooterSignatures() {
-        String footerSignatures = (String) extensions.getValidationValue(fileCategory, fileExtension, "footer_signatures");
-        if (!isBlank(footerSignatures) && !containsFooterSignaturesProcessor(originalFile, footerSignatures)) {
-            sbresponseAggregationFail.append(System.lineSeparator() + ++responseMsgCountFail + ". ")
-                .append("Invalid footer_signatures")
-                .append(commonLogString);
-            logWarn(sbresponseAggregationFail);
-            return sbresponseAggregationFail;
-        } else {
-            sbresponseAggregationSuccess.append(System.lineSeparator() + ++responseMsgCountSuccess + ". ")
-                .append("Footer signatures check passed, footer signatures: ")
-                .append(footerSignatures);
-            logFine(sbresponseAggregationSuccess);
-            return sbresponseAggregationSuccess;
-        }
+    private boolean containsFooterSignatures(ValidationContext ctx, byte[] tailBytes) {
+        long startNanos = startNanos(CheckCode.FOOTER_SIGNATURES);
+        boolean passed = ctx.rules.footerSignatures == null || containsFooterSignaturesProcessor(tailBytes, ctx.rules.footerSignatures);
+        return addCheck(ctx, new CheckResult(CheckCode.FOOTER_SIGNATURES, passed, -1, -1, ctx.rules.footerSignaturesPattern, null, ctx.commonLogString), startNanos, 0);
     }
 
     /**
      * Check if the file contains the expected footer signatures
      * @param fileBytes (byte[]) the file bytes of the file being validated
-     * @param footerSignaturesPattern (String) the expected footer signatures of the file being validated
+     * @param footerSignatures (byte[]) the expected footer signatures of the file being validated
      * @return Boolean (Boolean) true if the file contains the expected footer signatures, false otherwise
      */
-    private boolean containsFooterSignaturesProcessor(byte[] fileBytes, String footerSignaturesPattern) throws NumberFormatException {
-        if (isBlank(footerSignaturesPattern)) {
-            return true;
-        }
-        String hexPattern = footerSignaturesPattern.replaceAll("\\p{Zs}", "");
-        if (hexPattern.length() % 2 != 0) {
-            hexPattern = "0" + hexPattern;
-        }
-        byte[] footerSignatures = new byte[hexPattern.length() / 2];
-        for (int i = 0; i < hexPattern.length(); i += 2) {
-            footerSignatures[i / 2] = (byte) Integer.parseInt(hexPattern.substring(i, i + 2), 16);
-        }
+    private boolean containsFooterSignaturesProcessor(byte[] fileBytes, byte[] footerSignatures) {
         int footerStartIndex = fileBytes.length - footerSignatures.length -1;
         if (footerStartIndex < 0) {
             return false;
@@ -388,43 +352,4 @@ public class ValidationsHelper {
         return true;
     }
 
-    /**
-     * Helper method to save the file to a temporary directory
-     * @param fileExtension (String) the file extension of the file being validated
-     * @param originalFile (byte[]) the file bytes of the file being validated
-     * @return Path (Path) the path to the temporary file
-     */
-    private Path saveFileToTempDir(String fileExtension, byte[] originalFile) {
-        Path tempFilePath = null;
-        try {
-            // Create a temporary directory
-            Path tempDir = Files.createTempDirectory("tempDir");
-            tempFilePath = Files.createTempFile(tempDir, "tempFile", "." + fileExtension);
-            Files.write(tempFilePath, originalFile);
-        } catch (Exception e) {
-            sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error: Saving file to temporary directory failed: ").append(e.getMessage());
-            logWarn(sharedStringBuilder);
-            return null;
-        }
-        return tempFilePath;
-    }
-
-    /**
-     * Helper method to delete the temporary directory
-     * @param tempFilePath (Path) the path to the temporary file
-     * @return Boolean (Boolean) true if the temporary directory was deleted successfully, false otherwise
-     */
-    private Boolean deleteTempDir(Path tempFilePath) {
-        try (Stream<Path> walk = Files.walk(tempFilePath)) {
-            walk.sorted(Comparator.reverseOrder())
-            .map(Path::toFile)
-            .forEach(File::delete);
-            return true;
-        } catch (Exception e) {
-            sharedStringBuilder.replace(0, sharedStringBuilder.length(), "Error: Delete temporary directoy failed: ").append(e.getMessage());
-            logWarn(sharedStringBuilder);
-            return false;
-        }
-    }
-
 }
@@ -0,0 +1,109 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class counts the validations of a FileValidator for its FileValidatorMXBean.
+ * Counting is always on, so it only uses striped LongAdders updated once per validation.
+ */
+final class ValidatorStatistics {
+    private final long createdNanos = System.nanoTime();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder[] outcomes = {new LongAdder(), new LongAdder(), new LongAdder()};
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder[] rejections = new LongAdder[CheckCode.values().length];
+    private final LongAdder spoolsCreated = new LongAdder();
+    private final LongAdder activeSpools = new LongAdder();
+
+    ValidatorStatistics() {
+        for (int i = 0; i < rejections.length; i++) {
+            rejections[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Count a validation starting
+     */
+    void validationStarted() {
+        inFlight.increment();
+    }
+
+    /**
+     * Count a validation ending, whether it completed or threw
+     */
+    void validationEnded() {
+        inFlight.decrement();
+    }
+
+    /**
+     * Count a completed validation
+     * @param outcome (MetricsSink.Outcome) PASS for a valid file, FAIL for an invalid file, ERROR if the validation could not complete
+     * @param fileBytes (long) the size of the validated file
+     * @param failedChecks (List) the codes of the failed checks, counted as rejections of an invalid file
+     */
+    void validationCompleted(MetricsSink.Outcome outcome, long fileBytes, List<CheckCode> failedChecks) {
+        outcomes[outcome.ordinal()].increment();
+        bytes.add(fileBytes);
+        if (outcome == MetricsSink.Outcome.FAIL) {
+            for (CheckCode failedCheck : failedChecks) {
+                rejections[failedCheck.ordinal()].increment();
+            }
+        }
+    }
+
+    /**
+     * Count a spool directory created
+     */
+    void spoolCreated() {
+        spoolsCreated.increment();
+        activeSpools.increment();
+    }
+
+    /**
+     * Count a spool directory deleted
+     */
+    void spoolDeleted() {
+        activeSpools.decrement();
+    }
+
+    long getInFlight() {
+        return inFlight.sum();
+    }
+
+    long getCount(MetricsSink.Outcome outcome) {
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+    long getCompleted() {
+        long completed = 0;
+        for (LongAdder outcome : outcomes) {
+            completed += outcome.sum();
+        }
+        return completed;
+    }
+
+    long getBytes() {
+        return bytes.sum();
+    }
+
+    long getRejections(CheckCode code) {
+        return rejections[code.ordinal()].sum();
+    }
+
+    long getSpoolsCreated() {
+        return spoolsCreated.sum();
+    }
+
+    long getActiveSpools() {
+        return activeSpools.sum();
+    }
+
+    /**
+     * Returns the time since the validator was created
+     * @return long (long) the elapsed time in nanoseconds
+     */
+    long getUptimeNanos() {
+        return System.nanoTime() - createdNanos;
+    }
+}
@@ -0,0 +1,298 @@
+package dev.filechampion.filechampion4j;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * This class caches the verdicts of whole-file validations, so that validating content already validated
+ * returns the previous response without running validations or plugins again.
+ * It is enabled with the "Verdict_cache" object of the General configuration:
+ * <pre>
+ * "Verdict_cache": {"max_entries": 10000, "ttl": 3600, "directory": "/var/cache/filechampion4j"}
+ * </pre>
+ * Verdicts are keyed by the file category, extension, request mime type, the SHA-256 of the content
+ * and the version of the whole configuration, so that a changed configuration never reuses a verdict.
+ * Entries are held in independently locked segments, each evicting its least recently used entries,
+ * and expire "ttl" seconds after being cached. When a "directory" is set, verdicts are also written there
+ * and survive restarts, except those of content changed by plugins, which are only kept in memory.
+ */
+final class VerdictCache {
+    /** Default maximum number of verdicts held in memory */
+    static final int DEFAULT_MAX_ENTRIES = 10000;
+    /** Default number of seconds a verdict is kept, 1 hour */
+    static final int DEFAULT_TTL = 3600;
+    private static final int SEGMENTS = 16;
+
+    private final String configVersion;
+    private final long ttlMillis;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final Path directory;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private static final Logger LOGGER = Logger.getLogger(VerdictCache.class.getName());
+    private void logWarn(String message) {
+        if (LOGGER.isLoggable(Level.WARNING)) {
+            LOGGER.warning(message);
+        }
+    }
+
+    /**
+     * A cached validation verdict
+     */
+    static final class Verdict {
+        final boolean valid;
+        final String resultsInfo;
+        // The typed results of verdicts held in memory, the rendered details of verdicts read from the directory
+        final ValidationReport report;
+        final String resultsDetails;
+        final Map<String, String> fileChecksums;
+        // The codes of the failed checks, counted as rejections whenever the verdict is used
+        final List<CheckCode> failedChecks;
+        // Whether the response held the file bytes, and the bytes themselves when plugins changed the content
+        final boolean hasFileBytes;
+        final byte[] modifiedFileBytes;
+        final long expiresAt;
+
+        private Verdict(boolean valid, String resultsInfo, ValidationReport report, String resultsDetails, Map<String, String> fileChecksums,
+                List<CheckCode> failedChecks, boolean hasFileBytes, byte[] modifiedFileBytes, long expiresAt) {
+            this.valid = valid;
+            this.resultsInfo = resultsInfo;
+            this.report = report;
+            this.resultsDetails = resultsDetails;
+            this.fileChecksums = fileChecksums;
+            this.failedChecks = failedChecks;
+            this.hasFileBytes = hasFileBytes;
+            this.modifiedFileBytes = modifiedFileBytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * An access ordered map of verdicts, evicting its eldest entry once full
+     */
+    private static final class Segment extends LinkedHashMap<String, Verdict> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Verdict> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    /**
+     * Creates a verdict cache from its configuration
+     * @param cacheConfig (JSONObject) the Verdict_cache configuration object
+     * @param config (String) the whole configuration, its hash versioning the verdicts
+     * @throws IllegalArgumentException if a bound is not positive or the directory cannot be created
+     */
+    VerdictCache(JSONObject cacheConfig, String config) {
+        int maxEntries = cacheConfig.optInt("max_entries", DEFAULT_MAX_ENTRIES);
+        int ttl = cacheConfig.optInt("ttl", DEFAULT_TTL);
+        if (maxEntries < 1 || ttl < 1) {
+            throw new IllegalArgumentException("Verdict_cache max_entries and ttl must be positive numbers.");
+        }
+        this.configVersion = sha256(config);
+        this.ttlMillis = ttl * 1000L;
+        int segmentCapacity = Math.max(1, (maxEntries + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        String directoryName = cacheConfig.optString("directory");
+        if (directoryName.isEmpty()) {
+            this.directory = null;
+        } else {
+            try {
+                this.directory = Files.createDirectories(Paths.get(directoryName));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Verdict_cache directory cannot be created: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Return the cached verdict of a content, looking in the directory when not held in memory
+     * @param key (String) the category, extension, mime type and content hash of the request
+     * @return Verdict (Verdict) the cached verdict, or null if none is cached or it expired
+     */
+    Verdict get(String key) {
+        String versionedKey = configVersion + "\n" + key;
+        Segment segment = segmentOf(versionedKey);
+        Verdict verdict;
+        synchronized (segment) {
+            verdict = segment.get(versionedKey);
+            if (verdict != null && verdict.expiresAt <= System.currentTimeMillis()) {
+                segment.remove(versionedKey);
+                verdict = null;
+            }
+        }
+        if (verdict == null && directory != null) {
+            verdict = readVerdict(versionedKey);
+            if (verdict != null) {
+                synchronized (segment) {
+                    segment.put(versionedKey, verdict);
+                }
+            }
+        }
+        if (verdict == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return verdict;
+    }
+
+    /**
+     * Cache the verdict of a validation response
+     * @param key (String) the category, extension, mime type and content hash of the request
+     * @param response (ValidationResponse) the response of the validation
+     * @param contentModified (boolean) true if plugins changed the content, whose bytes are then kept with the verdict
+     */
+    void put(String key, ValidationResponse response, boolean contentModified) {
+        String versionedKey = configVersion + "\n" + key;
+        boolean hasFileBytes = response.getFileBytes() != null;
+        Map<String, String> fileChecksums = response.getFileChecksums() == null ? null
+            : Collections.unmodifiableMap(new HashMap<>(response.getFileChecksums()));
+        ValidationReport report = response.getReport();
+        List<CheckCode> failedChecks = report == null ? Collections.<CheckCode>emptyList() : Collections.unmodifiableList(report.getFailedChecks());
+        Verdict verdict = new Verdict(response.isValid(), response.resultsInfo(), report, report == null ? response.resultsDetails() : null, fileChecksums,
+            failedChecks, hasFileBytes, hasFileBytes && contentModified ? response.getFileBytes().clone() : null,
+            System.currentTimeMillis() + ttlMillis);
+        Segment segment = segmentOf(versionedKey);
+        synchronized (segment) {
+            segment.put(versionedKey, verdict);
+        }
+        if (directory != null && verdict.modifiedFileBytes == null) {
+            writeVerdict(versionedKey, verdict);
+        }
+    }
+
+    /**
+     * Return the hit and miss counts and the number of verdicts held in memory
+     * @return Map (Map) the "hits", "misses" and "entries" counts
+     */
+    Map<String, Long> getStats() {
+        long entries = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                entries += segment.size();
+            }
+        }
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("entries", entries);
+        return stats;
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    private Segment segmentOf(String versionedKey) {
+        return segments[(versionedKey.hashCode() & 0x7fffffff) % SEGMENTS];
+    }
+
+    /**
+     * Read a verdict from the directory, deleting it once expired
+     */
+    private Verdict readVerdict(String versionedKey) {
+        Path verdictFile = directory.resolve(sha256(versionedKey) + ".json");
+        try {
+            JSONObject json = new JSONObject(new String(Files.readAllBytes(verdictFile), StandardCharsets.UTF_8));
+            if (!versionedKey.equals(json.getString("key"))) {
+                return null;
+            }
+            if (json.getLong("expires_at") <= System.currentTimeMillis()) {
+                Files.deleteIfExists(verdictFile);
+                return null;
+            }
+            Map<String, String> fileChecksums = null;
+            JSONObject checksums = json.optJSONObject("checksums");
+            if (checksums != null) {
+                fileChecksums = new HashMap<>();
+                for (String algorithm : checksums.keySet()) {
+                    fileChecksums.put(algorithm, checksums.getString(algorithm));
+                }
+                fileChecksums = Collections.unmodifiableMap(fileChecksums);
+            }
+            List<CheckCode> failedChecks = new ArrayList<>();
+            JSONArray failedCheckNames = json.optJSONArray("failed_checks");
+            if (failedCheckNames != null) {
+                for (int i = 0; i < failedCheckNames.length(); i++) {
+                    failedChecks.add(CheckCode.valueOf(failedCheckNames.getString(i)));
+                }
+            }
+            return new Verdict(json.getBoolean("valid"), json.optString("info", null), null, json.optString("details", null),
+                fileChecksums, Collections.unmodifiableList(failedChecks), json.getBoolean("file_bytes"), null, json.getLong("expires_at"));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | JSONException | IllegalArgumentException e) {
+            logWarn("Error reading cached verdict " + verdictFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Write a verdict to the directory, through a temporary file so that readers never see a partial verdict
+     */
+    private void writeVerdict(String versionedKey, Verdict verdict) {
+        JSONObject json = new JSONObject();
+        json.put("key", versionedKey);
+        json.put("valid", verdict.valid);
+        json.put("info", verdict.resultsInfo);
+        json.put("details", verdict.report != null ? verdict.report.render() : verdict.resultsDetails);
+        if (verdict.fileChecksums != null) {
+            json.put("checksums", new JSONObject(verdict.fileChecksums));
+        }
+        JSONArray failedChecks = new JSONArray();
+        for (CheckCode failedCheck : verdict.failedChecks) {
+            failedChecks.put(failedCheck.name());
+        }
+        json.put("failed_checks", failedChecks);
+        json.put("file_bytes", verdict.hasFileBytes);
+        json.put("expires_at", verdict.expiresAt);
+        String fileName = sha256(versionedKey);
+        try {
+            Path tempFile = Files.createTempFile(directory, fileName, ".tmp");
+            Files.write(tempFile, json.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, directory.resolve(fileName + ".json"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logWarn("Error writing cached verdict " + fileName + ": " + e.getMessage());
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return String.format("%064x", new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8))));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package dev.filechampion.filechampion4j;
+
+import java.util.zip.Checksum;
+
+/**
+ * This class calculates the 64 bits xxHash of data, with a seed of 0, incrementally.
+ * xxHash64 is a fast non-cryptographic hash, suited to integrity tags and deduplication keys
+ * where collision resistance against an attacker is not needed.
+ */
+final class XxHash64 implements Checksum {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final int STRIPE_SIZE = 32;
+
+    private final byte[] pending = new byte[STRIPE_SIZE];
+    private int pendingLength;
+    private long totalLength;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+
+    /**
+     * Creates a new xxHash64 calculation
+     */
+    XxHash64() {
+        reset();
+    }
+
+    @Override
+    public void update(int b) {
+        update(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void update(byte[] input, int offset, int length) {
+        totalLength += length;
+        if (pendingLength > 0) {
+            int chunk = Math.min(length, STRIPE_SIZE - pendingLength);
+            System.arraycopy(input, offset, pending, pendingLength, chunk);
+            pendingLength += chunk;
+            offset += chunk;
+            length -= chunk;
+            if (pendingLength < STRIPE_SIZE) {
+                return;
+            }
+            consumeStripe(pending, 0);
+            pendingLength = 0;
+        }
+        int end = offset + length - STRIPE_SIZE;
+        while (offset <= end) {
+            consumeStripe(input, offset);
+            offset += STRIPE_SIZE;
+        }
+        length = end + STRIPE_SIZE - offset;
+        System.arraycopy(input, offset, pending, 0, length);
+        pendingLength = length;
+    }
+
+    @Override
+    public long getValue() {
+        long hash;
+        if (totalLength >= STRIPE_SIZE) {
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = v3 + PRIME5;
+        }
+        hash += totalLength;
+
+        int offset = 0;
+        while (offset + 8 <= pendingLength) {
+            hash ^= round(0, readLong(pending, offset));
+            hash = Long.rotateLeft(hash, 27) * PRIME1 + PRIME4;
+            offset += 8;
+        }
+        if (offset + 4 <= pendingLength) {
+            hash ^= (readInt(pending, offset) & 0xFFFFFFFFL) * PRIME1;
+            hash = Long.rotateLeft(hash, 23) * PRIME2 + PRIME3;
+            offset += 4;
+        }
+        while (offset < pendingLength) {
+            hash ^= (pending[offset] & 0xFFL) * PRIME5;
+            hash = Long.rotateLeft(hash, 11) * PRIME1;
+            offset++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME2;
+        hash ^= hash >>> 29;
+        hash *= PRIME3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    @Override
+    public void reset() {
+        v1 = PRIME1 + PRIME2;
+        v2 = PRIME2;
+        v3 = 0;
+        v4 = -PRIME1;
+        pendingLength = 0;
+        totalLength = 0;
+    }
+
+    ////////////////////
+    // Helper methods //
+    ////////////////////
+
+    /**
+     * Mix a 32 bytes stripe into the four accumulators
+     */
+    private void consumeStripe(byte[] input, int offset) {
+        v1 = round(v1, readLong(input, offset));
+        v2 = round(v2, readLong(input, offset + 8));
+        v3 = round(v3, readLong(input, offset + 16));
+        v4 = round(v4, readLong(input, offset + 24));
+    }
+
+    private static long round(long accumulator, long lane) {
+        accumulator += lane * PRIME2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME1;
+    }
+
+    private static long mergeRound(long hash, long accumulator) {
+        hash ^= round(0, accumulator);
+        return hash * PRIME1 + PRIME4;
+    }
+
+    /**
+     * Read a little-endian long
+     */
+    private static long readLong(byte[] input, int offset) {
+        return (input[offset] & 0xFFL)
+            | (input[offset + 1] & 0xFFL) << 8
+            | (input[offset + 2] & 0xFFL) << 16
+            | (input[offset + 3] & 0xFFL) << 24
+            | (input[offset + 4] & 0xFFL) << 32
+            | (input[offset + 5] & 0xFFL) << 40
+            | (input[offset + 6] & 0xFFL) << 48
+            | (input[offset + 7] & 0xFFL) << 56;
+    }
+
+    /**
+     * Read a little-endian int
+     */
+    private static int readInt(byte[] input, int offset) {
+        return (input[offset] & 0xFF)
+            | (input[offset + 1] & 0xFF) << 8
+            | (input[offset + 2] & 0xFF) << 16
+            | (input[offset + 3] & 0xFF) << 24;
+    }
+}
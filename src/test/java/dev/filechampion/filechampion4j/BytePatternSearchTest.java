@@ -0,0 +1,62 @@
+package dev.filechampion.filechampion4j;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for BytePatternSearch class.
+ */
+public class BytePatternSearchTest {
+
+    /**
+     * Test the single pattern search.
+     */
+    @Test
+    public void testSinglePattern() {
+        BytePatternSearch search = BytePatternSearch.compile(Collections.singletonList(bytes("%PDF")));
+        byte[] content = bytes("xx%PD%PDFxx");
+        assertTrue(search.find(content, 0, content.length), "expected pattern to be found");
+        assertTrue(search.find(bytes("abc%PDF"), 0, 7), "expected pattern at the end to be found");
+        assertFalse(search.find(content, 0, 8), "expected pattern beyond the range not to be found");
+        assertFalse(search.find(content, 6, content.length), "expected pattern before the range not to be found");
+        assertTrue(search.find(ByteBuffer.allocateDirect(content.length).put(content), 0, content.length), "expected pattern to be found in a direct buffer");
+        assertEquals(4, search.getMaxPatternLength(), "expected max pattern length");
+    }
+
+    /**
+     * Test the multiple patterns search, including patterns that are suffixes of each other.
+     */
+    @Test
+    public void testMultiplePatterns() {
+        BytePatternSearch search = BytePatternSearch.compile(Arrays.asList(bytes("PK\u0003\u0004"), bytes("abcd"), bytes("bc")));
+        assertTrue(search.find(bytes("xxabxxPK\u0003\u0004"), 0, 10), "expected first pattern to be found");
+        assertTrue(search.find(bytes("xxabcxx"), 0, 7), "expected suffix pattern to be found");
+        assertFalse(search.find(bytes("xxabxxPK\u0003"), 0, 9), "expected no pattern to be found");
+        byte[] content = bytes("xxabxxPK\u0003\u0004");
+        assertTrue(search.find(ByteBuffer.allocateDirect(content.length).put(content), 0, content.length), "expected pattern to be found in a direct buffer");
+        assertEquals(4, search.getMaxPatternLength(), "expected max pattern length");
+    }
+
+    /**
+     * Test compiling invalid or empty pattern lists.
+     */
+    @Test
+    public void testCompile() {
+        assertNull(BytePatternSearch.compile(Collections.<byte[]>emptyList()), "expected no search for no patterns");
+        assertThrows(IllegalArgumentException.class, () -> BytePatternSearch.compile(Collections.singletonList(new byte[0])), "expected IllegalArgumentException for empty pattern");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
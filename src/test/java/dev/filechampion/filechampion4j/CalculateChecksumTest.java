@@ -0,0 +1,335 @@
+package dev.filechampion.filechampion4j;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for CalculateChecksum class.
+ */
+public class CalculateChecksumTest {
+    private static final List<String> ALGORITHMS = Arrays.asList("MD5", "SHA-1", "SHA-256", "SHA-512");
+
+    /**
+     * Test the single pass checksums of byte arrays, below and above the fan out size.
+     */
+    @Test
+    public void testGetChecksumsBytes() throws Exception {
+        for (int size : new int[] {1, 4096, 3 * 1024 * 1024 + 7}) {
+            byte[] data = randomBytes(size);
+            Map<String, byte[]> checksums = CalculateChecksum.getChecksums(data, ALGORITHMS);
+            assertEquals(ALGORITHMS, Arrays.asList(checksums.keySet().toArray()), "expected checksums in algorithm order");
+            for (String algorithm : ALGORITHMS) {
+                assertArrayEquals(MessageDigest.getInstance(algorithm).digest(data), checksums.get(algorithm), "expected " + algorithm + " checksum for size " + size);
+            }
+        }
+    }
+
+    /**
+     * Test the single pass checksums of channels, below and above the fan out size.
+     */
+    @Test
+    public void testGetChecksumsChannel() throws Exception {
+        for (int size : new int[] {0, 4096, 3 * 1024 * 1024 + 7}) {
+            byte[] data = randomBytes(size);
+            Map<String, byte[]> checksums = CalculateChecksum.getChecksums(Channels.newChannel(new ByteArrayInputStream(data)), ALGORITHMS);
+            for (String algorithm : ALGORITHMS) {
+                assertArrayEquals(MessageDigest.getInstance(algorithm).digest(data), checksums.get(algorithm), "expected " + algorithm + " checksum for size " + size);
+            }
+        }
+    }
+
+    /**
+     * Test that the instance checksum is correct and repeatable on large input data.
+     */
+    @Test
+    public void testGetChecksumRepeatable() throws Exception {
+        byte[] data = randomBytes(5 * 1024 * 1024 + 3);
+        CalculateChecksum calculateChecksum = new CalculateChecksum(data);
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(data);
+        assertArrayEquals(expected, calculateChecksum.getChecksum("SHA-256"), "expected SHA-256 checksum");
+        assertArrayEquals(expected, calculateChecksum.getChecksum("SHA-256"), "expected the same checksum on second call");
+    }
+
+    /**
+     * Test that the parallel tree checksums of byte arrays and files match the incremental tree digest.
+     */
+    @Test
+    public void testTreeChecksums(@TempDir Path tempDir) throws Exception {
+        List<String> algorithms = Arrays.asList("SHA-256-TREE", "SHA-256");
+        for (int size : new int[] {0, 4096, TreeMessageDigest.LEAF_SIZE, 2 * TreeMessageDigest.LEAF_SIZE + 11}) {
+            byte[] data = randomBytes(size);
+            byte[] expected = CalculateChecksum.newDigest("SHA-256-TREE").digest(data);
+            assertArrayEquals(expected, CalculateChecksum.getChecksums(data, algorithms).get("SHA-256-TREE"), "expected tree checksum of bytes for size " + size);
+            Path file = tempDir.resolve("tree" + size);
+            Files.write(file, data);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Map<String, byte[]> checksums = CalculateChecksum.getChecksums(channel, algorithms);
+                assertArrayEquals(expected, checksums.get("SHA-256-TREE"), "expected tree checksum of file for size " + size);
+                assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(data), checksums.get("SHA-256"), "expected SHA-256 checksum of file for size " + size);
+            }
+        }
+        byte[] data = randomBytes(TreeMessageDigest.LEAF_SIZE + 1);
+        MessageDigest leafDigest = MessageDigest.getInstance("SHA-256");
+        byte[] root = TreeMessageDigest.digestRoot(leafDigest, new byte[][] {
+            TreeMessageDigest.digestLeaf(leafDigest, data, 0, TreeMessageDigest.LEAF_SIZE),
+            TreeMessageDigest.digestLeaf(leafDigest, data, TreeMessageDigest.LEAF_SIZE, 1)});
+        assertArrayEquals(root, CalculateChecksum.getChecksums(data, Collections.singletonList("SHA-256-TREE")).get("SHA-256-TREE"), "expected root over both leaves");
+    }
+
+    /**
+     * Test the fast checksums against known values, whether the data is digested at once or in chunks.
+     */
+    @Test
+    public void testFastChecksums() throws Exception {
+        List<String> algorithms = Arrays.asList("CRC32C", "XXHASH64", "SHA-256");
+        Map<String, byte[]> checksums = CalculateChecksum.getChecksums("123456789".getBytes(StandardCharsets.US_ASCII), algorithms);
+        assertEquals("e3069283", toHex(checksums.get("CRC32C")), "expected CRC32C check value");
+        assertEquals("ef46db3751d8e999", toHex(CalculateChecksum.newDigest("XXHASH64").digest(new byte[0])), "expected xxHash64 of empty input");
+        assertEquals("44bc2cf5ad770999", toHex(CalculateChecksum.newDigest("XXHASH64").digest("abc".getBytes(StandardCharsets.US_ASCII))), "expected xxHash64 of abc");
+
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 251);
+        }
+        MessageDigest chunked = CalculateChecksum.newDigest("XXHASH64");
+        for (int offset = 0; offset < data.length; offset += 7) {
+            chunked.update(data, offset, Math.min(7, data.length - offset));
+        }
+        assertEquals("f306f04aa88b54d3", toHex(chunked.digest()), "expected chunked xxHash64");
+        assertEquals("f306f04aa88b54d3", toHex(CalculateChecksum.getChecksums(data, algorithms).get("XXHASH64")), "expected xxHash64");
+
+        data = randomBytes(3 * 1024 * 1024 + 7);
+        checksums = CalculateChecksum.getChecksums(Channels.newChannel(new ByteArrayInputStream(data)), algorithms);
+        for (String algorithm : algorithms) {
+            assertArrayEquals(CalculateChecksum.newDigest(algorithm).digest(data), checksums.get(algorithm), "expected streamed " + algorithm + " checksum");
+        }
+    }
+
+    /**
+     * Test that channel checksums follow the fan out minimum size, their digests sharing a single worker below it.
+     */
+    @Test
+    public void testChannelFanOutMinSize() throws Exception {
+        List<String> algorithms = Arrays.asList(RecordingDigest.ALGORITHM, RecordingDigest.PEER_ALGORITHM);
+        byte[] data = randomBytes(3 * 1024 * 1024 + 7);
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(data);
+        int fanOutMinSize = CalculateChecksum.getFanOutMinSize();
+        Provider provider = new RecordingProvider();
+        Security.addProvider(provider);
+        try {
+            CalculateChecksum.setFanOutMinSize(Integer.MAX_VALUE);
+            RecordingDigest.clearRecords();
+            Map<String, byte[]> checksums = CalculateChecksum.getChecksums(Channels.newChannel(new ByteArrayInputStream(data)), algorithms);
+            assertEquals(1, RecordingDigest.MAX_ACTIVE.get(), "expected the digests never updated in parallel");
+            assertArrayEquals(expected, checksums.get(RecordingDigest.ALGORITHM), "expected recorded checksum");
+            assertArrayEquals(expected, checksums.get(RecordingDigest.PEER_ALGORITHM), "expected peer checksum");
+
+            if (Runtime.getRuntime().availableProcessors() > 1) {
+                CalculateChecksum.setFanOutMinSize(2 * 1024 * 1024);
+                RecordingDigest.clearRecords();
+                RecordingDigest.awaitPeerFrom = 2 * 1024 * 1024;
+                checksums = CalculateChecksum.getChecksums(Channels.newChannel(new ByteArrayInputStream(data)), algorithms);
+                assertEquals(2, RecordingDigest.MAX_ACTIVE.get(), "expected the content above the minimum size digested in parallel");
+                assertArrayEquals(expected, checksums.get(RecordingDigest.ALGORITHM), "expected fanned out recorded checksum");
+                assertArrayEquals(expected, checksums.get(RecordingDigest.PEER_ALGORITHM), "expected fanned out peer checksum");
+            }
+        } finally {
+            RecordingDigest.clearRecords();
+            CalculateChecksum.setFanOutMinSize(fanOutMinSize);
+            Security.removeProvider(provider.getName());
+        }
+    }
+
+    /**
+     * Test that a single digest channel checksum reads the next buffer while the current one is digested.
+     */
+    @Test
+    public void testChannelPipelinedReads() throws Exception {
+        if (Runtime.getRuntime().availableProcessors() == 1) {
+            return;
+        }
+        byte[] data = randomBytes(3 * 1024 * 1024 + 7);
+        Provider provider = new RecordingProvider();
+        Security.addProvider(provider);
+        try {
+            RecordingDigest.clearRecords();
+            CountingChannel channel = new CountingChannel(data);
+            RecordingDigest.channel = channel;
+            Map<String, byte[]> checksums = CalculateChecksum.getChecksums(channel, Collections.singletonList(RecordingDigest.ALGORITHM));
+            assertTrue(RecordingDigest.readOverlapped, "expected the next buffer read while the first one was digested");
+            assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(data), checksums.get(RecordingDigest.ALGORITHM), "expected recorded checksum");
+        } finally {
+            RecordingDigest.clearRecords();
+            Security.removeProvider(provider.getName());
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Wait up to 5 seconds for a condition
+     * @return boolean true if the condition was met
+     */
+    private static boolean awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A channel counting the bytes read from it
+     */
+    private static final class CountingChannel implements ReadableByteChannel {
+        private final ReadableByteChannel delegate;
+        private final AtomicLong bytesRead = new AtomicLong();
+
+        private CountingChannel(byte[] data) {
+            delegate = Channels.newChannel(new ByteArrayInputStream(data));
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            int read = delegate.read(dst);
+            if (read > 0) {
+                bytesRead.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    /**
+     * A SHA-256 digest recording how many digests are updated at once, and whether the channel was read while it was updated
+     */
+    public static final class RecordingDigest extends MessageDigest {
+        static final String ALGORITHM = "RECORDING";
+        static final String PEER_ALGORITHM = "RECORDING-PEER";
+        static final AtomicInteger ACTIVE = new AtomicInteger();
+        static final AtomicInteger MAX_ACTIVE = new AtomicInteger();
+        // Updates from this offset wait for another digest to be updated at the same time
+        static volatile long awaitPeerFrom;
+        // The first update waits for the channel to be read past the updated bytes
+        static volatile CountingChannel channel;
+        static volatile boolean readOverlapped;
+        private final MessageDigest delegate;
+        private long updated;
+
+        public RecordingDigest() throws NoSuchAlgorithmException {
+            super(ALGORITHM);
+            delegate = MessageDigest.getInstance("SHA-256");
+        }
+
+        static void clearRecords() {
+            ACTIVE.set(0);
+            MAX_ACTIVE.set(0);
+            awaitPeerFrom = Long.MAX_VALUE;
+            channel = null;
+            readOverlapped = false;
+        }
+
+        @Override
+        protected void engineUpdate(byte input) {
+            engineUpdate(new byte[] {input}, 0, 1);
+        }
+
+        @Override
+        protected void engineUpdate(byte[] input, int offset, int len) {
+            MAX_ACTIVE.accumulateAndGet(ACTIVE.incrementAndGet(), Math::max);
+            try {
+                final CountingChannel readChannel = channel;
+                if (updated == 0 && readChannel != null) {
+                    readOverlapped = awaitCondition(() -> readChannel.bytesRead.get() > len);
+                }
+                if (updated >= awaitPeerFrom) {
+                    awaitCondition(() -> MAX_ACTIVE.get() > 1);
+                }
+                delegate.update(input, offset, len);
+                updated += len;
+            } finally {
+                ACTIVE.decrementAndGet();
+            }
+        }
+
+        @Override
+        protected byte[] engineDigest() {
+            updated = 0;
+            return delegate.digest();
+        }
+
+        @Override
+        protected void engineReset() {
+            updated = 0;
+            delegate.reset();
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static final class RecordingProvider extends Provider {
+        private static final long serialVersionUID = 1L;
+
+        private RecordingProvider() {
+            super("FileChampionTest", 1.0, "Recording digests for tests");
+            put("MessageDigest." + RecordingDigest.ALGORITHM, RecordingDigest.class.getName());
+            put("MessageDigest." + RecordingDigest.PEER_ALGORITHM, RecordingDigest.class.getName());
+        }
+    }
+}
@@ -3,7 +3,9 @@ package dev.filechampion.filechampion4j;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Unit test for Extensions class.
@@ -67,4 +69,37 @@ public class ExtensionsTest {
         assertThrows(IllegalArgumentException.class, () -> 
             extensions.getValidationValue("Documents", "pdf", null), "expected IllegalArgumentException for null key"); 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test the rules compiled by the constructor.
+     */
+    @Test
+    public void testGetExtensionRules() {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("Documents", new JSONObject()
+            .put("pdf", new JSONObject()
+                .put("mime_type", "application/pdf")
+                .put("magic_bytes", "25 50 44 46")
+                .put("max_size", "4000")
+                .put("fail_fast", true)));
+
+        Extensions extensions = new Extensions(jsonObject);
+        ExtensionRules rules = extensions.getExtensionRules("Documents", "pdf");
+        assertEquals("application/pdf", rules.mimeType, "expected mime_type value");
+        assertEquals("25 50 44 46", rules.magicBytesPattern, "expected magic_bytes pattern");
+        assertTrue(rules.magicBytes.find(new byte[] {0x00, 0x25, 0x50, 0x44, 0x46}, 0, 5), "expected decoded magic_bytes");
+        assertNull(rules.headerSignatures, "expected no header_signatures");
+        assertEquals(4000, rules.maxSize, "expected max_size value");
+        assertEquals(true, rules.failFast, "expected fail_fast value");
+        assertEquals(true, rules.addChecksum, "expected add_checksum default");
+
+        assertThrows(IllegalArgumentException.class, () ->
+            extensions.getExtensionRules("Images", "pdf"), "expected IllegalArgumentException for missing category");
+        assertThrows(IllegalArgumentException.class, () ->
+            extensions.getExtensionRules("Documents", "txt"), "expected IllegalArgumentException for missing extension");
+        assertThrows(IllegalArgumentException.class, () -> new Extensions(new JSONObject()
+            .put("Documents", new JSONObject()
+                .put("pdf", new JSONObject()
+                    .put("magic_bytes", "25ZZ")))), "expected IllegalArgumentException for invalid hex");
+    }
+}
@@ -14,20 +14,45 @@ import com.itextpdf.text.Document;
 import com.itextpdf.text.PageSize;
 import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.pdf.PdfWriter;
+import com.sun.net.httpserver.HttpServer;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
 import java.math.BigInteger;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
 import java.util.logging.StreamHandler;
+import javax.management.JMX;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 
 
 
@@ -62,6 +87,29 @@ public class FileValidatorJsonTest {
     + "}\r\n"
     + "}");
     
+    // Config JSON object for testing memory-mapped Path validation
+    private static final JSONObject CONFIG_JSON_MAPPED = new JSONObject("{\r\n"
+    + "  \"General\": {\r\n"
+    + "    \"Memory_mapped\": true\r\n"
+    + "  },\r\n"
+    + "  \"Validations\": {\r\n"
+    + "  \"Documents\": {\r\n"
+    + "    \"pdf\": {\r\n"
+    + "      \"magic_bytes\": \"25504446\",\r\n"
+    + "      \"header_signatures\": \"25504446\",\r\n"
+    + "      \"footer_signatures\": \"2525454f46\",\r\n"
+    + "      \"max_size\": \"4000\"\r\n"
+    + "      },\r\n"
+    + "    \"txt\": {\r\n"
+    + "      \"header_signatures\": \"25504446\",\r\n"
+    + "      \"footer_signatures\": \"2525454f46\",\r\n"
+    + "      \"add_checksum\": false,\r\n"
+    + "      \"max_size\": \"4000\"\r\n"
+    + "      }\r\n"
+    + "  }\r\n"
+    + "}\r\n"
+    + "}");
+
     // Config JSON object for testing mime type
     private static final JSONObject CONFIG_JSON_MIME = new JSONObject("{\r\n"
     + "  \"Validations\": {\r\n"
@@ -655,6 +703,874 @@ public class FileValidatorJsonTest {
         assertEquals(emptyMap, fileValidationResultsPass.getFileChecksums(), "Expected response checksum to be empty");
     }
 
+    // Test a single validator shared by concurrent threads, mixing valid and invalid files
+    @Test
+    void testConcurrentSharedValidator() throws Exception {
+        FileValidator validator = new FileValidator(CONFIG_JSON_CHECKSUMS);
+        byte[] smallPdf = generatePdfBytes(250000);
+        byte[] otherPdf = generatePdfBytes(25000);
+        byte[] notPdf = "not a pdf file content".getBytes();
+        String smallChecksum = calculateChecksum(smallPdf);
+        String otherChecksum = calculateChecksum(otherPdf);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 96; i++) {
+                final int variant = i % 3;
+                futures.add(executor.submit(() -> {
+                    switch (variant) {
+                        case 0:
+                            ValidationResponse small = validator.validateFile("Documents", smallPdf, "small.pdf");
+                            return small.isValid() && smallChecksum.equals(small.getFileChecksums().get("SHA-256")) ? "" : "small: " + small.resultsDetails();
+                        case 1:
+                            ValidationResponse other = validator.validateFile("Documents", otherPdf, "other.pdf");
+                            return other.isValid() && otherChecksum.equals(other.getFileChecksums().get("SHA-256")) ? "" : "other: " + other.resultsDetails();
+                        default:
+                            ValidationResponse invalid = validator.validateFile("Documents", notPdf, "invalid.pdf");
+                            return !invalid.isValid() && invalid.resultsDetails().contains("invalid.pdf") ? "" : "invalid: " + invalid.resultsDetails();
+                    }
+                }));
+            }
+            for (Future<String> future : futures) {
+                assertEquals("", future.get(), "Expected every concurrent validation to get its own results");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Test streamed validation in small chunks against byte array validation
+    @Test
+    void testStreamChecksums() throws Exception {
+        byte[] fileInBytes = generatePdfBytes(250000);
+        String fileName = "test.pdf";
+        FileValidator validator = new FileValidator(CONFIG_JSON_CHECKSUMS);
+        // Small reads make signatures and magic bytes span chunk boundaries
+        InputStream trickleStream = new ByteArrayInputStream(fileInBytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        ValidationResponse fileValidationResults = validator.validateStream("Documents", trickleStream, fileName);
+        assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+        assertEquals(calculateChecksum(fileInBytes), fileValidationResults.getFileChecksums().get("SHA-256"), "Expected checksums to match");
+        assertEquals(null, fileValidationResults.getFileBytes(), "Expected no file bytes for streamed file");
+    }
+
+    // Test streamed validation of invalid content
+    @Test
+    void testStreamInvalidMagic() throws Exception {
+        byte[] fileInBytes = "not a pdf document, just some text".getBytes();
+        FileValidator validator = new FileValidator(CONFIG_JSON_CHECKSUMS);
+        ValidationResponse fileValidationResults = validator.validateStream("Documents", new ByteArrayInputStream(fileInBytes), "test.pdf");
+        assertFalse(fileValidationResults.isValid(), "Expected validation response to be invalid");
+        assertTrue(fileValidationResults.resultsDetails().contains("Invalid magic_bytes"), "Expected 'Invalid magic_bytes', got: " + fileValidationResults.resultsDetails());
+    }
+
+    // Test streamed validation stops reading once max_size is exceeded
+    @Test
+    void testStreamMaxSize() throws Exception {
+        AtomicLong bytesServed = new AtomicLong();
+        InputStream endlessStream = new InputStream() {
+            @Override
+            public int read() {
+                bytesServed.incrementAndGet();
+                return 0;
+            }
+            @Override
+            public int read(byte[] b, int off, int len) {
+                bytesServed.addAndGet(len);
+                return len;
+            }
+        };
+        FileValidator validator = new FileValidator(CONFIG_JSON_CHECKSUMS);
+        ValidationResponse fileValidationResults = validator.validateStream("Documents", endlessStream, "test.pdf");
+        assertFalse(fileValidationResults.isValid(), "Expected validation response to be invalid");
+        assertTrue(fileValidationResults.resultsDetails().contains("Invalid file size"), "Expected 'Invalid file size', got: " + fileValidationResults.resultsDetails());
+        assertTrue(bytesServed.get() < 4100000, "Expected reading to stop after max_size, read: " + bytesServed.get());
+    }
+
+    // Test streamed validation of an empty stream
+    @Test
+    void testStreamEmpty() throws Exception {
+        FileValidator validator = new FileValidator(CONFIG_JSON_CHECKSUMS);
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> validator.validateStream("Documents", new ByteArrayInputStream(new byte[0]), "test.pdf"));
+        assertEquals("inputStream cannot be empty.", exception.getMessage(), "Expected empty stream exception");
+    }
+
+    // Test memory-mapped validation of a file on disk
+    @Test
+    void testMappedChecksums() throws Exception {
+        byte[] fileInBytes = generatePdfBytes(250000);
+        Path filePath = Files.createTempFile("mapped", ".pdf");
+        try {
+            Files.write(filePath, fileInBytes);
+            FileValidator validator = new FileValidator(CONFIG_JSON_MAPPED);
+            ValidationResponse fileValidationResults = validator.validateFile("Documents", filePath, "test.pdf");
+            assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+            assertEquals(calculateChecksum(fileInBytes), fileValidationResults.getFileChecksums().get("SHA-256"), "Expected checksums to match");
+            assertTrue(Files.exists(filePath), "Expected validated file to be left in place");
+        } finally {
+            Files.deleteIfExists(filePath);
+        }
+    }
+
+    // Test memory-mapped validation reading only the head and tail of a file
+    @Test
+    void testMappedHeadAndTail() throws Exception {
+        byte[] fileInBytes = generatePdfBytes(250000);
+        Path filePath = Files.createTempFile("mapped", ".txt");
+        try {
+            Files.write(filePath, fileInBytes);
+            FileValidator validator = new FileValidator(CONFIG_JSON_MAPPED);
+            assertTrue(validator.validateFile("Documents", filePath, "test.txt").isValid(), "Expected validation response to be valid");
+            fileInBytes[fileInBytes.length - 3] = 0;
+            Files.write(filePath, fileInBytes);
+            ValidationResponse fileValidationResults = validator.validateFile("Documents", filePath, "test.txt");
+            assertFalse(fileValidationResults.isValid(), "Expected validation response to be invalid");
+            assertTrue(fileValidationResults.resultsDetails().contains("Invalid footer_signatures"), "Expected 'Invalid footer_signatures', got: " + fileValidationResults.resultsDetails());
+        } finally {
+            Files.deleteIfExists(filePath);
+        }
+    }
+
+    // Test magic bytes configured as a list of patterns, and limited to a search window
+    @Test
+    void testMagicBytesListAndWindow() throws Exception {
+        byte[] fileInBytes = generatePdfBytes(250000);
+        String configTemplate = "{\"Validations\": {\"Documents\": {\"pdf\": {%s, \"max_size\": \"4000\"}}}}";
+        FileValidator validator = new FileValidator(new JSONObject(String.format(configTemplate,
+            "\"magic_bytes\": [\"00112233\", \"2525454f46\"]")));
+        assertTrue(validator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected any listed magic bytes to match");
+
+        validator = new FileValidator(new JSONObject(String.format(configTemplate,
+            "\"magic_bytes\": \"2525454f46\", \"magic_bytes_window\": \"1\"")));
+        ValidationResponse fileValidationResults = validator.validateFile("Documents", fileInBytes, "test.pdf");
+        assertFalse(fileValidationResults.isValid(), "Expected magic bytes beyond the window not to match");
+        assertTrue(fileValidationResults.resultsDetails().contains("Invalid magic_bytes"), "Expected 'Invalid magic_bytes', got: " + fileValidationResults.resultsDetails());
+
+        validator = new FileValidator(new JSONObject(String.format(configTemplate,
+            "\"magic_bytes\": [\"00112233\", \"25504446\"], \"magic_bytes_window\": \"1\"")));
+        assertTrue(validator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected magic bytes within the window to match");
+        assertTrue(validator.validateStream("Documents", new ByteArrayInputStream(fileInBytes), "test.pdf").isValid(), "Expected streamed magic bytes within the window to match");
+    }
+
+    // Test identifying the file type from its content across all categories
+    @Test
+    void testIdentifyFileType() throws Exception {
+        byte[] fileInBytes = generatePdfBytes(250000);
+        FileValidator validator = new FileValidator(new JSONObject("{\"Validations\": {"
+            + "\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\"}, \"txt\": {\"max_size\": \"10\"}},"
+            + "\"Other\": {\"bin\": {\"header_signatures\": \"2550\"}, \"png\": {\"header_signatures\": \"89504e47\"}}}}"));
+        assertEquals(4, validator.getIdentifyHeadSize(), "Expected the longest signature length");
+
+        List<FileTypeMatch> matches = validator.identifyFileType(fileInBytes);
+        assertEquals(2, matches.size(), "Expected two matching types, got: " + matches);
+        assertEquals("Documents.pdf", matches.get(0).toString(), "Expected the longest signature first");
+        assertEquals("Other.bin", matches.get(1).toString(), "Expected the shorter signature last");
+
+        AtomicLong bytesRead = new AtomicLong();
+        InputStream countingStream = new ByteArrayInputStream(fileInBytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int count = super.read(b, off, len);
+                bytesRead.addAndGet(Math.max(count, 0));
+                return count;
+            }
+        };
+        assertEquals(2, validator.identifyFileType(countingStream).size(), "Expected two matching types from the stream");
+        assertEquals(4, bytesRead.get(), "Expected only the signature bytes to be read");
+        assertTrue(validator.identifyFileType(new byte[] {0x25}).isEmpty(), "Expected no match for a truncated header");
+        assertThrows(IllegalArgumentException.class, () -> validator.identifyFileType(new byte[0]), "Expected IllegalArgumentException for empty content");
+    }
+
+    // Test persistent plugin workers reused across validations
+    @Test
+    void testPluginWorkerPool() throws Exception {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return;
+        }
+        Path workerDir = Files.createTempDirectory("workerTest");
+        Path startLog = workerDir.resolve("starts.log");
+        Path workerScript = workerDir.resolve("worker.sh");
+        Files.write(workerScript, ("echo started >> " + startLog + "\n"
+            + "while IFS= read -r line; do\n"
+            + "  path=$(printf '%s' \"$line\" | sed 's/.*\"filePath\":\"\\([^\"]*\\)\".*/\\1/')\n"
+            + "  cp \"$path\" \"$path.new.pdf\"\n"
+            + "  msg=\"Success: $path.new.pdf\"\n"
+            + "  printf '%s\\n%s' \"${#msg}\" \"$msg\"\n"
+            + "done\n").getBytes());
+        JSONObject config = new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\","
+            + "\"max_size\": \"4000\", \"extension_plugins\": [\"clean_pdf_documents1.step1\"]}}},"
+            + "\"Plugins\": {\"clean_pdf_documents1\": {\"step1.step\": {\"type\": \"cli\", \"run_before\": true,"
+            + "\"endpoint\": \"sh " + workerScript + "\", \"worker_pool_size\": 1, \"timeout\": 30,"
+            + "\"on_timeout_or_fail\": \"fail\", \"response\": \"Success: ${step1.filePath}\"}}}}");
+        FileValidator validator = new FileValidator(config);
+        byte[] fileInBytes = generatePdfBytes(250000);
+        for (int i = 0; i < 3; i++) {
+            ValidationResponse fileValidationResults = validator.validateFile("Documents", fileInBytes, "test.pdf");
+            assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+            assertTrue(fileValidationResults.resultsDetails().contains("Success for step: clean_pdf_documents1.step1"),
+                "Expected 'Success for step: clean_pdf_documents1.step1', got: " + fileValidationResults.resultsDetails());
+        }
+        assertTrue(validator.validateStream("Documents", new ByteArrayInputStream(fileInBytes), "test.pdf").isValid(), "Expected streamed validation response to be valid");
+        assertEquals(1, Files.readAllLines(startLog).size(), "Expected a single worker process for all validations");
+
+        config.getJSONObject("Plugins").getJSONObject("clean_pdf_documents1").getJSONObject("step1.step").put("endpoint", "sh ${filePath}");
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> new FileValidator(config), "Expected exception to be thrown");
+        assertTrue(exception.getMessage().contains("Worker endpoint cannot hold file placeholders"), "Expected placeholder error, got: " + exception.getMessage());
+    }
+
+    // Test a cli plugin writing more than the pipe buffer to stdout and stderr
+    @Test
+    void testChattyPlugin() throws Exception {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return;
+        }
+        Path pluginDir = Files.createTempDirectory("chattyTest");
+        Path pluginScript = pluginDir.resolve("chatty.sh");
+        Files.write(pluginScript, ("echo \"Success: chatty\"\n"
+            + "head -c 2000000 /dev/zero | tr '\\0' 'a'\n"
+            + "head -c 2000000 /dev/zero | tr '\\0' 'b' >&2\n").getBytes());
+        JSONObject config = new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\","
+            + "\"max_size\": \"4000\", \"extension_plugins\": [\"chatty_plugin.step1\"]}}},"
+            + "\"Plugins\": {\"chatty_plugin\": {\"step1.step\": {\"type\": \"cli\", \"run_before\": true,"
+            + "\"endpoint\": \"sh " + pluginScript + " ${filePath}\", \"timeout\": 30, \"max_output_bytes\": 64,"
+            + "\"on_timeout_or_fail\": \"fail\", \"response\": \"Success: ${step1.name}\"}}}}");
+        FileValidator validator = new FileValidator(config);
+        long start = System.currentTimeMillis();
+        ValidationResponse fileValidationResults = validator.validateFile("Documents", generatePdfBytes(250000), "test.pdf");
+        assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+        assertTrue(System.currentTimeMillis() - start < 20000, "Expected the plugin not to block until its timeout");
+    }
+
+    // Test plugins reading the file from stdin or its original path, and returning content on stdout
+    @Test
+    void testPluginFileTransport() throws Exception {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return;
+        }
+        Path pluginDir = Files.createTempDirectory("transportTest");
+        Path cleanScript = pluginDir.resolve("clean.sh");
+        Files.write(cleanScript, "echo Cleaned $1 >&2\ncat\nprintf CLEANED\n".getBytes());
+        String configTemplate = "{\"General\": {\"Checksums\": [\"SHA-256\"]}, \"Validations\": {\"Documents\": {\"pdf\": {"
+            + "\"header_signatures\": \"25504446\", \"max_size\": \"4000\", \"extension_plugins\": [\"transport_plugin.step1\"]}}},"
+            + "\"Plugins\": {\"transport_plugin\": {\"step1.step\": {\"type\": \"cli\", \"run_before\": true, \"timeout\": 30,"
+            + "\"on_timeout_or_fail\": \"fail\", %s}}}}";
+        byte[] fileInBytes = generatePdfBytes(250000);
+        byte[] cleanedBytes = new byte[fileInBytes.length + 7];
+        System.arraycopy(fileInBytes, 0, cleanedBytes, 0, fileInBytes.length);
+        System.arraycopy("CLEANED".getBytes(), 0, cleanedBytes, fileInBytes.length, 7);
+
+        FileValidator validator = new FileValidator(new JSONObject(String.format(configTemplate,
+            "\"endpoint\": \"sh " + cleanScript + " ${fileExtension}\", \"file_transport\": \"stdin\", \"content_output\": \"stdout\", \"response\": \"Cleaned pdf\"")));
+        ValidationResponse fileValidationResults = validator.validateFile("Documents", fileInBytes, "test.pdf");
+        assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+        assertEquals(new String(cleanedBytes), new String(fileValidationResults.getFileBytes()), "Expected the content returned on stdout");
+        Path filePath = pluginDir.resolve("test.pdf");
+        Files.write(filePath, fileInBytes);
+        fileValidationResults = validator.validateFile("Documents", filePath, "test.pdf");
+        assertTrue(fileValidationResults.isValid(), "Expected path validation response to be valid, got: " + fileValidationResults.resultsDetails());
+        assertEquals(calculateChecksum(cleanedBytes), fileValidationResults.getFileChecksums().get("SHA-256"), "Expected the checksum of the content returned on stdout");
+
+        Path pathScript = pluginDir.resolve("path.sh");
+        Files.write(pathScript, "cp \"$1\" \"$1.new.pdf\"\necho \"Success: $1.new.pdf\"\n".getBytes());
+        validator = new FileValidator(new JSONObject(String.format(configTemplate,
+            "\"endpoint\": \"sh " + pathScript + " ${filePath}\", \"file_transport\": \"path\", \"response\": \"Success: ${step1.filePath}\"")));
+        fileValidationResults = validator.validateFile("Documents", filePath, "test.pdf");
+        assertTrue(fileValidationResults.isValid(), "Expected path transport validation response to be valid, got: " + fileValidationResults.resultsDetails());
+        assertEquals(0, validator.getManagementBean().getTempFilesCreated(), "Expected the plugin to get the validated file, not a temporary copy");
+        assertEquals(calculateChecksum(fileInBytes), fileValidationResults.getFileChecksums().get("SHA-256"), "Expected the checksum of the returned copy");
+        assertTrue(Files.exists(filePath) && Files.exists(cleanScript), "Expected the directory of the validated file to be kept");
+        assertTrue(!Files.exists(pluginDir.resolve("test.pdf.new.pdf")), "Expected the returned file to be moved out of the validated file directory");
+
+        Throwable exception = assertThrows(IllegalArgumentException.class, () -> new FileValidator(new JSONObject(String.format(configTemplate,
+            "\"endpoint\": \"cat ${filePath}\", \"file_transport\": \"stdin\", \"response\": \"\""))), "Expected exception to be thrown");
+        assertTrue(exception.getMessage().contains("not available with the stdin file_transport"), "Expected stdin placeholder error, got: " + exception.getMessage());
+    }
+
+    // Test http plugins against a local stub server
+    @Test
+    void testHttpPlugin() throws Exception {
+        byte[] fileInBytes = generatePdfBytes(250000);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/scan", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            ByteArrayOutputStream requestBody = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = exchange.getRequestBody().read(buffer)) != -1) {
+                requestBody.write(buffer, 0, bytesRead);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            boolean clean = Arrays.equals(fileInBytes, requestBody.toByteArray())
+                && "pdf".equals(exchange.getRequestURI().getQuery().replace("ext=", ""));
+            byte[] response = (clean ? "Clean: " + requestBody.size() : "Infected").getBytes();
+            inFlight.decrementAndGet();
+            exchange.sendResponseHeaders(clean ? 200 : 400, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.createContext("/sanitize", exchange -> {
+            ByteArrayOutputStream requestBody = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = exchange.getRequestBody().read(buffer)) != -1) {
+                requestBody.write(buffer, 0, bytesRead);
+            }
+            requestBody.write("CLEANED".getBytes());
+            exchange.sendResponseHeaders(200, requestBody.size());
+            exchange.getResponseBody().write(requestBody.toByteArray());
+            exchange.close();
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+            String configTemplate = "{\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\","
+                + "\"max_size\": \"4000\", \"extension_plugins\": [\"http_plugin.step1\"]}}},"
+                + "\"Plugins\": {\"http_plugin\": {\"step1.step\": {\"type\": \"http\", \"run_before\": true, \"timeout\": 30,"
+                + "\"method\": \"POST\", \"http_pass_code\": 200, \"http_fail_code\": 400, \"on_timeout_or_fail\": \"fail\", %s}}}}";
+            FileValidator validator = new FileValidator(new JSONObject(String.format(configTemplate,
+                "\"endpoint\": \"" + baseUrl + "/scan?ext=${fileExtension}\", \"max_concurrency\": 1, \"response\": \"Clean: ${step1.size}\"")));
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<ValidationResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> validator.validateFile("Documents", fileInBytes, "test.pdf")));
+            }
+            for (Future<ValidationResponse> future : futures) {
+                assertTrue(future.get().isValid(), "Expected validation response to be valid, got: " + future.get().resultsDetails());
+            }
+            executor.shutdown();
+            assertEquals(1, maxInFlight.get(), "Expected max_concurrency to bound the requests in flight");
+
+            ValidationResponse fileValidationResults = validator.validateFile("Documents", new byte[] {0x25, 0x50, 0x44, 0x46, 0x00}, "test.pdf");
+            assertFalse(fileValidationResults.isValid(), "Expected validation response to be invalid on the fail code");
+            assertTrue(fileValidationResults.resultsDetails().contains("HTTP 400"), "Expected 'HTTP 400', got: " + fileValidationResults.resultsDetails());
+
+            FileValidator sanitizer = new FileValidator(new JSONObject(String.format(configTemplate,
+                "\"endpoint\": \"" + baseUrl + "/sanitize\", \"content_output\": \"body\", \"response\": \"\"")));
+            fileValidationResults = sanitizer.validateFile("Documents", fileInBytes, "test.pdf");
+            assertTrue(fileValidationResults.isValid(), "Expected sanitized validation response to be valid, got: " + fileValidationResults.resultsDetails());
+            assertTrue(new String(fileValidationResults.getFileBytes()).endsWith("CLEANED"), "Expected the content returned in the response body");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Test read_only plugin steps running concurrently and depends_on ordering steps
+    @Test
+    void testPluginStages() throws Exception {
+        CountDownLatch allScanning = new CountDownLatch(3);
+        List<String> callOrder = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            String step = exchange.getRequestURI().getPath().substring(1);
+            callOrder.add(step);
+            boolean concurrent = true;
+            if (step.startsWith("slow")) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+            }
+            if (step.startsWith("scan")) {
+                allScanning.countDown();
+                try {
+                    concurrent = allScanning.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] response = (concurrent ? "Clean" : "Alone").getBytes();
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+            String stepTemplate = "\"%s.step\": {\"type\": \"http\", \"run_before\": true, \"timeout\": 30, \"on_timeout_or_fail\": \"fail\","
+                + "\"endpoint\": \"" + baseUrl + "/%s\", \"response\": \"Clean\", %s}";
+            String configTemplate = "{\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\","
+                + "\"max_size\": \"4000\", \"extension_plugins\": [%s]}}}, \"Plugins\": {\"stage_plugin\": {%s}}}";
+            String steps = String.join(",",
+                String.format(stepTemplate, "tag", "tag", "\"depends_on\": [\"stage_plugin.scan3\"]"),
+                String.format(stepTemplate, "scan1", "scan1", "\"read_only\": true"),
+                String.format(stepTemplate, "scan2", "scan2", "\"read_only\": true"),
+                String.format(stepTemplate, "scan3", "scan3", "\"read_only\": true"));
+            FileValidator validator = new FileValidator(new JSONObject(String.format(configTemplate,
+                "\"stage_plugin.tag\", \"stage_plugin.scan1\", \"stage_plugin.scan2\", \"stage_plugin.scan3\"", steps)));
+            ValidationResponse fileValidationResults = validator.validateFile("Documents", generatePdfBytes(250000), "test.pdf");
+            assertTrue(fileValidationResults.isValid(), "Expected read_only steps to run concurrently, got: " + fileValidationResults.resultsDetails());
+            assertEquals("tag", callOrder.get(callOrder.size() - 1), "Expected the step to run after the step it depends on");
+
+            String slowSteps = String.join(",",
+                String.format(stepTemplate, "slow1", "slow1", "\"read_only\": true"),
+                String.format(stepTemplate, "slow2", "slow2", "\"read_only\": true"),
+                String.format(stepTemplate, "slow3", "slow3", "\"read_only\": true"));
+            FileValidator boundedValidator = new FileValidator(new JSONObject(String.format(configTemplate,
+                "\"stage_plugin.slow1\", \"stage_plugin.slow2\", \"stage_plugin.slow3\"", slowSteps)).put("General", new JSONObject("{\"Plugin_step_threads\": 1}")));
+            assertEquals(1, boundedValidator.getManagementBean().getPluginStepThreads(), "Expected the configured plugin step threads");
+            fileValidationResults = boundedValidator.validateFile("Documents", generatePdfBytes(250000), "test.pdf");
+            assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+            assertEquals(2, maxInFlight.get(), "Expected the steps beyond the pool to run on the validating thread");
+            boundedValidator.getManagementBean().setPluginStepThreads(2);
+            assertEquals(2, boundedValidator.getManagementBean().getPluginStepThreads(), "Expected the changed plugin step threads");
+            assertThrows(IllegalArgumentException.class, () -> boundedValidator.getManagementBean().setPluginStepThreads(0), "Expected exception to be thrown");
+            assertThrows(IllegalArgumentException.class, () -> new FileValidator(new JSONObject(String.format(configTemplate,
+                "\"stage_plugin.slow1\"", slowSteps)).put("General", new JSONObject("{\"Plugin_step_threads\": 0}"))), "Expected exception to be thrown");
+
+            String cyclicSteps = String.join(",",
+                String.format(stepTemplate, "scan1", "scan1", "\"depends_on\": [\"stage_plugin.scan2\"]"),
+                String.format(stepTemplate, "scan2", "scan2", "\"depends_on\": [\"stage_plugin.scan1\"]"));
+            Throwable exception = assertThrows(IllegalArgumentException.class, () -> new FileValidator(new JSONObject(String.format(configTemplate,
+                "\"stage_plugin.scan1\", \"stage_plugin.scan2\"", cyclicSteps))), "Expected exception to be thrown");
+            assertTrue(exception.getMessage().contains("Circular depends_on"), "Expected circular depends_on error, got: " + exception.getMessage());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Test plugin results cached by content, including the returned file
+    @Test
+    void testPluginResultCache() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/sanitize", exchange -> {
+            calls.incrementAndGet();
+            ByteArrayOutputStream requestBody = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int bytesRead;
+            while ((bytesRead = exchange.getRequestBody().read(buffer)) != -1) {
+                requestBody.write(buffer, 0, bytesRead);
+            }
+            requestBody.write("CLEANED".getBytes());
+            exchange.sendResponseHeaders(200, requestBody.size());
+            exchange.getResponseBody().write(requestBody.toByteArray());
+            exchange.close();
+        });
+        server.start();
+        try {
+            FileValidator validator = new FileValidator(new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\","
+                + "\"max_size\": \"4000\", \"extension_plugins\": [\"cached_plugin.step1\"]}}},"
+                + "\"Plugins\": {\"cached_plugin\": {\"step1.step\": {\"type\": \"http\", \"run_before\": true, \"timeout\": 30,"
+                + "\"on_timeout_or_fail\": \"fail\", \"endpoint\": \"http://127.0.0.1:" + server.getAddress().getPort() + "/sanitize\","
+                + "\"content_output\": \"body\", \"response\": \"\", \"cache_ttl\": 60, \"cache_max_entries\": 1}}}}"));
+            byte[] fileInBytes = generatePdfBytes(250000);
+            for (int i = 0; i < 3; i++) {
+                ValidationResponse fileValidationResults = validator.validateFile("Documents", fileInBytes, "test.pdf");
+                assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+                assertTrue(new String(fileValidationResults.getFileBytes()).endsWith("CLEANED"), "Expected the returned content on every validation");
+            }
+            assertEquals(1, calls.get(), "Expected repeated content to be served from the cache");
+
+            byte[] otherBytes = generatePdfBytes(200000);
+            assertTrue(validator.validateFile("Documents", otherBytes, "test.pdf").isValid(), "Expected other content to be valid");
+            assertTrue(validator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected evicted content to be valid");
+            assertEquals(3, calls.get(), "Expected other content and evicted entries to call the plugin");
+
+            Throwable exception = assertThrows(IllegalArgumentException.class, () -> new FileValidator(new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {"
+                + "\"header_signatures\": \"25504446\", \"extension_plugins\": [\"cached_plugin.step1\"]}}}, \"Plugins\": {\"cached_plugin\": {\"step1.step\": {"
+                + "\"type\": \"http\", \"run_before\": true, \"timeout\": 30, \"on_timeout_or_fail\": \"fail\", \"endpoint\": \"http://127.0.0.1/\","
+                + "\"response\": \"\", \"cache_ttl\": 0}}}}")), "Expected exception to be thrown");
+            assertTrue(exception.getMessage().contains("must be positive numbers"), "Expected cache config error, got: " + exception.getMessage());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Test verdicts cached in memory and in the verdict cache directory
+    @Test
+    void testVerdictCache() throws Exception {
+        Path cacheDir = Files.createTempDirectory("verdictCacheTest");
+        String configTemplate = "{\"General\": {\"Checksums\": [\"SHA-256\"], \"Verdict_cache\": {\"max_entries\": 100, \"ttl\": 60, \"directory\": \""
+            + cacheDir.toString().replace("\\", "\\\\") + "\"}}, \"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\", \"max_size\": \"%s\"}}}}";
+        byte[] fileInBytes = generatePdfBytes(250000);
+        FileValidator validator = new FileValidator(new JSONObject(String.format(configTemplate, "4000")));
+        ValidationResponse firstResponse = validator.validateFile("Documents", fileInBytes, "first.pdf");
+        ValidationResponse cachedResponse = validator.validateFile("Documents", fileInBytes, "second.pdf");
+        assertTrue(firstResponse.isValid() && cachedResponse.isValid(), "Expected validation responses to be valid, got: " + cachedResponse.resultsDetails());
+        assertEquals("second.pdf", cachedResponse.getCleanFileName(), "Expected the file name of the request");
+        assertEquals(firstResponse.getFileChecksums(), cachedResponse.getFileChecksums(), "Expected the cached checksums");
+        assertEquals(1L, validator.getVerdictCacheStats().get("hits"), "Expected the second validation to hit the cache");
+        assertEquals(1L, validator.getVerdictCacheStats().get("misses"), "Expected the first validation to miss the cache");
+
+        ValidationResponse invalidResponse = validator.validateFile("Documents", "not a pdf".getBytes(), "test.pdf");
+        assertFalse(validator.validateFile("Documents", "not a pdf".getBytes(), "test.pdf").isValid(), "Expected the cached verdict to stay invalid");
+        assertEquals(invalidResponse.resultsDetails(), validator.validateFile("Documents", "not a pdf".getBytes(), "test.pdf").resultsDetails(), "Expected the cached details");
+        assertEquals(Long.valueOf(3), validator.getManagementBean().getCheckRejections().get("header_signatures"), "Expected the cached verdicts rejections");
+
+        FileValidator restartedValidator = new FileValidator(new JSONObject(String.format(configTemplate, "4000")));
+        assertTrue(restartedValidator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected the persisted verdict to be valid");
+        assertEquals(1L, restartedValidator.getVerdictCacheStats().get("hits"), "Expected the verdict to be read from the cache directory");
+        assertFalse(restartedValidator.validateFile("Documents", "not a pdf".getBytes(), "test.pdf").isValid(), "Expected the persisted verdict to be invalid");
+        assertEquals(2L, restartedValidator.getVerdictCacheStats().get("hits"), "Expected the invalid verdict to be read from the cache directory");
+        assertEquals(Long.valueOf(1), restartedValidator.getManagementBean().getCheckRejections().get("header_signatures"), "Expected the persisted verdict rejections");
+
+        FileValidator changedValidator = new FileValidator(new JSONObject(String.format(configTemplate, "5000")));
+        changedValidator.validateFile("Documents", fileInBytes, "test.pdf");
+        assertEquals(0L, changedValidator.getVerdictCacheStats().get("hits"), "Expected a changed configuration to miss the cache");
+        assertTrue(new FileValidator(new JSONObject(String.format(configTemplate, "4000"))).getVerdictCacheStats().get("entries") == 0, "Expected an empty memory cache");
+    }
+
+    // Test batch validations, in request order and as they complete
+    @Test
+    void testValidateBatch() throws Exception {
+        FileValidator validator = new FileValidator(new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {"
+            + "\"header_signatures\": \"25504446\", \"max_size\": \"4000\"}}}}"));
+        Path filePath = Files.createTempFile("batchTest", ".pdf");
+        Files.write(filePath, generatePdfBytes(250000));
+        List<ValidationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            requests.add(i % 5 == 0 ? new ValidationRequest("Documents", "not a pdf".getBytes(), "invalid" + i + ".pdf")
+                : i % 5 == 1 ? new ValidationRequest("Documents", filePath, "path" + i + ".pdf")
+                : new ValidationRequest("Documents", generatePdfBytes(250000), "valid" + i + ".pdf"));
+        }
+        requests.add(new ValidationRequest("Documents", generatePdfBytes(250000), "unknown.docx"));
+
+        List<ValidationResponse> responses = validator.validateBatch(requests);
+        assertEquals(requests.size(), responses.size(), "Expected a response per request");
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i % 5 != 0, responses.get(i).isValid(), "Unexpected validation result for request " + i + ": " + responses.get(i).resultsDetails());
+            assertEquals(requests.get(i).getFileName(), responses.get(i).getCleanFileName(), "Expected responses in request order");
+        }
+        assertFalse(responses.get(50).isValid(), "Expected an invalid response for an unknown extension");
+        assertTrue(responses.get(50).resultsDetails().contains("extension docx not found"), "Expected the input error, got: " + responses.get(50).resultsDetails());
+
+        Map<String, Boolean> streamed = new ConcurrentHashMap<>();
+        validator.validateBatch(requests.stream(), (request, response) -> streamed.put(request.getFileName(), response.isValid()));
+        assertEquals(requests.size(), streamed.size(), "Expected every streamed request to be handled");
+        assertTrue(streamed.get("valid2.pdf") && !streamed.get("invalid0.pdf"), "Expected the results of streamed requests");
+    }
+
+    // Test asynchronous validations and the Async_executor modes
+    @Test
+    void testValidateFileAsync() throws Exception {
+        String configTemplate = "{\"General\": {\"Async_executor\": \"%s\"}, \"Validations\": {\"Documents\": {\"pdf\": {"
+            + "\"header_signatures\": \"25504446\", \"max_size\": \"4000\"}}}}";
+        FileValidator validator = new FileValidator(new JSONObject(String.format(configTemplate, "auto")));
+        List<CompletableFuture<ValidationResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(validator.validateFileAsync("Documents", generatePdfBytes(250000), "test" + i + ".pdf"));
+        }
+        for (CompletableFuture<ValidationResponse> future : futures) {
+            assertTrue(future.get(30, TimeUnit.SECONDS).isValid(), "Expected validation response to be valid, got: " + future.get().resultsDetails());
+        }
+
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> validator.validateFileAsync("Documents", new byte[0], "test.pdf").get(), "Expected exception to be thrown");
+        assertTrue(exception.getCause() instanceof IllegalArgumentException, "Expected invalid inputs to fail the future, got: " + exception.getCause());
+
+        AtomicInteger executions = new AtomicInteger();
+        ValidationResponse response = validator.validateFileAsync(new ValidationRequest("Documents", generatePdfBytes(250000), "test.pdf"),
+            runnable -> { executions.incrementAndGet(); runnable.run(); }).get();
+        assertTrue(response.isValid() && executions.get() == 1, "Expected the validation to run on the given executor");
+
+        assertTrue(new FileValidator(new JSONObject(String.format(configTemplate, "platform")))
+            .validateFileAsync("Documents", generatePdfBytes(250000), "test.pdf").get().isValid(), "Expected platform validation response to be valid");
+        if (AsyncExecutors.isVirtualThreadsSupported()) {
+            assertTrue(new FileValidator(new JSONObject(String.format(configTemplate, "virtual")))
+                .validateFileAsync("Documents", generatePdfBytes(250000), "test.pdf").get().isValid(), "Expected virtual thread validation response to be valid");
+        } else {
+            assertThrows(IllegalArgumentException.class, () -> new FileValidator(new JSONObject(String.format(configTemplate, "virtual"))),
+                "Expected virtual threads to be rejected");
+        }
+        assertThrows(IllegalArgumentException.class, () -> new FileValidator(new JSONObject(String.format(configTemplate, "reactive"))),
+            "Expected an unknown Async_executor to be rejected");
+    }
+
+    // Test incremental validation sessions fed in parts
+    @Test
+    void testValidationSession() throws Exception {
+        FileValidator validator = new FileValidator(new JSONObject("{\"General\": {\"Checksums\": [\"SHA-256\", \"CRC32C\"]},"
+            + "\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\", \"footer_signatures\": \"2525454f46\", \"max_size\": \"4000\"}}}}"));
+        byte[] fileInBytes = generatePdfBytes(250000);
+        ValidationResponse expected = validator.validateFile("Documents", fileInBytes, "test.pdf");
+        assertTrue(expected.isValid(), "Expected validation response to be valid, got: " + expected.resultsDetails());
+
+        Path outDir = Files.createTempDirectory("sessionTest");
+        ValidationResponse sessionResponse;
+        try (ValidationSession session = validator.openSession("Documents", "test.pdf", outDir, null)) {
+            int partSize = 1000;
+            for (int offset = 0; offset < fileInBytes.length; offset += partSize) {
+                assertTrue(session.append(fileInBytes, offset, Math.min(partSize, fileInBytes.length - offset)), "Expected parts to be accepted");
+            }
+            sessionResponse = session.finish();
+        }
+        assertTrue(sessionResponse.isValid(), "Expected session validation response to be valid, got: " + sessionResponse.resultsDetails());
+        assertEquals(expected.getFileChecksums(), sessionResponse.getFileChecksums(), "Expected checksums updated with every part");
+        assertTrue(Arrays.equals(fileInBytes, Files.readAllBytes(outDir.resolve("test.pdf"))), "Expected the parts to be saved to the output directory");
+
+        try (ValidationSession session = validator.openSession("Documents", "test.pdf")) {
+            assertFalse(session.append("<html>".getBytes()), "Expected the header mismatch to reject the first part");
+            assertFalse(session.append(fileInBytes), "Expected further parts to be ignored");
+            assertTrue(session.isRejected(), "Expected the session to be rejected");
+            ValidationResponse rejectedResponse = session.finish();
+            assertFalse(rejectedResponse.isValid(), "Expected validation response to be invalid");
+            assertTrue(rejectedResponse.resultsDetails().contains("header_signatures"), "Expected the header failure, got: " + rejectedResponse.resultsDetails());
+            assertThrows(IllegalStateException.class, () -> session.append(fileInBytes), "Expected finished sessions to reject parts");
+        }
+
+        try (ValidationSession session = validator.openSession("Documents", "test.pdf")) {
+            boolean accepted = true;
+            for (int i = 0; i < 100 && accepted; i++) {
+                accepted = session.append(new byte[100000]);
+            }
+            assertFalse(accepted, "Expected the size limit to reject the upload before its end");
+            assertTrue(session.getSize() <= 4100000, "Expected the upload to be rejected once the limit was crossed, got: " + session.getSize());
+            assertFalse(session.finish().isValid(), "Expected validation response to be invalid");
+        }
+    }
+
+    // Test typed check results and plugin outcomes returned along the rendered details
+    @Test
+    void testValidationReport() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] response = (exchange.getRequestURI().getPath().equals("/clean") ? "Clean" : "Infected").getBytes();
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+            String stepTemplate = "\"%s.step\": {\"type\": \"http\", \"run_after\": true, \"timeout\": 30, \"on_timeout_or_fail\": \"%s\","
+                + "\"endpoint\": \"" + baseUrl + "/%s\", \"response\": \"Clean\"}";
+            FileValidator validator = new FileValidator(new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\","
+                + "\"max_size\": \"4000\", \"extension_plugins\": [\"report_plugin.clean\", \"report_plugin.scan\"]}}}, \"Plugins\": {\"report_plugin\": {"
+                + String.format(stepTemplate, "clean", "fail", "clean") + "," + String.format(stepTemplate, "scan", "pass", "scan") + "}}}"));
+            byte[] fileInBytes = generatePdfBytes(250000);
+            ValidationResponse fileValidationResults = validator.validateFile("Documents", fileInBytes, "test.pdf");
+            assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+            List<CheckResult> checkResults = fileValidationResults.getCheckResults();
+            assertEquals(CheckCode.values().length, checkResults.size(), "Expected a result for every check");
+            for (int i = 0; i < checkResults.size(); i++) {
+                assertEquals(CheckCode.values()[i], checkResults.get(i).getCode(), "Expected the checks in order");
+                assertTrue(checkResults.get(i).isPassed(), "Expected the check to pass: " + checkResults.get(i));
+            }
+            assertEquals(fileInBytes.length, checkResults.get(0).getMeasuredValue(), "Expected the measured file size");
+            assertEquals(4000, checkResults.get(0).getLimit(), "Expected the configured max_size");
+            List<PluginOutcome> pluginOutcomes = fileValidationResults.getPluginOutcomes();
+            assertEquals(2, pluginOutcomes.size(), "Expected an outcome for every step");
+            assertEquals(PluginOutcome.Status.SUCCESS, pluginOutcomes.get(0).getStatus(), "Expected the clean step to succeed");
+            assertEquals(PluginOutcome.Status.ERROR, pluginOutcomes.get(1).getStatus(), "Expected the scan step error to be passed");
+            assertTrue(fileValidationResults.resultsDetails().contains("Error for step: report_plugin.scan"),
+                "Expected the step error in the details, got: " + fileValidationResults.resultsDetails());
+
+            fileValidationResults = validator.validateFile("Documents", "not a pdf".getBytes(), "test.pdf");
+            assertFalse(fileValidationResults.isValid(), "Expected validation response to be invalid");
+            CheckResult headerResult = fileValidationResults.getCheckResults().get(CheckCode.HEADER_SIGNATURES.ordinal());
+            assertFalse(headerResult.isPassed(), "Expected the header_signatures check to fail");
+            assertEquals("25504446", headerResult.getExpected(), "Expected the configured header_signatures");
+            assertTrue(fileValidationResults.getPluginOutcomes().isEmpty(), "Expected no plugin to run on an invalid file");
+            assertTrue(fileValidationResults.resultsDetails().contains("Invalid header_signatures"),
+                "Expected 'Invalid header_signatures', got: " + fileValidationResults.resultsDetails());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // Test stage metrics recorded in memory and by a custom sink
+    @Test
+    void testMetrics() throws Exception {
+        FileValidator validator = new FileValidator(new JSONObject("{\"General\": {\"Metrics\": true}, \"Validations\": {\"Documents\": {\"pdf\": {"
+            + "\"header_signatures\": \"25504446\", \"max_size\": \"4000\", \"add_checksum\": true}}}}"));
+        InMemoryMetrics metrics = (InMemoryMetrics) validator.getMetricsSink();
+        byte[] fileInBytes = generatePdfBytes(250000);
+        assertTrue(validator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected validation response to be valid");
+        assertFalse(validator.validateFile("Documents", "not a pdf".getBytes(), "test.pdf").isValid(), "Expected validation response to be invalid");
+        assertThrows(IllegalArgumentException.class, () -> validator.validateFile("Images", fileInBytes, "test.pdf"), "Expected exception to be thrown");
+
+        Map<ValidationStage, InMemoryMetrics.StageStats> stats = new HashMap<>();
+        for (InMemoryMetrics.StageStats stageStats : metrics.getStats()) {
+            if (stageStats.getCategory().equals("Documents")) {
+                stats.put(stageStats.getStage(), stageStats);
+            }
+        }
+        assertEquals(1, stats.get(ValidationStage.TOTAL).getCount(MetricsSink.Outcome.PASS), "Expected a valid file");
+        assertEquals(1, stats.get(ValidationStage.TOTAL).getCount(MetricsSink.Outcome.FAIL), "Expected an invalid file");
+        assertEquals(fileInBytes.length + "not a pdf".length(), stats.get(ValidationStage.TOTAL).getBytes(), "Expected the bytes of both files");
+        assertEquals(1, stats.get(ValidationStage.HEADER_SIGNATURES).getCount(MetricsSink.Outcome.FAIL), "Expected a failed header check");
+        assertEquals(1, stats.get(ValidationStage.CHECKSUMS).getCount(), "Expected the checksums of the valid file only");
+        long p99 = stats.get(ValidationStage.TOTAL).getPercentileNanos(99);
+        assertTrue(p99 > 0 && p99 <= stats.get(ValidationStage.TOTAL).getMaxNanos(), "Expected the p99 within the maximum, got: " + p99);
+        String scraped = metrics.scrape();
+        assertTrue(scraped.contains("filechampion_stage_total{category=\"Documents\",extension=\"pdf\",stage=\"total\",outcome=\"pass\"} 1"),
+            "Expected the scraped counter, got: " + scraped);
+        assertTrue(scraped.contains("filechampion_stage_total{category=\"unknown\",extension=\"unknown\",stage=\"total\",outcome=\"error\"} 1"),
+            "Expected the invalid request, got: " + scraped);
+        assertTrue(scraped.contains("filechampion_stage_duration_seconds_count{category=\"Documents\",extension=\"pdf\",stage=\"total\"} 2"),
+            "Expected the histogram count, got: " + scraped);
+
+        List<ValidationStage> recordedStages = Collections.synchronizedList(new ArrayList<>());
+        FileValidator sinkValidator = new FileValidator(new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\"}}}}"),
+            (category, extension, stage, outcome, nanos, bytes) -> recordedStages.add(stage));
+        assertTrue(sinkValidator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected validation response to be valid");
+        assertEquals(ValidationStage.TOTAL, recordedStages.get(recordedStages.size() - 1), "Expected the whole validation recorded last");
+        assertTrue(recordedStages.containsAll(Arrays.asList(ValidationStage.FILE_SIZE, ValidationStage.MIME_TYPE, ValidationStage.MAGIC_BYTES,
+            ValidationStage.HEADER_SIGNATURES, ValidationStage.FOOTER_SIGNATURES)), "Expected every check recorded, got: " + recordedStages);
+        assertEquals(null, new FileValidator(new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {\"max_size\": \"4000\"}}}}")).getMetricsSink(), "Expected no metrics by default");
+    }
+
+    // Test Flight Recorder events emitted for the validation, its stages and its plugin steps
+    @Test
+    void testFlightRecorderEvents() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] response = "Clean".getBytes();
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        Path recordingPath = Files.createTempFile("filechampion", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("dev.filechampion.Validation");
+            recording.enable("dev.filechampion.ValidationStage");
+            recording.enable("dev.filechampion.PluginStep");
+            FileValidator validator = new FileValidator(new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\","
+                + "\"max_size\": \"4000\", \"add_checksum\": true, \"extension_plugins\": [\"jfr_plugin.scan\"]}}}, \"Plugins\": {\"jfr_plugin\": {"
+                + "\"scan.step\": {\"type\": \"http\", \"run_after\": true, \"timeout\": 30, \"on_timeout_or_fail\": \"fail\","
+                + "\"endpoint\": \"http://127.0.0.1:" + server.getAddress().getPort() + "/scan\", \"response\": \"Clean\"}}}}"));
+            byte[] fileInBytes = generatePdfBytes(250000);
+            recording.start();
+            assertTrue(validator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected validation response to be valid");
+            recording.stop();
+            recording.dump(recordingPath);
+
+            Map<String, RecordedEvent> stageEvents = new HashMap<>();
+            List<RecordedEvent> validationEvents = new ArrayList<>();
+            List<RecordedEvent> pluginStepEvents = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(recordingPath)) {
+                String eventName = event.getEventType().getName();
+                if (eventName.equals("dev.filechampion.Validation")) {
+                    validationEvents.add(event);
+                } else if (eventName.equals("dev.filechampion.ValidationStage")) {
+                    stageEvents.put(event.getString("stage"), event);
+                } else if (eventName.equals("dev.filechampion.PluginStep")) {
+                    pluginStepEvents.add(event);
+                }
+            }
+            assertEquals(1, validationEvents.size(), "Expected an event for the validation");
+            assertEquals("Documents", validationEvents.get(0).getString("category"), "Expected the category of the file");
+            assertEquals("pdf", validationEvents.get(0).getString("extension"), "Expected the extension of the file");
+            assertEquals("PASS", validationEvents.get(0).getString("outcome"), "Expected the outcome of the validation");
+            assertEquals(fileInBytes.length, validationEvents.get(0).getLong("bytes"), "Expected the bytes of the file");
+            assertTrue(validationEvents.get(0).getLong("elapsed") > 0, "Expected the duration of the validation");
+            assertTrue(stageEvents.keySet().containsAll(Arrays.asList("FILE_SIZE", "MIME_TYPE", "MAGIC_BYTES", "HEADER_SIGNATURES",
+                "FOOTER_SIGNATURES", "AFTER_PLUGINS", "CHECKSUMS")), "Expected an event for every stage, got: " + stageEvents.keySet());
+            assertEquals(1, pluginStepEvents.size(), "Expected an event for the plugin step");
+            assertEquals("jfr_plugin.scan", pluginStepEvents.get(0).getString("step"), "Expected the name of the step");
+            assertEquals("http", pluginStepEvents.get(0).getString("type"), "Expected the type of the step");
+            assertEquals("PASS", pluginStepEvents.get(0).getString("outcome"), "Expected the outcome of the step");
+        } finally {
+            server.stop(0);
+            Files.deleteIfExists(recordingPath);
+        }
+    }
+
+    // Test live statistics and tunables of the management bean registered with Jmx_name
+    @Test
+    void testManagementBean() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/slow")) {
+                try {
+                    Thread.sleep(1500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] response = "Clean".getBytes();
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        String stepTemplate = "\"%s.step\": {\"type\": \"http\", \"run_after\": true, \"timeout\": 1, \"on_timeout_or_fail\": \"fail\","
+            + "\"max_concurrency\": 2, \"endpoint\": \"http://127.0.0.1:" + server.getAddress().getPort() + "/%s\", \"response\": \"Clean\"}";
+        FileValidator validator = new FileValidator(new JSONObject("{\"General\": {\"Jmx_name\": \"management-test\"}, \"Validations\": {"
+            + "\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\", \"max_size\": \"4000\", \"extension_plugins\": [\"mbean_plugin.scan\"]}},"
+            + "\"Archives\": {\"pdf\": {\"max_size\": \"4000\", \"extension_plugins\": [\"mbean_plugin.slow\"]}}},"
+            + "\"Plugins\": {\"mbean_plugin\": {" + String.format(stepTemplate, "scan", "scan") + "," + String.format(stepTemplate, "slow", "slow") + "}}}"));
+        int fanOutMinSize = FileValidator.getChecksumsManagementBean().getFanOutMinSize();
+        try {
+            FileValidatorMXBean bean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName("dev.filechampion.filechampion4j:type=FileValidator,name=management-test"), FileValidatorMXBean.class);
+            byte[] fileInBytes = generatePdfBytes(250000);
+            assertTrue(validator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected validation response to be valid");
+            assertTrue(validator.validateStream("Documents", new ByteArrayInputStream(fileInBytes), "test.pdf").isValid(), "Expected validation response to be valid");
+            assertFalse(validator.validateFile("Documents", "not a pdf".getBytes(), "test.pdf").isValid(), "Expected validation response to be invalid");
+            assertFalse(validator.validateFile("Archives", fileInBytes, "test.pdf").isValid(), "Expected the slow step to time out");
+            assertThrows(IllegalArgumentException.class, () -> validator.validateFile("Images", fileInBytes, "test.pdf"), "Expected exception to be thrown");
+
+            assertEquals(0, bean.getInFlightValidations(), "Expected no validation in flight");
+            assertEquals(2, bean.getValidFiles(), "Expected the valid files");
+            assertEquals(2, bean.getInvalidFiles(), "Expected the invalid files");
+            assertEquals(1, bean.getValidationErrors(), "Expected the invalid request");
+            assertEquals(Long.valueOf(1), bean.getCheckRejections().get("header_signatures"), "Expected the header rejection");
+            assertEquals(0.2, bean.getCheckRejectionRates().get("header_signatures"), 1e-9, "Expected the header rejection rate");
+            assertEquals(1, bean.getPluginTimeouts(), "Expected the slow step timeout");
+            assertEquals(0, bean.getActiveSpoolFiles(), "Expected the spooled stream to be deleted");
+            assertTrue(bean.getTempFilesCreated() >= 1, "Expected the spooled stream to be counted");
+            assertTrue(bean.getValidationsPerSecond() > 0, "Expected the throughput");
+
+            assertEquals(Integer.valueOf(2), bean.getPluginMaxConcurrency().get("mbean_plugin.scan"), "Expected the configured limit");
+            bean.setPluginMaxConcurrency("mbean_plugin.scan", 4);
+            assertEquals(Integer.valueOf(4), bean.getPluginMaxConcurrency().get("mbean_plugin.scan"), "Expected the changed limit");
+            assertTrue(validator.validateFile("Documents", fileInBytes, "test.pdf").isValid(), "Expected validation response to be valid");
+            ChecksumsMXBean checksumsBean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName("dev.filechampion.filechampion4j:type=Checksums"), ChecksumsMXBean.class);
+            checksumsBean.setFanOutMinSize(4096);
+            assertEquals(4096, FileValidator.getChecksumsManagementBean().getFanOutMinSize(), "Expected the changed fan out size");
+            assertThrows(IllegalArgumentException.class, () -> FileValidator.getChecksumsManagementBean().setFanOutMinSize(0), "Expected exception for a size not positive");
+            assertThrows(IllegalArgumentException.class, () -> validator.getManagementBean().setPluginMaxConcurrency("mbean_plugin.missing", 1),
+                "Expected exception for an unknown step");
+            assertThrows(IllegalArgumentException.class, () -> new FileValidator(new JSONObject("{\"General\": {\"Jmx_name\": \"management-test\"},"
+                + "\"Validations\": {\"Documents\": {\"pdf\": {\"max_size\": \"4000\"}}}}")), "Expected exception for a registered name");
+        } finally {
+            FileValidator.getChecksumsManagementBean().setFanOutMinSize(fanOutMinSize);
+            validator.unregisterMBean();
+            server.stop(0);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(
+            new ObjectName("dev.filechampion.filechampion4j:type=FileValidator,name=management-test")), "Expected the bean to be unregistered");
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(
+            new ObjectName("dev.filechampion.filechampion4j:type=Checksums")), "Expected the shared checksums bean to stay registered");
+    }
+
+    // Test fast checksums returned along the cryptographic ones, in memory and streamed
+    @Test
+    void testFastChecksums() throws Exception {
+        byte[] fileInBytes = generatePdfBytes(250000);
+        FileValidator validator = new FileValidator(new JSONObject("{\"General\": {\"Checksums\": [\"SHA-256\", \"CRC32C\", \"XXHASH64\"]},"
+            + "\"Validations\": {\"Documents\": {\"pdf\": {\"header_signatures\": \"25504446\", \"max_size\": \"4000\"}}}}"));
+        ValidationResponse fileValidationResults = validator.validateFile("Documents", fileInBytes, "test.pdf");
+        ValidationResponse streamValidationResults = validator.validateStream("Documents", new ByteArrayInputStream(fileInBytes), "test.pdf");
+        assertTrue(fileValidationResults.isValid() && streamValidationResults.isValid(), "Expected validation responses to be valid");
+        assertEquals(calculateChecksum(fileInBytes), fileValidationResults.getFileChecksums().get("SHA-256"), "Expected checksums to match");
+        for (String algorithm : new String[] {"CRC32C", "XXHASH64"}) {
+            String expected = new BigInteger(1, CalculateChecksum.newDigest(algorithm).digest(fileInBytes)).toString(16);
+            assertEquals(expected, fileValidationResults.getFileChecksums().get(algorithm), "Expected " + algorithm + " checksum");
+            assertEquals(expected, streamValidationResults.getFileChecksums().get(algorithm), "Expected streamed " + algorithm + " checksum");
+        }
+    }
+
     // Helper methods
 
     // Generate a pdf file with a given size in bytes
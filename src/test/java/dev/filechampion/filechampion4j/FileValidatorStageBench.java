@@ -0,0 +1,290 @@
+package dev.filechampion.filechampion4j;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.sun.net.httpserver.HttpServer;
+
+
+/**
+ * Per stage benchmarks of the validation: signature matching, MIME detection, magic bytes search, each checksum algorithm,
+ * plugin dispatch, save and file ACL change, and the whole validateFile, from 1 KB to 1 GB files.
+ * The suite runs with the GC profiler, so that the bytes allocated per operation are reported along the average time.
+ * The sizes can be narrowed with -Dbench.sizes=1024,1048576, as the 1 GB runs need a 4 GB heap and take several minutes.
+ */
+@Warmup(iterations = 3, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class FileValidatorStageBench {
+    private static final String benchOutputFile = "benchmarks/benchResults.txt";
+    // Held so that the level set on the package logger is not lost when the logger is collected
+    private static final Logger PACKAGE_LOGGER = Logger.getLogger(FileValidator.class.getPackage().getName());
+    private static final String ALLOC_RESULT = "gc.alloc.rate.norm";
+    private static final String SAVED_FILE_NAME = "bench.pdf";
+    private static final String SAVED_RESPONSE = "File is valid and was saved to output directory";
+    private static final String VALIDATIONS = "\"Validations\": {\"Documents\": {\"pdf\": {"
+        + "\"mime_type\": \"application/pdf\", \"magic_bytes\": \"25504446\", \"header_signatures\": \"25504446\","
+        + "\"footer_signatures\": \"2525454F46\", \"max_size\": \"2000000\"%s}}}";
+
+    @Param({"1024", "1048576", "67108864", "1073741824"})
+    public int sizeBytes;
+
+    private byte[] fileInBytes;
+    private FileValidator validator;
+    private FileValidator pluginValidator;
+    private SignatureTrie signatureTrie;
+    private MimeSniffer mimeSniffer;
+    private BytePatternSearch footerSearch;
+    private HttpServer pluginServer;
+
+    /**
+     * The checksum algorithm of the checksum benchmarks
+     */
+    @State(Scope.Benchmark)
+    public static class ChecksumState {
+        @Param({"MD5", "SHA-1", "SHA-256", "SHA-512", "SHA-256-TREE", "CRC32C", "XXHASH64"})
+        public String algorithm;
+
+        private List<String> algorithms;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            algorithms = Collections.singletonList(algorithm);
+        }
+    }
+
+    /**
+     * A validator saving the files it validates, with or without changing their owner and permissions
+     */
+    @State(Scope.Benchmark)
+    public static class SaveState {
+        @Param({"false", "true"})
+        public boolean changeOwnership;
+
+        private FileValidator saveValidator;
+        private Path outputDir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            String ownership = changeOwnership
+                ? ", \"change_ownership\": true, \"change_ownership_user\": \"" + System.getProperty("user.name") + "\", \"change_ownership_mode\": \"r\""
+                : "";
+            saveValidator = new FileValidator(new JSONObject("{" + String.format(VALIDATIONS, ownership) + "}"));
+            outputDir = Files.createTempDirectory("filechampion-bench");
+        }
+
+        // Every invocation saves a new file, as a saved read-only file could not be overwritten by the next one
+        @TearDown(Level.Invocation)
+        public void deleteSavedFile() throws IOException {
+            Files.deleteIfExists(outputDir.resolve(SAVED_FILE_NAME));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteDirectory(outputDir);
+        }
+    }
+
+    @Test
+    public void fileValidatorStageBench() throws RunnerException {
+        ChainedOptionsBuilder opt = new OptionsBuilder()
+            .include(FileValidatorStageBench.class.getSimpleName())
+            .forks(1)
+            .shouldFailOnError(true)
+            .addProfiler(GCProfiler.class)
+            .output("benchmarks/results.txt")
+            .jvmArgs("-XX:+UseG1GC", "-Xmx4g");
+        String sizes = System.getProperty("bench.sizes");
+        if (sizes != null && !sizes.trim().isEmpty()) {
+            opt.param("sizeBytes", sizes.trim().split("\\s*,\\s*"));
+        }
+        Collection<RunResult> runResults = new Runner(opt.build()).run();
+        assertFalse(runResults.isEmpty(), "No benchmark results");
+
+        for (RunResult runResult : runResults) {
+            String benchName = runResult.getParams().getBenchmark();
+            StringBuilder label = new StringBuilder("Stage ").append(benchName.substring(benchName.lastIndexOf('.') + 1));
+            for (String key : runResult.getParams().getParamsKeys()) {
+                label.append(' ').append(key).append('=').append(runResult.getParams().getParam(key));
+            }
+            StringBuilder contentToAppend = new StringBuilder()
+                .append(label).append(" Average Time Bench, ").append(String.format("%.6f", runResult.getPrimaryResult().getScore()))
+                .append(" us").append(System.lineSeparator());
+            // The profiler results are named with a separator prefix, so they are matched on their suffix
+            for (Map.Entry<String, Result> secondaryResult : runResult.getSecondaryResults().entrySet()) {
+                if (secondaryResult.getKey().endsWith(ALLOC_RESULT)) {
+                    contentToAppend.append(label).append(" Allocation Bench, ").append(String.format("%.6f", secondaryResult.getValue().getScore()))
+                        .append(" B/op").append(System.lineSeparator());
+                }
+            }
+            try {
+                Files.write(
+                Paths.get(benchOutputFile),
+                contentToAppend.toString().getBytes(),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            System.out.print(contentToAppend);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void benchSetUp() throws IOException {
+        // The INFO lines of every validation would be measured along the stages
+        PACKAGE_LOGGER.setLevel(java.util.logging.Level.WARNING);
+        fileInBytes = generatePdfBytes(sizeBytes);
+        validator = new FileValidator(new JSONObject("{" + String.format(VALIDATIONS, "") + "}"));
+        Extensions extensions = new Extensions(new JSONObject("{" + String.format(VALIDATIONS, "") + "}").getJSONObject("Validations"));
+        signatureTrie = extensions.getSignatureTrie();
+        mimeSniffer = new MimeSniffer();
+        footerSearch = BytePatternSearch.compile(Collections.singletonList("%%EOF".getBytes(StandardCharsets.US_ASCII)));
+
+        pluginServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        pluginServer.createContext("/", exchange -> {
+            byte[] buffer = new byte[64 * 1024];
+            while (exchange.getRequestBody().read(buffer) != -1) {
+                // Drain the uploaded file
+            }
+            byte[] response = "Clean".getBytes();
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        pluginServer.start();
+        pluginValidator = new FileValidator(new JSONObject("{\"Validations\": {\"Documents\": {\"pdf\": {\"max_size\": \"2000000\","
+            + "\"extension_plugins\": [\"bench_plugin.scan\"]}}}, \"Plugins\": {\"bench_plugin\": {\"scan.step\": {\"type\": \"http\","
+            + "\"run_after\": true, \"timeout\": 300, \"on_timeout_or_fail\": \"fail\", \"endpoint\": \"http://127.0.0.1:"
+            + pluginServer.getAddress().getPort() + "/scan\", \"response\": \"Clean\"}}}}"));
+    }
+
+    @TearDown(Level.Trial)
+    public void benchTearDown() {
+        pluginServer.stop(0);
+    }
+
+    // Benchmark matching the first bytes of the file against the header_signatures trie
+    @Benchmark
+    public List<ExtensionRules> benchSignatureMatch() {
+        return signatureTrie.match(fileInBytes, Math.min(fileInBytes.length, signatureTrie.getMaxDepth()));
+    }
+
+    // Benchmark detecting the MIME type of a file received without one
+    @Benchmark
+    public String benchMimeDetection() {
+        return mimeSniffer.detect(fileInBytes, Math.min(fileInBytes.length, mimeSniffer.getProbeSize()), "pdf");
+    }
+
+    // Benchmark searching the whole file for a pattern found at its end, as the magic bytes search does
+    @Benchmark
+    public boolean benchMagicBytesSearch() {
+        return footerSearch.find(fileInBytes, 0, fileInBytes.length);
+    }
+
+    // Benchmark calculating the checksum of the file with each algorithm
+    @Benchmark
+    public Map<String, byte[]> benchChecksum(ChecksumState checksumState) throws Exception {
+        return CalculateChecksum.getChecksums(fileInBytes, checksumState.algorithms);
+    }
+
+    // Benchmark calculating the checksum of the file with each algorithm from concurrent validations
+    @Benchmark
+    @Threads(4)
+    public Map<String, byte[]> benchChecksumThreaded(ChecksumState checksumState) throws Exception {
+        return CalculateChecksum.getChecksums(fileInBytes, checksumState.algorithms);
+    }
+
+    // Benchmark dispatching the file to an http plugin step answering at once
+    @Benchmark
+    public ValidationResponse benchPluginDispatch() {
+        return pluginValidator.validateFile("Documents", fileInBytes, "bench.pdf");
+    }
+
+    // Benchmark saving the file to the output directory, with or without changing its owner and permissions
+    @Benchmark
+    public ValidationResponse benchSave(SaveState saveState) {
+        ValidationResponse response = saveState.saveValidator.validateFile("Documents", fileInBytes, SAVED_FILE_NAME, saveState.outputDir);
+        if (!SAVED_RESPONSE.equals(response.resultsInfo())) {
+            throw new IllegalStateException("Expected the file to be saved, got: " + response.resultsDetails());
+        }
+        return response;
+    }
+
+    // Benchmark the whole validation of the file, every check and the default checksum
+    @Benchmark
+    public ValidationResponse benchValidateFile() {
+        return validator.validateFile("Documents", fileInBytes, "bench.pdf");
+    }
+
+    // Benchmark the whole validation of the file from concurrent threads sharing the validator
+    @Benchmark
+    @Threads(4)
+    public ValidationResponse benchValidateFileThreaded() {
+        return validator.validateFile("Documents", fileInBytes, "bench.pdf");
+    }
+
+    // Generate the bytes of a pdf file with a given size, a pdf header and footer around random content
+    private static byte[] generatePdfBytes(int sizeInBytes) {
+        byte[] header = "%PDF-1.7\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] footer = "\n%%EOF\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] content = new byte[Math.max(sizeInBytes, header.length + footer.length)];
+        new Random(42).nextBytes(content);
+        // Random content never holds the footer before the end of the file
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '%') {
+                content[i] = ' ';
+            }
+        }
+        System.arraycopy(header, 0, content, 0, header.length);
+        System.arraycopy(footer, 0, content, content.length - footer.length, footer.length);
+        return content;
+    }
+
+    // Delete a directory and its content
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> walk = Files.walk(directory)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
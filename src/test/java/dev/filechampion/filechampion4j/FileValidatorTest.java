@@ -12,6 +12,7 @@ import com.itextpdf.text.PageSize;
 import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.pdf.PdfWriter;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -20,8 +21,11 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.logging.LogManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -205,6 +209,22 @@ public class FileValidatorTest {
         assertFalse(fileValidationResults.resultsDetails().contains("Error"), "Expected results to be free of errors, got: " + fileValidationResults.resultsDetails());
     }
 
+    // Test valid inputs including valid pdf file as a stream with plugins and storage
+    @Test
+    void testValidInputsStreamStore() throws Exception {
+        fileInBytes = generatePdfBytes(250000);
+        fileName = "test&test.pdf";
+        ValidationResponse fileValidationResults = validator.validateStream("Documents", new ByteArrayInputStream(fileInBytes), fileName, tempOutDirectory);
+        assertTrue(fileValidationResults.isValid(), "Expected validation response to be valid, got: " + fileValidationResults.resultsDetails());
+        assertFalse(fileValidationResults.resultsDetails().contains("Error"), "Expected results to be free of errors, got: " + fileValidationResults.resultsDetails());
+        List<Path> savedFiles;
+        try (Stream<Path> files = Files.list(tempOutDirectory)) {
+            savedFiles = files.collect(Collectors.toList());
+        }
+        assertEquals(1, savedFiles.size(), "Expected a single file in output directory");
+        assertEquals(calculateChecksum(Files.readAllBytes(savedFiles.get(0)), "SHA-256"), fileValidationResults.getFileChecksums().get("SHA-256"), "Expected checksum of the saved file");
+    }
+
     // Test valid inputs including large valid pdf file as bytes with storage
     @Test
     void testValidInputsLargeBytesStore() throws Exception {
@@ -400,8 +420,8 @@ public class FileValidatorTest {
         + "}\r\n"
         + "}");
         Throwable exception = assertThrows(IllegalArgumentException.class, () -> new FileValidator(testMimeConfig), "Expected exception to be thrown");
-        assertTrue(exception.getMessage().contains("The hash algorithm 'NON-EXISTING-ALGO'' is not one of: [MD5, SHA-1, SHA-256, SHA-512]."), 
-        "Expected exception to be 'The hash algorithm 'NON-EXISTING-ALGO'' is not one of: [MD5, SHA-1, SHA-256, SHA-512].', got: " + exception.getMessage());
+        assertTrue(exception.getMessage().contains("The hash algorithm 'NON-EXISTING-ALGO'' is not one of: [MD5, SHA-1, SHA-256, SHA-512, SHA-256-TREE, SHA-512-TREE, CRC32C, XXHASH64]."), 
+        "Expected exception to be 'The hash algorithm 'NON-EXISTING-ALGO'' is not one of: [MD5, SHA-1, SHA-256, SHA-512, SHA-256-TREE, SHA-512-TREE, CRC32C, XXHASH64].', got: " + exception.getMessage());
     }
 
     // Test valid inputs with invalid pdf file path with storage
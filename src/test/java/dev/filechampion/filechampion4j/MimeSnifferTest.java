@@ -0,0 +1,57 @@
+package dev.filechampion.filechampion4j;
+
+import org.json.JSONArray;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for MimeSniffer class.
+ */
+public class MimeSnifferTest {
+
+    /**
+     * Test detection with the built-in signatures.
+     */
+    @Test
+    public void testDefaultSignatures() {
+        MimeSniffer sniffer = new MimeSniffer();
+        assertEquals("application/pdf", detect(sniffer, bytes("%PDF-1.7"), "pdf"), "expected pdf mime type");
+        assertEquals("image/png", detect(sniffer, new byte[] {(byte) 0x89, 'P', 'N', 'G', 0x0d, 0x0a, 0x1a, 0x0a, 0}, "png"), "expected png mime type");
+        assertEquals("application/zip", detect(sniffer, bytes("PK\u0003\u0004data"), "zip"), "expected zip mime type");
+        assertEquals("application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            detect(sniffer, bytes("PK\u0003\u0004data"), "DOCX"), "expected docx mime type from the extension hint");
+        assertEquals("text/plain", detect(sniffer, bytes("plain text\r\n"), "txt"), "expected text mime type");
+        assertEquals("text/csv", detect(sniffer, bytes("a,b\n1,2\n"), "csv"), "expected csv mime type");
+        assertEquals("application/octet-stream", detect(sniffer, new byte[] {0x01, 0x02, 0x03}, "bin"), "expected binary mime type");
+        assertNull(sniffer.detect(new byte[0], 0, "pdf"), "expected no mime type for empty content");
+    }
+
+    /**
+     * Test configured signatures taking precedence over the built-in ones.
+     */
+    @Test
+    public void testCustomSignatures() {
+        MimeSniffer sniffer = new MimeSniffer(new JSONArray("[{\"mime_type\": \"application/x-custom\", \"signature\": \"25504446\", \"extensions\": [\"cst\"]},"
+            + "{\"mime_type\": \"application/x-offset\", \"signature\": \"4f4b\", \"offset\": 2}]"));
+        assertEquals("application/x-custom", detect(sniffer, bytes("%PDF-1.7"), "cst"), "expected custom mime type");
+        assertEquals("application/pdf", detect(sniffer, bytes("%PDF-1.7"), "pdf"), "expected built-in mime type for other extensions");
+        assertEquals("application/x-offset", detect(sniffer, bytes("xxOK"), "txt"), "expected custom mime type at offset");
+        assertThrows(IllegalArgumentException.class, () -> new MimeSniffer(new JSONArray("[{\"mime_type\": \"a/b\", \"signature\": \"zz\"}]")),
+            "expected IllegalArgumentException for invalid hex");
+        assertThrows(IllegalArgumentException.class, () -> new MimeSniffer(new JSONArray("[{\"signature\": \"2550\"}]")),
+            "expected IllegalArgumentException for missing mime_type");
+    }
+
+    private static String detect(MimeSniffer sniffer, byte[] content, String extension) {
+        return sniffer.detect(content, content.length, extension);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}